@@ -0,0 +1,88 @@
+package com.concurrent.async;
+
+import com.concurrent.timer.TimerWheelScheduler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CompletableFutureDemo.demonstrateHedgedRequests 的 JMH 版本：对一个有长尾的模拟下游发请求的延迟分布
+ *
+ * 每次操作发一个请求并等它结束。SampleTime 模式直接给出 p50 / p90 / p99 / p99.9，关注 p99：
+ * - direct: 直接调用
+ * - hedged: HedgedCaller，按第一次尝试延迟的 p95 对冲，最多 2 次尝试，对冲预算 10%
+ * 预热期间对冲延迟从 initialDelay（5ms）收敛到实际的 p95。
+ *
+ * 参数说明：
+ * - slowPercent: 碰上慢实例（20~40ms）的请求百分比，其余 1~2ms；超过 5 时慢请求已经在 p95 之内，
+ *   对冲延迟跟着变大，对冲的效果明显变差
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HedgingBenchmark {
+
+    @Param({"direct", "hedged"})
+    public String type;
+
+    @Param({"3"})
+    public int slowPercent;
+
+    private TimerWheelScheduler timer;
+    private HedgedCaller hedgedCaller;
+
+    @Setup
+    public void setup() {
+        timer = new TimerWheelScheduler(100, TimeUnit.MICROSECONDS);
+        switch (type) {
+            case "direct":
+                break;
+            case "hedged":
+                hedgedCaller = new HedgedCaller(timer, 5, TimeUnit.MILLISECONDS);
+                break;
+            default:
+                throw new IllegalArgumentException(type);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        timer.shutdownNow();
+    }
+
+    @Benchmark
+    public String request() {
+        CompletableFuture<String> response = hedgedCaller == null ? backend() : hedgedCaller.call(this::backend);
+        return response.join();
+    }
+
+    /**
+     * 模拟的异步下游：按延迟分布在定时器上安排响应，请求被取消时撤销响应
+     */
+    private CompletableFuture<String> backend() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long micros = random.nextInt(100) < slowPercent
+            ? random.nextLong(20_000, 40_000) : random.nextLong(1_000, 2_000);
+        CompletableFuture<String> response = new CompletableFuture<>();
+        ScheduledFuture<?> pending = timer.schedule(() -> response.complete("ok"), micros, TimeUnit.MICROSECONDS);
+        response.whenComplete((result, error) -> pending.cancel(false));
+        return response;
+    }
+}
@@ -0,0 +1,93 @@
+package com.concurrent.benchmarks;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 按线程数扫描运行 JMH 基准测试，输出扩展曲线
+ *
+ * JMH 的线程数（-t）不能作为 @Param，这里对每个线程数单独运行一轮，
+ * 最后把所有结果按 "基准方法 / 参数 / 线程数" 汇总打印。
+ *
+ * 用法：
+ * <pre>
+ * java -cp target/benchmarks.jar com.concurrent.benchmarks.ScalingRunner LongAdderBenchmark 1,2,4,8
+ * </pre>
+ * 线程数省略时默认为 1, 2, 4 ... 直到 CPU 核数。
+ */
+public class ScalingRunner {
+
+    public static void main(String[] args) throws RunnerException {
+        if (args.length < 1) {
+            System.out.println("用法: ScalingRunner <基准测试正则> [线程数列表，如 1,2,4,8]");
+            return;
+        }
+        String include = args[0];
+        int[] threadCounts = args.length > 1 ? parseThreads(args[1]) : defaultThreads();
+
+        List<String> rows = new ArrayList<>();
+        for (int threads : threadCounts) {
+            Options options = new OptionsBuilder()
+                .include(include)
+                .threads(threads)
+                .forks(1)
+                .warmupIterations(3)
+                .measurementIterations(5)
+                .build();
+            Collection<RunResult> results = new Runner(options).run();
+            for (RunResult result : results) {
+                rows.add(format(result, threads));
+            }
+        }
+
+        System.out.println("\n========== 扩展曲线汇总 ==========\n");
+        for (String row : rows) {
+            System.out.println(row);
+        }
+    }
+
+    private static String format(RunResult result, int threads) {
+        StringBuilder params = new StringBuilder();
+        for (String key : result.getParams().getParamsKeys()) {
+            params.append(key).append('=').append(result.getParams().getParam(key)).append(' ');
+        }
+        String label = result.getParams().getBenchmark();
+        label = label.substring(label.lastIndexOf('.', label.lastIndexOf('.') - 1) + 1);
+        return String.format("%-55s %-30s threads=%-3d %,15.1f %s",
+            label,
+            params.toString().trim(),
+            threads,
+            result.getPrimaryResult().getScore(),
+            result.getPrimaryResult().getScoreUnit());
+    }
+
+    private static int[] parseThreads(String arg) {
+        String[] parts = arg.split(",");
+        int[] threads = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            threads[i] = Integer.parseInt(parts[i].trim());
+        }
+        return threads;
+    }
+
+    static int[] defaultThreads() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        List<Integer> list = new ArrayList<>();
+        for (int t = 1; t < cores; t <<= 1) {
+            list.add(t);
+        }
+        list.add(cores);
+        int[] threads = new int[list.size()];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = list.get(i);
+        }
+        return threads;
+    }
+}
@@ -0,0 +1,99 @@
+package com.concurrent.executor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ExecutorsDemo.demonstrateWorkStealing 的 JMH 版本：小任务的吞吐量
+ *
+ * 每次操作执行 1024 个只做一次 countDown 的任务，结果单位 ops/ms（乘以 1024 即每毫秒的任务数）：
+ * - externalSubmit: 基准线程（-t 个）从外部逐个提交
+ * - fanOut: 提交一个任务，任务递归拆成两半，由工作线程自己提交子任务
+ * 对比：
+ * - fixed: newFixedThreadPool（共用一个 LinkedBlockingQueue）
+ * - workStealing: WorkStealingExecutor
+ * - forkJoin: new ForkJoinPool（JDK 的工作窃取实现，作为参照）
+ *
+ * 线程数都等于 CPU 核数。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorkStealingBenchmark {
+
+    private static final int TASKS = 1024;
+    private static final int DEPTH = 10;
+
+    @Param({"fixed", "workStealing", "forkJoin"})
+    public String type;
+
+    private ExecutorService executor;
+
+    @Setup
+    public void setup() {
+        int threads = Runtime.getRuntime().availableProcessors();
+        switch (type) {
+            case "fixed":
+                executor = Executors.newFixedThreadPool(threads);
+                break;
+            case "workStealing":
+                executor = new WorkStealingExecutor(threads);
+                break;
+            case "forkJoin":
+                executor = new ForkJoinPool(threads);
+                break;
+            default:
+                throw new IllegalArgumentException(type);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public void externalSubmit() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(TASKS);
+        for (int i = 0; i < TASKS; i++) {
+            executor.execute(done::countDown);
+        }
+        done.await();
+    }
+
+    @Benchmark
+    public void fanOut() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1 << DEPTH);
+        executor.execute(() -> split(DEPTH, done));
+        done.await();
+    }
+
+    private void split(int depth, CountDownLatch done) {
+        if (depth == 0) {
+            done.countDown();
+            return;
+        }
+        executor.execute(() -> split(depth - 1, done));
+        split(depth - 1, done);
+    }
+}
@@ -0,0 +1,94 @@
+package com.concurrent.limit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SemaphoreDemo.demonstrateRateLimiter 的 JMH 版本：每秒能做出多少次限流判断
+ *
+ * 每次操作调用一次 tryAcquire()，结果单位 ops/us，10 ops/us 即每秒 1000 万次判断。
+ * 多线程（-t 或 ScalingRunner）下对比：
+ * - tokenBucket: TokenBucketRateLimiter（一个 AtomicLong，令牌不够时只读不写）
+ * - slidingWindow: SlidingWindowRateLimiter（当前格是分段计数器）
+ * - synchronizedBucket: 常见写法，synchronized 保护 "令牌数 + 上次补充时间"
+ *
+ * 参数说明：
+ * - permitsPerSecond: 限制的速率；远小于判断次数时大部分请求被拒绝，接近时大部分被放行
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RateLimiterBenchmark {
+
+    @Param({"tokenBucket", "slidingWindow", "synchronizedBucket"})
+    public String type;
+
+    @Param({"1000", "10000000"})
+    public long permitsPerSecond;
+
+    private RateLimiter limiter;
+    private SynchronizedBucket synchronizedBucket;
+
+    @Setup
+    public void setup() {
+        switch (type) {
+            case "tokenBucket":
+                limiter = new TokenBucketRateLimiter(permitsPerSecond);
+                break;
+            case "slidingWindow":
+                limiter = new SlidingWindowRateLimiter(permitsPerSecond, 1, TimeUnit.SECONDS);
+                break;
+            case "synchronizedBucket":
+                synchronizedBucket = new SynchronizedBucket(permitsPerSecond);
+                break;
+            default:
+                throw new IllegalArgumentException(type);
+        }
+    }
+
+    @Benchmark
+    public boolean tryAcquire() {
+        return limiter != null ? limiter.tryAcquire() : synchronizedBucket.tryAcquire();
+    }
+
+    /**
+     * 加锁的令牌桶：每次判断先按流逝的时间补充令牌
+     */
+    private static final class SynchronizedBucket {
+        private final double permitsPerNano;
+        private final double capacity;
+        private double tokens;
+        private long lastRefill = System.nanoTime();
+
+        SynchronizedBucket(long permitsPerSecond) {
+            this.permitsPerNano = permitsPerSecond / 1e9;
+            this.capacity = permitsPerSecond;
+            this.tokens = capacity;
+        }
+
+        synchronized boolean tryAcquire() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * permitsPerNano);
+            lastRefill = now;
+            if (tokens < 1.0) {
+                return false;
+            }
+            tokens -= 1.0;
+            return true;
+        }
+    }
+}
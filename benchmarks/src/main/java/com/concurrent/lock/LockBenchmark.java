@@ -0,0 +1,92 @@
+package com.concurrent.lock;
+
+import com.concurrent.week2.AQSDemoLocks;
+import com.concurrent.week8.CASDemoLocks;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 互斥锁对比：每次操作获取锁、在临界区内做一定量的计算并自增计数器、释放锁
+ *
+ * 参数说明：
+ * - lockType: 锁实现
+ *   - simpleSpin / simpleMutex: 所有线程竞争同一个 state（CASDemo.SimpleSpinLock / AQSDemo.SimpleMutex）
+ *   - mcs / clh: 队列锁，每个等待者在各自的节点上等待
+ * - criticalTokens: 临界区内的计算量，越大持有时间越长
+ * - thinkTokens: 两次加锁之间的本地计算量，越小竞争越激烈
+ *
+ * 扩展曲线（例如 1 到 64 线程）：
+ * <pre>
+ * java -cp target/benchmarks.jar com.concurrent.benchmarks.ScalingRunner LockBenchmark 1,2,4,8,16,32,64
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LockBenchmark {
+
+    @Param({"simpleSpin", "simpleMutex", "adaptiveSpin", "mcs", "clh", "reentrant"})
+    public String lockType;
+
+    @Param({"0", "100"})
+    public int criticalTokens;
+
+    @Param({"0", "100"})
+    public int thinkTokens;
+
+    private Lock lock;
+    private long counter;
+
+    @Setup
+    public void setup() {
+        lock = create(lockType);
+    }
+
+    static Lock create(String lockType) {
+        switch (lockType) {
+            case "simpleSpin":
+                return CASDemoLocks.simpleSpinLock();
+            case "simpleMutex":
+                return AQSDemoLocks.simpleMutex();
+            case "adaptiveSpin":
+                return new AdaptiveSpinLock();
+            case "mcs":
+                return new McsLock();
+            case "clh":
+                return new ClhLock();
+            case "reentrant":
+                return new ReentrantLock();
+            default:
+                throw new IllegalArgumentException(lockType);
+        }
+    }
+
+    @Benchmark
+    public long lockUnlock() {
+        Blackhole.consumeCPU(thinkTokens);
+        lock.lock();
+        try {
+            Blackhole.consumeCPU(criticalTokens);
+            return ++counter;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.concurrent.lockfree;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PooledLockFreeQueue vs ConcurrentLinkedQueue：每次操作 offer 一个元素再 poll 一个元素
+ *
+ * 建议加上 -prof gc 对比 gc.alloc.rate.norm（每次操作分配的字节数）。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PooledQueueBenchmark {
+
+    private static final Integer ITEM = 42;
+
+    @Param({"pooled", "concurrentLinked"})
+    public String type;
+
+    private PooledLockFreeQueue<Integer> pooledQueue;
+    private ConcurrentLinkedQueue<Integer> linkedQueue;
+    private boolean pooled;
+
+    @Setup
+    public void setup() {
+        pooledQueue = new PooledLockFreeQueue<>();
+        linkedQueue = new ConcurrentLinkedQueue<>();
+        for (int i = 0; i < 1000; i++) {
+            pooledQueue.offer(i);
+            linkedQueue.offer(i);
+        }
+        pooled = "pooled".equals(type);
+    }
+
+    @Benchmark
+    public Integer offerPoll() {
+        if (pooled) {
+            pooledQueue.offer(ITEM);
+            return pooledQueue.poll();
+        }
+        linkedQueue.offer(ITEM);
+        return linkedQueue.poll();
+    }
+}
@@ -0,0 +1,66 @@
+package com.concurrent.metrics;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 请求统计场景：每次请求递增 请求数 + 成功数
+ *
+ * 对比：
+ * - longAdders: LongAdderDemo.demonstrateStatistics 的写法，两个独立 LongAdder
+ * - groupedCounter: GroupedCounter 在同一段中更新两个字段
+ * - longCounters: 两个独立的 LongCounter
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CounterBenchmark {
+
+    @Param({"0", "32"})
+    public int thinkTokens;
+
+    private final LongAdder requestAdder = new LongAdder();
+    private final LongAdder successAdder = new LongAdder();
+
+    private final GroupedCounter grouped = new GroupedCounter("request", "success", "error");
+    private final int request = grouped.indexOf("request");
+    private final int success = grouped.indexOf("success");
+
+    private final LongCounter requestCounter = new LongCounter();
+    private final LongCounter successCounter = new LongCounter();
+
+    @Benchmark
+    public void longAdders() {
+        Blackhole.consumeCPU(thinkTokens);
+        requestAdder.increment();
+        successAdder.increment();
+    }
+
+    @Benchmark
+    public void groupedCounter() {
+        Blackhole.consumeCPU(thinkTokens);
+        grouped.increment(request, success);
+    }
+
+    @Benchmark
+    public void longCounters() {
+        Blackhole.consumeCPU(thinkTokens);
+        requestCounter.increment();
+        successCounter.increment();
+    }
+}
@@ -0,0 +1,108 @@
+package com.concurrent.parallel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ForkJoinPoolDemo.demonstrateMappedFile 的 JMH 版本：对一个 int 文件求和的耗时（文件已在页缓存中）
+ *
+ * 对比：
+ * - mapped: MappedIntArray + ParallelArrays.sum（fork-join 并行读映射）
+ * - heap: 先整体读入 int[] 之后的 ParallelArrays.sum（只计求和，作为内存带宽的参照；需要能放进堆）
+ * - channelRead: 单线程 FileChannel.read 到 1MB 的直接缓冲区再累加
+ *
+ * 参数说明：
+ * - size: int 的个数，文件大小为 4 × size 字节
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappedArrayBenchmark {
+
+    @Param({"33554432"})
+    public int size;
+
+    private Path file;
+    private MappedIntArray mapped;
+    private int[] heap;
+    private ByteBuffer readBuffer;
+
+    @Setup
+    public void setup() throws IOException {
+        SplittableRandom random = new SplittableRandom(42);
+        heap = random.ints(size).toArray();
+        file = Files.createTempFile("mapped-array-benchmark", ".bin");
+        ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            for (int value : heap) {
+                if (!buffer.hasRemaining()) {
+                    buffer.flip();
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                    buffer.clear();
+                }
+                buffer.putInt(value);
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        mapped = MappedIntArray.map(file);
+        readBuffer = ByteBuffer.allocateDirect(1 << 20);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public long mapped() {
+        return ParallelArrays.sum(mapped);
+    }
+
+    @Benchmark
+    public long heap() {
+        return ParallelArrays.sum(heap);
+    }
+
+    @Benchmark
+    public long channelRead() throws IOException {
+        long sum = 0L;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            readBuffer.clear();
+            while (channel.read(readBuffer) > 0) {
+                readBuffer.flip();
+                while (readBuffer.remaining() >= Integer.BYTES) {
+                    sum += readBuffer.getInt();
+                }
+                readBuffer.compact();
+            }
+        }
+        return sum;
+    }
+}
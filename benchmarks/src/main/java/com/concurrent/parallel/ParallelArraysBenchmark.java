@@ -0,0 +1,111 @@
+package com.concurrent.parallel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * ForkJoinPoolDemo.demonstrateParallelArrays 的 JMH 版本：单次调用的耗时
+ *
+ * 对比：
+ * - sum: ParallelArrays.sum 与 IntStream.parallel().asLongStream().sum()
+ * - prefix: ParallelArrays.prefix 与 Arrays.parallelPrefix（在同一个数组上反复扫描，溢出不影响耗时）
+ * - filter: ParallelArrays.filter 与 IntStream.parallel().filter().toArray()
+ * - histogram: ParallelArrays.histogram 与 IntStream.parallel() 的 collect
+ *
+ * 参数说明：
+ * - size: 数组长度；小于 2 × MIN_GRAIN（16384）时 ParallelArrays 直接顺序计算
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParallelArraysBenchmark {
+
+    private static final int RANGE = 1 << 20;
+
+    @Param({"10000", "1000000", "10000000"})
+    public int size;
+
+    private int[] array;
+    private int[] scratch;
+    /**
+     * 直方图的区间数和上界放在字段中，避免流版本的除法被常量折叠成移位
+     */
+    private int bins = 16;
+    private int max = RANGE;
+
+    @Setup
+    public void setup() {
+        array = new int[size];
+        for (int i = 0; i < size; i++) {
+            array[i] = ThreadLocalRandom.current().nextInt(RANGE);
+        }
+        scratch = array.clone();
+    }
+
+    @Benchmark
+    public long sumParallelArrays() {
+        return ParallelArrays.sum(array);
+    }
+
+    @Benchmark
+    public long sumStream() {
+        return IntStream.of(array).parallel().asLongStream().sum();
+    }
+
+    @Benchmark
+    public int[] prefixParallelArrays() {
+        ParallelArrays.prefix(scratch, Integer::sum);
+        return scratch;
+    }
+
+    @Benchmark
+    public int[] prefixArraysParallelPrefix() {
+        Arrays.parallelPrefix(scratch, Integer::sum);
+        return scratch;
+    }
+
+    @Benchmark
+    public int[] filterParallelArrays() {
+        return ParallelArrays.filter(array, v -> (v & 1) == 0);
+    }
+
+    @Benchmark
+    public int[] filterStream() {
+        return IntStream.of(array).parallel().filter(v -> (v & 1) == 0).toArray();
+    }
+
+    @Benchmark
+    public long[] histogramParallelArrays() {
+        return ParallelArrays.histogram(array, 0, max, bins);
+    }
+
+    @Benchmark
+    public long[] histogramStream() {
+        int bins = this.bins;
+        long range = max;
+        return IntStream.of(array).parallel().collect(() -> new long[bins],
+            (counts, v) -> counts[(int) ((long) v * bins / range)]++,
+            (left, right) -> {
+                for (int i = 0; i < bins; i++) {
+                    left[i] += right[i];
+                }
+            });
+    }
+}
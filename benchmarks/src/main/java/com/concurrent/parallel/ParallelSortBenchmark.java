@@ -0,0 +1,99 @@
+package com.concurrent.parallel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ForkJoinPoolDemo.demonstrateParallelSort 的 JMH 版本：排序一个随机数组的耗时
+ *
+ * 对比：
+ * - parallelSort: Arrays.parallelSort
+ * - parallelMergeSort: ParallelSort.sort
+ * 每次调用前把原始数据拷回工作数组（不计入耗时）。
+ *
+ * 参数说明：
+ * - element: int 或 long
+ * - size: 元素个数；更大的规模用 -p size=100000000,1000000000 指定，
+ *   需要约 3 倍数据量的堆（原始数据、工作数组、辅助数组），例如 10 亿个 int 用 -jvmArgs -Xmx16g
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ParallelSortBenchmark {
+
+    @Param({"parallelSort", "parallelMergeSort"})
+    public String type;
+
+    @Param({"int", "long"})
+    public String element;
+
+    @Param({"10000000"})
+    public int size;
+
+    private int[] intSource;
+    private int[] ints;
+    private long[] longSource;
+    private long[] longs;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(42);
+        switch (element) {
+            case "int":
+                intSource = random.ints(size).toArray();
+                ints = new int[size];
+                break;
+            case "long":
+                longSource = random.longs(size).toArray();
+                longs = new long[size];
+                break;
+            default:
+                throw new IllegalArgumentException(element);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void reset() {
+        if (ints != null) {
+            System.arraycopy(intSource, 0, ints, 0, size);
+        } else {
+            System.arraycopy(longSource, 0, longs, 0, size);
+        }
+    }
+
+    @Benchmark
+    public Object sort() {
+        boolean merge = "parallelMergeSort".equals(type);
+        if (ints != null) {
+            if (merge) {
+                ParallelSort.sort(ints);
+            } else {
+                Arrays.parallelSort(ints);
+            }
+            return ints;
+        }
+        if (merge) {
+            ParallelSort.sort(longs);
+        } else {
+            Arrays.parallelSort(longs);
+        }
+        return longs;
+    }
+}
@@ -0,0 +1,115 @@
+package com.concurrent.pool;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SemaphoreDemo.demonstrateObjectPool 的 JMH 版本：借出一个 4KB 缓冲区、写一个字节、归还
+ *
+ * SampleTime 模式，结果中的 p0.99 / p0.999 即借还一次的延迟分布。多线程（-t 或 ScalingRunner）下对比：
+ * - objectPool: ObjectPool（线程本地缓存 + 共享列表 + handoff）
+ * - semaphoreQueue: Semaphore 控制数量 + ConcurrentLinkedQueue 存放空闲对象（最常见的手写连接池）
+ * - blockingQueue: 预先填满的 ArrayBlockingQueue，take / put
+ *
+ * 参数说明：
+ * - poolSize: 池中最多的对象数，小于线程数时借出方需要等待归还
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ObjectPoolBenchmark {
+
+    private static final int BUFFER_SIZE = 4096;
+
+    @Param({"objectPool", "semaphoreQueue", "blockingQueue"})
+    public String type;
+
+    @Param({"4", "64"})
+    public int poolSize;
+
+    private ObjectPool<byte[]> objectPool;
+    private Semaphore permits;
+    private ConcurrentLinkedQueue<byte[]> idle;
+    private ArrayBlockingQueue<byte[]> blockingQueue;
+
+    @Setup
+    public void setup() throws InterruptedException {
+        switch (type) {
+            case "objectPool":
+                objectPool = new ObjectPool<>(() -> new byte[BUFFER_SIZE], poolSize);
+                break;
+            case "semaphoreQueue":
+                permits = new Semaphore(poolSize);
+                idle = new ConcurrentLinkedQueue<>();
+                break;
+            case "blockingQueue":
+                blockingQueue = new ArrayBlockingQueue<>(poolSize);
+                for (int i = 0; i < poolSize; i++) {
+                    blockingQueue.put(new byte[BUFFER_SIZE]);
+                }
+                break;
+            default:
+                throw new IllegalArgumentException(type);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (objectPool != null) {
+            objectPool.close();
+        }
+    }
+
+    @Benchmark
+    public byte borrowRelease() throws InterruptedException {
+        switch (type) {
+            case "objectPool": {
+                ObjectPool.PooledObject<byte[]> pooled = objectPool.borrow(1, TimeUnit.SECONDS);
+                if (pooled == null) {
+                    // 超时返回 null：池子被借空了 1 秒，说明配置有问题，不要当作正常的测量结果
+                    throw new IllegalStateException("borrow 超时: " + objectPool);
+                }
+                try {
+                    return ++pooled.get()[0];
+                } finally {
+                    pooled.close();
+                }
+            }
+            case "semaphoreQueue": {
+                permits.acquire();
+                byte[] buffer = idle.poll();
+                if (buffer == null) {
+                    buffer = new byte[BUFFER_SIZE];
+                }
+                byte value = ++buffer[0];
+                idle.offer(buffer);
+                permits.release();
+                return value;
+            }
+            default: {
+                byte[] buffer = blockingQueue.take();
+                byte value = ++buffer[0];
+                blockingQueue.put(buffer);
+                return value;
+            }
+        }
+    }
+}
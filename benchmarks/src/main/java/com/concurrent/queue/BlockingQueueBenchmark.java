@@ -0,0 +1,76 @@
+package com.concurrent.queue;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BlockingQueueDemo.demonstrateProducerConsumer 的 JMH 版本：3 生产者 / 2 消费者
+ *
+ * 使用非阻塞的 offer/poll，测的是队列本身的吞吐，而不是等待策略。
+ * 每组结果中 produce 与 consume 各自给出吞吐，组合吞吐看 group 行。
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BlockingQueueBenchmark {
+
+    private static final Integer ITEM = 42;
+
+    @Param({"mpmc", "array", "linked"})
+    public String type;
+
+    @Param({"1024"})
+    public int capacity;
+
+    private BlockingQueue<Integer> queue;
+
+    @Setup
+    public void setup() {
+        switch (type) {
+            case "mpmc":
+                queue = new MpmcArrayBlockingQueue<>(capacity, WaitStrategy.spin());
+                break;
+            case "array":
+                queue = new ArrayBlockingQueue<>(capacity);
+                break;
+            case "linked":
+                queue = new LinkedBlockingQueue<>(capacity);
+                break;
+            default:
+                throw new IllegalArgumentException(type);
+        }
+    }
+
+    @Benchmark
+    @Group("producerConsumer")
+    @GroupThreads(3)
+    public boolean produce() {
+        return queue.offer(ITEM);
+    }
+
+    @Benchmark
+    @Group("producerConsumer")
+    @GroupThreads(2)
+    public Integer consume() {
+        return queue.poll();
+    }
+}
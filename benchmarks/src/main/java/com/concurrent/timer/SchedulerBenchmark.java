@@ -0,0 +1,85 @@
+package com.concurrent.timer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ExecutorsDemo.demonstrateTimerWheelScheduler 的 JMH 版本：超时任务的安排与取消
+ *
+ * 每次操作安排一个超时任务，cancelPercent% 的概率在到期前取消它（模拟请求正常完成）。
+ * 多线程（-t 或 ScalingRunner）下对比：
+ * - jdk: ScheduledThreadPoolExecutor（setRemoveOnCancelPolicy(true)，否则取消的任务堆积在堆中）
+ * - timerWheel: TimerWheelScheduler
+ *
+ * 参数说明：
+ * - timeoutMillis: 超时时间，随机分布在 [timeoutMillis, 2 * timeoutMillis) 内，
+ *   越长时间轮 / 堆中同时存在的任务越多
+ * - cancelPercent: 到期前被取消的比例
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SchedulerBenchmark {
+
+    private static final Runnable NOOP = () -> { };
+
+    @Param({"jdk", "timerWheel"})
+    public String scheduler;
+
+    @Param({"10", "1000"})
+    public int timeoutMillis;
+
+    @Param({"90"})
+    public int cancelPercent;
+
+    private ScheduledExecutorService executor;
+
+    @Setup
+    public void setup() {
+        switch (scheduler) {
+            case "jdk":
+                ScheduledThreadPoolExecutor jdk = new ScheduledThreadPoolExecutor(1);
+                jdk.setRemoveOnCancelPolicy(true);
+                executor = jdk;
+                break;
+            case "timerWheel":
+                executor = new TimerWheelScheduler(1, TimeUnit.MILLISECONDS);
+                break;
+            default:
+                throw new IllegalArgumentException(scheduler);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public boolean scheduleAndCancel() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delay = timeoutMillis + random.nextInt(timeoutMillis);
+        ScheduledFuture<?> timeout = executor.schedule(NOOP, delay, TimeUnit.MILLISECONDS);
+        return random.nextInt(100) < cancelPercent && timeout.cancel(false);
+    }
+}
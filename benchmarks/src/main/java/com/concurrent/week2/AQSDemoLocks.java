@@ -0,0 +1,49 @@
+package com.concurrent.week2;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * 把 AQSDemo 中包级私有的 SimpleMutex 包装成 Lock，供其他包的基准测试使用
+ */
+public final class AQSDemoLocks {
+
+    private AQSDemoLocks() {
+    }
+
+    public static Lock simpleMutex() {
+        AQSDemo.SimpleMutex mutex = new AQSDemo.SimpleMutex();
+        return new Lock() {
+            @Override
+            public void lock() {
+                mutex.lock();
+            }
+
+            @Override
+            public void lockInterruptibly() {
+                mutex.lock();
+            }
+
+            @Override
+            public boolean tryLock() {
+                return mutex.tryLock();
+            }
+
+            @Override
+            public boolean tryLock(long time, TimeUnit unit) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void unlock() {
+                mutex.unlock();
+            }
+
+            @Override
+            public Condition newCondition() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+}
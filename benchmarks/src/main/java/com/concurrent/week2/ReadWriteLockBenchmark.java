@@ -0,0 +1,87 @@
+package com.concurrent.week2;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ReadWriteLockDemo.demonstratePerformance 的 JMH 版本
+ *
+ * 直接压测 ReadWriteLockDemo.PerformanceComparison（与其同包，可访问包级私有类）。
+ *
+ * 参数说明：
+ * - writePercent: 写操作占比（%），越大写锁竞争越激烈
+ * - thinkTokens: 两次操作之间的本地计算量，越小竞争越激烈
+ * - 线程数: 通过 -t 或 ScalingRunner 指定
+ *
+ * writePercent=0 时对比读锁的扩展性：readWriteLock 的读锁 CAS 同一个 state，
+ * stripedReadWriteLock 的读锁只修改本线程所在段的计数。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReadWriteLockBenchmark {
+
+    @Param({"0", "1", "10", "34"})
+    public int writePercent;
+
+    @Param({"0", "64"})
+    public int thinkTokens;
+
+    private final ReadWriteLockDemo.PerformanceComparison comparison =
+        new ReadWriteLockDemo.PerformanceComparison();
+
+    @Benchmark
+    public String readWriteLock() {
+        Blackhole.consumeCPU(thinkTokens);
+        if (ThreadLocalRandom.current().nextInt(100) < writePercent) {
+            comparison.writeWithReadWriteLock("数据");
+            return null;
+        }
+        return comparison.readWithReadWriteLock();
+    }
+
+    @Benchmark
+    public String stripedReadWriteLock() {
+        Blackhole.consumeCPU(thinkTokens);
+        if (ThreadLocalRandom.current().nextInt(100) < writePercent) {
+            comparison.writeWithStripedLock("数据");
+            return null;
+        }
+        return comparison.readWithStripedLock();
+    }
+
+    @Benchmark
+    public String optimisticRead() {
+        Blackhole.consumeCPU(thinkTokens);
+        if (ThreadLocalRandom.current().nextInt(100) < writePercent) {
+            comparison.writeWithStampedLock("数据");
+            return null;
+        }
+        return comparison.readWithOptimisticRead();
+    }
+
+    @Benchmark
+    public String synchronizedLock() {
+        Blackhole.consumeCPU(thinkTokens);
+        if (ThreadLocalRandom.current().nextInt(100) < writePercent) {
+            comparison.writeWithNormalLock("数据");
+            return null;
+        }
+        return comparison.readWithNormalLock();
+    }
+}
@@ -0,0 +1,77 @@
+package com.concurrent.week5;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CopyOnWriteArrayListDemo.demonstrateCopyOverhead 的 JMH 版本
+ *
+ * 写操作使用 set(index, value) 而不是 add：CopyOnWriteArrayList 的 set 同样会复制整个数组，
+ * 但列表长度保持不变，每次迭代测到的都是同一规模下的复制开销。
+ *
+ * 参数说明：
+ * - size: 列表长度，决定每次写入复制的数组大小
+ * - 线程数: 通过 -t 或 ScalingRunner 指定
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CopyOnWriteArrayListBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int size;
+
+    private List<Integer> copyOnWriteList;
+    private List<Integer> synchronizedList;
+
+    @Setup
+    public void setup() {
+        List<Integer> initial = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            initial.add(i);
+        }
+        copyOnWriteList = new CopyOnWriteArrayList<>(initial);
+        synchronizedList = Collections.synchronizedList(new ArrayList<>(initial));
+    }
+
+    @Benchmark
+    public Integer copyOnWriteWrite() {
+        int index = ThreadLocalRandom.current().nextInt(size);
+        return copyOnWriteList.set(index, index);
+    }
+
+    @Benchmark
+    public Integer synchronizedListWrite() {
+        int index = ThreadLocalRandom.current().nextInt(size);
+        return synchronizedList.set(index, index);
+    }
+
+    @Benchmark
+    public Integer copyOnWriteRead() {
+        return copyOnWriteList.get(ThreadLocalRandom.current().nextInt(size));
+    }
+
+    @Benchmark
+    public Integer synchronizedListRead() {
+        return synchronizedList.get(ThreadLocalRandom.current().nextInt(size));
+    }
+}
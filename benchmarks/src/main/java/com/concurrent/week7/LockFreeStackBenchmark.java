@@ -0,0 +1,81 @@
+package com.concurrent.week7;
+
+import com.concurrent.lockfree.EliminationBackoffStack;
+import com.concurrent.lockfree.PooledLockFreeStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AtomicReferenceDemo.LockFreeStack vs EliminationBackoffStack vs PooledLockFreeStack
+ *
+ * 每次操作 push 一个元素再 pop 一个元素，栈中预先放入 1000 个元素，pop 几乎不会遇到空栈。
+ *
+ * 加上 -prof gc 可以看到 PooledLockFreeStack 的分配速率（gc.alloc.rate.norm）为 0。
+ *
+ * 扩展曲线（1 到 N 核）：
+ * <pre>
+ * java -cp target/benchmarks.jar com.concurrent.benchmarks.ScalingRunner LockFreeStackBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LockFreeStackBenchmark {
+
+    private static final Integer ITEM = 42;
+
+    @Param({"lockFree", "elimination", "pooled"})
+    public String type;
+
+    @Param({"0", "32"})
+    public int thinkTokens;
+
+    private AtomicReferenceDemo.LockFreeStack<Integer> lockFreeStack;
+    private EliminationBackoffStack<Integer> eliminationStack;
+    private PooledLockFreeStack<Integer> pooledStack;
+    private int kind;
+
+    @Setup
+    public void setup() {
+        lockFreeStack = new AtomicReferenceDemo.LockFreeStack<>();
+        eliminationStack = new EliminationBackoffStack<>();
+        pooledStack = new PooledLockFreeStack<>();
+        for (int i = 0; i < 1000; i++) {
+            lockFreeStack.push(i);
+            eliminationStack.push(i);
+            pooledStack.push(i);
+        }
+        kind = "lockFree".equals(type) ? 0 : "elimination".equals(type) ? 1 : 2;
+    }
+
+    @Benchmark
+    public Integer pushPop() {
+        Blackhole.consumeCPU(thinkTokens);
+        switch (kind) {
+            case 1:
+                eliminationStack.push(ITEM);
+                return eliminationStack.pop();
+            case 2:
+                pooledStack.push(ITEM);
+                return pooledStack.pop();
+            default:
+                lockFreeStack.push(ITEM);
+                return lockFreeStack.pop();
+        }
+    }
+}
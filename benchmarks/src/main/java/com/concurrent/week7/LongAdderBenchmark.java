@@ -0,0 +1,51 @@
+package com.concurrent.week7;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LongAdderDemo.demonstratePerformanceComparison 的 JMH 版本：LongAdder vs AtomicLong
+ *
+ * 参数说明：
+ * - thinkTokens: 两次累加之间的本地计算量，越小竞争越激烈
+ * - 线程数: 通过 -t 或 ScalingRunner 指定
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LongAdderBenchmark {
+
+    @Param({"0", "32", "256"})
+    public int thinkTokens;
+
+    private final LongAdder longAdder = new LongAdder();
+    private final AtomicLong atomicLong = new AtomicLong();
+
+    @Benchmark
+    public void longAdder() {
+        Blackhole.consumeCPU(thinkTokens);
+        longAdder.increment();
+    }
+
+    @Benchmark
+    public long atomicLong() {
+        Blackhole.consumeCPU(thinkTokens);
+        return atomicLong.incrementAndGet();
+    }
+}
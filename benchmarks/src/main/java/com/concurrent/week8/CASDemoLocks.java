@@ -0,0 +1,49 @@
+package com.concurrent.week8;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * 把 CASDemo 中包级私有的 SimpleSpinLock 包装成 Lock，供其他包的基准测试使用
+ */
+public final class CASDemoLocks {
+
+    private CASDemoLocks() {
+    }
+
+    public static Lock simpleSpinLock() {
+        CASDemo.SimpleSpinLock spinLock = new CASDemo.SimpleSpinLock();
+        return new Lock() {
+            @Override
+            public void lock() {
+                spinLock.lock();
+            }
+
+            @Override
+            public void lockInterruptibly() {
+                spinLock.lock();
+            }
+
+            @Override
+            public boolean tryLock() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public boolean tryLock(long time, TimeUnit unit) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void unlock() {
+                spinLock.unlock();
+            }
+
+            @Override
+            public Condition newCondition() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+}
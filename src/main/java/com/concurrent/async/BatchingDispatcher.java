@@ -0,0 +1,280 @@
+package com.concurrent.async;
+
+import com.concurrent.metrics.LatencyHistogram;
+import com.concurrent.metrics.LongCounter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 微批（micro-batching）调度器：把许多小请求攒成一批，用一次批量调用完成，再把结果按 key 分发给各自的 future
+ *
+ * CompletableFutureDemo 中每个逻辑请求一个 supplyAsync。下游的开销大多是每次调用固定的（网络往返、解析、加锁），
+ * 一次查 50 个 key 的耗时与查 1 个相差无几。本实现：
+ * 1. submit(key) 立即返回这个 key 的 future，key 加入当前批次；同一批次中相同的 key 只查一次，结果分给所有等待者
+ * 2. 批次中的 key 达到 maxBatchSize 时立即发出；否则从批次的第一个请求算起最多等 maxLinger，由定时器发出
+ * 3. 发出的批次交给 executor 调用 BatchLoader.load，它返回的 Map 按 key 完成各个 future：
+ *    Map 中没有的 key 得到 null，整批失败时这一批的所有 future 以同一个异常结束
+ *
+ * 统计：批次大小和攒批等待时间（第一个请求加入到批次发出）的直方图，分别用来调 maxBatchSize 和 maxLinger。
+ * 批次大小直方图记录的是 key 的个数，不是纳秒，其 toString 中的时间单位没有意义，请用 valueAtPercentile 等读取。
+ *
+ * 攒批只在很短的临界区中修改当前批次（一把锁），发出、批量调用和分发结果都在锁外。
+ * 代价是请求最多多等 maxLinger；请求稀疏时每批只有一个 key，延迟增加而没有收益，maxLinger 应远小于批量调用本身的耗时。
+ */
+public class BatchingDispatcher<K, V> {
+    private final BatchLoader<K, V> loader;
+    private final int maxBatchSize;
+    private final long maxLingerNanos;
+    private final Executor executor;
+    private final ScheduledExecutorService timer;
+
+    private final Object lock = new Object();
+    /**
+     * 正在攒的批次，由 lock 保护；null 表示下一个请求开启新批次
+     */
+    private Batch<K, V> current;
+
+    // ==================== 统计 ====================
+    private final LongCounter requests = new LongCounter();
+    private final LongCounter batches = new LongCounter();
+    private final LongCounter sizeTriggered = new LongCounter();
+    private final LongCounter failedBatches = new LongCounter();
+    private final LatencyHistogram batchSizes = new LatencyHistogram();
+    private final LatencyHistogram lingerTime = new LatencyHistogram();
+
+    /**
+     * 使用 async 包共享的时间轮定时器
+     */
+    public BatchingDispatcher(BatchLoader<K, V> loader, int maxBatchSize, long maxLinger, TimeUnit unit,
+                              Executor executor) {
+        this(loader, maxBatchSize, maxLinger, unit, executor, SharedTimer.get());
+    }
+
+    /**
+     * @param maxBatchSize 一批最多多少个不同的 key
+     * @param maxLinger    批次中第一个请求最多等多久
+     * @param executor     调用 BatchLoader.load 的线程池
+     * @param timer        按 maxLinger 发出批次的定时器
+     */
+    public BatchingDispatcher(BatchLoader<K, V> loader, int maxBatchSize, long maxLinger, TimeUnit unit,
+                              Executor executor, ScheduledExecutorService timer) {
+        if (loader == null || executor == null || timer == null) {
+            throw new NullPointerException();
+        }
+        if (maxBatchSize <= 0 || maxLinger < 0) {
+            throw new IllegalArgumentException("需要 0 < maxBatchSize, 0 <= maxLinger: " + maxBatchSize + ", " + maxLinger);
+        }
+        this.loader = loader;
+        this.maxBatchSize = maxBatchSize;
+        this.maxLingerNanos = unit.toNanos(maxLinger);
+        this.executor = executor;
+        this.timer = timer;
+    }
+
+    /**
+     * 请求一个 key：加入当前批次，返回它的结果
+     */
+    public CompletableFuture<V> submit(K key) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        Batch<K, V> batch;
+        boolean first = false;
+        Batch<K, V> full = null;
+        synchronized (lock) {
+            batch = current;
+            if (batch == null) {
+                batch = new Batch<>();
+                current = batch;
+                first = true;
+            }
+            batch.add(key, future);
+            if (batch.keyCount() >= maxBatchSize) {
+                current = null;
+                full = batch;
+            }
+        }
+        requests.increment();
+        if (full != null) {
+            sizeTriggered.increment();
+            dispatch(full);
+        } else if (first) {
+            scheduleLinger(batch);
+        }
+        return future;
+    }
+
+    /**
+     * 立即发出当前批次（例如关闭前），不等 maxLinger
+     */
+    public void flush() {
+        Batch<K, V> batch;
+        synchronized (lock) {
+            batch = current;
+            current = null;
+        }
+        if (batch != null) {
+            dispatch(batch);
+        }
+    }
+
+    private void scheduleLinger(Batch<K, V> batch) {
+        try {
+            batch.lingerTimer = timer.schedule(() -> flushIfCurrent(batch), maxLingerNanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            // 定时器已关闭：不再攒批
+            flushIfCurrent(batch);
+        }
+    }
+
+    private void flushIfCurrent(Batch<K, V> batch) {
+        synchronized (lock) {
+            if (current != batch) {
+                // 已经因为攒满或 flush 发出了
+                return;
+            }
+            current = null;
+        }
+        dispatch(batch);
+    }
+
+    private void dispatch(Batch<K, V> batch) {
+        ScheduledFuture<?> lingerTimer = batch.lingerTimer;
+        if (lingerTimer != null) {
+            lingerTimer.cancel(false);
+        }
+        batches.increment();
+        batchSizes.record(batch.keyCount());
+        lingerTime.record(System.nanoTime() - batch.createdAt);
+        try {
+            executor.execute(() -> load(batch));
+        } catch (RejectedExecutionException e) {
+            fail(batch, e);
+        }
+    }
+
+    private void load(Batch<K, V> batch) {
+        CompletableFuture<? extends Map<K, V>> result;
+        try {
+            result = loader.load(Collections.unmodifiableList(new ArrayList<>(batch.waiters.keySet())));
+        } catch (Throwable e) {
+            fail(batch, e);
+            return;
+        }
+        if (result == null) {
+            fail(batch, new NullPointerException("BatchLoader.load 返回了 null"));
+            return;
+        }
+        result.whenComplete((values, error) -> {
+            if (error != null) {
+                fail(batch, CompletableFutures.unwrap(error));
+                return;
+            }
+            try {
+                for (Map.Entry<K, List<CompletableFuture<V>>> entry : batch.waiters.entrySet()) {
+                    V value = values == null ? null : values.get(entry.getKey());
+                    for (CompletableFuture<V> future : entry.getValue()) {
+                        future.complete(value);
+                    }
+                }
+            } catch (Throwable e) {
+                // 例如 Map.get 抛出异常：已经完成的 future 不受影响，其余的以这个异常结束，不会一直挂住
+                fail(batch, e);
+            }
+        });
+    }
+
+    /**
+     * 以 error 结束这一批中还没完成的 future
+     */
+    private void fail(Batch<K, V> batch, Throwable error) {
+        failedBatches.increment();
+        for (List<CompletableFuture<V>> futures : batch.waiters.values()) {
+            for (CompletableFuture<V> future : futures) {
+                future.completeExceptionally(error);
+            }
+        }
+    }
+
+    // ==================== 统计 ====================
+
+    public long requestCount() {
+        return requests.sum();
+    }
+
+    /**
+     * 发出的批次数，即批量调用的次数
+     */
+    public long batchCount() {
+        return batches.sum();
+    }
+
+    /**
+     * 因攒满 maxBatchSize 而发出的批次数，其余由 maxLinger 到期或 flush 发出
+     */
+    public long sizeTriggeredCount() {
+        return sizeTriggered.sum();
+    }
+
+    public long failedBatchCount() {
+        return failedBatches.sum();
+    }
+
+    /**
+     * 每批不同 key 的个数（值是个数，不是纳秒）
+     */
+    public LatencyHistogram.Snapshot batchSizes() {
+        return batchSizes.snapshot();
+    }
+
+    /**
+     * 批次从第一个请求加入到发出的时间，单位纳秒
+     */
+    public LatencyHistogram.Snapshot lingerTime() {
+        return lingerTime.snapshot();
+    }
+
+    @Override
+    public String toString() {
+        return "BatchingDispatcher{maxBatchSize=" + maxBatchSize + ", maxLinger="
+            + TimeUnit.NANOSECONDS.toMicros(maxLingerNanos) + "us, requests=" + requests.sum()
+            + ", batches=" + batches.sum() + ", sizeTriggered=" + sizeTriggered.sum()
+            + ", failedBatches=" + failedBatches.sum() + "}";
+    }
+
+    /**
+     * 批量调用：一次查询一批 key
+     */
+    public interface BatchLoader<K, V> {
+        /**
+         * @param keys 不重复的 key，按第一次请求的顺序
+         * @return key 到结果的映射；缺少的 key 视为 null。返回 null 或抛出异常时整批失败
+         */
+        CompletableFuture<? extends Map<K, V>> load(List<K> keys);
+    }
+
+    /**
+     * 一个批次：key 到等待它的 future 列表（保持第一次请求的顺序），由 lock 保护，发出后不再修改
+     */
+    private static final class Batch<K, V> {
+        final Map<K, List<CompletableFuture<V>>> waiters = new LinkedHashMap<>();
+        final long createdAt = System.nanoTime();
+        volatile ScheduledFuture<?> lingerTimer;
+
+        void add(K key, CompletableFuture<V> future) {
+            waiters.computeIfAbsent(key, k -> new ArrayList<>(1)).add(future);
+        }
+
+        int keyCount() {
+            return waiters.size();
+        }
+    }
+}
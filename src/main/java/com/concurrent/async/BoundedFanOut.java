@@ -0,0 +1,405 @@
+package com.concurrent.async;
+
+import com.concurrent.metrics.LatencyHistogram;
+import com.concurrent.metrics.LongCounter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 有界扇出 / 扇入：同时在途的调用不超过 maxInFlight，每个调用有超时，失败不影响其他调用的结果
+ *
+ * CompletableFutureDemo.demonstrateAllOf 的写法（每个调用一个 supplyAsync，再 allOf(...).get()）扩展到几千个调用时：
+ * - 所有调用同时提交到公共的 ForkJoinPool.commonPool()，一个变慢的下游就能占满它，
+ *   同一进程中其他用到 commonPool 的代码（parallel stream、其他 CompletableFuture）都跟着变慢
+ * - 生产者提交得再快也不会被拦住，排队的调用在内存中堆积
+ * - 只要有一个调用失败，allOf 就异常结束，成功的结果要自己逐个去取；某个调用卡住，get() 就永远等下去
+ *
+ * 本实现：
+ * 1. 调用在构造时传入的专用线程池中执行，不碰 commonPool
+ * 2. 许可数为 maxInFlight 的 Semaphore：提交前先拿许可，拿不到时提交线程阻塞（背压），调用结束时归还
+ * 3. 每个调用在定时器（如 TimerWheelScheduler）上登记一个超时，到期时以 TimeoutException 结束并中断执行中的调用；
+ *    调用先结束则取消超时
+ * 4. invokeAll 等全部调用结束（成功、失败或超时）后返回 Results，按输入的顺序记录每个调用的结果或异常
+ *
+ * 注意：
+ * - 超时或被取消时许可立即归还；不响应中断的调用仍然占着线程池的一个线程，但只影响这个专用线程池。
+ *   线程池的线程数通常取 maxInFlight
+ * - 超时在定时线程中完成 future，在返回的 future 上追加耗时的处理请用 thenXxxAsync(..., executor)
+ * - executor 和 timer 由调用方关闭
+ */
+public class BoundedFanOut {
+    private final ExecutorService executor;
+    private final ScheduledExecutorService timer;
+    private final int maxInFlight;
+    private final long timeoutNanos;
+    private final Semaphore permits;
+
+    // ==================== 统计 ====================
+    private final LongCounter submitted = new LongCounter();
+    private final LongCounter succeeded = new LongCounter();
+    private final LongCounter failed = new LongCounter();
+    private final LongCounter timedOut = new LongCounter();
+    private final LongCounter blocked = new LongCounter();
+    private final LatencyHistogram blockedTime = new LatencyHistogram();
+
+    /**
+     * @param executor    执行调用的专用线程池
+     * @param timer       登记超时的定时器
+     * @param maxInFlight 同时在途（已提交、未结束）的调用数上限
+     * @param timeout     每个调用的超时
+     */
+    public BoundedFanOut(ExecutorService executor, ScheduledExecutorService timer, int maxInFlight,
+                         long timeout, TimeUnit unit) {
+        if (executor == null || timer == null) {
+            throw new NullPointerException();
+        }
+        if (maxInFlight <= 0 || timeout <= 0) {
+            throw new IllegalArgumentException("需要 0 < maxInFlight, 0 < timeout: " + maxInFlight + ", " + timeout);
+        }
+        this.executor = executor;
+        this.timer = timer;
+        this.maxInFlight = maxInFlight;
+        this.timeoutNanos = unit.toNanos(timeout);
+        this.permits = new Semaphore(maxInFlight);
+    }
+
+    /**
+     * 提交一个调用；在途调用已达到 maxInFlight 时阻塞，直到有调用结束
+     *
+     * @return 调用的结果；超时以 TimeoutException 结束，线程池拒绝时以 RejectedExecutionException 结束。
+     *         取消返回的 future 会中断执行中的调用
+     */
+    public <R> CompletableFuture<R> submit(Callable<? extends R> call) throws InterruptedException {
+        if (!permits.tryAcquire()) {
+            long start = System.nanoTime();
+            permits.acquire();
+            blocked.increment();
+            blockedTime.record(System.nanoTime() - start);
+        }
+        return launch(call);
+    }
+
+    /**
+     * 最多等待 timeout 拿到许可
+     *
+     * @return 调用的结果；等不到许可返回 null，调用没有被提交
+     */
+    public <R> CompletableFuture<R> trySubmit(Callable<? extends R> call, long timeout, TimeUnit unit)
+        throws InterruptedException {
+        if (!permits.tryAcquire()) {
+            long start = System.nanoTime();
+            boolean acquired = permits.tryAcquire(timeout, unit);
+            blocked.increment();
+            blockedTime.record(System.nanoTime() - start);
+            if (!acquired) {
+                return null;
+            }
+        }
+        return launch(call);
+    }
+
+    /**
+     * 对每个输入调用一次 call，全部结束后返回；提交过程受 maxInFlight 限制，调用线程在提交时被背压阻塞
+     *
+     * 等待期间被中断时取消所有已提交的调用，再抛出 InterruptedException
+     */
+    public <T, R> Results<T, R> invokeAll(Collection<? extends T> inputs, Call<? super T, ? extends R> call)
+        throws InterruptedException {
+        Results<T, R> results = new Results<>(new ArrayList<T>(inputs));
+        int size = results.size();
+        CountDownLatch done = new CountDownLatch(size);
+        List<CompletableFuture<R>> futures = new ArrayList<>(size);
+        try {
+            for (int i = 0; i < size; i++) {
+                int index = i;
+                T input = results.input(index);
+                CompletableFuture<R> future = submit(() -> call.call(input));
+                futures.add(future);
+                future.whenComplete((value, error) -> {
+                    results.set(index, value, error);
+                    done.countDown();
+                });
+            }
+            done.await();
+        } catch (InterruptedException e) {
+            for (CompletableFuture<R> future : futures) {
+                future.cancel(true);
+            }
+            throw e;
+        }
+        return results;
+    }
+
+    private <R> CompletableFuture<R> launch(Callable<? extends R> call) {
+        submitted.increment();
+        InFlight<R> inFlight = new InFlight<>(call);
+        CompletableFuture<R> result = inFlight.result;
+        // 先登记结束回调：之后无论以哪种方式结束，许可都恰好归还一次
+        result.whenComplete((value, error) -> finish(inFlight, error));
+        try {
+            inFlight.task = executor.submit(inFlight);
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+            return result;
+        }
+        try {
+            ScheduledFuture<?> timeout = timer.schedule(() -> expire(result), timeoutNanos, TimeUnit.NANOSECONDS);
+            inFlight.timeout = timeout;
+            if (result.isDone()) {
+                // 在登记超时之前就结束了，finish 没看到这个超时
+                timeout.cancel(false);
+            }
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    private void expire(CompletableFuture<?> result) {
+        result.completeExceptionally(new TimeoutException(
+            "调用超过 " + TimeUnit.NANOSECONDS.toMillis(timeoutNanos) + " ms 未结束"));
+    }
+
+    private void finish(InFlight<?> inFlight, Throwable error) {
+        permits.release();
+        ScheduledFuture<?> timeout = inFlight.timeout;
+        if (timeout != null) {
+            timeout.cancel(false);
+        }
+        if (error == null) {
+            succeeded.increment();
+            return;
+        }
+        if (error instanceof TimeoutException) {
+            timedOut.increment();
+        } else {
+            failed.increment();
+        }
+        Future<?> task = inFlight.task;
+        if (!inFlight.finished && task != null) {
+            // 超时、被取消或没能登记超时：调用本身还没结束，中断它
+            task.cancel(true);
+        }
+    }
+
+    // ==================== 统计 ====================
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * 已提交、尚未结束的调用数
+     */
+    public int inFlight() {
+        return maxInFlight - permits.availablePermits();
+    }
+
+    public long submittedCount() {
+        return submitted.sum();
+    }
+
+    public long succeededCount() {
+        return succeeded.sum();
+    }
+
+    /**
+     * 调用抛出异常、被取消或被线程池拒绝的次数（不含超时）
+     */
+    public long failedCount() {
+        return failed.sum();
+    }
+
+    public long timeoutCount() {
+        return timedOut.sum();
+    }
+
+    /**
+     * 提交时因在途调用达到上限而阻塞的次数
+     */
+    public long blockedCount() {
+        return blocked.sum();
+    }
+
+    /**
+     * 提交线程被背压阻塞的时间（只记录阻塞了的提交），单位纳秒
+     */
+    public LatencyHistogram.Snapshot blockedTime() {
+        return blockedTime.snapshot();
+    }
+
+    @Override
+    public String toString() {
+        return "BoundedFanOut{maxInFlight=" + maxInFlight + ", inFlight=" + inFlight()
+            + ", submitted=" + submitted.sum() + ", succeeded=" + succeeded.sum() + ", failed=" + failed.sum()
+            + ", timedOut=" + timedOut.sum() + ", blocked=" + blocked.sum() + "}";
+    }
+
+    /**
+     * 对一个输入发起的调用，可以抛出受检异常
+     */
+    public interface Call<T, R> {
+        R call(T input) throws Exception;
+    }
+
+    /**
+     * 一个在途调用：在线程池中执行，结果写到 result
+     */
+    private static final class InFlight<R> implements Runnable {
+        final CompletableFuture<R> result = new CompletableFuture<>();
+        private final Callable<? extends R> call;
+        volatile Future<?> task;
+        volatile ScheduledFuture<?> timeout;
+        /**
+         * 调用本身已经返回或抛出异常，不需要再中断
+         */
+        volatile boolean finished;
+
+        InFlight(Callable<? extends R> call) {
+            this.call = call;
+        }
+
+        @Override
+        public void run() {
+            if (result.isDone()) {
+                // 排队期间已经超时或被取消
+                return;
+            }
+            R value;
+            try {
+                value = call.call();
+            } catch (Throwable e) {
+                finished = true;
+                result.completeExceptionally(e);
+                return;
+            }
+            finished = true;
+            result.complete(value);
+        }
+    }
+
+    /**
+     * invokeAll 的结果：按输入的顺序记录每个调用的结果或异常，部分调用失败时仍然可以拿到成功的那部分
+     */
+    public static final class Results<T, R> {
+        private final List<T> inputs;
+        private final Object[] values;
+        private final Throwable[] errors;
+
+        Results(List<T> inputs) {
+            this.inputs = inputs;
+            this.values = new Object[inputs.size()];
+            this.errors = new Throwable[inputs.size()];
+        }
+
+        void set(int index, Object value, Throwable error) {
+            values[index] = value;
+            errors[index] = error;
+        }
+
+        public int size() {
+            return inputs.size();
+        }
+
+        public T input(int index) {
+            return inputs.get(index);
+        }
+
+        public boolean succeeded(int index) {
+            return errors[index] == null;
+        }
+
+        /**
+         * 第 index 个调用的结果，失败时为 null
+         */
+        @SuppressWarnings("unchecked")
+        public R value(int index) {
+            return (R) values[index];
+        }
+
+        /**
+         * 第 index 个调用的异常（超时为 TimeoutException），成功时为 null
+         */
+        public Throwable error(int index) {
+            return errors[index];
+        }
+
+        /**
+         * 成功的结果，按输入的顺序
+         */
+        public List<R> values() {
+            List<R> result = new ArrayList<>();
+            for (int i = 0; i < values.length; i++) {
+                if (errors[i] == null) {
+                    result.add(value(i));
+                }
+            }
+            return result;
+        }
+
+        /**
+         * 失败的输入及其异常，按输入的顺序；相同的输入只保留最后一个
+         */
+        public Map<T, Throwable> failures() {
+            Map<T, Throwable> result = new LinkedHashMap<>();
+            for (int i = 0; i < errors.length; i++) {
+                if (errors[i] != null) {
+                    result.put(inputs.get(i), errors[i]);
+                }
+            }
+            return result;
+        }
+
+        public int successCount() {
+            return count(null);
+        }
+
+        public int failureCount() {
+            return size() - successCount();
+        }
+
+        public int timeoutCount() {
+            return count(TimeoutException.class);
+        }
+
+        public boolean isAllSucceeded() {
+            return successCount() == size();
+        }
+
+        /**
+         * type 为 null 时统计成功的个数，否则统计该类型异常的个数
+         */
+        private int count(Class<? extends Throwable> type) {
+            int count = 0;
+            for (Throwable error : errors) {
+                if (type == null ? error == null : type.isInstance(error)) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        @Override
+        public String toString() {
+            int cancelled = count(CancellationException.class);
+            return "Results{size=" + size() + ", succeeded=" + successCount() + ", timedOut=" + timeoutCount()
+                + ", cancelled=" + cancelled + ", failed=" + (failureCount() - timeoutCount() - cancelled) + "}";
+        }
+    }
+}
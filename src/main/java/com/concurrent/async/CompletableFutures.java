@@ -0,0 +1,86 @@
+package com.concurrent.async;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * CompletableFuture 的组合工具
+ */
+public final class CompletableFutures {
+
+    private CompletableFutures() {
+    }
+
+    @SafeVarargs
+    public static <T> CompletableFuture<T> firstSuccessful(CompletableFuture<? extends T>... futures) {
+        // 逐个复制而不是 Arrays.asList：泛型数组不传给别的方法，@SafeVarargs 才成立（-Xlint:varargs 不报警告）
+        List<CompletableFuture<? extends T>> inputs = new ArrayList<>(futures.length);
+        for (CompletableFuture<? extends T> future : futures) {
+            inputs.add(future);
+        }
+        return firstSuccessful(inputs);
+    }
+
+    /**
+     * 第一个成功的结果
+     *
+     * 与 CompletableFuture.anyOf 的区别：
+     * - anyOf 取第一个结束的，哪怕它是异常；这里忽略失败，直到全部失败才以第一个失败的异常结束
+     * - anyOf 结束后其余的 future 继续运行；这里结束时 cancel(true) 所有还没结束的输入（落败者），
+     *   返回的 future 被取消时同样取消所有输入
+     * - 返回类型是 T 而不是 Object
+     */
+    public static <T> CompletableFuture<T> firstSuccessful(Collection<? extends CompletableFuture<? extends T>> futures) {
+        List<CompletableFuture<? extends T>> inputs = new ArrayList<>(futures);
+        CompletableFuture<T> result = new CompletableFuture<>();
+        if (inputs.isEmpty()) {
+            result.completeExceptionally(new IllegalArgumentException("没有可以等待的 future"));
+            return result;
+        }
+        AtomicInteger remaining = new AtomicInteger(inputs.size());
+        // 第一个失败的异常；全部失败时所有回调都已执行完，读到的一定是最终值
+        Throwable[] firstError = new Throwable[1];
+        for (CompletableFuture<? extends T> future : inputs) {
+            future.whenComplete((value, error) -> {
+                if (error == null) {
+                    result.complete(value);
+                    return;
+                }
+                synchronized (firstError) {
+                    if (firstError[0] == null) {
+                        firstError[0] = unwrap(error);
+                    }
+                }
+                if (remaining.decrementAndGet() == 0) {
+                    synchronized (firstError) {
+                        result.completeExceptionally(firstError[0]);
+                    }
+                }
+            });
+        }
+        result.whenComplete((value, error) -> cancelAll(inputs));
+        return result;
+    }
+
+    /**
+     * cancel(true) 所有还没结束的 future
+     */
+    static void cancelAll(Collection<? extends CompletableFuture<?>> futures) {
+        for (CompletableFuture<?> future : futures) {
+            if (!future.isDone()) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * 依赖阶段传下来的异常被包在 CompletionException 中，取出原始异常
+     */
+    static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+}
@@ -0,0 +1,79 @@
+package com.concurrent.async;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 截止时间：某个绝对时刻（System.nanoTime），而不是一段超时
+ *
+ * 超时沿调用链传递时会越传越长：每一步都给 "1 秒"，三步串起来就是 3 秒。
+ * 截止时间在入口处确定一次，之后每一步只能使用剩下的时间（remaining），子调用取 minimum 只会更早不会更晚。
+ */
+public final class Deadline implements Comparable<Deadline> {
+    /**
+     * 与 TimerWheelScheduler 相同：超过 Long.MAX_VALUE / 2 的超时按它处理，避免 nanoTime 相减溢出
+     */
+    private static final long MAX_TIMEOUT_NANOS = Long.MAX_VALUE >> 1;
+
+    private final long deadlineNanos;
+
+    private Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    public static Deadline after(long timeout, TimeUnit unit) {
+        return new Deadline(System.nanoTime() + Math.min(Math.max(unit.toNanos(timeout), 0L), MAX_TIMEOUT_NANOS));
+    }
+
+    /**
+     * 剩余时间，已过期时为 0
+     */
+    public long remaining(TimeUnit unit) {
+        return unit.convert(Math.max(remainingNanos(), 0L), TimeUnit.NANOSECONDS);
+    }
+
+    long remainingNanos() {
+        return deadlineNanos - System.nanoTime();
+    }
+
+    public boolean isExpired() {
+        return remainingNanos() <= 0L;
+    }
+
+    /**
+     * 两个截止时间中较早的一个
+     */
+    public Deadline minimum(Deadline other) {
+        return compareTo(other) <= 0 ? this : other;
+    }
+
+    /**
+     * 超过截止时间时抛出（或用来结束 future）的异常
+     */
+    TimeoutException exceeded() {
+        return new TimeoutException("超过截止时间（超出 " + TimeUnit.NANOSECONDS.toMillis(-remainingNanos()) + " ms）");
+    }
+
+    @Override
+    public int compareTo(Deadline other) {
+        return Long.compare(deadlineNanos - other.deadlineNanos, 0L);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Deadline && ((Deadline) o).deadlineNanos == deadlineNanos;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(deadlineNanos);
+    }
+
+    @Override
+    public String toString() {
+        long remaining = remainingNanos();
+        return remaining > 0L
+            ? "Deadline{剩余 " + TimeUnit.NANOSECONDS.toMillis(remaining) + " ms}"
+            : "Deadline{已超过 " + TimeUnit.NANOSECONDS.toMillis(-remaining) + " ms}";
+    }
+}
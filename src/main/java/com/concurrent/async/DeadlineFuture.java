@@ -0,0 +1,204 @@
+package com.concurrent.async;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 带截止时间的 CompletableFuture 调用链（Java 8 没有 orTimeout / completeOnTimeout）
+ *
+ * CompletableFutureDemo.demonstrateChaining 中任何一步不结束，get() 就永远等下去；
+ * 给每一步各自加超时，整条链的耗时又是各步超时之和。本类把一个 Deadline 沿 thenApply / thenCompose 传下去：
+ * 1. 每个阶段在时间轮定时器上登记同一个截止时间，到期还没结束就以 TimeoutException 结束，
+ *    后续阶段随之立即失败，调用方的 join / get 在截止时间返回，不会挂住
+ * 2. 到期时取消这一阶段正在进行的异步工作：源 future 和 thenCompose 返回的内层 future 被 cancel(true)
+ * 3. 阶段的函数开始执行前先检查截止时间，已过期就不执行（排队中的 thenApplyAsync 等下游工作直接放弃）
+ * 4. 阶段先结束则取消它的定时条目；定时器默认是 async 包共享的时间轮（一个守护线程），不为超时创建线程
+ *
+ * 函数可以通过 deadline() 拿到截止时间，把剩余时间传给下游调用（例如 RPC 的超时参数）。
+ *
+ * 注意：
+ * - exceptionally / handle 是兜底阶段，不检查也不登记截止时间，超时后仍会执行；
+ *   但它之后的 thenApply 等阶段仍受同一截止时间约束，兜底应放在链的末尾
+ * - 到期时阶段在定时线程中结束，同步的 exceptionally / handle 也在定时线程中执行，应当很短
+ * - 已经在执行的同步函数无法被中断，但它所在阶段和后续阶段会按时失败
+ */
+public final class DeadlineFuture<T> {
+    private final CompletableFuture<T> future;
+    private final Deadline deadline;
+    private final ScheduledExecutorService timer;
+
+    private DeadlineFuture(CompletableFuture<T> future, Deadline deadline, ScheduledExecutorService timer) {
+        this.future = future;
+        this.deadline = deadline;
+        this.timer = timer;
+    }
+
+    public static <T> DeadlineFuture<T> supplyAsync(Supplier<T> supplier, Executor executor, Deadline deadline) {
+        return supplyAsync(supplier, executor, deadline, SharedTimer.get());
+    }
+
+    public static <T> DeadlineFuture<T> supplyAsync(Supplier<T> supplier, Executor executor, Deadline deadline,
+                                                    ScheduledExecutorService timer) {
+        return guard(CompletableFuture.supplyAsync(() -> {
+            checkDeadline(deadline);
+            return supplier.get();
+        }, executor), deadline, timer);
+    }
+
+    /**
+     * 给已有的 future 加上截止时间：到期时它被 cancel(true)
+     */
+    public static <T> DeadlineFuture<T> of(CompletableFuture<T> future, Deadline deadline) {
+        return of(future, deadline, SharedTimer.get());
+    }
+
+    public static <T> DeadlineFuture<T> of(CompletableFuture<T> future, Deadline deadline,
+                                           ScheduledExecutorService timer) {
+        return guard(future, deadline, timer);
+    }
+
+    /**
+     * 返回一个跟随 source 结束的 future；截止时间先到则以 TimeoutException 结束并取消 source
+     */
+    private static <T> DeadlineFuture<T> guard(CompletableFuture<T> source, Deadline deadline,
+                                               ScheduledExecutorService timer) {
+        CompletableFuture<T> guarded = new CompletableFuture<>();
+        DeadlineFuture<T> result = new DeadlineFuture<>(guarded, deadline, timer);
+        // guarded 以任何方式结束（到期、被取消）时 source 还没结束，就取消 source
+        guarded.whenComplete((value, error) -> {
+            if (!source.isDone()) {
+                source.cancel(true);
+            }
+        });
+        source.whenComplete((value, error) -> {
+            if (error == null) {
+                guarded.complete(value);
+            } else {
+                guarded.completeExceptionally(CompletableFutures.unwrap(error));
+            }
+        });
+        if (guarded.isDone()) {
+            return result;
+        }
+        long remaining = deadline.remainingNanos();
+        if (remaining <= 0L) {
+            guarded.completeExceptionally(deadline.exceeded());
+            return result;
+        }
+        try {
+            ScheduledFuture<?> timeout = timer.schedule(
+                () -> guarded.completeExceptionally(deadline.exceeded()), remaining, TimeUnit.NANOSECONDS);
+            guarded.whenComplete((value, error) -> timeout.cancel(false));
+        } catch (RejectedExecutionException e) {
+            guarded.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    private static void checkDeadline(Deadline deadline) {
+        if (deadline.isExpired()) {
+            throw new CompletionException(deadline.exceeded());
+        }
+    }
+
+    // ==================== 调用链 ====================
+
+    public <U> DeadlineFuture<U> thenApply(Function<? super T, ? extends U> fn) {
+        return next(future.thenApply(value -> {
+            checkDeadline(deadline);
+            return fn.apply(value);
+        }));
+    }
+
+    public <U> DeadlineFuture<U> thenApplyAsync(Function<? super T, ? extends U> fn, Executor executor) {
+        return next(future.thenApplyAsync(value -> {
+            checkDeadline(deadline);
+            return fn.apply(value);
+        }, executor));
+    }
+
+    public DeadlineFuture<Void> thenAccept(Consumer<? super T> action) {
+        return next(future.thenAccept(value -> {
+            checkDeadline(deadline);
+            action.accept(value);
+        }));
+    }
+
+    /**
+     * fn 返回的内层 future 也带上截止时间：到期时它被取消
+     */
+    public <U> DeadlineFuture<U> thenCompose(Function<? super T, ? extends CompletionStage<U>> fn) {
+        return next(future.thenCompose(value -> {
+            checkDeadline(deadline);
+            return guard(fn.apply(value).toCompletableFuture(), deadline, timer).future;
+        }));
+    }
+
+    /**
+     * 兜底阶段：不受截止时间约束，超时后同样执行
+     */
+    public DeadlineFuture<T> exceptionally(Function<Throwable, ? extends T> fn) {
+        return new DeadlineFuture<>(future.exceptionally(error -> fn.apply(CompletableFutures.unwrap(error))),
+            deadline, timer);
+    }
+
+    /**
+     * 兜底阶段：不受截止时间约束，超时后同样执行
+     */
+    public <U> DeadlineFuture<U> handle(BiFunction<? super T, Throwable, ? extends U> fn) {
+        return new DeadlineFuture<>(future.handle((value, error) ->
+            fn.apply(value, error == null ? null : CompletableFutures.unwrap(error))), deadline, timer);
+    }
+
+    private <U> DeadlineFuture<U> next(CompletableFuture<U> stage) {
+        return guard(stage, deadline, timer);
+    }
+
+    // ==================== 结果 ====================
+
+    public Deadline deadline() {
+        return deadline;
+    }
+
+    public T join() {
+        return future.join();
+    }
+
+    public T get() throws InterruptedException, ExecutionException {
+        return future.get();
+    }
+
+    public boolean isDone() {
+        return future.isDone();
+    }
+
+    /**
+     * 取消这一阶段（及它正在等待的异步工作）；后续阶段随之以 CancellationException 失败
+     */
+    public boolean cancel() {
+        return future.cancel(true);
+    }
+
+    /**
+     * 当前阶段对应的 CompletableFuture，可以交给只认 CompletableFuture 的代码；在它上面追加的阶段不再检查截止时间
+     */
+    public CompletableFuture<T> toCompletableFuture() {
+        return future;
+    }
+
+    @Override
+    public String toString() {
+        return "DeadlineFuture{" + future + ", " + deadline + "}";
+    }
+}
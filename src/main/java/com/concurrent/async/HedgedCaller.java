@@ -0,0 +1,254 @@
+package com.concurrent.async;
+
+import com.concurrent.metrics.LatencyHistogram;
+import com.concurrent.metrics.LongCounter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 对冲请求（hedged requests）：第一次尝试超过 p95 延迟还没返回，再发一次，取先成功的那个，取消其余的
+ *
+ * 长尾延迟大多不是请求本身慢，而是碰上了下游某个实例的 GC、排队或慢盘。只有约 5% 的请求会超过 p95，
+ * 为它们多发一次请求，额外的负载约 5%，p99 却能从 "慢实例的延迟" 降到接近 "p95 + 一次正常延迟"。
+ *
+ * 1. call 立即发起第一次尝试，并在定时器上登记 hedgeDelay 后的对冲
+ * 2. 到时第一次尝试还没结束就发起下一次（最多 maxAttempts 次），任一次成功即结束，其余的 cancel(true)
+ * 3. 一次尝试失败不会立刻结束调用，只要还有尝试在进行就继续等；所有已发起的尝试都失败时以最后一个异常结束
+ * 4. 对冲预算：累计的对冲次数超过调用次数的 maxHedgeRatio 时不再对冲，避免下游整体变慢时把负载放大一倍
+ *
+ * hedgeDelay 取第一次尝试延迟的 percentile 分位数：每 100ms 最多重新计算一次（与 ObjectPool 的巡检一样由调用顺带触发），
+ * 窗口内不到 100 个样本时继续累积，此前使用构造时给出的 initialDelay。
+ * 第一次尝试被对冲赢了而取消时，它真实的延迟未知，按取消时已经过的时间记录：这个值不小于当前的 hedgeDelay，
+ * 它和真实值一样落在分位数之上，分位数的估计不受影响。其他原因的取消（如调用方提前取消结果）不记录。
+ *
+ * attempt 在调用线程（第一次）和定时线程（对冲）中执行，应当只发起异步调用并立即返回 future；
+ * 阻塞的调用可以交给 BoundedFanOut.submit，它的 future 被取消时会中断执行中的调用。
+ */
+public class HedgedCaller {
+    private static final int MIN_SAMPLES = 100;
+    private static final long REFRESH_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final ScheduledExecutorService timer;
+    private final double percentile;
+    private final int maxAttempts;
+    private final double maxHedgeRatio;
+
+    /**
+     * 当前窗口内第一次尝试的延迟
+     */
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final AtomicLong nextRefreshAt;
+    private volatile long hedgeDelayNanos;
+
+    // ==================== 统计 ====================
+    private final LongCounter calls = new LongCounter();
+    private final LongCounter hedges = new LongCounter();
+    private final LongCounter hedgeWins = new LongCounter();
+    private final LongCounter overBudget = new LongCounter();
+
+    /**
+     * 按 p95 对冲，最多 2 次尝试，对冲不超过调用次数的 10%
+     */
+    public HedgedCaller(ScheduledExecutorService timer, long initialDelay, TimeUnit unit) {
+        this(timer, 95.0, initialDelay, unit, 2, 0.1);
+    }
+
+    /**
+     * @param percentile    对冲延迟取第一次尝试延迟的这个分位数（0 ~ 100）
+     * @param initialDelay  样本不足时使用的对冲延迟
+     * @param maxAttempts   每次调用最多发起的尝试次数（包括第一次）
+     * @param maxHedgeRatio 对冲次数最多占调用次数的比例
+     */
+    public HedgedCaller(ScheduledExecutorService timer, double percentile, long initialDelay, TimeUnit unit,
+                        int maxAttempts, double maxHedgeRatio) {
+        if (timer == null) {
+            throw new NullPointerException();
+        }
+        if (percentile <= 0 || percentile > 100 || initialDelay < 0 || maxAttempts < 1 || maxHedgeRatio < 0) {
+            throw new IllegalArgumentException("需要 0 < percentile <= 100, 0 <= initialDelay, 1 <= maxAttempts, "
+                + "0 <= maxHedgeRatio: " + percentile + ", " + initialDelay + ", " + maxAttempts + ", " + maxHedgeRatio);
+        }
+        this.timer = timer;
+        this.percentile = percentile;
+        this.maxAttempts = maxAttempts;
+        this.maxHedgeRatio = maxHedgeRatio;
+        this.hedgeDelayNanos = unit.toNanos(initialDelay);
+        this.nextRefreshAt = new AtomicLong(System.nanoTime() + REFRESH_NANOS);
+    }
+
+    /**
+     * 发起一次带对冲的调用
+     *
+     * @param attempt 每次调用它发起一次尝试；抛出的异常视为这次尝试失败
+     * @return 第一个成功的结果；取消它会取消所有进行中的尝试
+     */
+    public <T> CompletableFuture<T> call(Supplier<? extends CompletableFuture<? extends T>> attempt) {
+        calls.increment();
+        HedgedCall<T> call = new HedgedCall<>(attempt);
+        call.launch();
+        return call.result;
+    }
+
+    private boolean withinBudget() {
+        return hedges.sum() < maxHedgeRatio * calls.sum();
+    }
+
+    private void recordFirstAttempt(long nanos, long now) {
+        latency.record(nanos);
+        long next = nextRefreshAt.get();
+        if (now - next >= 0L && nextRefreshAt.compareAndSet(next, now + REFRESH_NANOS)) {
+            LatencyHistogram.Snapshot snapshot = latency.snapshot();
+            if (snapshot.count() >= MIN_SAMPLES) {
+                hedgeDelayNanos = snapshot.valueAtPercentile(percentile);
+                latency.reset();
+            }
+        }
+    }
+
+    // ==================== 统计 ====================
+
+    public long getHedgeDelay(TimeUnit unit) {
+        return unit.convert(hedgeDelayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public long callCount() {
+        return calls.sum();
+    }
+
+    /**
+     * 发起的对冲（第 2 次及以后的尝试）次数
+     */
+    public long hedgeCount() {
+        return hedges.sum();
+    }
+
+    /**
+     * 由对冲的尝试先成功的调用数
+     */
+    public long hedgeWinCount() {
+        return hedgeWins.sum();
+    }
+
+    /**
+     * 因超出对冲预算而放弃的对冲次数
+     */
+    public long overBudgetCount() {
+        return overBudget.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "HedgedCaller{hedgeDelay=" + TimeUnit.NANOSECONDS.toMicros(hedgeDelayNanos) + "us, calls=" + calls.sum()
+            + ", hedges=" + hedges.sum() + ", hedgeWins=" + hedgeWins.sum() + ", overBudget=" + overBudget.sum() + "}";
+    }
+
+    /**
+     * 一次调用：已发起的尝试、还在进行的尝试数和下一次对冲的定时器，由 this 保护
+     */
+    private final class HedgedCall<T> {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        private final Supplier<? extends CompletableFuture<? extends T>> attempt;
+        private final long start = System.nanoTime();
+        private final List<CompletableFuture<? extends T>> attempts = new ArrayList<>(maxAttempts);
+        private int pending;
+        private ScheduledFuture<?> hedgeTimer;
+
+        HedgedCall(Supplier<? extends CompletableFuture<? extends T>> attempt) {
+            this.attempt = attempt;
+            result.whenComplete((value, error) -> cancelLosers());
+        }
+
+        void launch() {
+            CompletableFuture<? extends T> future;
+            try {
+                future = attempt.get();
+            } catch (Throwable e) {
+                CompletableFuture<T> failed = new CompletableFuture<>();
+                failed.completeExceptionally(e);
+                future = failed;
+            }
+            int index;
+            synchronized (this) {
+                if (result.isDone()) {
+                    future.cancel(true);
+                    return;
+                }
+                index = attempts.size();
+                attempts.add(future);
+                pending++;
+                if (attempts.size() < maxAttempts) {
+                    scheduleHedge();
+                }
+            }
+            future.whenComplete((value, error) -> onAttemptComplete(index, value, error));
+        }
+
+        private void scheduleHedge() {
+            try {
+                hedgeTimer = timer.schedule(this::hedge, hedgeDelayNanos, TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                // 定时器已关闭：不再对冲
+                hedgeTimer = null;
+            }
+        }
+
+        private void hedge() {
+            if (result.isDone()) {
+                return;
+            }
+            if (!withinBudget()) {
+                overBudget.increment();
+                return;
+            }
+            hedges.increment();
+            launch();
+        }
+
+        private void onAttemptComplete(int index, T value, Throwable error) {
+            if (index == 0 && (error == null || error instanceof CancellationException && hedgeWon())) {
+                long now = System.nanoTime();
+                recordFirstAttempt(now - start, now);
+            }
+            if (error == null) {
+                if (result.complete(value) && index > 0) {
+                    hedgeWins.increment();
+                }
+                return;
+            }
+            boolean allFailed;
+            synchronized (this) {
+                allFailed = --pending == 0;
+            }
+            if (allFailed) {
+                result.completeExceptionally(CompletableFutures.unwrap(error));
+            }
+        }
+
+        /**
+         * 结果正常完成而第一次尝试被取消：说明是某次对冲先成功了
+         */
+        private boolean hedgeWon() {
+            return result.isDone() && !result.isCompletedExceptionally();
+        }
+
+        private void cancelLosers() {
+            List<CompletableFuture<? extends T>> launched;
+            synchronized (this) {
+                if (hedgeTimer != null) {
+                    hedgeTimer.cancel(false);
+                }
+                launched = new ArrayList<>(attempts);
+            }
+            CompletableFutures.cancelAll(launched);
+        }
+    }
+}
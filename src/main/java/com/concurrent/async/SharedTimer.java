@@ -0,0 +1,30 @@
+package com.concurrent.async;
+
+import com.concurrent.timer.TimerWheelScheduler;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * async 包内共享的时间轮定时器：一个守护线程、1ms 刻度，只执行很短的超时回调
+ *
+ * 每个超时是时间轮中的一个条目（登记、取消都是 O(1)），不会为超时创建线程；
+ * 不对外暴露，避免被调用方关闭。第一次使用时才创建。
+ */
+final class SharedTimer {
+
+    private SharedTimer() {
+    }
+
+    static ScheduledExecutorService get() {
+        return Holder.TIMER;
+    }
+
+    private static final class Holder {
+        static final TimerWheelScheduler TIMER = new TimerWheelScheduler(1, TimeUnit.MILLISECONDS, null, runnable -> {
+            Thread thread = new Thread(runnable, "async-shared-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,70 @@
+package com.concurrent.cache;
+
+/**
+ * 按访问顺序排列的侵入式双向链表：头部最久未访问，尾部最近访问
+ *
+ * 节点自身保存 prev / next，移动和删除都是 O(1)，也不需要为链表额外分配对象。
+ * 不是线程安全的：只在 BoundedCache 的维护锁内访问。
+ */
+final class AccessOrderDeque<K, V> {
+    private final int type;
+    private Node<K, V> head;
+    private Node<K, V> tail;
+    private int size;
+
+    /**
+     * @param type 队列类型（Node.WINDOW / PROBATION / PROTECTED），记录在节点上
+     */
+    AccessOrderDeque(int type) {
+        this.type = type;
+    }
+
+    void addLast(Node<K, V> node) {
+        node.queue = type;
+        node.prev = tail;
+        node.next = null;
+        if (tail == null) {
+            head = node;
+        } else {
+            tail.next = node;
+        }
+        tail = node;
+        size++;
+    }
+
+    void remove(Node<K, V> node) {
+        if (node.prev == null) {
+            head = node.next;
+        } else {
+            node.prev.next = node.next;
+        }
+        if (node.next == null) {
+            tail = node.prev;
+        } else {
+            node.next.prev = node.prev;
+        }
+        node.prev = null;
+        node.next = null;
+        node.queue = Node.NONE;
+        size--;
+    }
+
+    void moveToBack(Node<K, V> node) {
+        if (node != tail) {
+            remove(node);
+            addLast(node);
+        }
+    }
+
+    Node<K, V> peekFirst() {
+        return head;
+    }
+
+    Node<K, V> peekLast() {
+        return tail;
+    }
+
+    int size() {
+        return size;
+    }
+}
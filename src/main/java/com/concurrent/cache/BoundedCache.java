@@ -0,0 +1,608 @@
+package com.concurrent.cache;
+
+import com.concurrent.metrics.LongCounter;
+import com.concurrent.queue.MpmcArrayBlockingQueue;
+import com.concurrent.timer.TimerWheel;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * 有界并发缓存：ConcurrentHashMap 存储 + W-TinyLFU 淘汰 + 时间轮过期
+ *
+ * ConcurrentHashMapDemo.demonstrateComputeMethods 中用 computeIfAbsent 做记忆化没有容量上限，
+ * 堆会无限增长；简单的 LRU 又容易被一次性扫描（大量只访问一次的 key）冲掉热点数据。
+ *
+ * 结构（与 Caffeine 相同的思路，做了简化）：
+ * <pre>
+ *  新条目 --> [窗口 LRU 1%] --淘汰--> 候选者 --TinyLFU 准入--> [主区 SLRU 99%: 试用区 20% + 保护区 80%]
+ * </pre>
+ * 1. 新条目先进入小的窗口区，给突发的新热点一个机会
+ * 2. 窗口区溢出的条目作为候选者，与主区试用区最久未访问的条目（牺牲者）比较访问频率，
+ *    频率高的留下；频率由 FrequencySketch 估计，包含已经被淘汰的 key 的历史访问
+ * 3. 试用区中再次被访问的条目晋升到保护区，保护区溢出时降级回试用区
+ *
+ * 过期（可选）：
+ * - expireAfterWrite（TTL）：写入后经过指定时间过期，put(key, value, ttl, unit) 可以为单个条目指定
+ * - expireAfterAccess（TTI）：最后一次访问后经过指定时间过期
+ * - 每个会过期的条目挂在分层时间轮（TimerWheel）上，安排 / 取消都是 O(1)，不需要为每个 key 创建定时任务；
+ *   维护时推进时间轮，取出到期的条目删除
+ * - 读操作总是检查精确的过期时间，已过期未清理的条目不会被返回
+ * - 清理随读写顺带进行；长时间没有任何读写时，可以定时调用 cleanUp()
+ *
+ * 并发：
+ * - 数据在 ConcurrentHashMap 中，get/put 不加全局锁
+ * - 链表、频率草图和时间轮只由持有 evictionLock 的线程修改
+ * - 读操作把访问记录写入 ReadBuffer（有损，满了就丢）；写操作把对链表的修改封装成任务放入写缓冲区（不能丢）
+ * - 缓冲区在写操作之后、或读缓冲区某段写满时，由当前线程 tryLock 后批量回放，加锁的开销被一批操作分摊
+ *
+ * 因为回放是批量的，ConcurrentHashMap 中的条目数可能短暂超过 maximumSize（最多超出写缓冲区中尚未回放的条目数）。
+ *
+ * 简化之处：窗口区固定为 1%（Caffeine 会根据命中率用爬山法动态调整），不支持按权重计算容量。
+ */
+public class BoundedCache<K, V> {
+    private static final int WRITE_BUFFER_SIZE = 128;
+
+    /**
+     * 过期时间轮的精度（约 1ms）；TTI 的访问时间变化小于它时不更新，避免热点 key 的每次读都写共享内存
+     */
+    private static final long EXPIRY_TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final ConcurrentHashMap<K, Node<K, V>> data;
+    private final ConcurrentHashMap<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+    private final Executor executor;
+
+    private final int maximumSize;
+    private final int windowMaximum;
+    private final int protectedMaximum;
+    /**
+     * 默认的 TTL / TTI（纳秒），0 表示不过期
+     */
+    private final long expireAfterWriteNanos;
+    private final long expireAfterAccessNanos;
+
+    // ==================== 以下字段只在 evictionLock 内访问 ====================
+    private final AccessOrderDeque<K, V> window = new AccessOrderDeque<>(Node.WINDOW);
+    private final AccessOrderDeque<K, V> probation = new AccessOrderDeque<>(Node.PROBATION);
+    private final AccessOrderDeque<K, V> protectedQueue = new AccessOrderDeque<>(Node.PROTECTED);
+    private final FrequencySketch sketch;
+    private final TimerWheel timerWheel;
+    private long maintenanceTime;
+
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final ReadBuffer<Node<K, V>> readBuffer = new ReadBuffer<>();
+    private final MpmcArrayBlockingQueue<Runnable> writeBuffer = new MpmcArrayBlockingQueue<>(WRITE_BUFFER_SIZE);
+
+    private final LongCounter hits = new LongCounter();
+    private final LongCounter misses = new LongCounter();
+    private final LongCounter evictions = new LongCounter();
+    private final LongCounter expirations = new LongCounter();
+
+    /**
+     * 不过期，异步加载使用 ForkJoinPool.commonPool()
+     */
+    public BoundedCache(int maximumSize) {
+        this(maximumSize, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param maximumSize 最大条目数
+     * @param executor    getAsync 执行加载函数的线程池
+     */
+    public BoundedCache(int maximumSize, Executor executor) {
+        this(maximumSize, 0L, 0L, TimeUnit.NANOSECONDS, executor);
+    }
+
+    /**
+     * @param expireAfterWrite  写入后多久过期，0 表示不按写入时间过期
+     * @param expireAfterAccess 最后一次访问后多久过期，0 表示不按访问时间过期
+     */
+    public BoundedCache(int maximumSize, long expireAfterWrite, long expireAfterAccess, TimeUnit unit) {
+        this(maximumSize, expireAfterWrite, expireAfterAccess, unit, ForkJoinPool.commonPool());
+    }
+
+    public BoundedCache(int maximumSize, long expireAfterWrite, long expireAfterAccess, TimeUnit unit,
+                        Executor executor) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize 必须大于 0: " + maximumSize);
+        }
+        if (expireAfterWrite < 0 || expireAfterAccess < 0) {
+            throw new IllegalArgumentException("过期时间不能为负数");
+        }
+        if (executor == null) {
+            throw new NullPointerException();
+        }
+        this.maximumSize = maximumSize;
+        this.windowMaximum = Math.max(1, maximumSize / 100);
+        int mainMaximum = maximumSize - windowMaximum;
+        this.protectedMaximum = (int) (mainMaximum * 0.8);
+        this.expireAfterWriteNanos = unit.toNanos(expireAfterWrite);
+        this.expireAfterAccessNanos = unit.toNanos(expireAfterAccess);
+        this.data = new ConcurrentHashMap<>(Math.min(maximumSize, 1 << 16));
+        this.sketch = new FrequencySketch(maximumSize);
+        this.timerWheel = new TimerWheel(EXPIRY_TICK_NANOS, System.nanoTime());
+        this.executor = executor;
+    }
+
+    // ==================== 读写 ====================
+
+    /**
+     * 命中返回值，未命中（或已过期）返回 null
+     */
+    public V getIfPresent(K key) {
+        Node<K, V> node = data.get(key);
+        if (node == null || !isLive(node)) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        afterRead(node);
+        return node.value;
+    }
+
+    /**
+     * 未命中时用 mappingFunction 计算并放入缓存
+     *
+     * 与 ConcurrentHashMap.computeIfAbsent 语义相同：同一个 key 并发调用时 mappingFunction 只执行一次，
+     * 其他线程等待它的结果。mappingFunction 返回 null 时不缓存，本方法也返回 null。
+     * mappingFunction 执行期间持有 ConcurrentHashMap 的桶锁，耗时的加载请用 getAsync。
+     */
+    public V get(K key, Function<? super K, ? extends V> mappingFunction) {
+        Node<K, V> node = data.get(key);
+        if (node != null && isLive(node)) {
+            hits.increment();
+            afterRead(node);
+            return node.value;
+        }
+        long now = System.nanoTime();
+        Ref<Node<K, V>> created = new Ref<>();
+        Ref<Node<K, V>> replaced = new Ref<>(); // 被替换掉的过期节点
+        Node<K, V> computed = data.compute(key, (k, current) -> {
+            if (current != null && !current.isExpired(now)) {
+                return current;
+            }
+            if (current != null) {
+                current.retired = true;
+                replaced.value = current;
+            }
+            V value = mappingFunction.apply(k);
+            return value == null ? null : (created.value = newNode(k, value, expireAfterWriteNanos, now));
+        });
+        if (replaced.value != null) {
+            Node<K, V> expired = replaced.value;
+            expirations.increment();
+            afterWrite(() -> onRemove(expired));
+        }
+        if (computed == null) {
+            misses.increment();
+            return null;
+        }
+        if (computed == created.value) {
+            misses.increment();
+            afterWrite(() -> onAdd(computed));
+        } else {
+            hits.increment();
+            afterRead(computed);
+        }
+        return computed.value;
+    }
+
+    /**
+     * 异步加载：未命中时在 executor 中执行 loader，不阻塞调用线程
+     *
+     * 同一个 key 正在加载时，后来的调用者拿到同一个 CompletableFuture（不会重复加载）。
+     * 加载成功后放入缓存；加载失败或返回 null 时不缓存，下次调用会重新加载。
+     */
+    public CompletableFuture<V> getAsync(K key, Function<? super K, ? extends V> loader) {
+        Node<K, V> node = data.get(key);
+        if (node != null && isLive(node)) {
+            hits.increment();
+            afterRead(node);
+            return CompletableFuture.completedFuture(node.value);
+        }
+        misses.increment();
+        Ref<CompletableFuture<V>> created = new Ref<>();
+        CompletableFuture<V> future = loading.computeIfAbsent(key,
+            k -> created.value = CompletableFuture.supplyAsync(() -> loader.apply(k), executor));
+        if (future == created.value) {
+            // 回调必须在 computeIfAbsent 返回之后注册：加载可能已经完成，回调会在当前线程中立即执行，
+            // 而回调里要修改 loading，不能在 computeIfAbsent 的函数内部进行
+            future.whenComplete((value, error) -> {
+                if (error == null && value != null) {
+                    put(key, value);
+                }
+                loading.remove(key, future);
+            });
+        }
+        return future;
+    }
+
+    /**
+     * 使用默认的 TTL 放入缓存
+     *
+     * @return 旧值，没有（或已过期）时返回 null
+     */
+    public V put(K key, V value) {
+        return put(key, value, expireAfterWriteNanos);
+    }
+
+    /**
+     * 为单个条目指定 TTL 放入缓存
+     *
+     * @param expireAfterWrite 写入后多久过期，0 表示不按写入时间过期（TTI 仍按缓存的配置生效）
+     */
+    public V put(K key, V value, long expireAfterWrite, TimeUnit unit) {
+        if (expireAfterWrite < 0) {
+            throw new IllegalArgumentException("过期时间不能为负数: " + expireAfterWrite);
+        }
+        return put(key, value, unit.toNanos(expireAfterWrite));
+    }
+
+    private V put(K key, V value, long ttlNanos) {
+        if (value == null) {
+            throw new NullPointerException();
+        }
+        long now = System.nanoTime();
+        Ref<Node<K, V>> created = new Ref<>();
+        Ref<V> oldValue = new Ref<>();
+        // 在桶锁内更新已有节点，与过期删除（computeIfPresent）互斥，不会出现刚更新的节点被当作过期删掉
+        Node<K, V> node = data.compute(key, (k, current) -> {
+            if (current == null) {
+                return created.value = newNode(k, value, ttlNanos, now);
+            }
+            if (!current.isExpired(now)) {
+                oldValue.value = current.value;
+            }
+            current.value = value;
+            setDeadlines(current, ttlNanos, now);
+            return current;
+        });
+        if (node == created.value) {
+            afterWrite(() -> onAdd(node));
+        } else {
+            afterWrite(() -> onUpdate(node));
+        }
+        return oldValue.value;
+    }
+
+    /**
+     * @return 被移除的值，没有时返回 null
+     */
+    public V invalidate(K key) {
+        Node<K, V> node = data.remove(key);
+        if (node == null) {
+            return null;
+        }
+        node.retired = true;
+        afterWrite(() -> onRemove(node));
+        return node.value;
+    }
+
+    public void invalidateAll() {
+        for (K key : data.keySet()) {
+            invalidate(key);
+        }
+    }
+
+    /**
+     * 当前条目数（可能短暂超过 maximumSize，也可能包含已过期但尚未清理的条目，见类说明）
+     */
+    public long estimatedSize() {
+        return data.size();
+    }
+
+    public int maximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * 立即回放所有缓冲区，清理过期条目并执行淘汰
+     */
+    public void cleanUp() {
+        evictionLock.lock();
+        try {
+            maintenance();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    // ==================== 过期 ====================
+
+    private Node<K, V> newNode(K key, V value, long ttlNanos, long now) {
+        Node<K, V> node = new Node<>(key, value);
+        setDeadlines(node, ttlNanos, now);
+        return node;
+    }
+
+    private void setDeadlines(Node<K, V> node, long ttlNanos, long now) {
+        node.writeDeadline = ttlNanos > 0 ? deadline(now, ttlNanos) : Long.MAX_VALUE;
+        node.accessDeadline = expireAfterAccessNanos > 0 ? deadline(now, expireAfterAccessNanos) : Long.MAX_VALUE;
+    }
+
+    /**
+     * now + duration，溢出时取 Long.MAX_VALUE - 1（Long.MAX_VALUE 表示不过期）
+     */
+    private static long deadline(long now, long duration) {
+        long deadline = now + duration;
+        return deadline < now || deadline == Long.MAX_VALUE ? Long.MAX_VALUE - 1 : deadline;
+    }
+
+    /**
+     * 条目是否有效（未过期）；有效且配置了 TTI 时顺带刷新访问时间
+     */
+    private boolean isLive(Node<K, V> node) {
+        if (node.expirationTime() == Long.MAX_VALUE) {
+            return true;
+        }
+        long now = System.nanoTime();
+        if (node.isExpired(now)) {
+            // 尽早把它清理掉
+            tryMaintenance();
+            return false;
+        }
+        if (expireAfterAccessNanos > 0) {
+            long accessDeadline = deadline(now, expireAfterAccessNanos);
+            if (accessDeadline - node.accessDeadline > EXPIRY_TICK_NANOS) {
+                node.accessDeadline = accessDeadline;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 按节点当前的过期时间安排（或取消）时间轮中的位置
+     */
+    private void scheduleExpiry(Node<K, V> node) {
+        long deadline = node.expirationTime();
+        if (deadline == Long.MAX_VALUE) {
+            timerWheel.cancel(node);
+        } else if (!node.isScheduled() || node.deadline() != deadline) {
+            timerWheel.schedule(node, deadline);
+        }
+    }
+
+    private void expireEntries() {
+        if (timerWheel.size() == 0) {
+            return;
+        }
+        maintenanceTime = System.nanoTime();
+        timerWheel.advance(maintenanceTime, this::onTimer);
+    }
+
+    /**
+     * 时间轮到点：时间轮中记录的可能是旧的过期时间（TTI 被刷新、或 put 更新了 TTL），要按节点当前的过期时间判断
+     */
+    @SuppressWarnings("unchecked")
+    private void onTimer(TimerWheel.Entry entry) {
+        Node<K, V> node = (Node<K, V>) entry;
+        if (node.retired) {
+            return;
+        }
+        long now = maintenanceTime;
+        if (!node.isExpired(now)) {
+            scheduleExpiry(node);
+            return;
+        }
+        boolean[] removed = new boolean[1];
+        // 在桶锁内再确认一次，与 put 的更新互斥
+        data.computeIfPresent(node.key, (k, current) -> {
+            if (current == node && current.isExpired(now)) {
+                current.retired = true;
+                removed[0] = true;
+                return null;
+            }
+            return current;
+        });
+        if (removed[0]) {
+            unlink(node);
+            expirations.increment();
+        } else if (!node.retired) {
+            // 刚被 put 更新过
+            scheduleExpiry(node);
+        }
+    }
+
+    // ==================== 统计 ====================
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * 因容量不足被淘汰的条目数
+     */
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * 因过期被删除的条目数
+     */
+    public long expirationCount() {
+        return expirations.sum();
+    }
+
+    public double hitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 1.0 : (double) h / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            "BoundedCache{size=%d, maximumSize=%d, hits=%d, misses=%d, hitRate=%.2f%%, evictions=%d, expirations=%d}",
+            estimatedSize(), maximumSize, hitCount(), missCount(), hitRate() * 100, evictionCount(),
+            expirationCount());
+    }
+
+    // ==================== 缓冲与维护 ====================
+
+    private void afterRead(Node<K, V> node) {
+        if (readBuffer.offer(node) == ReadBuffer.FULL) {
+            tryMaintenance();
+        }
+    }
+
+    /**
+     * 写任务不能丢：写缓冲区满时当前线程加锁（阻塞）把它回放掉再重试
+     */
+    private void afterWrite(Runnable task) {
+        while (!writeBuffer.offer(task)) {
+            cleanUp();
+        }
+        tryMaintenance();
+    }
+
+    private void tryMaintenance() {
+        if (evictionLock.tryLock()) {
+            try {
+                maintenance();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    private void maintenance() {
+        readBuffer.drainTo(this::onAccess);
+        Runnable task;
+        while ((task = writeBuffer.poll()) != null) {
+            task.run();
+        }
+        expireEntries();
+        evictEntries();
+    }
+
+    private void onAdd(Node<K, V> node) {
+        sketch.increment(node.key);
+        // 回放前已经被移除（remove 任务可能先于 add 任务入队）
+        if (!node.retired) {
+            window.addLast(node);
+            scheduleExpiry(node);
+        }
+    }
+
+    private void onUpdate(Node<K, V> node) {
+        onAccess(node);
+        if (!node.retired) {
+            scheduleExpiry(node);
+        }
+    }
+
+    private void onRemove(Node<K, V> node) {
+        unlink(node);
+    }
+
+    private void onAccess(Node<K, V> node) {
+        sketch.increment(node.key);
+        if (node.retired) {
+            return;
+        }
+        switch (node.queue) {
+            case Node.WINDOW:
+                window.moveToBack(node);
+                break;
+            case Node.PROBATION:
+                // 试用区中再次被访问：晋升到保护区
+                probation.remove(node);
+                protectedQueue.addLast(node);
+                while (protectedQueue.size() > protectedMaximum) {
+                    Node<K, V> demoted = protectedQueue.peekFirst();
+                    protectedQueue.remove(demoted);
+                    probation.addLast(demoted);
+                }
+                break;
+            case Node.PROTECTED:
+                protectedQueue.moveToBack(node);
+                break;
+            default:
+                // add 任务还没回放
+                return;
+        }
+        if (expireAfterAccessNanos > 0) {
+            scheduleExpiry(node);
+        }
+    }
+
+    private void evictEntries() {
+        // 窗口区溢出的条目移到试用区尾部，成为候选者
+        int candidates = 0;
+        while (window.size() > windowMaximum) {
+            Node<K, V> node = window.peekFirst();
+            window.remove(node);
+            probation.addLast(node);
+            candidates++;
+        }
+
+        while (window.size() + probation.size() + protectedQueue.size() > maximumSize) {
+            Node<K, V> victim = probation.peekFirst();
+            if (victim == null) {
+                victim = protectedQueue.peekFirst() != null ? protectedQueue.peekFirst() : window.peekFirst();
+                evict(victim);
+                continue;
+            }
+            Node<K, V> candidate = candidates > 0 ? probation.peekLast() : null;
+            if (candidate == null || candidate == victim) {
+                evict(victim);
+                if (candidate == victim) {
+                    candidates--;
+                }
+                continue;
+            }
+            // TinyLFU 准入：候选者比牺牲者访问更频繁才能留下
+            if (sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+                evict(victim);
+            } else {
+                evict(candidate);
+                candidates--;
+            }
+        }
+    }
+
+    private void evict(Node<K, V> node) {
+        unlink(node);
+        // 用 remove(key, node) 而不是 remove(key)：同一个 key 可能已经被移除后重新放入了新的节点
+        if (data.remove(node.key, node)) {
+            node.retired = true;
+            evictions.increment();
+        }
+    }
+
+    /**
+     * 从链表和时间轮中摘除
+     */
+    private void unlink(Node<K, V> node) {
+        switch (node.queue) {
+            case Node.WINDOW:
+                window.remove(node);
+                break;
+            case Node.PROBATION:
+                probation.remove(node);
+                break;
+            case Node.PROTECTED:
+                protectedQueue.remove(node);
+                break;
+            default:
+                break;
+        }
+        timerWheel.cancel(node);
+    }
+
+    /**
+     * 从 lambda 中带出结果（代替泛型数组，避免 rawtypes / unchecked 警告）
+     */
+    private static final class Ref<T> {
+        T value;
+    }
+}
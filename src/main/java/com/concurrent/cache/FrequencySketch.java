@@ -0,0 +1,110 @@
+package com.concurrent.cache;
+
+/**
+ * 访问频率草图（4 位计数的 Count-Min Sketch），W-TinyLFU 准入过滤器的核心
+ *
+ * 用很小的固定内存近似记录 "每个 key 最近被访问了多少次"：
+ * 1. table 中每个 long 拆成 16 个 4 位计数器（最大 15）
+ * 2. 一个 key 对应 4 个计数器（4 个不同的哈希），计数时 4 个都加一，查询时取最小值，
+ *    哈希冲突只会让结果偏大，不会偏小
+ * 3. 计数总次数达到 sampleSize（10 倍容量）时，所有计数器减半（老化），让频率反映 "最近" 的热度
+ *
+ * 不是线程安全的：只在 BoundedCache 的维护锁内访问。
+ */
+final class FrequencySketch {
+    private static final long[] SEEDS = {
+        0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long ONE_MASK = 0x1111111111111111L;
+
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int size;
+
+    /**
+     * @param maximumSize 缓存容量，计数器数量与之成正比
+     */
+    FrequencySketch(int maximumSize) {
+        int length = ceilingPowerOfTwo(Math.max(maximumSize, 8));
+        this.table = new long[length];
+        this.tableMask = length - 1;
+        this.sampleSize = (int) Math.min(10L * Math.max(maximumSize, 1), Integer.MAX_VALUE);
+    }
+
+    /**
+     * 估计 key 的访问频率（0 ~ 15）
+     */
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+        int frequency = Integer.MAX_VALUE;
+        for (int i = 0; i < 4; i++) {
+            int index = indexOf(hash, i);
+            int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /**
+     * 记录一次访问
+     */
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            added |= incrementAt(indexOf(hash, i), start + i);
+        }
+        if (added && ++size == sampleSize) {
+            reset();
+        }
+    }
+
+    /**
+     * 第 index 个 long 中的第 counter 个计数器加一，已经是 15 时不变
+     */
+    private boolean incrementAt(int index, int counter) {
+        int offset = counter << 2;
+        long mask = 0xfL << offset;
+        if ((table[index] & mask) != mask) {
+            table[index] += 1L << offset;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 老化：所有计数器减半
+     */
+    private void reset() {
+        int odd = 0;
+        for (int i = 0; i < table.length; i++) {
+            // 奇数计数器右移时丢掉的 1，用于修正 size
+            odd += Long.bitCount(table[i] & ONE_MASK);
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        size = (size - (odd >>> 2)) >>> 1;
+    }
+
+    private int indexOf(int hash, int i) {
+        long h = (hash + SEEDS[i]) * SEEDS[i];
+        h += h >>> 32;
+        return (int) h & tableMask;
+    }
+
+    /**
+     * 打散较差的 hashCode（例如连续的整数）
+     */
+    private static int spread(int x) {
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        return (x >>> 16) ^ x;
+    }
+
+    private static int ceilingPowerOfTwo(int n) {
+        return n >= (1 << 30) ? (1 << 30) : Integer.highestOneBit(n - 1) << 1;
+    }
+}
@@ -0,0 +1,50 @@
+package com.concurrent.cache;
+
+import com.concurrent.timer.TimerWheel;
+
+/**
+ * 缓存条目：既是 ConcurrentHashMap 的 value，也是访问顺序链表和过期时间轮中的节点
+ *
+ * key / value / 过期时间可以被任意线程读写；prev / next / queue 以及时间轮的字段只在 BoundedCache 的维护锁内访问。
+ */
+final class Node<K, V> extends TimerWheel.Entry {
+    static final int NONE = 0;
+    static final int WINDOW = 1;
+    static final int PROBATION = 2;
+    static final int PROTECTED = 3;
+
+    final K key;
+    volatile V value;
+
+    /**
+     * 写入后过期（TTL）和访问后过期（TTI）的绝对时间，Long.MAX_VALUE 表示不过期
+     */
+    volatile long writeDeadline = Long.MAX_VALUE;
+    volatile long accessDeadline = Long.MAX_VALUE;
+
+    /**
+     * 已经从 ConcurrentHashMap 中移除，等待维护线程把它从链表中摘除
+     */
+    volatile boolean retired;
+
+    Node<K, V> prev;
+    Node<K, V> next;
+    int queue = NONE;
+
+    Node(K key, V value) {
+        this.key = key;
+        this.value = value;
+    }
+
+    /**
+     * 实际过期时间：TTL 和 TTI 中先到的那个
+     */
+    long expirationTime() {
+        return Math.min(writeDeadline, accessDeadline);
+    }
+
+    boolean isExpired(long now) {
+        long deadline = expirationTime();
+        return deadline != Long.MAX_VALUE && now - deadline >= 0;
+    }
+}
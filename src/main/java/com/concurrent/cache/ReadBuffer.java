@@ -0,0 +1,92 @@
+package com.concurrent.cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * 读缓冲区：分段的有损环形数组，批量记录 "哪个条目被访问了"
+ *
+ * 如果每次 get 都去加锁调整 LRU 链表，读操作就全部串行化了。这里的做法是：
+ * 1. get 只把节点追加到本线程所在段的环形数组里（一次 CAS），不加锁
+ * 2. 某段写满时由当前线程 tryLock 维护锁，一次性把所有段的记录回放到链表和频率草图中
+ * 3. 段满了、或者 CAS 失败（同段有其他线程在写）时直接丢弃这条记录
+ *
+ * 丢弃访问记录只会让访问顺序和频率略有偏差，不影响正确性；读路径因此永远不会阻塞。
+ */
+final class ReadBuffer<E> {
+    static final int SUCCESS = 0;
+    static final int FULL = 1;
+    static final int FAILED = 2;
+
+    /**
+     * 每段的槽位数（必须是 2 的幂）
+     */
+    static final int BUFFER_SIZE = 16;
+    private static final int BUFFER_MASK = BUFFER_SIZE - 1;
+    private static final int LONGS_PER_CACHE_LINE = 8;
+
+    private final AtomicReferenceArray<E> slots;
+    /**
+     * 每段的写入位置和读取位置，各占一条缓存行
+     */
+    private final AtomicLongArray writeCounts;
+    private final AtomicLongArray readCounts;
+    private final int mask;
+
+    ReadBuffer() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        int stripes = cores <= 1 ? 1 : Integer.highestOneBit(cores - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(stripes * BUFFER_SIZE);
+        this.writeCounts = new AtomicLongArray((stripes + 2) * LONGS_PER_CACHE_LINE);
+        this.readCounts = new AtomicLongArray((stripes + 2) * LONGS_PER_CACHE_LINE);
+        this.mask = stripes - 1;
+    }
+
+    private static int counterIndex(int stripe) {
+        return (stripe + 1) * LONGS_PER_CACHE_LINE;
+    }
+
+    /**
+     * 记录一次访问
+     *
+     * @return SUCCESS 已记录；FULL 已记录或被丢弃，且本段已满，调用方应尽快回放；FAILED 被丢弃
+     */
+    int offer(E e) {
+        int stripe = (int) Thread.currentThread().getId() & mask;
+        int counter = counterIndex(stripe);
+        long head = readCounts.get(counter);
+        long tail = writeCounts.get(counter);
+        long size = tail - head;
+        if (size >= BUFFER_SIZE) {
+            return FULL;
+        }
+        if (writeCounts.compareAndSet(counter, tail, tail + 1)) {
+            slots.lazySet(stripe * BUFFER_SIZE + (int) (tail & BUFFER_MASK), e);
+            return size + 1 >= BUFFER_SIZE ? FULL : SUCCESS;
+        }
+        return FAILED;
+    }
+
+    /**
+     * 回放所有段中已发布的记录，只能由持有维护锁的线程调用
+     */
+    void drainTo(Consumer<E> consumer) {
+        for (int stripe = 0; stripe <= mask; stripe++) {
+            int counter = counterIndex(stripe);
+            long head = readCounts.get(counter);
+            long tail = writeCounts.get(counter);
+            for (; head < tail; head++) {
+                int index = stripe * BUFFER_SIZE + (int) (head & BUFFER_MASK);
+                E e = slots.get(index);
+                if (e == null) {
+                    // 写入者已经占到位置但还没写入元素，下次再回放
+                    break;
+                }
+                slots.lazySet(index, null);
+                consumer.accept(e);
+            }
+            readCounts.lazySet(counter, head);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.concurrent.executor;
+
+import com.concurrent.timer.TimerWheelScheduler;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 根据排队时间和吞吐量自动调整线程数的线程池
+ *
+ * 手工设定的 corePoolSize / maximumPoolSize 只适合某一种负载：高峰期线程不够，任务在队列里越积越多；
+ * 低谷期线程闲置。本实现每隔一个调整周期，用上一周期的统计重新计算线程数：
+ *
+ * 1. Little 定律：平均忙碌的线程数 L = 到达率 λ × 平均执行时间 R。
+ *    R 包含任务阻塞（I/O、sleep）的时间，所以对 I/O 密集型任务同样适用
+ * 2. 目标线程数 = L / targetUtilization（留出余量，默认利用率 75%）
+ * 3. 队头任务已经排队的时间超过 queueWaitTarget 时，说明积压在增长，在目标之上再加 25%；
+ *    但如果上次加线程后吞吐量没有提高（例如 CPU 已经跑满），就不再额外加（梯度判断，避免越加越慢）
+ * 4. 增加立即生效，减少每周期最多减 25%，避免负载抖动时线程数来回震荡
+ *
+ * 积压按队列的当前状态判断，而不是已开始执行的任务的排队时间：任务比调整周期还长时，所有线程都被占住，
+ * 一个周期内可能一个任务都没完成、一个任务都没开始，这时 Little 定律没有数据，但队头的等待时间仍在增长，
+ * 照样扩容；吞吐量也量不出变化，不用它否定扩容。
+ *
+ * 结果写入 setCorePoolSize，maximumPoolSize 设为它的 2 倍（有界队列满时还能临时扩容应对突发），
+ * 两者都限制在 [minThreads, maxThreads] 内。
+ *
+ * 调整由一个专用的定时线程（TimerWheelScheduler，守护线程）按周期执行，提交任务的线程和工作线程不承担
+ * 统计和 resize 的开销；线程池终止时（terminated）关闭它。
+ * 空闲时逐步缩回 minThreads，多余的线程靠 keepAlive 超时自然退出（allowCoreThreadTimeOut）。
+ *
+ * 统计来自 InstrumentedThreadPoolExecutor 的延迟直方图。
+ */
+public class AdaptiveThreadPoolExecutor extends InstrumentedThreadPoolExecutor {
+    private static final double DEFAULT_TARGET_UTILIZATION = 0.75;
+    private static final long DEFAULT_KEEP_ALIVE_SECONDS = 30L;
+
+    private final int minThreads;
+    private final int maxThreads;
+    private final long queueWaitTargetNanos;
+    private final long intervalNanos;
+    private final double targetUtilization;
+
+    private final TimerWheelScheduler adjuster;
+
+    // ==================== 以下字段只由调整线程访问 ====================
+    private long lastAdjustAt;
+    private long lastTaskCount;
+    private long lastRejected;
+    private Snapshot last;
+    private double lastThroughput;
+    private boolean lastGrew;
+
+    // ==================== 最近一次调整的结果，供观察 ====================
+    private volatile double throughput;
+    private volatile double littleEstimate;
+    private volatile long adjustments;
+
+    /**
+     * 调整周期 500ms，默认线程工厂，AbortPolicy
+     *
+     * @param queueWaitTarget 可以接受的平均排队时间
+     */
+    public AdaptiveThreadPoolExecutor(int minThreads, int maxThreads, BlockingQueue<Runnable> workQueue,
+                                      long queueWaitTarget, TimeUnit unit) {
+        this(minThreads, maxThreads, workQueue, queueWaitTarget, unit, 500L, TimeUnit.MILLISECONDS,
+            Executors.defaultThreadFactory(), new AbortPolicy());
+    }
+
+    /**
+     * @param interval 调整周期，太短统计噪声大，太长跟不上负载变化
+     */
+    public AdaptiveThreadPoolExecutor(int minThreads, int maxThreads, BlockingQueue<Runnable> workQueue,
+                                      long queueWaitTarget, TimeUnit unit, long interval, TimeUnit intervalUnit,
+                                      ThreadFactory threadFactory, RejectedExecutionHandler handler) {
+        super(minThreads, maxPoolSizeFor(minThreads, maxThreads), DEFAULT_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+            workQueue, threadFactory, handler);
+        if (minThreads <= 0 || maxThreads < minThreads) {
+            throw new IllegalArgumentException("需要 0 < minThreads <= maxThreads: " + minThreads + ", " + maxThreads);
+        }
+        if (queueWaitTarget <= 0 || interval <= 0) {
+            throw new IllegalArgumentException("queueWaitTarget 和 interval 必须大于 0");
+        }
+        this.minThreads = minThreads;
+        this.maxThreads = maxThreads;
+        this.queueWaitTargetNanos = unit.toNanos(queueWaitTarget);
+        this.intervalNanos = intervalUnit.toNanos(interval);
+        this.targetUtilization = DEFAULT_TARGET_UTILIZATION;
+        allowCoreThreadTimeOut(true);
+
+        this.lastAdjustAt = System.nanoTime();
+        this.last = snapshot();
+        // 刻度取周期的 1/10（至少 1ms），周期任务只在这一个线程上执行，相邻两次调整不会重叠
+        this.adjuster = new TimerWheelScheduler(Math.max(1L, TimeUnit.NANOSECONDS.toMillis(intervalNanos) / 10),
+            TimeUnit.MILLISECONDS, null, runnable -> {
+                Thread thread = new Thread(runnable, "adaptive-pool-adjuster");
+                thread.setDaemon(true);
+                return thread;
+            });
+        adjuster.scheduleAtFixedRate(this::adjust, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    protected void terminated() {
+        adjuster.shutdownNow();
+        super.terminated();
+    }
+
+    private void adjust() {
+        long now = System.nanoTime();
+        Snapshot current = snapshot();
+        long taskCount = getTaskCount();
+        long rejected = current.rejectedCount();
+        double seconds = (now - lastAdjustAt) / 1e9;
+
+        // 到达率包括被拒绝的任务：它们也是需求
+        double arrivalRate = (taskCount - lastTaskCount + rejected - lastRejected) / seconds;
+        long completed = current.runTime().count() - last.runTime().count();
+        double completedRate = completed / seconds;
+        double meanRunSeconds = completed > 0
+            ? (current.runTime().sum() - last.runTime().sum()) / 1e9 / completed
+            : 0.0;
+
+        int size = getCorePoolSize();
+        int target = size;
+        if (completed > 0) {
+            double needed = arrivalRate * meanRunSeconds;
+            target = (int) Math.ceil(needed / targetUtilization);
+            littleEstimate = needed;
+        } else if (current.activeCount() == 0 && current.queueSize() == 0) {
+            // 空闲
+            target = minThreads;
+        }
+
+        // 积压看当前队列：队头任务等了多久，不依赖本周期有没有任务完成
+        boolean backlog = current.queueSize() > 0 && headQueueWaitNanos() > queueWaitTargetNanos;
+        // 本周期没有任务完成时吞吐量是 0，说明不了加线程没用
+        boolean growthHelped = !lastGrew || completed == 0 || completedRate > lastThroughput * 1.05;
+        if (backlog && growthHelped) {
+            target = Math.max(target, size + Math.max(1, size / 4));
+        }
+        if (target < size) {
+            // 慢慢减
+            target = Math.max(target, size - Math.max(1, size / 4));
+        }
+        target = Math.max(minThreads, Math.min(maxThreads, target));
+        resize(target);
+
+        lastGrew = target > size;
+        lastThroughput = completedRate;
+        throughput = completedRate;
+        lastAdjustAt = now;
+        lastTaskCount = taskCount;
+        lastRejected = rejected;
+        last = current;
+        adjustments++;
+    }
+
+    /**
+     * 先扩大 maximumPoolSize 再调 corePoolSize（缩小时反过来），任何时刻都满足 core <= max
+     */
+    private void resize(int core) {
+        int max = maxPoolSizeFor(core, maxThreads);
+        if (core == getCorePoolSize() && max == getMaximumPoolSize()) {
+            return;
+        }
+        if (max >= getMaximumPoolSize()) {
+            setMaximumPoolSize(max);
+            setCorePoolSize(core);
+        } else {
+            setCorePoolSize(core);
+            setMaximumPoolSize(max);
+        }
+    }
+
+    /**
+     * maximumPoolSize 取 core 的 2 倍，不超过 maxThreads；先转 long 再乘，避免 core 很大时溢出
+     */
+    private static int maxPoolSizeFor(int core, int maxThreads) {
+        return Math.min(maxThreads, (int) Math.min(Integer.MAX_VALUE, 2L * core));
+    }
+
+    /**
+     * 最近一个调整周期的吞吐量（任务/秒）
+     */
+    public double throughput() {
+        return throughput;
+    }
+
+    /**
+     * 最近一个调整周期按 Little 定律估算的平均忙碌线程数
+     */
+    public double littleEstimate() {
+        return littleEstimate;
+    }
+
+    public long adjustmentCount() {
+        return adjustments;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("AdaptiveThreadPoolExecutor{core=%d, max=%d, poolSize=%d, queue=%d, "
+                + "throughput=%.0f/s, littleEstimate=%.1f, adjustments=%d}",
+            getCorePoolSize(), getMaximumPoolSize(), getPoolSize(), getQueue().size(),
+            throughput, littleEstimate, adjustments);
+    }
+}
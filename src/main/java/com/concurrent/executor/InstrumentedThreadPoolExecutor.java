@@ -0,0 +1,287 @@
+package com.concurrent.executor;
+
+import com.concurrent.metrics.LatencyHistogram;
+import com.concurrent.metrics.LongCounter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 带延迟统计的线程池
+ *
+ * ThreadPoolExecutorDemo.demonstrateMonitoring 轮询 getPoolSize / getActiveCount / 队列长度，只能看到瞬时状态，
+ * 看不到任务 "等了多久、跑了多久"，而线程池配置不当时最先恶化的正是排队时间的长尾。
+ *
+ * 本实现：
+ * 1. execute 时把任务包装为 TimedTask，记下入队时间
+ * 2. beforeExecute 记录排队时间（开始执行 - 入队），afterExecute 记录执行时间，分别放入 LatencyHistogram
+ * 3. 拒绝策略被包装一层，按拒绝策略的类名分别计数（运行中可以 setRejectedExecutionHandler 切换策略）
+ * 4. snapshot() 随时可以调用，不需要停下线程池
+ *
+ * 每个任务多一次对象分配和三次 System.nanoTime()，统计本身都是无锁的。
+ *
+ * 注意：
+ * - 工作队列中保存的是包装后的任务：getQueue() 中的元素不是提交的原始任务，remove(原始任务) 无效；
+ *   shutdownNow() 返回的是原始任务
+ * - 拒绝策略收到的是原始任务
+ * - 子类覆盖 beforeExecute / afterExecute 时要调用 super
+ */
+public class InstrumentedThreadPoolExecutor extends ThreadPoolExecutor {
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+    private final LatencyHistogram runTime = new LatencyHistogram();
+    private final LongCounter failed = new LongCounter();
+    private final ConcurrentHashMap<String, LongCounter> rejected;
+
+    public InstrumentedThreadPoolExecutor(int corePoolSize, int maximumPoolSize, long keepAliveTime, TimeUnit unit,
+                                          BlockingQueue<Runnable> workQueue) {
+        this(corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue, Executors.defaultThreadFactory(),
+            new AbortPolicy());
+    }
+
+    public InstrumentedThreadPoolExecutor(int corePoolSize, int maximumPoolSize, long keepAliveTime, TimeUnit unit,
+                                          BlockingQueue<Runnable> workQueue, ThreadFactory threadFactory,
+                                          RejectedExecutionHandler handler) {
+        this(corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue, threadFactory, handler,
+            new ConcurrentHashMap<>());
+    }
+
+    /**
+     * 拒绝计数在调用 super 之前创建，才能交给包装后的拒绝策略
+     */
+    private InstrumentedThreadPoolExecutor(int corePoolSize, int maximumPoolSize, long keepAliveTime, TimeUnit unit,
+                                           BlockingQueue<Runnable> workQueue, ThreadFactory threadFactory,
+                                           RejectedExecutionHandler handler,
+                                           ConcurrentHashMap<String, LongCounter> rejected) {
+        super(corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue, threadFactory,
+            new CountingHandler(handler, rejected));
+        this.rejected = rejected;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (command == null) {
+            throw new NullPointerException();
+        }
+        super.execute(new TimedTask(command, System.nanoTime()));
+    }
+
+    @Override
+    protected void beforeExecute(Thread t, Runnable r) {
+        super.beforeExecute(t, r);
+        if (r instanceof TimedTask) {
+            TimedTask task = (TimedTask) r;
+            task.startedAt = System.nanoTime();
+            queueWait.record(task.startedAt - task.enqueuedAt);
+        }
+    }
+
+    @Override
+    protected void afterExecute(Runnable r, Throwable t) {
+        super.afterExecute(r, t);
+        if (r instanceof TimedTask) {
+            runTime.record(System.nanoTime() - ((TimedTask) r).startedAt);
+        }
+        if (t != null) {
+            failed.increment();
+        }
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        List<Runnable> tasks = super.shutdownNow();
+        List<Runnable> unwrapped = new ArrayList<>(tasks.size());
+        for (Runnable task : tasks) {
+            unwrapped.add(task instanceof TimedTask ? ((TimedTask) task).command : task);
+        }
+        return unwrapped;
+    }
+
+    @Override
+    public void setRejectedExecutionHandler(RejectedExecutionHandler handler) {
+        super.setRejectedExecutionHandler(new CountingHandler(handler, rejected));
+    }
+
+    /**
+     * 返回实际的拒绝策略（不是计数用的包装）
+     */
+    @Override
+    public RejectedExecutionHandler getRejectedExecutionHandler() {
+        return ((CountingHandler) super.getRejectedExecutionHandler()).delegate;
+    }
+
+    /**
+     * 当前状态与累计统计，线程池运行中随时可以调用
+     */
+    public Snapshot snapshot() {
+        Map<String, Long> rejectedCounts = new LinkedHashMap<>();
+        for (Map.Entry<String, LongCounter> entry : rejected.entrySet()) {
+            rejectedCounts.put(entry.getKey(), entry.getValue().sum());
+        }
+        return new Snapshot(getPoolSize(), getActiveCount(), getLargestPoolSize(), getQueue().size(),
+            getCompletedTaskCount(), failed.sum(), Collections.unmodifiableMap(rejectedCounts),
+            queueWait.snapshot(), runTime.snapshot());
+    }
+
+    /**
+     * 队头任务已经排队的时间（纳秒），队列为空时返回 0
+     *
+     * 与 queueWait 直方图不同，不需要等任务开始执行：所有线程都被长任务占住时，它照样随积压增长。
+     */
+    long headQueueWaitNanos() {
+        Runnable head = getQueue().peek();
+        if (head instanceof TimedTask) {
+            return Math.max(0L, System.nanoTime() - ((TimedTask) head).enqueuedAt);
+        }
+        return 0L;
+    }
+
+    /**
+     * 记下入队时间和开始执行时间的包装任务
+     */
+    private static final class TimedTask implements Runnable {
+        final Runnable command;
+        final long enqueuedAt;
+        /**
+         * 只由执行它的工作线程读写
+         */
+        long startedAt;
+
+        TimedTask(Runnable command, long enqueuedAt) {
+            this.command = command;
+            this.enqueuedAt = enqueuedAt;
+        }
+
+        @Override
+        public void run() {
+            command.run();
+        }
+    }
+
+    /**
+     * 按拒绝策略计数后交给真正的拒绝策略处理
+     */
+    private static final class CountingHandler implements RejectedExecutionHandler {
+        final RejectedExecutionHandler delegate;
+        private final LongCounter counter;
+
+        CountingHandler(RejectedExecutionHandler delegate, ConcurrentHashMap<String, LongCounter> rejected) {
+            if (delegate == null) {
+                throw new NullPointerException();
+            }
+            this.delegate = delegate;
+            this.counter = rejected.computeIfAbsent(delegate.getClass().getSimpleName(), k -> new LongCounter());
+        }
+
+        @Override
+        public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+            counter.increment();
+            delegate.rejectedExecution(r instanceof TimedTask ? ((TimedTask) r).command : r, executor);
+        }
+    }
+
+    /**
+     * 线程池统计快照
+     *
+     * 各项分别读取，不是原子视图；直方图的时间单位是纳秒。
+     */
+    public static final class Snapshot {
+        private final int poolSize;
+        private final int activeCount;
+        private final int largestPoolSize;
+        private final int queueSize;
+        private final long completedTaskCount;
+        private final long failedTaskCount;
+        private final Map<String, Long> rejectedCounts;
+        private final LatencyHistogram.Snapshot queueWait;
+        private final LatencyHistogram.Snapshot runTime;
+
+        Snapshot(int poolSize, int activeCount, int largestPoolSize, int queueSize, long completedTaskCount,
+                 long failedTaskCount, Map<String, Long> rejectedCounts, LatencyHistogram.Snapshot queueWait,
+                 LatencyHistogram.Snapshot runTime) {
+            this.poolSize = poolSize;
+            this.activeCount = activeCount;
+            this.largestPoolSize = largestPoolSize;
+            this.queueSize = queueSize;
+            this.completedTaskCount = completedTaskCount;
+            this.failedTaskCount = failedTaskCount;
+            this.rejectedCounts = rejectedCounts;
+            this.queueWait = queueWait;
+            this.runTime = runTime;
+        }
+
+        public int poolSize() {
+            return poolSize;
+        }
+
+        public int activeCount() {
+            return activeCount;
+        }
+
+        public int largestPoolSize() {
+            return largestPoolSize;
+        }
+
+        public int queueSize() {
+            return queueSize;
+        }
+
+        public long completedTaskCount() {
+            return completedTaskCount;
+        }
+
+        /**
+         * 抛出异常的任务数（submit 提交的任务异常被 Future 捕获，不计入）
+         */
+        public long failedTaskCount() {
+            return failedTaskCount;
+        }
+
+        /**
+         * 拒绝策略类名 -> 被拒绝的任务数
+         */
+        public Map<String, Long> rejectedCounts() {
+            return rejectedCounts;
+        }
+
+        public long rejectedCount() {
+            long sum = 0L;
+            for (long count : rejectedCounts.values()) {
+                sum += count;
+            }
+            return sum;
+        }
+
+        /**
+         * 排队时间：从 execute 到开始执行
+         */
+        public LatencyHistogram.Snapshot queueWait() {
+            return queueWait;
+        }
+
+        /**
+         * 执行时间
+         */
+        public LatencyHistogram.Snapshot runTime() {
+            return runTime;
+        }
+
+        @Override
+        public String toString() {
+            return "线程数=" + poolSize + " (峰值 " + largestPoolSize + "), 活跃=" + activeCount
+                + ", 队列=" + queueSize + ", 已完成=" + completedTaskCount + ", 失败=" + failedTaskCount
+                + ", 拒绝=" + rejectedCounts
+                + "\n  排队时间: " + queueWait
+                + "\n  执行时间: " + runTime;
+        }
+    }
+}
@@ -0,0 +1,444 @@
+package com.concurrent.executor;
+
+import com.concurrent.lockfree.ChaseLevDeque;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 工作窃取线程池：每个工作线程一个 Chase-Lev 双端队列
+ *
+ * newFixedThreadPool 的所有线程共用一个 LinkedBlockingQueue：每个任务入队、出队都要抢这个队列的锁，
+ * 任务越小（几百纳秒），花在锁上的时间占比越大，加线程也不会更快。
+ *
+ * 本实现：
+ * 1. 每个工作线程有自己的 ChaseLevDeque：工作线程中提交的任务（拆分出的子任务）直接压入自己的队列底部，
+ *    不需要任何 CAS；执行时也从底部取（后进先出，缓存友好）
+ * 2. 外部线程提交的任务按轮询放进各个工作线程的收件箱（ConcurrentLinkedQueue，无锁），
+ *    工作线程成批取出后放进自己的双端队列，提交方之间不会都挤在同一个队头上
+ * 3. 自己的队列和收件箱都空了，就从随机一个线程开始依次去偷别人队列顶部的任务（先进先出，偷到的通常是大任务）
+ * 4. 哪里都没有任务时 park；有新任务而某个线程在 park 时，提交方唤醒一个
+ *
+ * 与 ThreadPoolExecutor 的区别：
+ * - 线程数固定，没有队列容量限制，也没有拒绝策略（关闭后提交抛出 RejectedExecutionException）
+ * - 不保证任务的执行顺序
+ * - 任务抛出的异常交给线程的 UncaughtExceptionHandler，工作线程继续执行下一个任务
+ *
+ * stealCount / queueDepths 可以观察负载是否均衡：某个线程的队列一直很深而偷取次数很少，说明任务拆分得不够细。
+ */
+public class WorkStealingExecutor extends AbstractExecutorService {
+    private static final int RUNNING = 0;
+    private static final int SHUTDOWN = 1;
+    private static final int STOP = 2;
+
+    /**
+     * 从收件箱一次最多取出这么多任务放进双端队列，让其他线程可以偷
+     */
+    private static final int INBOX_BATCH = 64;
+
+    private static final AtomicInteger POOL_NUMBER = new AtomicInteger();
+
+    /**
+     * 当前线程是哪个线程池的哪个工作线程
+     */
+    private static final ThreadLocal<Worker> CURRENT = new ThreadLocal<>();
+
+    private static final AtomicIntegerFieldUpdater<Worker> PARKED =
+        AtomicIntegerFieldUpdater.newUpdater(Worker.class, "parked");
+
+    private final Worker[] workers;
+    private final AtomicInteger nextWorker = new AtomicInteger();
+    private final AtomicInteger idleWorkers = new AtomicInteger();
+    private final AtomicInteger state = new AtomicInteger(RUNNING);
+    private final CountDownLatch terminated;
+
+    /**
+     * 线程数为 CPU 核数
+     */
+    public WorkStealingExecutor() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public WorkStealingExecutor(int parallelism) {
+        this(parallelism, defaultThreadFactory());
+    }
+
+    public WorkStealingExecutor(int parallelism, ThreadFactory threadFactory) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism 必须大于 0: " + parallelism);
+        }
+        this.workers = new Worker[parallelism];
+        this.terminated = new CountDownLatch(parallelism);
+        for (int i = 0; i < parallelism; i++) {
+            Worker worker = new Worker();
+            worker.thread = threadFactory.newThread(worker);
+            workers[i] = worker;
+        }
+        for (Worker worker : workers) {
+            worker.thread.start();
+        }
+    }
+
+    private static ThreadFactory defaultThreadFactory() {
+        ThreadFactory delegate = Executors.defaultThreadFactory();
+        int poolNumber = POOL_NUMBER.incrementAndGet();
+        AtomicInteger threadNumber = new AtomicInteger();
+        return r -> {
+            Thread thread = delegate.newThread(r);
+            thread.setName("work-stealing-" + poolNumber + "-worker-" + threadNumber.getAndIncrement());
+            return thread;
+        };
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (command == null) {
+            throw new NullPointerException();
+        }
+        if (state.get() != RUNNING) {
+            throw new RejectedExecutionException("WorkStealingExecutor 已关闭");
+        }
+        Worker current = CURRENT.get();
+        if (current != null && current.pool() == this) {
+            current.deque.push(command);
+            // 与关闭并发：shutdownNow 可能已经清空过这个队列，任务还没被偷走就撤回并拒绝
+            // （刚压入的任务在底部，被偷走时整个队列都已被偷空，pop 返回 null）
+            if (state.get() != RUNNING && current.deque.pop() == command) {
+                throw new RejectedExecutionException("WorkStealingExecutor 已关闭");
+            }
+            signalWork();
+            return;
+        }
+        Worker target = workers[(nextWorker.getAndIncrement() & Integer.MAX_VALUE) % workers.length];
+        target.inbox.offer(command);
+        // 与关闭并发：工作线程可能已经做完最后一次检查退出了，任务还没被取走就撤回并拒绝
+        if (state.get() != RUNNING && target.inbox.remove(command)) {
+            throw new RejectedExecutionException("WorkStealingExecutor 已关闭");
+        }
+        if (!wake(target)) {
+            signalWork();
+        }
+    }
+
+    /**
+     * 唤醒一个正在 park 的线程。先 CAS 清掉 parked 标记：线程真正醒来之前的其他提交不会重复 unpark
+     *
+     * @return 线程原本在 park 并由本次调用唤醒时返回 true
+     */
+    private static boolean wake(Worker worker) {
+        if (worker.parked == 1 && PARKED.compareAndSet(worker, 1, 0)) {
+            LockSupport.unpark(worker.thread);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 有线程在 park 时唤醒一个，让它来偷
+     */
+    private void signalWork() {
+        if (idleWorkers.get() == 0) {
+            return;
+        }
+        int start = ThreadLocalRandom.current().nextInt(workers.length);
+        for (int i = 0; i < workers.length; i++) {
+            if (wake(workers[(start + i) % workers.length])) {
+                return;
+            }
+        }
+    }
+
+    // ==================== 生命周期 ====================
+
+    /**
+     * 不再接受新任务（执行中的任务再提交子任务也会被拒绝），已提交的任务都执行完后线程退出
+     */
+    @Override
+    public void shutdown() {
+        if (advanceState(SHUTDOWN)) {
+            for (Worker worker : workers) {
+                LockSupport.unpark(worker.thread);
+            }
+        }
+    }
+
+    /**
+     * 在调用线程中取走所有还没执行的任务后立即返回，不等正在执行的任务结束（等待工作线程退出请用 awaitTermination）
+     *
+     * 双端队列的 steal 和收件箱都可以由任意线程调用，所以不需要工作线程配合。
+     * 唯一的并发窗口是工作线程正把收件箱中的任务成批转进自己的双端队列：这时漏取的任务由它退出前清空，
+     * 其中的 Future（submit 提交的任务）被取消，等待结果的调用方不会一直挂住
+     */
+    @Override
+    public List<Runnable> shutdownNow() {
+        if (advanceState(STOP)) {
+            for (Worker worker : workers) {
+                worker.thread.interrupt();
+                LockSupport.unpark(worker.thread);
+            }
+        }
+        List<Runnable> remaining = new ArrayList<>();
+        for (Worker worker : workers) {
+            worker.drainTo(remaining);
+        }
+        return remaining;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return state.get() != RUNNING;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return terminated.getCount() == 0;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return terminated.await(timeout, unit);
+    }
+
+    private boolean advanceState(int target) {
+        for (;;) {
+            int current = state.get();
+            if (current >= target) {
+                return false;
+            }
+            if (state.compareAndSet(current, target)) {
+                return true;
+            }
+        }
+    }
+
+    // ==================== 统计 ====================
+
+    public int getParallelism() {
+        return workers.length;
+    }
+
+    /**
+     * 所有工作线程偷到任务的次数
+     */
+    public long stealCount() {
+        long sum = 0L;
+        for (Worker worker : workers) {
+            sum += worker.steals;
+        }
+        return sum;
+    }
+
+    public long completedTaskCount() {
+        long sum = 0L;
+        for (Worker worker : workers) {
+            sum += worker.completed;
+        }
+        return sum;
+    }
+
+    /**
+     * 每个工作线程等待执行的任务数（双端队列 + 收件箱），并发修改时是近似值
+     *
+     * 收件箱的 size() 需要遍历，不要在热路径上调用
+     */
+    public int[] queueDepths() {
+        int[] depths = new int[workers.length];
+        for (int i = 0; i < workers.length; i++) {
+            depths[i] = workers[i].deque.size() + workers[i].inbox.size();
+        }
+        return depths;
+    }
+
+    /**
+     * 每个工作线程偷到任务的次数
+     */
+    public long[] stealCounts() {
+        long[] counts = new long[workers.length];
+        for (int i = 0; i < workers.length; i++) {
+            counts[i] = workers[i].steals;
+        }
+        return counts;
+    }
+
+    @Override
+    public String toString() {
+        String status = isTerminated() ? "Terminated" : isShutdown() ? "Shutting down" : "Running";
+        return "WorkStealingExecutor{" + status + ", parallelism=" + workers.length
+            + ", completed=" + completedTaskCount() + ", steals=" + stealCount() + "}";
+    }
+
+    // ==================== 工作线程 ====================
+
+    private final class Worker implements Runnable {
+        final ChaseLevDeque<Runnable> deque = new ChaseLevDeque<>();
+        final ConcurrentLinkedQueue<Runnable> inbox = new ConcurrentLinkedQueue<>();
+        Thread thread;
+        /**
+         * 1 表示正在（或即将）park，由唤醒方 CAS 清零
+         */
+        volatile int parked;
+
+        // 只由本线程写入，其他线程读到的可能略旧
+        long completed;
+        long steals;
+
+        WorkStealingExecutor pool() {
+            return WorkStealingExecutor.this;
+        }
+
+        @Override
+        public void run() {
+            CURRENT.set(this);
+            try {
+                for (;;) {
+                    Runnable task = nextTask();
+                    if (task != null) {
+                        runTask(task);
+                        continue;
+                    }
+                    int s = state.get();
+                    if (s == STOP || s == SHUTDOWN && !hasWork()) {
+                        return;
+                    }
+                    awaitWork();
+                }
+            } finally {
+                CURRENT.remove();
+                if (state.get() == STOP) {
+                    cancelLeftovers();
+                }
+                terminated.countDown();
+            }
+        }
+
+        /**
+         * 取走双端队列和收件箱中的所有任务；steal 与其他线程竞争失败时返回 null，所以按 isEmpty 判断是否取完
+         */
+        void drainTo(List<Runnable> tasks) {
+            while (!deque.isEmpty()) {
+                Runnable task = deque.steal();
+                if (task != null) {
+                    tasks.add(task);
+                }
+            }
+            Runnable task;
+            while ((task = inbox.poll()) != null) {
+                tasks.add(task);
+            }
+        }
+
+        /**
+         * STOP 后退出前：shutdownNow 漏取的任务不会再执行，取消其中的 Future
+         */
+        private void cancelLeftovers() {
+            List<Runnable> leftovers = new ArrayList<>();
+            drainTo(leftovers);
+            for (Runnable task : leftovers) {
+                if (task instanceof Future) {
+                    ((Future<?>) task).cancel(false);
+                }
+            }
+        }
+
+        private Runnable nextTask() {
+            if (state.get() == STOP) {
+                return null;
+            }
+            Runnable task = deque.pop();
+            if (task != null) {
+                return task;
+            }
+            task = inbox.poll();
+            if (task != null) {
+                int moved = 0;
+                Runnable next;
+                while (moved < INBOX_BATCH && (next = inbox.poll()) != null) {
+                    deque.push(next);
+                    moved++;
+                }
+                if (moved > 0) {
+                    signalWork();
+                }
+                return task;
+            }
+            return steal();
+        }
+
+        /**
+         * 从随机一个线程开始，依次偷别人双端队列顶部的任务，再看别人的收件箱
+         */
+        private Runnable steal() {
+            int n = workers.length;
+            int start = ThreadLocalRandom.current().nextInt(n);
+            for (int i = 0; i < n; i++) {
+                Worker victim = workers[(start + i) % n];
+                if (victim == this) {
+                    continue;
+                }
+                Runnable task = victim.deque.steal();
+                if (task == null) {
+                    task = victim.inbox.poll();
+                }
+                if (task != null) {
+                    steals++;
+                    return task;
+                }
+            }
+            return null;
+        }
+
+        private boolean hasWork() {
+            for (Worker worker : workers) {
+                if (!worker.deque.isEmpty() || !worker.inbox.isEmpty()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * 先标记 parked 再检查一遍所有队列：与提交方 "先放入任务再检查 parked" 配对，不会错过唤醒
+         */
+        private void awaitWork() {
+            parked = 1;
+            idleWorkers.incrementAndGet();
+            try {
+                if (!hasWork() && state.get() == RUNNING) {
+                    LockSupport.park(this);
+                }
+            } finally {
+                idleWorkers.decrementAndGet();
+                parked = 0;
+            }
+        }
+
+        private void runTask(Runnable task) {
+            // 清除任务留下的中断标志（STOP 时由 shutdownNow 设置的除外）
+            if (Thread.interrupted() && state.get() == STOP) {
+                thread.interrupt();
+            }
+            try {
+                task.run();
+            } catch (Throwable t) {
+                Thread.UncaughtExceptionHandler handler = thread.getUncaughtExceptionHandler();
+                if (handler != null) {
+                    handler.uncaughtException(thread, t);
+                }
+            } finally {
+                completed++;
+            }
+        }
+    }
+}
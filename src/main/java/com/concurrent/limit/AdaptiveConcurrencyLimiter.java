@@ -0,0 +1,296 @@
+package com.concurrent.limit;
+
+import com.concurrent.metrics.LongCounter;
+import com.concurrent.metrics.MaxCounter;
+import com.concurrent.metrics.MinCounter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 自适应并发限制器：许可数随观测到的延迟自动调整（TCP Vegas + AIMD）
+ *
+ * SemaphoreDemo 中的 new Semaphore(5) 把许可数写死了：设小了浪费下游的处理能力，设大了下游过载时
+ * 请求全部堆在下游排队，延迟持续上升直到超时雪崩。合适的值又随部署规模、下游状态变化。
+ *
+ * 思路与 TCP 拥塞控制相同，把 "并发数" 当作拥塞窗口：
+ * - 下游没有排队时延迟约等于无负载延迟 rttNoLoad；并发超过下游处理能力后，多出来的请求只是在排队，延迟随之上升
+ * - Vegas 估算下游的排队长度：queue = limit × (1 - rttNoLoad / rtt)
+ *   - queue 小于 alpha：下游还有余量，limit 加一点（只有在许可确实被用满时才加，避免空闲时无限增长）
+ *   - queue 大于 beta：下游开始排队，limit 减一点
+ *   - alpha = 3·log10(limit)，beta = 6·log10(limit)，步长 log10(limit)：limit 越大调整越平缓
+ * - 请求超时或被下游拒绝（onDropped）：limit 乘以 0.9（AIMD 的乘性减），尽快从过载中退出
+ *
+ * 获取许可：
+ * - tryAcquire()：许可用完时立即返回 null，调用方快速失败（降级、返回 503），而不是排队等待让延迟更糟
+ * - tryAcquire(timeout, unit)：最多等待 timeout
+ *
+ * 每个请求完成时只把延迟累加到分段计数器中；每个采样窗口（约 2 倍 rttNoLoad，至少 MIN_WINDOW）结束时，
+ * 由一个 CAS 成功的线程汇总并更新 limit。
+ *
+ * rttNoLoad 取历史最小延迟；每 PROBE_WINDOWS 个窗口用当前窗口的最小延迟重置一次，以适应下游基线延迟的变化。
+ */
+public class AdaptiveConcurrencyLimiter {
+    private static final long MIN_WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final int MIN_SAMPLES = 10;
+    private static final int PROBE_WINDOWS = 500;
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+
+    private volatile int limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    // ==================== 当前窗口的采样 ====================
+    private final LongCounter rttSum = new LongCounter();
+    private final LongCounter samples = new LongCounter();
+    private final MinCounter rttMin = new MinCounter();
+    private final MaxCounter maxInFlight = new MaxCounter();
+    private final LongCounter drops = new LongCounter();
+    private final AtomicLong windowEnd;
+
+    // ==================== 以下字段只由更新 limit 的线程访问 ====================
+    private double estimatedLimit;
+    private long rttNoLoad = Long.MAX_VALUE;
+    private int windows;
+
+    // ==================== 等待许可 ====================
+    private final ReentrantLock waitLock = new ReentrantLock();
+    private final Condition permitReleased = waitLock.newCondition();
+    private volatile int waiters;
+
+    private final LongCounter rejected = new LongCounter();
+
+    /**
+     * @param initialLimit 初始许可数
+     * @param minLimit     许可数下限（至少 1）
+     * @param maxLimit     许可数上限
+     */
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit <= 0 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException(
+                "需要 0 < minLimit <= initialLimit <= maxLimit: " + minLimit + ", " + initialLimit + ", " + maxLimit);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = initialLimit;
+        this.estimatedLimit = initialLimit;
+        this.windowEnd = new AtomicLong(System.nanoTime() + MIN_WINDOW_NANOS);
+    }
+
+    /**
+     * 非阻塞获取许可
+     *
+     * @return 许可；已达到 limit 时返回 null
+     */
+    public Permit tryAcquire() {
+        if (!tryIncrementInFlight()) {
+            rejected.increment();
+            return null;
+        }
+        return new Permit(System.nanoTime());
+    }
+
+    /**
+     * 最多等待 timeout 获取许可
+     *
+     * @return 许可；超时返回 null
+     */
+    public Permit tryAcquire(long timeout, TimeUnit unit) throws InterruptedException {
+        if (tryIncrementInFlight()) {
+            return new Permit(System.nanoTime());
+        }
+        long nanos = unit.toNanos(timeout);
+        waitLock.lockInterruptibly();
+        try {
+            // 先登记为等待者再重试：与 release 中 "先减 inFlight 再检查 waiters" 配对，不会错过唤醒
+            waiters++;
+            try {
+                while (!tryIncrementInFlight()) {
+                    if (nanos <= 0L) {
+                        rejected.increment();
+                        return null;
+                    }
+                    nanos = permitReleased.awaitNanos(nanos);
+                }
+            } finally {
+                waiters--;
+            }
+        } finally {
+            waitLock.unlock();
+        }
+        return new Permit(System.nanoTime());
+    }
+
+    private boolean tryIncrementInFlight() {
+        for (;;) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                maxInFlight.update(current + 1);
+                return true;
+            }
+        }
+    }
+
+    private void release() {
+        inFlight.decrementAndGet();
+        if (waiters > 0) {
+            signalWaiters(false);
+        }
+    }
+
+    private void signalWaiters(boolean all) {
+        waitLock.lock();
+        try {
+            if (all) {
+                permitReleased.signalAll();
+            } else {
+                permitReleased.signal();
+            }
+        } finally {
+            waitLock.unlock();
+        }
+    }
+
+    private void onSample(long rtt, boolean dropped, long now) {
+        if (dropped) {
+            drops.increment();
+        } else {
+            rttSum.add(rtt);
+            samples.increment();
+            rttMin.update(rtt);
+        }
+        long end = windowEnd.get();
+        if (now - end >= 0 && windowEnd.compareAndSet(end, now + MIN_WINDOW_NANOS)) {
+            // 更新完成后再写一次：下一个更新 limit 的线程读到这个值，就能看到本次写入的字段
+            windowEnd.set(now + updateLimit());
+        }
+    }
+
+    /**
+     * 窗口结束：汇总采样并更新 limit
+     *
+     * @return 下一个窗口的长度
+     */
+    private long updateLimit() {
+        long count = samples.sum();
+        long dropCount = drops.sum();
+        if (count < MIN_SAMPLES && dropCount == 0) {
+            // 样本太少，延长窗口继续收集
+            return MIN_WINDOW_NANOS;
+        }
+        long sum = rttSum.sumThenReset();
+        count = samples.sumThenReset();
+        dropCount = drops.sumThenReset();
+        long windowMin = rttMin.minThenReset();
+        // 跨窗口的长请求不会更新 maxInFlight，再和当前的 inFlight 取较大值
+        int peakInFlight = (int) Math.max(inFlight.get(), maxInFlight.maxThenReset());
+
+        if (count > 0) {
+            if (++windows % PROBE_WINDOWS == 0) {
+                // 定期用最近的最小延迟重新估计无负载延迟：下游变慢后 rttNoLoad 不会永远停留在旧值
+                rttNoLoad = windowMin;
+            } else {
+                rttNoLoad = Math.min(rttNoLoad, windowMin);
+            }
+        }
+
+        double current = estimatedLimit;
+        double next = current;
+        if (dropCount > 0) {
+            next = current * BACKOFF_RATIO;
+        } else if (count > 0) {
+            double rtt = (double) sum / count;
+            double queue = current * (1.0 - rttNoLoad / rtt);
+            double log = Math.max(1.0, Math.log10(current));
+            double alpha = 3 * log;
+            double beta = 6 * log;
+            if (queue <= alpha && peakInFlight * 2 >= current) {
+                next = current + log;
+            } else if (queue >= beta) {
+                next = current - log;
+            }
+        }
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, next));
+        int newLimit = (int) estimatedLimit;
+        int oldLimit = limit;
+        limit = newLimit;
+        if (newLimit > oldLimit && waiters > 0) {
+            signalWaiters(true);
+        }
+        return rttNoLoad == Long.MAX_VALUE ? MIN_WINDOW_NANOS : Math.max(MIN_WINDOW_NANOS, rttNoLoad * 2);
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * 因许可不足（或等待超时）被拒绝的次数
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptiveConcurrencyLimiter{limit=" + limit + ", inFlight=" + inFlight.get()
+            + ", rejected=" + rejected.sum() + "}";
+    }
+
+    /**
+     * 一次获取到的许可，必须且只能调用一次 onSuccess / onDropped / onIgnore
+     */
+    public final class Permit {
+        private final long startNanos;
+        private boolean released;
+
+        private Permit(long startNanos) {
+            this.startNanos = startNanos;
+        }
+
+        /**
+         * 请求正常完成：释放许可，延迟计入采样
+         */
+        public void onSuccess() {
+            long now = System.nanoTime();
+            finish();
+            onSample(now - startNanos, false, now);
+        }
+
+        /**
+         * 请求超时或被下游拒绝（过载信号）：释放许可，limit 乘性减小
+         */
+        public void onDropped() {
+            long now = System.nanoTime();
+            finish();
+            onSample(0L, true, now);
+        }
+
+        /**
+         * 请求失败但与负载无关（如参数错误很快返回）：只释放许可，不计入采样，避免拉低延迟估计
+         */
+        public void onIgnore() {
+            finish();
+        }
+
+        private void finish() {
+            if (released) {
+                throw new IllegalStateException("许可已经释放");
+            }
+            released = true;
+            release();
+        }
+    }
+}
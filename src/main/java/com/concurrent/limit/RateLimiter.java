@@ -0,0 +1,39 @@
+package com.concurrent.limit;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 限流器：限制单位时间内放行的请求数
+ *
+ * 与 Semaphore / AdaptiveConcurrencyLimiter 不同，这里限制的是速率（每秒多少个），
+ * 不是同时进行中的数量；许可用完不需要归还。
+ *
+ * 实现：
+ * - TokenBucketRateLimiter：令牌桶，平均速率 + 允许的突发量，不做估算（发放间隔取整到纳秒，速率误差不超过 1%）
+ * - SlidingWindowRateLimiter：滑动窗口计数，每个窗口最多 limit 个，高并发下用分段计数器减少竞争
+ */
+public interface RateLimiter {
+
+    /**
+     * 非阻塞获取 permits 个许可
+     *
+     * @return 获取成功返回 true，配额不足立即返回 false（不消耗配额）
+     */
+    boolean tryAcquire(int permits);
+
+    default boolean tryAcquire() {
+        return tryAcquire(1);
+    }
+
+    /**
+     * 最多等待 timeout 获取 permits 个许可
+     *
+     * @return 获取成功返回 true；在 timeout 内无法获得返回 false
+     */
+    boolean tryAcquire(int permits, long timeout, TimeUnit unit) throws InterruptedException;
+
+    /**
+     * 阻塞直到获取 permits 个许可
+     */
+    void acquire(int permits) throws InterruptedException;
+}
@@ -0,0 +1,212 @@
+package com.concurrent.limit;
+
+import com.concurrent.metrics.LongCounter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 滑动窗口限流器：任意一个窗口长度内最多放行 limit 个许可
+ *
+ * 固定窗口（每秒清零一次）在窗口交界处可能放行 2 × limit：上一秒的最后 10ms 和下一秒的前 10ms 各 limit 个。
+ * 这里把窗口分成 slots 个格，只对当前格计数，窗口内的请求数估算为：
+ *   前 slots - 1 个完整格之和 + 当前格 + 最老一格 × 它还留在窗口内的比例
+ * 估算假设最老一格内的请求是均匀分布的，误差不超过最老一格计数的一部分，格越多越精确。
+ *
+ * 高并发下的计数：
+ * - 当前格用 LongCounter（分段计数器，LongAdder 思路），放行只是对本线程所在段的一次 CAS，
+ *   不会像单个 AtomicLong 那样所有线程争抢同一个缓存行
+ * - 换格时把已经结束的格的计数汇总成一个常量，之后每次判断只需要对当前格的各段求和
+ * - 换格每 window / slots 才发生一次，由一个线程在锁内完成，判断路径不加锁
+ *
+ * 代价：判断和计数不是一个原子操作，同时到达的线程可能都看到 "还差一个" 而一起放行，
+ * 每个窗口最多多放行约等于并发线程数的许可；需要精确限制时用 TokenBucketRateLimiter。
+ * 窗口最早的一格按比例估算，适合保护下游，不适合按次计费这类必须精确的场景。
+ */
+public class SlidingWindowRateLimiter implements RateLimiter {
+    private static final int DEFAULT_SLOTS = 10;
+    private static final int MAX_STRIPES = 16;
+
+    private final long limit;
+    private final long slotNanos;
+    private final int slots;
+    private final int stripes;
+    private final long origin;
+
+    /**
+     * 最近 slots + 1 个格，只在换格时（持有锁）读写
+     */
+    private final Slot[] ring;
+    private volatile Window window;
+
+    /**
+     * 窗口分为 10 格
+     */
+    public SlidingWindowRateLimiter(long limit, long window, TimeUnit unit) {
+        this(limit, window, unit, DEFAULT_SLOTS);
+    }
+
+    /**
+     * @param limit  每个窗口内最多放行的许可数
+     * @param window 窗口长度
+     * @param slots  窗口分成的格数，越多估算越精确，换格也越频繁
+     */
+    public SlidingWindowRateLimiter(long limit, long window, TimeUnit unit, int slots) {
+        if (limit <= 0 || slots <= 0 || unit.toNanos(window) < slots) {
+            throw new IllegalArgumentException(
+                "需要 0 < limit, 0 < slots <= window(ns): " + limit + ", " + slots + ", " + window);
+        }
+        this.limit = limit;
+        this.slots = slots;
+        this.slotNanos = unit.toNanos(window) / slots;
+        this.stripes = Math.min(Runtime.getRuntime().availableProcessors(), MAX_STRIPES);
+        this.origin = System.nanoTime();
+        this.ring = new Slot[slots + 1];
+        Slot first = new Slot(0L, new LongCounter(stripes));
+        ring[0] = first;
+        this.window = new Window(first, origin, 0L, 0L);
+    }
+
+    @Override
+    public boolean tryAcquire(int permits) {
+        if (permits <= 0) {
+            throw new IllegalArgumentException("permits 必须大于 0: " + permits);
+        }
+        long now = System.nanoTime();
+        Window current = windowAt(now);
+        if (current.estimate(now, slotNanos) + permits > limit) {
+            return false;
+        }
+        current.slot.count.add(permits);
+        return true;
+    }
+
+    /**
+     * 没有预约：窗口内的计数何时降下来取决于之后的请求，这里每到下一格重新尝试一次
+     */
+    @Override
+    public boolean tryAcquire(int permits, long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (;;) {
+            if (tryAcquire(permits)) {
+                return true;
+            }
+            long now = System.nanoTime();
+            long remaining = deadline - now;
+            if (remaining <= 0L) {
+                return false;
+            }
+            TimeUnit.NANOSECONDS.sleep(Math.min(remaining, nanosToNextSlot(now)));
+        }
+    }
+
+    @Override
+    public void acquire(int permits) throws InterruptedException {
+        if (permits > limit) {
+            throw new IllegalArgumentException("permits 超过了窗口上限: " + permits + " > " + limit);
+        }
+        while (!tryAcquire(permits)) {
+            TimeUnit.NANOSECONDS.sleep(nanosToNextSlot(System.nanoTime()));
+        }
+    }
+
+    private long nanosToNextSlot(long now) {
+        return Math.max(1L, windowAt(now).start + slotNanos - now);
+    }
+
+    private Window windowAt(long now) {
+        Window current = window;
+        long index = (now - origin) / slotNanos;
+        // 读到旧时间的线程（index 更小）直接用当前格
+        return index > current.slot.index ? roll(index) : current;
+    }
+
+    /**
+     * 换到第 index 格：汇总前面已经结束的格，换上一个新的计数器
+     *
+     * 不复用旧计数器：仍持有旧 Window 的线程可能还在对它累加，清零会把这些累加记到新格里
+     */
+    private synchronized Window roll(long index) {
+        Window current = window;
+        if (current.slot.index >= index) {
+            return current;
+        }
+        long previous = 0L;
+        for (long i = index - slots + 1; i < index; i++) {
+            previous += countOf(i);
+        }
+        long oldest = countOf(index - slots);
+
+        Slot slot = new Slot(index, new LongCounter(stripes));
+        ring[(int) (index % ring.length)] = slot;
+        Window next = new Window(slot, origin + index * slotNanos, previous, oldest);
+        window = next;
+        return next;
+    }
+
+    /**
+     * 第 index 格的计数；这一格没有请求（换格时跳过了）或已经移出 ring 时为 0
+     */
+    private long countOf(long index) {
+        if (index < 0) {
+            return 0L;
+        }
+        Slot slot = ring[(int) (index % ring.length)];
+        return slot != null && slot.index == index ? slot.count.sum() : 0L;
+    }
+
+    /**
+     * 当前窗口内的估算计数
+     */
+    public long currentCount() {
+        long now = System.nanoTime();
+        return windowAt(now).estimate(now, slotNanos);
+    }
+
+    public long getLimit() {
+        return limit;
+    }
+
+    @Override
+    public String toString() {
+        return "SlidingWindowRateLimiter{limit=" + limit + ", window=" + TimeUnit.NANOSECONDS.toMillis(slotNanos * slots)
+            + "ms, slots=" + slots + ", current=" + currentCount() + "}";
+    }
+
+    private static final class Slot {
+        final long index;
+        final LongCounter count;
+
+        Slot(long index, LongCounter count) {
+            this.index = index;
+            this.count = count;
+        }
+    }
+
+    /**
+     * 当前格与换格时汇总好的历史计数，不可变，整体替换
+     */
+    private static final class Window {
+        final Slot slot;
+        final long start;
+        /**
+         * 前 slots - 1 个完整格的计数之和
+         */
+        final long previous;
+        /**
+         * 正在移出窗口的那一格的计数
+         */
+        final long oldest;
+
+        Window(Slot slot, long start, long previous, long oldest) {
+            this.slot = slot;
+            this.start = start;
+            this.previous = previous;
+            this.oldest = oldest;
+        }
+
+        long estimate(long now, long slotNanos) {
+            long elapsed = Math.min(Math.max(now - start, 0L), slotNanos);
+            return previous + slot.count.sum() + (long) (oldest * (1.0 - (double) elapsed / slotNanos));
+        }
+    }
+}
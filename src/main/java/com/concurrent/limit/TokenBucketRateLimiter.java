@@ -0,0 +1,160 @@
+package com.concurrent.limit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 无锁令牌桶限流器：整个状态只有一个 AtomicLong 时间戳
+ *
+ * 常见实现用一个后台线程定期往桶里加令牌，或者用锁保护 "令牌数 + 上次补充时间" 两个字段。
+ * 这里把两者合成一个值（GCRA 的思路）：
+ * - 令牌以每 nanosPerPermit 纳秒一个的速度产生，state 表示 "已经发放的令牌产生到了哪个时刻"
+ * - 当前可用的令牌数 = (now - state) / nanosPerPermit，最多 capacity 个（桶满后多产生的令牌丢弃，
+ *   即 state 最早只能是 now - capacity × nanosPerPermit）
+ * - 取 n 个令牌：state += n × nanosPerPermit，只要结果不晚于 now 就说明令牌够
+ *
+ * 补充是惰性的：不需要定时器，每次获取时根据当前时间直接算出；获取就是一次对 state 的 CAS。
+ * 令牌不够时只读不写，拒绝不会与其他线程竞争缓存行。
+ *
+ * 发放间隔 nanosPerPermit 是整数纳秒，速率按它取整：取整后的速率与要求的相差超过 1% 时构造函数拒绝
+ * （只会出现在每秒 2×10^7 个以上、且 10^9 / 速率 不接近整数时）。
+ *
+ * 预约：state 可以超过 now（透支），表示预约了未来的令牌，调用方需要等到 state 对应的时刻。
+ * reserve 返回需要等待的时间，调用方可以 sleep，也可以放进定时器（如 TimerWheelScheduler）延迟执行。
+ */
+public class TokenBucketRateLimiter implements RateLimiter {
+    private static final long MAX_PERMITS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    /**
+     * 发放间隔取整到纳秒后，允许的最大速率相对误差
+     */
+    private static final double MAX_RATE_ERROR = 0.01;
+
+    private final long nanosPerPermit;
+    private final long capacity;
+    private final long burstNanos;
+    private final AtomicLong state;
+
+    /**
+     * 桶容量等于每秒的令牌数（最多突发 1 秒的量），初始为满
+     */
+    public TokenBucketRateLimiter(long permitsPerSecond) {
+        this(permitsPerSecond, permitsPerSecond);
+    }
+
+    /**
+     * @param permitsPerSecond 平均速率，最大 10^9（每纳秒一个）；发放间隔取整到纳秒后误差超过 1% 的速率不支持
+     * @param capacity         桶容量，即空闲一段时间后允许的最大突发量，初始为满
+     */
+    public TokenBucketRateLimiter(double permitsPerSecond, long capacity) {
+        if (!(permitsPerSecond > 0) || permitsPerSecond > MAX_PERMITS_PER_SECOND || capacity <= 0) {
+            throw new IllegalArgumentException(
+                "需要 0 < permitsPerSecond <= 10^9, 0 < capacity: " + permitsPerSecond + ", " + capacity);
+        }
+        this.nanosPerPermit = Math.max(1L, Math.round(MAX_PERMITS_PER_SECOND / permitsPerSecond));
+        double actual = (double) MAX_PERMITS_PER_SECOND / nanosPerPermit;
+        if (Math.abs(actual - permitsPerSecond) > permitsPerSecond * MAX_RATE_ERROR) {
+            throw new IllegalArgumentException("发放间隔取整到 " + nanosPerPermit + "ns 后速率变为 " + actual
+                + "，与 " + permitsPerSecond + " 相差超过 1%");
+        }
+        this.capacity = capacity;
+        this.burstNanos = capacity * nanosPerPermit;
+        this.state = new AtomicLong(System.nanoTime() - burstNanos);
+    }
+
+    @Override
+    public boolean tryAcquire(int permits) {
+        checkPermits(permits);
+        long cost = permits * nanosPerPermit;
+        for (;;) {
+            long current = state.get();
+            long now = System.nanoTime();
+            long next = Math.max(current, now - burstNanos) + cost;
+            if (next - now > 0L) {
+                return false;
+            }
+            if (state.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public boolean tryAcquire(int permits, long timeout, TimeUnit unit) throws InterruptedException {
+        long wait = reserve(permits, unit.toNanos(timeout));
+        if (wait < 0L) {
+            return false;
+        }
+        sleep(wait);
+        return true;
+    }
+
+    @Override
+    public void acquire(int permits) throws InterruptedException {
+        sleep(reserve(permits));
+    }
+
+    /**
+     * 预约 permits 个许可，令牌不够时透支未来的令牌
+     *
+     * 预约一定成功，之后的请求要排在它后面；被中断或放弃时令牌不会退还。
+     *
+     * @return 需要等待多久（纳秒）才能使用这些许可，0 表示立即可用
+     */
+    public long reserve(int permits) {
+        return reserve(permits, Long.MAX_VALUE);
+    }
+
+    /**
+     * @return 需要等待的纳秒数；等待时间超过 maxWaitNanos 时不预约，返回 -1
+     */
+    private long reserve(int permits, long maxWaitNanos) {
+        checkPermits(permits);
+        long cost = permits * nanosPerPermit;
+        for (;;) {
+            long current = state.get();
+            long now = System.nanoTime();
+            long next = Math.max(current, now - burstNanos) + cost;
+            long wait = Math.max(0L, next - now);
+            if (wait > maxWaitNanos) {
+                return -1L;
+            }
+            if (state.compareAndSet(current, next)) {
+                return wait;
+            }
+        }
+    }
+
+    private static void checkPermits(int permits) {
+        if (permits <= 0) {
+            throw new IllegalArgumentException("permits 必须大于 0: " + permits);
+        }
+    }
+
+    private static void sleep(long nanos) throws InterruptedException {
+        if (nanos > 0L) {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        }
+    }
+
+    /**
+     * 当前可用的令牌数，有预约透支时为负数
+     */
+    public long availablePermits() {
+        long now = System.nanoTime();
+        return (now - Math.max(state.get(), now - burstNanos)) / nanosPerPermit;
+    }
+
+    public double getRate() {
+        return (double) MAX_PERMITS_PER_SECOND / nanosPerPermit;
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TokenBucketRateLimiter{rate=%.1f/s, capacity=%d, available=%d}",
+            getRate(), capacity, availablePermits());
+    }
+}
@@ -0,0 +1,357 @@
+package com.concurrent.lock;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.AbstractQueuedSynchronizer;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * 自适应 "先自旋、后阻塞" 锁
+ *
+ * CASDemo.SimpleSpinLock 的问题：lock() 一直自旋，持有者被挂起或临界区很长时白白占满 CPU。
+ *
+ * 本实现：
+ * 1. 先尝试一次 CAS（无竞争时直接获取）
+ * 2. 失败后自旋一段时间，时长根据最近的持有时间学习得到：
+ *    - 持有时间短（小于一次 park/unpark 的开销）：自旋约 4 倍平均持有时间，大概率等到锁被释放
+ *    - 持有时间长：自旋不划算，直接跳过自旋
+ * 3. 自旋没等到，交给 AQS 排队并 LockSupport.park 阻塞
+ *
+ * 平均持有时间用指数加权移动平均（EWMA）维护。System.nanoTime 本身有几十纳秒开销，
+ * 所以无竞争的加锁每 16 次才采样一次；经过自旋或阻塞才拿到的锁每次都采样（此时持有时间才影响别人）。
+ * 采样计数、EWMA 和各项统计都只由持有锁的线程修改，锁本身保证了没有并发写，不需要原子变量。
+ *
+ * 与 SimpleSpinLock 一样是不可重入、非公平的锁。
+ * 注：Java 8 没有 Thread.onSpinWait()，自旋循环只读 state（test-and-test-and-set），不反复 CAS。
+ */
+public class AdaptiveSpinLock implements Lock {
+
+    /**
+     * 默认最大自旋时间，约等于一次 park/unpark（两次上下文切换）的开销
+     */
+    private static final long DEFAULT_MAX_SPIN_NANOS = 20_000L;
+
+    /**
+     * 自旋时每隔多少次循环检查一次时间
+     */
+    private static final int TIME_CHECK_INTERVAL = 64;
+
+    /**
+     * 每多少次加锁采样一次持有时间（必须是 2 的幂）
+     */
+    private static final int HOLD_SAMPLE_INTERVAL = 16;
+
+    private final Sync sync = new Sync();
+    private final long maxSpinNanos;
+
+    /**
+     * 最近持有时间的 EWMA（纳秒），只由锁持有者写，自旋的线程读
+     */
+    private volatile long averageHoldNanos;
+
+    /**
+     * 以下字段只由锁持有者读写；统计方法在锁外读取，得到的是近似值
+     */
+    private long acquiredAt;
+    private int acquisitions;
+    private long uncontended;
+    private long spinHits;
+    private long parks;
+
+    static final class Sync extends AbstractQueuedSynchronizer {
+        @Override
+        protected boolean tryAcquire(int arg) {
+            if (getState() == 0 && compareAndSetState(0, 1)) {
+                setExclusiveOwnerThread(Thread.currentThread());
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        protected boolean tryRelease(int arg) {
+            if (getExclusiveOwnerThread() != Thread.currentThread()) {
+                throw new IllegalMonitorStateException();
+            }
+            setExclusiveOwnerThread(null);
+            setState(0);
+            return true;
+        }
+
+        @Override
+        protected boolean isHeldExclusively() {
+            return getExclusiveOwnerThread() == Thread.currentThread();
+        }
+
+        boolean isFree() {
+            return getState() == 0;
+        }
+
+        Condition newCondition() {
+            return new ConditionObject();
+        }
+    }
+
+    public AdaptiveSpinLock() {
+        this(DEFAULT_MAX_SPIN_NANOS);
+    }
+
+    /**
+     * @param maxSpinNanos 自旋时长上限；平均持有时间超过它时不再自旋
+     */
+    public AdaptiveSpinLock(long maxSpinNanos) {
+        if (maxSpinNanos < 0) {
+            throw new IllegalArgumentException("maxSpinNanos 不能为负数: " + maxSpinNanos);
+        }
+        this.maxSpinNanos = maxSpinNanos;
+    }
+
+    @Override
+    public void lock() {
+        if (sync.tryAcquire(1)) {
+            uncontended++;
+            onAcquired(false);
+            return;
+        }
+        if (spin(spinBudgetNanos())) {
+            spinHits++;
+        } else {
+            sync.acquire(1);
+            parks++;
+        }
+        onAcquired(true);
+    }
+
+    @Override
+    public void lockInterruptibly() throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        if (sync.tryAcquire(1)) {
+            uncontended++;
+            onAcquired(false);
+            return;
+        }
+        if (spin(spinBudgetNanos())) {
+            spinHits++;
+        } else {
+            sync.acquireInterruptibly(1);
+            parks++;
+        }
+        onAcquired(true);
+    }
+
+    @Override
+    public boolean tryLock() {
+        if (sync.tryAcquire(1)) {
+            uncontended++;
+            onAcquired(false);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        long timeoutNanos = unit.toNanos(time);
+        long start = System.nanoTime();
+        if (sync.tryAcquire(1)) {
+            uncontended++;
+            onAcquired(false);
+            return true;
+        }
+        if (spin(Math.min(spinBudgetNanos(), timeoutNanos))) {
+            spinHits++;
+        } else {
+            long remaining = timeoutNanos - (System.nanoTime() - start);
+            if (remaining <= 0 || !sync.tryAcquireNanos(1, remaining)) {
+                return false;
+            }
+            parks++;
+        }
+        onAcquired(true);
+        return true;
+    }
+
+    @Override
+    public void unlock() {
+        if (!sync.isHeldExclusively()) {
+            throw new IllegalMonitorStateException();
+        }
+        if (acquiredAt != 0L) {
+            long held = System.nanoTime() - acquiredAt;
+            long avg = averageHoldNanos;
+            // EWMA，权重 1/8：avg += (held - avg) / 8；第一个样本直接作为初值
+            averageHoldNanos = avg == 0L ? Math.max(held, 1L) : avg + ((held - avg) >> 3);
+        }
+        sync.release(1);
+    }
+
+    /**
+     * 获取锁之后调用：有竞争时总是记录获取时间，无竞争时按采样间隔记录
+     */
+    private void onAcquired(boolean contended) {
+        acquiredAt = contended || (++acquisitions & (HOLD_SAMPLE_INTERVAL - 1)) == 0 ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * 支持 Condition（与 AQSDemo.SimpleMutex 一样基于 AQS 的 ConditionObject）
+     *
+     * await 在 AQS 内部释放并重新获取锁，不经过 onAcquired，acquiredAt 可能是别的线程写下的；
+     * 所以 await 返回后清零 acquiredAt，这一段持有时间不采样，等待时间不会被算进平均持有时间
+     */
+    @Override
+    public Condition newCondition() {
+        return new HoldTimeCondition(sync.newCondition());
+    }
+
+    /**
+     * 根据平均持有时间计算本次的自旋预算
+     */
+    long spinBudgetNanos() {
+        long avg = averageHoldNanos;
+        if (avg > maxSpinNanos) {
+            return 0L;
+        }
+        return Math.min(maxSpinNanos, Math.max(avg, 1L) << 2);
+    }
+
+    private boolean spin(long budgetNanos) {
+        if (budgetNanos <= 0) {
+            return false;
+        }
+        long deadline = System.nanoTime() + budgetNanos;
+        for (int i = 1; ; i++) {
+            if (sync.isFree() && sync.tryAcquire(1)) {
+                return true;
+            }
+            if (i % TIME_CHECK_INTERVAL == 0 && System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * 包装 AQS 的 ConditionObject：await 重新获取锁后把 acquiredAt 清零
+     */
+    private final class HoldTimeCondition implements Condition {
+        private final Condition condition;
+
+        HoldTimeCondition(Condition condition) {
+            this.condition = condition;
+        }
+
+        @Override
+        public void await() throws InterruptedException {
+            checkHeld();
+            try {
+                condition.await();
+            } finally {
+                acquiredAt = 0L;
+            }
+        }
+
+        @Override
+        public void awaitUninterruptibly() {
+            checkHeld();
+            try {
+                condition.awaitUninterruptibly();
+            } finally {
+                acquiredAt = 0L;
+            }
+        }
+
+        @Override
+        public long awaitNanos(long nanosTimeout) throws InterruptedException {
+            checkHeld();
+            try {
+                return condition.awaitNanos(nanosTimeout);
+            } finally {
+                acquiredAt = 0L;
+            }
+        }
+
+        @Override
+        public boolean await(long time, TimeUnit unit) throws InterruptedException {
+            checkHeld();
+            try {
+                return condition.await(time, unit);
+            } finally {
+                acquiredAt = 0L;
+            }
+        }
+
+        @Override
+        public boolean awaitUntil(Date deadline) throws InterruptedException {
+            checkHeld();
+            try {
+                return condition.awaitUntil(deadline);
+            } finally {
+                acquiredAt = 0L;
+            }
+        }
+
+        @Override
+        public void signal() {
+            condition.signal();
+        }
+
+        @Override
+        public void signalAll() {
+            condition.signalAll();
+        }
+
+        /**
+         * 未持有锁时在 finally 写 acquiredAt 会与持有者竞争，提前抛出 AQS 也会抛的异常
+         */
+        private void checkHeld() {
+            if (!sync.isHeldExclusively()) {
+                throw new IllegalMonitorStateException();
+            }
+        }
+    }
+
+    public boolean isLocked() {
+        return !sync.isFree();
+    }
+
+    // ==================== 统计 ====================
+
+    /**
+     * 第一次 CAS 就获取到锁的次数
+     */
+    public long uncontendedCount() {
+        return uncontended;
+    }
+
+    /**
+     * 通过自旋获取到锁的次数（自旋命中）
+     */
+    public long spinHitCount() {
+        return spinHits;
+    }
+
+    /**
+     * 自旋未命中、进入 AQS 队列（可能 park）后获取到锁的次数
+     */
+    public long parkCount() {
+        return parks;
+    }
+
+    public long averageHoldNanos() {
+        return averageHoldNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptiveSpinLock{uncontended=" + uncontendedCount()
+            + ", spinHits=" + spinHitCount()
+            + ", parks=" + parkCount()
+            + ", avgHoldNanos=" + averageHoldNanos
+            + ", spinBudgetNanos=" + spinBudgetNanos() + "}";
+    }
+}
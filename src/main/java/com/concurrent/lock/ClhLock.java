@@ -0,0 +1,154 @@
+package com.concurrent.lock;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * CLH 队列锁（Craig, Landin & Hagersten）
+ *
+ * AQS 的等待队列就是 CLH 的变体（见 AQSDemo.demonstrateAQSConcepts）。这里是它最原始的形态：
+ * 1. lock: getAndSet(tail, 自己的节点) 入队，得到前驱节点，然后在【前驱的节点】上等待
+ * 2. unlock: grant 自己的节点（唤醒正在等它的后继），然后拿走前驱的节点作为下一次使用的节点
+ *
+ * 与 McsLock 的区别：
+ * - CLH 是隐式链表，unlock 不需要等后继挂上来，也不需要 CAS，释放只有一次写
+ * - 节点在线程之间轮转（释放后把前驱的节点据为己有），每个线程的自旋位置每次都不同；
+ *   在有本地缓存一致性的机器（x86 等）上这没有影响，在 NUMA 无缓存机器上 MCS 更好
+ *
+ * 等待方式见 WaitNode：自旋一段时间后 park。限制与 McsLock 相同：
+ * 不可重入；lockInterruptibly 只在入队前检查中断；不支持 Condition。
+ *
+ * tryLock(timeout) 照常入队（FIFO），超时或被中断时把前驱节点转交给自己的节点（WaitNode.forwardTo）：
+ * 前驱被释放时一并释放自己的节点，在自己节点上等待的后继照常拿到锁。自己的节点留在队列中归后继所有，
+ * 所以放弃的线程下次换一个新节点。
+ */
+public class ClhLock implements Lock {
+
+    /**
+     * 线程本地状态：当前使用的节点，以及持有锁期间的前驱节点
+     */
+    private static final class Holder {
+        WaitNode node = new WaitNode();
+        WaitNode pred;
+    }
+
+    private final AtomicReference<WaitNode> tail;
+    private final ThreadLocal<Holder> holder = ThreadLocal.withInitial(Holder::new);
+    private final int spins;
+
+    public ClhLock() {
+        this(WaitNode.DEFAULT_SPINS);
+    }
+
+    /**
+     * @param spins 等待者 park 之前的自旋次数，0 表示直接 park
+     */
+    public ClhLock(int spins) {
+        if (spins < 0) {
+            throw new IllegalArgumentException("spins 不能为负数: " + spins);
+        }
+        this.spins = spins;
+        // 哨兵节点：已释放状态，第一个入队的线程直接拿到锁
+        WaitNode sentinel = new WaitNode();
+        sentinel.grant();
+        this.tail = new AtomicReference<>(sentinel);
+    }
+
+    @Override
+    public void lock() {
+        Holder h = prepare();
+        WaitNode pred = tail.getAndSet(h.node);
+        pred.await(spins);
+        h.pred = pred;
+    }
+
+    @Override
+    public void lockInterruptibly() throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        lock();
+    }
+
+    /**
+     * 队尾节点已释放说明没有人持有锁、也没有人排队，此时用 CAS 把自己接到队尾即获得锁
+     *
+     * 节点会被回收再入队：读到已释放的队尾 X 之后，别的线程可能接在 X 后面拿锁、释放、
+     * 又拿 X 作为自己的节点重新入队（ABA）。此时 CAS 仍会成功，但 X 还没释放。
+     * 已经入队无法撤销，但也不等待：把自己的节点转交给 X（X 被释放时一并释放它，排在后面的线程照常拿到锁），
+     * 返回 false（虚假失败）；留在队列中的节点归后继所有，自己换一个新节点。
+     */
+    @Override
+    public boolean tryLock() {
+        WaitNode pred = tail.get();
+        if (!pred.isGranted()) {
+            return false;
+        }
+        Holder h = prepare();
+        if (!tail.compareAndSet(pred, h.node)) {
+            return false;
+        }
+        if (pred.isGranted() || !pred.forwardTo(h.node)) {
+            h.pred = pred;
+            return true;
+        }
+        h.node = new WaitNode();
+        return false;
+    }
+
+    @Override
+    public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        if (time <= 0) {
+            return tryLock();
+        }
+        long deadline = System.nanoTime() + unit.toNanos(time);
+        Holder h = prepare();
+        WaitNode pred = tail.getAndSet(h.node);
+        if (!pred.awaitUntil(spins, deadline) && pred.forwardTo(h.node)) {
+            h.node = new WaitNode();
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            return false;
+        }
+        h.pred = pred;
+        return true;
+    }
+
+    @Override
+    public void unlock() {
+        Holder h = holder.get();
+        WaitNode pred = h.pred;
+        if (pred == null) {
+            throw new IllegalMonitorStateException();
+        }
+        h.pred = null;
+        WaitNode node = h.node;
+        // 前驱节点已经没有人在等了，留给自己下次用；自己的节点交给后继去等
+        h.node = pred;
+        node.grant();
+    }
+
+    private Holder prepare() {
+        Holder h = holder.get();
+        if (h.pred != null) {
+            throw new IllegalMonitorStateException("ClhLock 不可重入");
+        }
+        h.node.reset();
+        return h;
+    }
+
+    public boolean isLocked() {
+        return !tail.get().isGranted();
+    }
+
+    @Override
+    public Condition newCondition() {
+        throw new UnsupportedOperationException("ClhLock 不支持 Condition");
+    }
+}
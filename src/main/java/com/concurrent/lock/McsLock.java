@@ -0,0 +1,176 @@
+package com.concurrent.lock;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * MCS 队列锁（Mellor-Crummey & Scott）
+ *
+ * 等待者组成一个单向链表，tail 指向队尾：
+ * 1. lock: getAndSet(tail, 自己的节点) 入队，把自己挂到前驱的 next 上，然后在【自己的节点】上等待
+ * 2. unlock: 有后继就 grant 后继的节点；没有后继就 CAS tail 为 null
+ *
+ * 对比 CASDemo.SimpleSpinLock / AQSDemo.SimpleMutex：
+ * - 它们所有线程都在同一个 state 上 CAS，每次释放都会让所有等待者的缓存行失效，核数越多越糟
+ * - MCS 每个等待者只读自己的节点，释放锁只写一个节点，竞争只发生在入队时的一次 getAndSet
+ * - 严格 FIFO，不会饿死
+ *
+ * 节点保存在 ThreadLocal 中，unlock 后即可复用，所以 lock/unlock 不分配对象。
+ * 等待方式见 WaitNode：自旋一段时间后 park。
+ *
+ * 限制（Lock 接口允许实现自行约定）：
+ * - 不可重入，重入会抛出 IllegalMonitorStateException
+ * - lockInterruptibly 只在入队前检查中断
+ * - 不支持 Condition
+ *
+ * tryLock(timeout) 照常入队（FIFO），超时或被中断时把节点标记为放弃（WaitNode.abandon）而不是从链表中摘除：
+ * 释放锁时后继已经放弃，就替它释放，交给再下一个。放弃的节点仍在队列中，所以放弃的线程下次换一个新节点。
+ */
+public class McsLock implements Lock {
+
+    static final class Node extends WaitNode {
+        volatile Node next;
+        /**
+         * 只由节点所属线程读写
+         */
+        boolean held;
+    }
+
+    private final AtomicReference<Node> tail = new AtomicReference<>();
+    private final ThreadLocal<Node> myNode = ThreadLocal.withInitial(Node::new);
+    private final int spins;
+
+    public McsLock() {
+        this(WaitNode.DEFAULT_SPINS);
+    }
+
+    /**
+     * @param spins 等待者 park 之前的自旋次数，0 表示直接 park
+     */
+    public McsLock(int spins) {
+        if (spins < 0) {
+            throw new IllegalArgumentException("spins 不能为负数: " + spins);
+        }
+        this.spins = spins;
+    }
+
+    @Override
+    public void lock() {
+        Node node = prepare();
+        Node pred = tail.getAndSet(node);
+        if (pred != null) {
+            pred.next = node;
+            node.await(spins);
+        }
+        node.held = true;
+    }
+
+    @Override
+    public void lockInterruptibly() throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        lock();
+    }
+
+    @Override
+    public boolean tryLock() {
+        if (tail.get() != null) {
+            return false;
+        }
+        Node node = prepare();
+        if (tail.compareAndSet(null, node)) {
+            node.held = true;
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        if (time <= 0) {
+            return tryLock();
+        }
+        long deadline = System.nanoTime() + unit.toNanos(time);
+        Node node = prepare();
+        Node pred = tail.getAndSet(node);
+        if (pred != null) {
+            pred.next = node;
+            if (!node.awaitUntil(spins, deadline) && node.abandon()) {
+                // 节点留在队列中，由释放锁的线程跳过
+                myNode.set(new Node());
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                return false;
+            }
+        }
+        node.held = true;
+        return true;
+    }
+
+    @Override
+    public void unlock() {
+        Node node = myNode.get();
+        if (!node.held) {
+            throw new IllegalMonitorStateException();
+        }
+        node.held = false;
+        release(node);
+    }
+
+    /**
+     * 把锁交给 node 的后继；后继已经放弃等待时替它释放，继续交给下一个
+     */
+    private void release(Node node) {
+        for (;;) {
+            Node succ = node.next;
+            if (succ == null) {
+                if (tail.compareAndSet(node, null)) {
+                    return;
+                }
+                // 后继已经 getAndSet 了 tail，但还没来得及设置 next
+                succ = waitForSuccessor(node);
+            }
+            if (succ.grant()) {
+                return;
+            }
+            node = succ;
+        }
+    }
+
+    private static Node waitForSuccessor(Node node) {
+        Node succ;
+        for (int i = 0; (succ = node.next) == null; i++) {
+            // 后继可能恰好在入队的两步之间被调度出去，别一直占着 CPU
+            if (i >= 64) {
+                Thread.yield();
+            }
+        }
+        return succ;
+    }
+
+    private Node prepare() {
+        Node node = myNode.get();
+        if (node.held) {
+            throw new IllegalMonitorStateException("McsLock 不可重入");
+        }
+        node.next = null;
+        node.reset();
+        return node;
+    }
+
+    public boolean isLocked() {
+        return tail.get() != null;
+    }
+
+    @Override
+    public Condition newCondition() {
+        throw new UnsupportedOperationException("McsLock 不支持 Condition");
+    }
+}
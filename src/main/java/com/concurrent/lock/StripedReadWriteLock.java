@@ -0,0 +1,295 @@
+package com.concurrent.lock;
+
+import com.concurrent.queue.WaitStrategy;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 读者可扩展的读写锁：分段的读者计数（distributed reader indicator）
+ *
+ * ReentrantReadWriteLock 的问题：读锁也要 CAS 同一个 state，读多写少时所有核都在抢这一条缓存行，
+ * 读锁本身成了瓶颈，读线程超过几个核后吞吐不再增长。
+ *
+ * 本实现：
+ * 1. 读者计数拆成多段，每段独占一条缓存行，读线程按线程 ID 落在不同的段上
+ * 2. 读锁: 本段计数 +1，然后检查 writerActive；没有写者就直接返回（只碰自己的缓存行 + 读一个几乎不变的标志）
+ * 3. 写锁: 先用 writerMutex 排斥其他写者，置 writerActive，再扫描所有段，等读者计数总和归零
+ * 4. 读者看到 writerActive 时撤回自己的 +1，在 writerMutex 上排队，等写者释放后重试（写者优先，不会饿死写者）
+ *
+ * 读者 "先 +1 再读标志"、写者 "先写标志再读计数"，两边都是 volatile/原子操作，
+ * 保证二者至少有一方看到对方（与 Dekker 算法同理），不会出现读写同时进入。
+ *
+ * 代价：写锁要扫描所有段，并轮询等待读者退出（读锁的释放不负责唤醒写者，保持读路径最短），
+ * 所以只适合读远多于写的场景；写操作较多时 ReentrantReadWriteLock 更合适。
+ *
+ * 注：Java 8 拿不到线程当前所在的 CPU 编号，"每核一段" 用线程 ID 取模近似；
+ * 段数默认不小于 CPU 核数，同一线程的 lock/unlock 总是落在同一段上。
+ *
+ * 支持：写锁可重入；持有写锁时可以获取读锁（锁降级）。
+ * 不支持：
+ * - 读锁重入：分段计数不记录持有者，有写者在等待时，已持有读锁的线程再次获取读锁会让出并等写者，
+ *   而写者在等它退出，形成死锁（ReentrantReadWriteLock 为此用 ThreadLocal 记录每个线程的读锁次数，
+ *   这里为了读路径最短没有这样做）
+ * - 读锁升级为写锁（会死锁，与 ReentrantReadWriteLock 相同）；Condition
+ */
+public class StripedReadWriteLock implements ReadWriteLock {
+    private static final int LONGS_PER_CACHE_LINE = 8;
+
+    /**
+     * 写者等待读者退出的方式：自旋 -> yield -> park 指数退避
+     */
+    private static final WaitStrategy DRAIN_WAIT = WaitStrategy.parking();
+
+    /**
+     * 读者计数，每段占一条缓存行；首尾各留一条缓存行的填充
+     */
+    private final AtomicLongArray readers;
+    private final int mask;
+
+    /**
+     * 写者之间的互斥锁，也是读者等待写者结束的地方
+     */
+    private final ReentrantLock writerMutex = new ReentrantLock();
+    private volatile boolean writerActive;
+
+    private final ReadLock readLock = new ReadLock();
+    private final WriteLock writeLock = new WriteLock();
+
+    public StripedReadWriteLock() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param stripes 读者计数的段数，向上取整为 2 的幂
+     */
+    public StripedReadWriteLock(int stripes) {
+        if (stripes <= 0 || stripes > (1 << 16)) {
+            throw new IllegalArgumentException("段数必须在 1 到 65536 之间: " + stripes);
+        }
+        int n = stripes == 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.readers = new AtomicLongArray((n + 2) * LONGS_PER_CACHE_LINE);
+        this.mask = n - 1;
+    }
+
+    @Override
+    public Lock readLock() {
+        return readLock;
+    }
+
+    @Override
+    public Lock writeLock() {
+        return writeLock;
+    }
+
+    private int slot() {
+        // 线程 ID 是递增分配的，取模后同一批线程正好分散在不同的段上
+        int stripe = (int) Thread.currentThread().getId() & mask;
+        return (stripe + 1) * LONGS_PER_CACHE_LINE;
+    }
+
+    private long readerCount() {
+        long sum = 0L;
+        for (int s = 0; s <= mask; s++) {
+            sum += readers.get((s + 1) * LONGS_PER_CACHE_LINE);
+        }
+        return sum;
+    }
+
+    /**
+     * 尝试进入读锁：成功返回 true；有写者时撤回计数并返回 false
+     */
+    private boolean tryEnterRead() {
+        int slot = slot();
+        readers.getAndIncrement(slot);
+        // 持有写锁的线程获取读锁（锁降级）直接放行
+        if (!writerActive || writerMutex.isHeldByCurrentThread()) {
+            return true;
+        }
+        readers.getAndDecrement(slot);
+        return false;
+    }
+
+    /**
+     * 等待读者全部退出，超时返回 false
+     */
+    private boolean awaitReadersDrained(boolean interruptible, boolean timed, long deadline)
+        throws InterruptedException {
+        for (int attempt = 0; readerCount() != 0; attempt++) {
+            if (interruptible && Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            if (timed && System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+            DRAIN_WAIT.idle(attempt);
+        }
+        return true;
+    }
+
+    public boolean isWriteLocked() {
+        return writerActive;
+    }
+
+    /**
+     * 当前持有读锁的次数（各段之和，并发修改时是近似值）
+     */
+    public long getReadLockCount() {
+        return readerCount();
+    }
+
+    public int stripes() {
+        return mask + 1;
+    }
+
+    @Override
+    public String toString() {
+        return "StripedReadWriteLock{stripes=" + stripes()
+            + ", readers=" + getReadLockCount()
+            + ", writeLocked=" + isWriteLocked() + "}";
+    }
+
+    final class ReadLock implements Lock {
+        @Override
+        public void lock() {
+            while (!tryEnterRead()) {
+                // 在写者的互斥锁上排队，写者释放后再重试
+                writerMutex.lock();
+                writerMutex.unlock();
+            }
+        }
+
+        @Override
+        public void lockInterruptibly() throws InterruptedException {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            while (!tryEnterRead()) {
+                writerMutex.lockInterruptibly();
+                writerMutex.unlock();
+            }
+        }
+
+        @Override
+        public boolean tryLock() {
+            return tryEnterRead();
+        }
+
+        @Override
+        public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+            long deadline = System.nanoTime() + unit.toNanos(time);
+            while (!tryEnterRead()) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0 || !writerMutex.tryLock(remaining, TimeUnit.NANOSECONDS)) {
+                    return false;
+                }
+                writerMutex.unlock();
+            }
+            return true;
+        }
+
+        /**
+         * 不检查当前线程是否持有读锁（与分段计数无法区分持有者），调用方需保证配对
+         */
+        @Override
+        public void unlock() {
+            readers.getAndDecrement(slot());
+        }
+
+        @Override
+        public Condition newCondition() {
+            throw new UnsupportedOperationException("读锁不支持 Condition");
+        }
+    }
+
+    final class WriteLock implements Lock {
+        @Override
+        public void lock() {
+            writerMutex.lock();
+            if (writerMutex.getHoldCount() == 1) {
+                writerActive = true;
+                try {
+                    awaitReadersDrained(false, false, 0L);
+                } catch (InterruptedException e) {
+                    // 不可中断模式下不会抛出
+                    throw new AssertionError(e);
+                }
+            }
+        }
+
+        @Override
+        public void lockInterruptibly() throws InterruptedException {
+            writerMutex.lockInterruptibly();
+            if (writerMutex.getHoldCount() == 1) {
+                writerActive = true;
+                try {
+                    awaitReadersDrained(true, false, 0L);
+                } catch (InterruptedException e) {
+                    abort();
+                    throw e;
+                }
+            }
+        }
+
+        @Override
+        public boolean tryLock() {
+            if (!writerMutex.tryLock()) {
+                return false;
+            }
+            if (writerMutex.getHoldCount() == 1) {
+                writerActive = true;
+                if (readerCount() != 0) {
+                    abort();
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+            long deadline = System.nanoTime() + unit.toNanos(time);
+            if (!writerMutex.tryLock(time, unit)) {
+                return false;
+            }
+            if (writerMutex.getHoldCount() == 1) {
+                writerActive = true;
+                boolean drained;
+                try {
+                    drained = awaitReadersDrained(true, true, deadline);
+                } catch (InterruptedException e) {
+                    abort();
+                    throw e;
+                }
+                if (!drained) {
+                    abort();
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public void unlock() {
+            if (writerMutex.getHoldCount() == 1) {
+                // 先清标志再释放互斥锁：在互斥锁上等待的读者醒来时一定能看到写者已结束
+                writerActive = false;
+            }
+            writerMutex.unlock();
+        }
+
+        private void abort() {
+            writerActive = false;
+            writerMutex.unlock();
+        }
+
+        @Override
+        public Condition newCondition() {
+            throw new UnsupportedOperationException("写锁不支持 Condition");
+        }
+    }
+}
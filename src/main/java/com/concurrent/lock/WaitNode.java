@@ -0,0 +1,180 @@
+package com.concurrent.lock;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 队列锁（McsLock / ClhLock）的等待节点
+ *
+ * 每个等待者只在 "自己关心的那个节点" 上自旋（MCS 是自己的节点，CLH 是前驱的节点），
+ * 释放锁时只写这一个节点，不会像 SimpleSpinLock 那样让所有等待者争抢同一个 state。
+ *
+ * 状态转换：
+ * <pre>
+ * WAITING --grant()--> GRANTED
+ * WAITING --等待者自旋超时--> PARKED --grant()--> GRANTED（并 unpark 等待者）
+ * WAITING/PARKED --forwardTo(next)--> FORWARDED --grant()--> GRANTED（并 grant next）
+ * WAITING/PARKED --abandon()--> ABANDONED --grant()--> GRANTED（grant() 返回 false，由调用方交给下一个）
+ * </pre>
+ * FORWARDED 和 ABANDONED 用于撤销等待（限时 tryLock 超时、tryLock 的虚假失败），分别对应 CLH 和 MCS 的撤销方式。
+ * 撤销后节点仍留在队列中，被 grant 之后才没有人引用，所以撤销的一方不能再复用它。
+ * 纯自旋的队列锁在线程数超过核数时会崩溃：排在前面的等待者被调度出去，后面所有线程都得等它重新上 CPU。
+ * 所以这里自旋 spins 次后改为 park，由 grant() 负责唤醒。
+ *
+ * 节点前后做了缓存行填充：不同线程的节点各占一条缓存行，自旋时互不干扰。
+ */
+class WaitNode extends WaitNodeRhsPadding {
+    static final int GRANTED = 0;
+    static final int WAITING = 1;
+    static final int PARKED = 2;
+    static final int FORWARDED = 3;
+    static final int ABANDONED = 4;
+
+    /**
+     * 默认自旋次数：单核时自旋没有意义（持有者不可能同时在运行），直接 park，
+     * 与 SynchronousQueue 中 maxTimedSpins 的取法相同
+     */
+    static final int DEFAULT_SPINS = Runtime.getRuntime().availableProcessors() > 1 ? 1 << 12 : 0;
+
+    private static final AtomicIntegerFieldUpdater<WaitNodeFields> STATE =
+        AtomicIntegerFieldUpdater.newUpdater(WaitNodeFields.class, "state");
+
+    /**
+     * 准备再次入队：只能由节点的独占持有者在入队前调用
+     */
+    void reset() {
+        waiter = null;
+        forward = null;
+        STATE.lazySet(this, WAITING);
+    }
+
+    boolean isGranted() {
+        return state == GRANTED;
+    }
+
+    /**
+     * 等待本节点被 grant：先自旋，再 park。等待期间的中断不会打断等待，返回后恢复中断状态
+     */
+    void await(int spins) {
+        for (int i = 0; i < spins; i++) {
+            if (state == GRANTED) {
+                return;
+            }
+        }
+        waiter = Thread.currentThread();
+        // CAS 失败说明刚刚已经被 grant
+        if (STATE.compareAndSet(this, WAITING, PARKED)) {
+            boolean interrupted = false;
+            while (state != GRANTED) {
+                LockSupport.park(this);
+                // 中断状态会让 park 立即返回，先清掉，等拿到锁后再恢复
+                interrupted |= Thread.interrupted();
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * 限时等待本节点被 grant：先自旋，再 park 到 deadline
+     *
+     * @return true 表示已经被 grant；false 表示超时或被中断（保留中断状态），此时节点仍在等待，
+     *         调用方要用 forwardTo 或 abandon 撤销，撤销失败说明恰好被 grant
+     */
+    boolean awaitUntil(int spins, long deadline) {
+        for (int i = 0; i < spins; i++) {
+            if (state == GRANTED) {
+                return true;
+            }
+        }
+        waiter = Thread.currentThread();
+        if (!STATE.compareAndSet(this, WAITING, PARKED)) {
+            return true;
+        }
+        for (;;) {
+            if (state == GRANTED) {
+                return true;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0 || Thread.currentThread().isInterrupted()) {
+                return false;
+            }
+            LockSupport.parkNanos(this, remaining);
+        }
+    }
+
+    /**
+     * 放弃等待本节点：本节点被 grant 时一并 grant next。
+     * 只能由本节点唯一的等待方调用，调用后不能再 await
+     *
+     * @return false 表示本节点已经被 grant，不会转交
+     */
+    boolean forwardTo(WaitNode next) {
+        forward = next;
+        return cancel(FORWARDED);
+    }
+
+    /**
+     * 放弃等待本节点：本节点之后被 grant 时 grant() 返回 false，由调用方把锁交给下一个。
+     * 只能由本节点唯一的等待方调用，调用后不能再 await
+     *
+     * @return false 表示本节点已经被 grant，不能放弃
+     */
+    boolean abandon() {
+        return cancel(ABANDONED);
+    }
+
+    private boolean cancel(int cancelled) {
+        for (;;) {
+            // 除了唯一的等待方，只有 grant() 会改 state：CAS 失败时只可能是已经 GRANTED
+            int s = state;
+            if (s == GRANTED) {
+                return false;
+            }
+            if (STATE.compareAndSet(this, s, cancelled)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 把锁交给在本节点上等待的线程；本节点被转交过时沿转交链依次 grant（循环而不是递归）
+     *
+     * @return false 表示转交链的终点已经放弃等待（abandon），锁没有交出去
+     */
+    boolean grant() {
+        WaitNode node = this;
+        for (;;) {
+            int previous = STATE.getAndSet(node, GRANTED);
+            if (previous == PARKED) {
+                LockSupport.unpark(node.waiter);
+                return true;
+            }
+            if (previous == ABANDONED) {
+                return false;
+            }
+            if (previous != FORWARDED) {
+                return true;
+            }
+            node = node.forward;
+        }
+    }
+}
+
+abstract class WaitNodeLhsPadding {
+    long p01, p02, p03, p04, p05, p06, p07;
+}
+
+abstract class WaitNodeFields extends WaitNodeLhsPadding {
+    volatile int state;
+    volatile Thread waiter;
+    /**
+     * FORWARDED 状态下被 grant 时一并 grant 的节点，在 CAS 到 FORWARDED 之前写入
+     */
+    volatile WaitNode forward;
+}
+
+abstract class WaitNodeRhsPadding extends WaitNodeFields {
+    long p11, p12, p13, p14, p15, p16, p17;
+}
@@ -0,0 +1,117 @@
+package com.concurrent.lockfree;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * Chase-Lev 工作窃取双端队列（work-stealing deque）
+ *
+ * 每个工作线程拥有一个：
+ * - 所有者在底部 push / pop（后进先出：刚拆出的子任务数据还在缓存里），不需要 CAS
+ * - 其他线程（窃取者）从顶部 steal（先进先出：偷走的是最早、通常也最大的任务），CAS 顶部下标
+ * 只有队列里剩最后一个元素时，所有者的 pop 才需要和窃取者抢同一个 CAS。
+ *
+ * 实现按 Lê 等人（PPoPP 2013）给出的 Chase-Lev 版本，Java 的 volatile 读写是顺序一致的，
+ * 论文中 pop 在写 bottom 与读 top 之间需要的完整屏障由 volatile 保证。
+ *
+ * 环形数组满了由所有者扩容为 2 倍，不缩容。旧数组中的元素保持不变，正在读旧数组的窃取者仍然读到正确的元素。
+ * 被偷走的槽位不清空（窃取者清空可能误删所有者绕回后写入的新元素），直到被新元素覆盖前仍引用旧元素。
+ *
+ * 约定：push / pop 只能由所有者线程调用；steal / size / isEmpty 任意线程可以调用。
+ */
+public class ChaseLevDeque<E> {
+    private static final int INITIAL_CAPACITY = 1 << 8;
+
+    @SuppressWarnings("unchecked")
+    private static final AtomicLongFieldUpdater<ChaseLevDeque<?>> TOP =
+        (AtomicLongFieldUpdater<ChaseLevDeque<?>>) (AtomicLongFieldUpdater<?>)
+            AtomicLongFieldUpdater.newUpdater(ChaseLevDeque.class, "top");
+
+    private volatile long top;
+    private volatile long bottom;
+    private volatile Object[] array = new Object[INITIAL_CAPACITY];
+
+    /**
+     * 所有者：压入底部
+     */
+    public void push(E e) {
+        if (e == null) {
+            throw new NullPointerException();
+        }
+        long b = bottom;
+        long t = top;
+        Object[] a = array;
+        if (b - t > a.length - 1) {
+            a = grow(a, t, b);
+        }
+        a[(int) b & (a.length - 1)] = e;
+        // volatile 写：窃取者读到新的 bottom 时一定能看到上面写入的元素
+        bottom = b + 1;
+    }
+
+    /**
+     * 所有者：从底部弹出，队列为空返回 null
+     */
+    @SuppressWarnings("unchecked")
+    public E pop() {
+        long b = bottom - 1;
+        Object[] a = array;
+        bottom = b;
+        long t = top;
+        if (t > b) {
+            // 已经空了
+            bottom = b + 1;
+            return null;
+        }
+        int index = (int) b & (a.length - 1);
+        E e = (E) a[index];
+        if (t < b) {
+            // 至少还剩两个，窃取者碰不到底部这一个
+            a[index] = null;
+            return e;
+        }
+        // 最后一个：与窃取者抢 top
+        if (TOP.compareAndSet(this, t, t + 1)) {
+            a[index] = null;
+        } else {
+            e = null;
+        }
+        bottom = b + 1;
+        return e;
+    }
+
+    /**
+     * 任意线程：从顶部偷一个，队列为空或与其他线程竞争失败时返回 null
+     */
+    @SuppressWarnings("unchecked")
+    public E steal() {
+        long t = top;
+        long b = bottom;
+        if (t >= b) {
+            return null;
+        }
+        Object[] a = array;
+        E e = (E) a[(int) t & (a.length - 1)];
+        return TOP.compareAndSet(this, t, t + 1) ? e : null;
+    }
+
+    private Object[] grow(Object[] old, long t, long b) {
+        Object[] a = new Object[old.length << 1];
+        for (long i = t; i < b; i++) {
+            a[(int) i & (a.length - 1)] = old[(int) i & (old.length - 1)];
+        }
+        array = a;
+        return a;
+    }
+
+    /**
+     * 估算的元素个数，并发修改时只是近似值
+     */
+    public int size() {
+        long n = bottom - top;
+        return n <= 0 ? 0 : (int) Math.min(n, Integer.MAX_VALUE);
+    }
+
+    public boolean isEmpty() {
+        return bottom - top <= 0;
+    }
+}
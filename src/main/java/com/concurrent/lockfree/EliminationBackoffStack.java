@@ -0,0 +1,160 @@
+package com.concurrent.lockfree;
+
+import com.concurrent.metrics.LongCounter;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 消除-退避栈（Elimination Backoff Stack）
+ *
+ * AtomicReferenceDemo.LockFreeStack 的问题：CAS 失败后立即重试，所有线程都在争抢 head 所在的缓存行。
+ *
+ * 本实现在 CAS 失败后不立即重试，而是到旁边的 "消除数组" 里等一会儿：
+ * 1. push 把节点放进随机一个槽位，等待 pop 来取
+ * 2. pop 到随机一个槽位里找 push 放进来的节点
+ * 3. 二者相遇则互相抵消（push 的值直接交给 pop），完全不碰 head
+ * 4. 没有相遇则回到 head 重试，下次等待时间翻倍（指数退避），最长 MAX_SPINS
+ *
+ * 竞争越激烈，相遇的概率越高，吞吐反而随线程数上升。
+ * 低竞争时 head 上的 CAS 一次就成功，不会进入消除数组，与 LockFreeStack 开销相同。
+ *
+ * 对外 API 与 LockFreeStack 保持一致：push / pop / isEmpty。
+ */
+public class EliminationBackoffStack<T> {
+
+    private static final int MIN_SPINS = 16;
+    private static final int MAX_SPINS = 1 << 10;
+
+    /**
+     * 槽位间隔：每个槽位独占一条缓存行（压缩指针下 16 个引用 = 64 字节）
+     */
+    private static final int SLOT_STRIDE = 16;
+
+    /**
+     * 槽位被 pop 取走后的标记，由放入节点的 push 负责清空
+     */
+    private static final Node<Object> TAKEN = new Node<>(null);
+
+    private static class Node<T> {
+        final T value;
+        Node<T> next;
+
+        Node(T value) {
+            this.value = value;
+        }
+    }
+
+    private final AtomicReference<Node<T>> head = new AtomicReference<>();
+    private final AtomicReferenceArray<Node<?>> slots;
+    private final int slotCount;
+    private final LongCounter eliminations = new LongCounter();
+
+    /**
+     * 消除数组大小默认为 CPU 核数的一半（push 和 pop 成对相遇）
+     */
+    public EliminationBackoffStack() {
+        this(Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+    }
+
+    public EliminationBackoffStack(int slotCount) {
+        if (slotCount < 1) {
+            throw new IllegalArgumentException("槽位数必须大于 0: " + slotCount);
+        }
+        this.slotCount = slotCount;
+        this.slots = new AtomicReferenceArray<>((slotCount + 1) * SLOT_STRIDE);
+    }
+
+    public void push(T value) {
+        Node<T> newHead = new Node<>(value);
+        int spins = MIN_SPINS;
+        for (;;) {
+            Node<T> oldHead = head.get();
+            newHead.next = oldHead;
+            if (head.compareAndSet(oldHead, newHead)) {
+                return;
+            }
+            if (tryEliminatePush(newHead, spins)) {
+                eliminations.increment();
+                return;
+            }
+            spins = Math.min(spins << 1, MAX_SPINS);
+        }
+    }
+
+    public T pop() {
+        int spins = MIN_SPINS;
+        for (;;) {
+            Node<T> oldHead = head.get();
+            if (oldHead == null) {
+                return null;
+            }
+            if (head.compareAndSet(oldHead, oldHead.next)) {
+                return oldHead.value;
+            }
+            Node<T> eliminated = tryEliminatePop(spins);
+            if (eliminated != null) {
+                return eliminated.value;
+            }
+            spins = Math.min(spins << 1, MAX_SPINS);
+        }
+    }
+
+    public boolean isEmpty() {
+        return head.get() == null;
+    }
+
+    /**
+     * 通过消除数组完成的 push/pop 对数
+     */
+    public long eliminationCount() {
+        return eliminations.sum();
+    }
+
+    /**
+     * push 方：占据一个空槽位，等待 pop 取走
+     *
+     * @return true 表示已被某个 pop 取走（push 完成）
+     */
+    private boolean tryEliminatePush(Node<T> node, int spins) {
+        int idx = randomSlot();
+        if (!slots.compareAndSet(idx, null, node)) {
+            return false; // 槽位被占用，回去重试 head
+        }
+        for (int i = 0; i < spins; i++) {
+            if (slots.get(idx) == TAKEN) {
+                slots.set(idx, null);
+                return true;
+            }
+        }
+        // 等待超时，撤回节点；撤回失败说明 pop 恰好在此时取走了
+        if (slots.compareAndSet(idx, node, null)) {
+            return false;
+        }
+        slots.set(idx, null);
+        return true;
+    }
+
+    /**
+     * pop 方：在一个槽位上等待 push 放入的节点
+     *
+     * @return 取到的节点，没有相遇则返回 null
+     */
+    @SuppressWarnings("unchecked")
+    private Node<T> tryEliminatePop(int spins) {
+        int idx = randomSlot();
+        for (int i = 0; i < spins; i++) {
+            Node<?> node = slots.get(idx);
+            if (node != null && node != TAKEN && slots.compareAndSet(idx, node, TAKEN)) {
+                return (Node<T>) node;
+            }
+        }
+        return null;
+    }
+
+    private int randomSlot() {
+        // 下标 0 留空，避免第一个槽位与数组对象头共享缓存行
+        return (ThreadLocalRandom.current().nextInt(slotCount) + 1) * SLOT_STRIDE;
+    }
+}
@@ -0,0 +1,175 @@
+package com.concurrent.lockfree;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 节点池：PooledLockFreeStack / PooledLockFreeQueue 的节点存储与回收
+ *
+ * 节点不是对象，而是一个 int 下标，节点的字段存放在分块数组中：
+ * - values[i]: 节点保存的元素
+ * - next[i]:   "版本号(高 32 位) | 下一个节点下标(低 32 位)" 打包成的 long
+ *
+ * 所有 "指针"（栈顶、队头、队尾、next）都是这种带版本号的 long，用一次 long CAS 同时比较指针和版本号，
+ * 效果与 CASDemo 中的 AtomicStampedReference 相同，但不需要每次 CAS 都创建一个 Pair 对象。
+ *
+ * 回收路径：
+ * 1. 每个线程有一个本地缓存（最多 LOCAL_CACHE_SIZE 个下标），释放和分配优先走本地缓存，没有任何竞争
+ * 2. 本地缓存满了，把一半放回全局空闲栈（同样用带版本号的 long CAS 实现）；本地缓存空了，从全局空闲栈取
+ * 3. 全局空闲栈也空了才分配新节点（按块扩容），所以进入稳定状态后 push/pop 不再产生任何垃圾
+ *
+ * 版本号为 32 位：一个线程在读取指针和 CAS 之间被挂起，恰好经历 2^32 次修改后版本号回绕，才会出现 ABA。
+ */
+final class NodePool<T> {
+    static final int NIL = -1;
+
+    private static final int CHUNK_SHIFT = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int MAX_CHUNKS = 1 << 14; // 最多 1600 万个节点
+    private static final int LOCAL_CACHE_SIZE = 64;
+
+    private static final class Chunk {
+        final Object[] values = new Object[CHUNK_SIZE];
+        final AtomicLongArray next = new AtomicLongArray(CHUNK_SIZE);
+    }
+
+    /**
+     * 线程本地的空闲下标缓存
+     */
+    private static final class LocalCache {
+        final int[] items = new int[LOCAL_CACHE_SIZE];
+        int size;
+    }
+
+    private final AtomicReferenceArray<Chunk> chunks = new AtomicReferenceArray<>(MAX_CHUNKS);
+    private final AtomicInteger allocated = new AtomicInteger();
+    private final AtomicLong freeHead = new AtomicLong(pack(0, NIL));
+    private final ThreadLocal<LocalCache> localCache = ThreadLocal.withInitial(LocalCache::new);
+
+    // ==================== 带版本号的指针 ====================
+
+    static long pack(int stamp, int index) {
+        return ((long) stamp << 32) | (index & 0xFFFFFFFFL);
+    }
+
+    static int index(long pointer) {
+        return (int) pointer;
+    }
+
+    static int stamp(long pointer) {
+        return (int) (pointer >>> 32);
+    }
+
+    /**
+     * 指向 index，版本号在 old 的基础上加一
+     */
+    static long next(long old, int index) {
+        return pack(stamp(old) + 1, index);
+    }
+
+    // ==================== 节点字段 ====================
+
+    private Chunk chunk(int node) {
+        return chunks.get(node >>> CHUNK_SHIFT);
+    }
+
+    @SuppressWarnings("unchecked")
+    T value(int node) {
+        return (T) chunk(node).values[node & CHUNK_MASK];
+    }
+
+    void setValue(int node, T value) {
+        chunk(node).values[node & CHUNK_MASK] = value;
+    }
+
+    long nextOf(int node) {
+        return chunk(node).next.get(node & CHUNK_MASK);
+    }
+
+    boolean casNext(int node, long expect, long update) {
+        return chunk(node).next.compareAndSet(node & CHUNK_MASK, expect, update);
+    }
+
+    /**
+     * 只能由节点的独占持有者调用（刚分配、或位于空闲栈中的节点）。版本号照样递增，
+     * 防止持有旧 next 值的线程在节点被回收再利用后 CAS 成功。
+     */
+    void setNext(int node, int nextNode) {
+        Chunk c = chunk(node);
+        int i = node & CHUNK_MASK;
+        c.next.set(i, next(c.next.get(i), nextNode));
+    }
+
+    // ==================== 分配与回收 ====================
+
+    int allocate() {
+        LocalCache cache = localCache.get();
+        if (cache.size > 0) {
+            return cache.items[--cache.size];
+        }
+        int node = popFree();
+        return node != NIL ? node : grow();
+    }
+
+    void free(int node) {
+        setValue(node, null);
+        LocalCache cache = localCache.get();
+        if (cache.size == LOCAL_CACHE_SIZE) {
+            // 本地缓存满了，归还一半给其他线程使用
+            for (int i = 0; i < LOCAL_CACHE_SIZE / 2; i++) {
+                pushFree(cache.items[--cache.size]);
+            }
+        }
+        cache.items[cache.size++] = node;
+    }
+
+    private void pushFree(int node) {
+        for (;;) {
+            long head = freeHead.get();
+            setNext(node, index(head));
+            if (freeHead.compareAndSet(head, next(head, node))) {
+                return;
+            }
+        }
+    }
+
+    private int popFree() {
+        for (;;) {
+            long head = freeHead.get();
+            int node = index(head);
+            if (node == NIL) {
+                return NIL;
+            }
+            // node 可能已被其他线程取走并重新使用，读到的 next 是旧值；此时 freeHead 的版本号已变，CAS 必然失败
+            int nextNode = index(nextOf(node));
+            if (freeHead.compareAndSet(head, next(head, nextNode))) {
+                return node;
+            }
+        }
+    }
+
+    /**
+     * 分配一个全新的节点，必要时创建新的块（只在预热或容量增长时发生）
+     */
+    private int grow() {
+        int node = allocated.getAndIncrement();
+        int chunkIndex = node >>> CHUNK_SHIFT;
+        if (node < 0 || chunkIndex >= MAX_CHUNKS) {
+            throw new IllegalStateException("节点数超过上限: " + (long) MAX_CHUNKS * CHUNK_SIZE);
+        }
+        if (chunks.get(chunkIndex) == null) {
+            chunks.compareAndSet(chunkIndex, null, new Chunk());
+        }
+        return node;
+    }
+
+    /**
+     * 已分配的节点总数（包括正在使用的和空闲的）
+     */
+    int capacity() {
+        return Math.min(allocated.get(), MAX_CHUNKS * CHUNK_SIZE);
+    }
+}
@@ -0,0 +1,101 @@
+package com.concurrent.lockfree;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 节点池化、防 ABA 的无锁队列
+ *
+ * 算法是 Michael & Scott 无锁队列的原始版本（论文中就使用 "指针 + 计数" 和空闲链表回收节点）：
+ * 1. 队头 head 指向一个哑节点，真正的第一个元素是 head.next
+ * 2. offer: 用 CAS 把新节点挂到 tail.next 上，再尝试把 tail 后移（失败也没关系，其他线程会帮忙后移）
+ * 3. poll: 用 CAS 把 head 后移一位，原来的哑节点回收，新 head 成为哑节点
+ *
+ * head、tail 和每个节点的 next 都是 "版本号 | 节点下标" 打包的 long，节点复用不会导致 ABA。
+ * 进入稳定状态后 offer/poll 不分配任何对象（对比 ConcurrentLinkedQueue 每次 offer 创建一个 Node）。
+ *
+ * 不允许 null 元素（poll 用 null 表示队列为空）。
+ * 注意：最近一次出队的元素仍被哑节点引用，直到下一次出队时才释放。
+ */
+public class PooledLockFreeQueue<T> {
+    private final NodePool<T> pool = new NodePool<>();
+    private final AtomicLong head;
+    private final AtomicLong tail;
+
+    public PooledLockFreeQueue() {
+        int dummy = pool.allocate();
+        pool.setNext(dummy, NodePool.NIL);
+        head = new AtomicLong(NodePool.pack(0, dummy));
+        tail = new AtomicLong(NodePool.pack(0, dummy));
+    }
+
+    public boolean offer(T value) {
+        if (value == null) {
+            throw new NullPointerException();
+        }
+        int node = pool.allocate();
+        pool.setValue(node, value);
+        pool.setNext(node, NodePool.NIL);
+        for (;;) {
+            long t = tail.get();
+            int tailNode = NodePool.index(t);
+            long next = pool.nextOf(tailNode);
+            if (t != tail.get()) {
+                continue;
+            }
+            if (NodePool.index(next) == NodePool.NIL) {
+                if (pool.casNext(tailNode, next, NodePool.next(next, node))) {
+                    tail.compareAndSet(t, NodePool.next(t, node));
+                    return true;
+                }
+            } else {
+                // tail 落后了，帮忙后移
+                tail.compareAndSet(t, NodePool.next(t, NodePool.index(next)));
+            }
+        }
+    }
+
+    public T poll() {
+        for (;;) {
+            long h = head.get();
+            long t = tail.get();
+            int headNode = NodePool.index(h);
+            long next = pool.nextOf(headNode);
+            if (h != head.get()) {
+                continue;
+            }
+            int nextNode = NodePool.index(next);
+            if (headNode == NodePool.index(t)) {
+                if (nextNode == NodePool.NIL) {
+                    return null;
+                }
+                tail.compareAndSet(t, NodePool.next(t, nextNode));
+            } else if (nextNode != NodePool.NIL) {
+                // 必须在 CAS 之前读取：CAS 成功后 nextNode 成为哑节点，可能马上被其他线程回收
+                T value = pool.value(nextNode);
+                if (head.compareAndSet(h, NodePool.next(h, nextNode))) {
+                    // 此时只有当前线程持有旧哑节点，可以安全回收（回收时清空其元素引用）。
+                    // 新哑节点不能在这里清空：它可能已被其他线程出队、回收并重新写入了元素
+                    pool.free(headNode);
+                    return value;
+                }
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        for (;;) {
+            long h = head.get();
+            long next = pool.nextOf(NodePool.index(h));
+            if (h == head.get()) {
+                return NodePool.index(next) == NodePool.NIL;
+            }
+        }
+    }
+
+    /**
+     * 节点池中已创建的节点数，稳定状态下不再增长
+     */
+    public int pooledNodes() {
+        return pool.capacity();
+    }
+}
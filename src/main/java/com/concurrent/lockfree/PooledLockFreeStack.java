@@ -0,0 +1,59 @@
+package com.concurrent.lockfree;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 节点池化、防 ABA 的无锁栈
+ *
+ * 与 AtomicReferenceDemo.LockFreeStack 的区别：
+ * - LockFreeStack: 每次 push 都 new 一个 Node，依赖 GC 回收，因此不会遇到 ABA
+ * - 本实现: 节点来自 NodePool，pop 之后立即回收再利用；节点会被复用，就可能出现 ABA，
+ *   因此栈顶是 "版本号 | 节点下标" 打包的 long，每次修改版本号加一，一次 long CAS 同时校验二者
+ *
+ * 进入稳定状态后（节点池不再扩容），push/pop 不分配任何对象。
+ */
+public class PooledLockFreeStack<T> {
+    private final NodePool<T> pool = new NodePool<>();
+    private final AtomicLong head = new AtomicLong(NodePool.pack(0, NodePool.NIL));
+
+    public void push(T value) {
+        int node = pool.allocate();
+        pool.setValue(node, value);
+        for (;;) {
+            long oldHead = head.get();
+            pool.setNext(node, NodePool.index(oldHead));
+            if (head.compareAndSet(oldHead, NodePool.next(oldHead, node))) {
+                return;
+            }
+        }
+    }
+
+    public T pop() {
+        for (;;) {
+            long oldHead = head.get();
+            int node = NodePool.index(oldHead);
+            if (node == NodePool.NIL) {
+                return null;
+            }
+            // node 可能已被其他线程弹出并复用，读到的 next 是错的；
+            // 但那样 head 的版本号已经变化，下面的 CAS 一定失败（这正是版本号解决 ABA 的方式）
+            int newHead = NodePool.index(pool.nextOf(node));
+            if (head.compareAndSet(oldHead, NodePool.next(oldHead, newHead))) {
+                T value = pool.value(node);
+                pool.free(node);
+                return value;
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return NodePool.index(head.get()) == NodePool.NIL;
+    }
+
+    /**
+     * 节点池中已创建的节点数，稳定状态下不再增长
+     */
+    public int pooledNodes() {
+        return pool.capacity();
+    }
+}
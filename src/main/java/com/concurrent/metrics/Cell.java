@@ -0,0 +1,50 @@
+package com.concurrent.metrics;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * 缓存行填充的累加单元
+ *
+ * 作用与 JDK 中 LongAdder 的 @Contended Cell 相同：value 前后各填充 56 字节，
+ * 保证相邻 Cell 不会落在同一条缓存行上（避免伪共享）。
+ *
+ * 为什么不直接用 @Contended？
+ * - Java 8 中它是 sun.misc.Contended，用户代码需要 -XX:-RestrictContended 才生效
+ * - JVM 只保证父类字段排在子类字段之前，所以这里用三层继承固定字段顺序
+ */
+final class Cell extends CellValue {
+    long p11, p12, p13, p14, p15, p16, p17;
+
+    private static final AtomicLongFieldUpdater<CellValue> VALUE =
+        AtomicLongFieldUpdater.newUpdater(CellValue.class, "value");
+
+    Cell(long initial) {
+        this.value = initial;
+    }
+
+    boolean cas(long expect, long update) {
+        return VALUE.compareAndSet(this, expect, update);
+    }
+
+    long getAndAdd(long delta) {
+        return VALUE.getAndAdd(this, delta);
+    }
+
+    long getAndSet(long newValue) {
+        return VALUE.getAndSet(this, newValue);
+    }
+}
+
+/**
+ * 左侧填充
+ */
+abstract class CellLhsPadding {
+    long p01, p02, p03, p04, p05, p06, p07;
+}
+
+/**
+ * 真正的计数值，夹在左右填充之间
+ */
+abstract class CellValue extends CellLhsPadding {
+    volatile long value;
+}
@@ -0,0 +1,59 @@
+package com.concurrent.metrics;
+
+/**
+ * 分段双精度累加器（如累计耗时、金额）
+ *
+ * Cell 中保存 Double.doubleToRawLongBits 的结果，累加只能用 CAS 循环完成；
+ * CAS 失败时换段重试，减少在同一缓存行上的反复争抢。
+ *
+ * 注意：浮点加法不满足结合律，不同段的累加顺序不同，结果可能有极小的舍入差异。
+ */
+public class DoubleCounter extends StripedCells {
+
+    public DoubleCounter() {
+        this(Striping.defaultStripes());
+    }
+
+    public DoubleCounter(int stripes) {
+        super(stripes, Double.doubleToRawLongBits(0.0d));
+    }
+
+    public void add(double delta) {
+        int[] probe = Striping.probe();
+        Cell cell = cell(probe);
+        for (;;) {
+            long bits = cell.value;
+            long next = Double.doubleToRawLongBits(Double.longBitsToDouble(bits) + delta);
+            if (cell.cas(bits, next)) {
+                return;
+            }
+            cell = rehash(probe);
+        }
+    }
+
+    public double sum() {
+        double sum = 0.0d;
+        for (Cell cell : cells) {
+            sum += Double.longBitsToDouble(cell.value);
+        }
+        return sum;
+    }
+
+    public double sumThenReset() {
+        long zero = Double.doubleToRawLongBits(0.0d);
+        double sum = 0.0d;
+        for (Cell cell : cells) {
+            sum += Double.longBitsToDouble(cell.getAndSet(zero));
+        }
+        return sum;
+    }
+
+    public void reset() {
+        resetTo(Double.doubleToRawLongBits(0.0d));
+    }
+
+    @Override
+    public String toString() {
+        return Double.toString(sum());
+    }
+}
@@ -0,0 +1,159 @@
+package com.concurrent.metrics;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 分组计数器：一组相关计数（如 请求数/成功数/失败数）放在同一个填充过的段里
+ *
+ * 对比 LongAdderDemo.demonstrateStatistics 中三个独立的 LongAdder：
+ * - 三个 LongAdder：一次请求要碰 2 个不同对象的 Cell，即 2 条缓存行
+ * - GroupedCounter：同一线程的所有字段在同一个段中相邻存放，一次请求碰 1 条、最多 2 条缓存行
+ *
+ * 内存布局（AtomicLongArray，每格 8 字节）：
+ * <pre>
+ * [填充 8][段0: 字段0..n-1 | 补齐到 8 的倍数 | 填充 8][段1: ...]...[填充 8]
+ * </pre>
+ * 数组元素相对对象头只偏移 16 字节，起始地址不按 64 字节对齐，段的数据可能跨两条缓存行；
+ * 所以每个段后面再多填充一整条缓存行（8 个 long），保证相邻两个段的数据之间至少隔 64 字节，不会伪共享。
+ * 字段较少时（如 3 个字段共 24 字节），段的数据大多落在同一条缓存行内。
+ *
+ * snapshot() 分别汇总每个字段，字段之间不是原子快照（例如可能短暂出现 成功数 + 失败数 < 请求数）。
+ */
+public class GroupedCounter {
+    private static final int LONGS_PER_CACHE_LINE = 8;
+
+    private final String[] names;
+    private final AtomicLongArray cells;
+    private final int stride;
+    private final int mask;
+
+    /**
+     * @param names 字段名称，字段下标即参数顺序
+     */
+    public GroupedCounter(String... names) {
+        this(Striping.defaultStripes(), names);
+    }
+
+    public GroupedCounter(int stripes, String... names) {
+        if (names.length == 0) {
+            throw new IllegalArgumentException("至少需要一个字段");
+        }
+        int n = Striping.ceilingPowerOfTwo(stripes);
+        this.names = names.clone();
+        // 字段补齐到整条缓存行，再加一条缓存行的填充（数组起始地址不对齐，见类注释）
+        this.stride = (names.length + LONGS_PER_CACHE_LINE - 1) / LONGS_PER_CACHE_LINE * LONGS_PER_CACHE_LINE
+            + LONGS_PER_CACHE_LINE;
+        this.cells = new AtomicLongArray(LONGS_PER_CACHE_LINE + n * stride + LONGS_PER_CACHE_LINE);
+        this.mask = n - 1;
+    }
+
+    /**
+     * 按名称查找字段下标，建议在初始化时查好并保存为常量
+     */
+    public int indexOf(String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("未知字段: " + name);
+    }
+
+    public void increment(int field) {
+        add(field, 1L);
+    }
+
+    /**
+     * 在同一个段中同时递增两个字段（如 请求数 + 成功数）
+     */
+    public void increment(int field1, int field2) {
+        int base = addAndGetBase(field1, 1L);
+        cells.getAndAdd(base + checkField(field2), 1L);
+    }
+
+    /**
+     * 在同一个段中同时递增三个字段
+     */
+    public void increment(int field1, int field2, int field3) {
+        int base = addAndGetBase(field1, 1L);
+        cells.getAndAdd(base + checkField(field2), 1L);
+        cells.getAndAdd(base + checkField(field3), 1L);
+    }
+
+    public void add(int field, long delta) {
+        addAndGetBase(field, delta);
+    }
+
+    /**
+     * 用 CAS 完成第一个字段的累加：失败说明当前段有竞争，换段后用 getAndAdd 完成。
+     * 返回最终使用的段的起始下标，同一次调用的其余字段都写到这个段中。
+     */
+    private int addAndGetBase(int field, long delta) {
+        checkField(field);
+        int[] probe = Striping.probe();
+        int base = base(probe[0]);
+        long v = cells.get(base + field);
+        if (!cells.compareAndSet(base + field, v, v + delta)) {
+            base = base(Striping.advance(probe));
+            cells.getAndAdd(base + field, delta);
+        }
+        return base;
+    }
+
+    private int base(int hash) {
+        return LONGS_PER_CACHE_LINE + (hash & mask) * stride;
+    }
+
+    private int checkField(int field) {
+        if (field < 0 || field >= names.length) {
+            throw new IndexOutOfBoundsException("字段下标越界: " + field);
+        }
+        return field;
+    }
+
+    public long sum(int field) {
+        checkField(field);
+        long sum = 0L;
+        for (int s = 0; s <= mask; s++) {
+            sum += cells.get(base(s) + field);
+        }
+        return sum;
+    }
+
+    public long sum(String name) {
+        return sum(indexOf(name));
+    }
+
+    /**
+     * 所有字段的当前汇总值，按构造时的字段顺序排列
+     */
+    public Map<String, Long> snapshot() {
+        Map<String, Long> snapshot = new LinkedHashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            snapshot.put(names[i], sum(i));
+        }
+        return snapshot;
+    }
+
+    public void reset() {
+        for (int i = 0; i < cells.length(); i++) {
+            cells.set(i, 0L);
+        }
+    }
+
+    public int stripes() {
+        return mask + 1;
+    }
+
+    public String[] names() {
+        return Arrays.copyOf(names, names.length);
+    }
+
+    @Override
+    public String toString() {
+        return snapshot().toString();
+    }
+}
@@ -0,0 +1,153 @@
+package com.concurrent.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 无锁延迟直方图（HdrHistogram 风格的对数-线性分桶）
+ *
+ * 只记录平均值和最大值看不出长尾；把每个值都存下来再排序又太贵。这里按数量级分桶：
+ * - 0 ~ 63ns 每 1ns 一个桶（精确）
+ * - 之后每个 2 的幂区间 [2^k, 2^(k+1)) 平分成 32 个桶，相对误差不超过 1/32（约 3%）
+ * 记录一个值只是算出桶下标后对 AtomicLongArray 的一格做原子加，不加锁、不分配对象；
+ * 覆盖 1ns ~ 1 小时只需要约 1200 个桶（10KB），超出范围的值计入最后一个桶。
+ *
+ * snapshot() 逐个复制桶，记录可以同时进行（不需要停下业务线程）；代价是快照不是某一时刻的原子视图，
+ * 并发记录时 count、平均值、最大值之间可能有少量偏差（与 GroupedCounter.snapshot 相同）。
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final long MAX_TRACKABLE = TimeUnit.HOURS.toNanos(1);
+
+    private final AtomicLongArray counts = new AtomicLongArray(indexOf(MAX_TRACKABLE) + 1);
+    private final LongCounter sum = new LongCounter();
+    private final MaxCounter max = new MaxCounter();
+
+    /**
+     * 记录一个值（纳秒），负数按 0 处理，超过 1 小时按 1 小时处理
+     */
+    public void record(long nanos) {
+        long value = Math.min(Math.max(nanos, 0L), MAX_TRACKABLE);
+        counts.getAndIncrement(indexOf(value));
+        sum.add(value);
+        max.update(value);
+    }
+
+    public Snapshot snapshot() {
+        long[] copy = new long[counts.length()];
+        long total = 0L;
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = counts.get(i);
+            total += copy[i];
+        }
+        return new Snapshot(copy, total, sum.sum(), total == 0 ? 0L : max.max());
+    }
+
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0L);
+        }
+        sum.reset();
+        max.reset();
+    }
+
+    /**
+     * 值 -> 桶下标：小于 2 * SUB_BUCKETS 的值直接作下标，更大的值保留最高的 SUB_BUCKET_BITS + 1 位
+     */
+    static int indexOf(long value) {
+        if (value < (SUB_BUCKETS << 1)) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+    }
+
+    /**
+     * 桶下标 -> 该桶能表示的最大值（与 HdrHistogram 的 highestEquivalentValue 相同）
+     */
+    static long highestValueOf(int index) {
+        if (index < (SUB_BUCKETS << 1)) {
+            return index;
+        }
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        long subBucket = (index & (SUB_BUCKETS - 1)) + SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    /**
+     * 直方图在某一时刻的只读副本
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        Snapshot(long[] counts, long count, long sum, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        public long count() {
+            return count;
+        }
+
+        /**
+         * 所有记录值之和（纳秒），两个快照相减可以得到这段时间内的平均值
+         */
+        public long sum() {
+            return sum;
+        }
+
+        /**
+         * 平均值（纳秒），没有记录时返回 0
+         */
+        public double mean() {
+            return count == 0 ? 0.0 : (double) sum / count;
+        }
+
+        public long max() {
+            return max;
+        }
+
+        /**
+         * 分位数对应的值（纳秒），误差在 1/32 以内
+         *
+         * @param percentile 0 ~ 100，例如 99.9
+         */
+        public long valueAtPercentile(double percentile) {
+            if (count == 0) {
+                return 0L;
+            }
+            long rank = Math.max(1L, (long) Math.ceil(Math.min(percentile, 100.0) / 100.0 * count));
+            long seen = 0L;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(highestValueOf(i), max);
+                }
+            }
+            return max;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("count=%d, mean=%s, p50=%s, p90=%s, p99=%s, p99.9=%s, max=%s",
+                count, format((long) mean()), format(valueAtPercentile(50)), format(valueAtPercentile(90)),
+                format(valueAtPercentile(99)), format(valueAtPercentile(99.9)), format(max));
+        }
+
+        private static String format(long nanos) {
+            if (nanos < 1_000L) {
+                return nanos + "ns";
+            }
+            if (nanos < 1_000_000L) {
+                return String.format("%.1fus", nanos / 1e3);
+            }
+            return String.format("%.2fms", nanos / 1e6);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.concurrent.metrics;
+
+/**
+ * 分段长整型计数器
+ *
+ * 与 LongAdder 思路相同，区别在于：
+ * 1. 段数在构造时固定（默认按 CPU 核数），不会在运行中扩容，没有 base 字段
+ * 2. 每个段都做了缓存行填充
+ * 3. CAS 失败只重新哈希一次，然后用 getAndAdd 保证本次一定成功（不会无限自旋）
+ *
+ * sum() 不是原子快照：并发累加时返回的是"最终一致"的值。
+ */
+public class LongCounter extends StripedCells {
+
+    public LongCounter() {
+        this(Striping.defaultStripes());
+    }
+
+    /**
+     * @param stripes 段数，会向上取整为 2 的幂
+     */
+    public LongCounter(int stripes) {
+        super(stripes, 0L);
+    }
+
+    public void add(long delta) {
+        int[] probe = Striping.probe();
+        Cell cell = cell(probe);
+        long v = cell.value;
+        if (!cell.cas(v, v + delta)) {
+            rehash(probe).getAndAdd(delta);
+        }
+    }
+
+    public void increment() {
+        add(1L);
+    }
+
+    public void decrement() {
+        add(-1L);
+    }
+
+    public long sum() {
+        long sum = 0L;
+        for (Cell cell : cells) {
+            sum += cell.value;
+        }
+        return sum;
+    }
+
+    /**
+     * 获取总和并清零。与并发的 add 同时执行时，每次累加要么计入本次结果，要么留到下一次
+     */
+    public long sumThenReset() {
+        long sum = 0L;
+        for (Cell cell : cells) {
+            sum += cell.getAndSet(0L);
+        }
+        return sum;
+    }
+
+    public void reset() {
+        resetTo(0L);
+    }
+
+    @Override
+    public String toString() {
+        return Long.toString(sum());
+    }
+}
@@ -0,0 +1,58 @@
+package com.concurrent.metrics;
+
+/**
+ * 分段最大值记录器（如记录最大响应时间）
+ *
+ * 大部分 update 发现新值不超过当前段的最大值时直接返回，只读不写，
+ * 不会让缓存行失效；只有刷新最大值时才 CAS。
+ */
+public class MaxCounter extends StripedCells {
+
+    public MaxCounter() {
+        this(Striping.defaultStripes());
+    }
+
+    public MaxCounter(int stripes) {
+        super(stripes, Long.MIN_VALUE);
+    }
+
+    public void update(long value) {
+        int[] probe = Striping.probe();
+        Cell cell = cell(probe);
+        for (;;) {
+            long current = cell.value;
+            if (value <= current || cell.cas(current, value)) {
+                return;
+            }
+            cell = rehash(probe);
+        }
+    }
+
+    /**
+     * @return 最大值；从未 update 过时返回 Long.MIN_VALUE
+     */
+    public long max() {
+        long max = Long.MIN_VALUE;
+        for (Cell cell : cells) {
+            max = Math.max(max, cell.value);
+        }
+        return max;
+    }
+
+    public long maxThenReset() {
+        long max = Long.MIN_VALUE;
+        for (Cell cell : cells) {
+            max = Math.max(max, cell.getAndSet(Long.MIN_VALUE));
+        }
+        return max;
+    }
+
+    public void reset() {
+        resetTo(Long.MIN_VALUE);
+    }
+
+    @Override
+    public String toString() {
+        return Long.toString(max());
+    }
+}
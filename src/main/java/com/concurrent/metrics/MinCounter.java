@@ -0,0 +1,55 @@
+package com.concurrent.metrics;
+
+/**
+ * 分段最小值记录器，与 MaxCounter 对称
+ */
+public class MinCounter extends StripedCells {
+
+    public MinCounter() {
+        this(Striping.defaultStripes());
+    }
+
+    public MinCounter(int stripes) {
+        super(stripes, Long.MAX_VALUE);
+    }
+
+    public void update(long value) {
+        int[] probe = Striping.probe();
+        Cell cell = cell(probe);
+        for (;;) {
+            long current = cell.value;
+            if (value >= current || cell.cas(current, value)) {
+                return;
+            }
+            cell = rehash(probe);
+        }
+    }
+
+    /**
+     * @return 最小值；从未 update 过时返回 Long.MAX_VALUE
+     */
+    public long min() {
+        long min = Long.MAX_VALUE;
+        for (Cell cell : cells) {
+            min = Math.min(min, cell.value);
+        }
+        return min;
+    }
+
+    public long minThenReset() {
+        long min = Long.MAX_VALUE;
+        for (Cell cell : cells) {
+            min = Math.min(min, cell.getAndSet(Long.MAX_VALUE));
+        }
+        return min;
+    }
+
+    public void reset() {
+        resetTo(Long.MAX_VALUE);
+    }
+
+    @Override
+    public String toString() {
+        return Long.toString(min());
+    }
+}
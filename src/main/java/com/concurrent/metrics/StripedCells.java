@@ -0,0 +1,42 @@
+package com.concurrent.metrics;
+
+/**
+ * 分段计数器的公共部分：一组填充过的 Cell，以及按线程选择 Cell 的逻辑
+ */
+abstract class StripedCells {
+    final Cell[] cells;
+    private final int mask;
+
+    StripedCells(int stripes, long identity) {
+        int n = Striping.ceilingPowerOfTwo(stripes);
+        this.cells = new Cell[n];
+        for (int i = 0; i < n; i++) {
+            cells[i] = new Cell(identity);
+        }
+        this.mask = n - 1;
+    }
+
+    final Cell cell(int[] probe) {
+        return cells[probe[0] & mask];
+    }
+
+    /**
+     * 当前段发生竞争，换到另一个段
+     */
+    final Cell rehash(int[] probe) {
+        return cells[Striping.advance(probe) & mask];
+    }
+
+    final void resetTo(long identity) {
+        for (Cell cell : cells) {
+            cell.value = identity;
+        }
+    }
+
+    /**
+     * 段数（用于观察和调试）
+     */
+    public int stripes() {
+        return cells.length;
+    }
+}
@@ -0,0 +1,61 @@
+package com.concurrent.metrics;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 分段（striping）工具：决定段数，以及当前线程落在哪个段
+ *
+ * Java 8 无法获取线程当前运行的 CPU 编号，这里用 LongAdder 的做法近似"按核分段"：
+ * 1. 段数取不小于 CPU 核数的 2 的幂
+ * 2. 每个线程持有一个探针（probe）哈希值，用于选择段
+ * 3. CAS 失败说明与其他线程撞在同一段上，重新哈希换到别的段
+ * 时间一长，并发线程会自然地分散到不同的段上。
+ */
+final class Striping {
+
+    private static final AtomicInteger SEED = new AtomicInteger();
+
+    /**
+     * 每个线程一个探针，用 int[1] 保存以便原地修改
+     */
+    private static final ThreadLocal<int[]> PROBE = ThreadLocal.withInitial(() -> {
+        int h = SEED.addAndGet(0x9e3779b9); // 黄金分割数，使初始值分布均匀
+        return new int[]{h == 0 ? 1 : h};
+    });
+
+    private Striping() {
+    }
+
+    static int[] probe() {
+        return PROBE.get();
+    }
+
+    /**
+     * xorshift 重新哈希，返回新的探针值
+     */
+    static int advance(int[] probe) {
+        int h = probe[0];
+        h ^= h << 13;
+        h ^= h >>> 17;
+        h ^= h << 5;
+        probe[0] = h;
+        return h;
+    }
+
+    /**
+     * 默认段数：不小于 CPU 核数的 2 的幂
+     */
+    static int defaultStripes() {
+        return ceilingPowerOfTwo(Runtime.getRuntime().availableProcessors());
+    }
+
+    static int ceilingPowerOfTwo(int n) {
+        if (n <= 1) {
+            return 1;
+        }
+        if (n > (1 << 30)) {
+            throw new IllegalArgumentException("段数过大: " + n);
+        }
+        return Integer.highestOneBit(n - 1) << 1;
+    }
+}
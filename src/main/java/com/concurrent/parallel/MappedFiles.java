@@ -0,0 +1,45 @@
+package com.concurrent.parallel;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 把文件按固定大小分块只读映射：一个 MappedByteBuffer 最多 2GB（下标是 int），大文件需要多个映射
+ *
+ * 每块 2^chunkShift 字节（默认 1GB），块大小是 2 的幂，元素下标到 (块, 块内下标) 只需移位和掩码。
+ * 映射建立后立即关闭 FileChannel，映射在 MappedByteBuffer 被回收之前一直有效。
+ * 数据在操作系统的页缓存中，不占 Java 堆，文件可以比堆大得多。
+ */
+final class MappedFiles {
+    static final int DEFAULT_CHUNK_SHIFT = 30;
+
+    private MappedFiles() {
+    }
+
+    /**
+     * @param width 元素宽度（字节），文件长度必须是它的整数倍
+     */
+    static ByteBuffer[] map(Path file, int width, ByteOrder order, int chunkShift) throws IOException {
+        if (chunkShift < 3 || chunkShift > 30) {
+            throw new IllegalArgumentException("chunkShift 需要在 [3, 30] 之间: " + chunkShift);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size % width != 0) {
+                throw new IllegalArgumentException(file + " 的长度 " + size + " 不是 " + width + " 的整数倍");
+            }
+            long chunkBytes = 1L << chunkShift;
+            ByteBuffer[] chunks = new ByteBuffer[(int) ((size + chunkBytes - 1) >>> chunkShift)];
+            for (int i = 0; i < chunks.length; i++) {
+                long position = (long) i << chunkShift;
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(chunkBytes, size - position))
+                    .order(order);
+            }
+            return chunks;
+        }
+    }
+}
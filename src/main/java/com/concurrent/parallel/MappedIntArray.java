@@ -0,0 +1,109 @@
+package com.concurrent.parallel;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.file.Path;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * 内存映射的只读 int 数组：文件中连续存放的定长 int，长度（元素个数）是 long，可以超过堆和 2GB 映射的限制
+ *
+ * 按 1GB 分块映射（见 MappedFiles），ParallelArrays 的 sum / reduce / min / max / histogram
+ * 把 [0, length) 按元素下标拆分给 fork-join 任务，每个叶子任务只读自己的区间，区间跨块时逐块处理，不拷贝到堆上。
+ *
+ * 只使用按下标的绝对读取，不改变缓冲区的 position，多个线程可以同时读同一个对象。
+ */
+public final class MappedIntArray {
+    private static final int SHIFT = 2;
+
+    private final IntBuffer[] chunks;
+    private final int chunkShift;
+    private final long chunkMask;
+    private final long length;
+
+    private MappedIntArray(ByteBuffer[] buffers, int chunkBytesShift) {
+        this.chunks = new IntBuffer[buffers.length];
+        long bytes = 0L;
+        for (int i = 0; i < buffers.length; i++) {
+            chunks[i] = buffers[i].asIntBuffer();
+            bytes += buffers[i].capacity();
+        }
+        this.chunkShift = chunkBytesShift - SHIFT;
+        this.chunkMask = (1L << chunkShift) - 1;
+        this.length = bytes >>> SHIFT;
+    }
+
+    /**
+     * 按大端（DataOutputStream 的写法）映射
+     */
+    public static MappedIntArray map(Path file) throws IOException {
+        return map(file, ByteOrder.BIG_ENDIAN);
+    }
+
+    public static MappedIntArray map(Path file, ByteOrder order) throws IOException {
+        return map(file, order, MappedFiles.DEFAULT_CHUNK_SHIFT);
+    }
+
+    static MappedIntArray map(Path file, ByteOrder order, int chunkShift) throws IOException {
+        return new MappedIntArray(MappedFiles.map(file, Integer.BYTES, order, chunkShift), chunkShift);
+    }
+
+    public long length() {
+        return length;
+    }
+
+    public int get(long index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index " + index + ", length " + length);
+        }
+        return chunks[(int) (index >>> chunkShift)].get((int) (index & chunkMask));
+    }
+
+    // ==================== 叶子任务的顺序计算：[from, to) 可以跨块 ====================
+
+    long sum(long from, long to) {
+        long sum = 0L;
+        while (from < to) {
+            IntBuffer chunk = chunks[(int) (from >>> chunkShift)];
+            int lo = (int) (from & chunkMask);
+            int hi = (int) Math.min(chunk.limit(), lo + (to - from));
+            for (int i = lo; i < hi; i++) {
+                sum += chunk.get(i);
+            }
+            from += hi - lo;
+        }
+        return sum;
+    }
+
+    int reduce(long from, long to, int identity, IntBinaryOperator op) {
+        int result = identity;
+        while (from < to) {
+            IntBuffer chunk = chunks[(int) (from >>> chunkShift)];
+            int lo = (int) (from & chunkMask);
+            int hi = (int) Math.min(chunk.limit(), lo + (to - from));
+            for (int i = lo; i < hi; i++) {
+                result = op.applyAsInt(result, chunk.get(i));
+            }
+            from += hi - lo;
+        }
+        return result;
+    }
+
+    void histogram(long from, long to, int min, int max, long[] counts) {
+        int bins = counts.length;
+        long range = (long) max - min;
+        while (from < to) {
+            IntBuffer chunk = chunks[(int) (from >>> chunkShift)];
+            int lo = (int) (from & chunkMask);
+            int hi = (int) Math.min(chunk.limit(), lo + (to - from));
+            for (int i = lo; i < hi; i++) {
+                long offset = (long) chunk.get(i) - min;
+                int bin = offset <= 0 ? 0 : offset >= range ? bins - 1 : (int) (offset * bins / range);
+                counts[bin]++;
+            }
+            from += hi - lo;
+        }
+    }
+}
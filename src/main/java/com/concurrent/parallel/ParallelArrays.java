@@ -0,0 +1,608 @@
+package com.concurrent.parallel;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * int[] 的并行计算：求和、归约（最小 / 最大值）、前缀扫描、映射、过滤压缩、直方图
+ *
+ * ForkJoinPoolDemo.SumTask 的两个问题：
+ * 1. RecursiveTask&lt;Long&gt;：每个子任务的结果都装箱成 Long，join 一次就分配一个对象
+ * 2. THRESHOLD = 1000 写死：100 万个元素拆出 1000 多个任务，每个任务只做 1 微秒的加法，
+ *    fork / join 的开销和计算本身差不多；数组再大一个数量级，任务数也跟着多一个数量级
+ *
+ * 本实现：
+ * - 任务都是 RecursiveAction，结果放在任务自己的基本类型字段中，join 后直接读字段，没有装箱
+ * - 拆分阈值 = max(MIN_GRAIN, 长度 / (并行度 × LEAVES_PER_WORKER))：每个线程分到几个叶子任务，
+ *   足够负载均衡，任务数又不随数组长度增长；数组不到 2 × MIN_GRAIN 或并行度为 1 时直接在当前线程顺序计算
+ * - 前缀扫描和过滤压缩需要知道 "前面所有块" 的结果，用两遍扫描：
+ *   第一遍并行算出每块的汇总，顺序算出每块的起点（块数只有几十个），第二遍并行地从各自的起点写出结果
+ *
+ * 求和、归约、直方图也可以作用于内存映射文件（MappedIntArray / MappedLongArray）：按 long 下标拆分，数据不进堆。
+ *
+ * 所有方法使用 ForkJoinPool.commonPool()；传入的函数必须无副作用，前缀扫描和归约的运算必须满足结合律。
+ */
+public final class ParallelArrays {
+    /**
+     * 叶子任务的最小长度：再小 fork / join 的开销就会超过计算本身（与 Arrays.parallelSort 的 MIN_ARRAY_SORT_GRAN 相同）
+     */
+    static final int MIN_GRAIN = 1 << 13;
+    private static final int LEAVES_PER_WORKER = 4;
+
+    private ParallelArrays() {
+    }
+
+    /**
+     * 根据数组长度和并行度选择拆分阈值
+     */
+    static int threshold(int length, int parallelism) {
+        return Math.max(MIN_GRAIN, length / (parallelism * LEAVES_PER_WORKER));
+    }
+
+    static long threshold(long length, int parallelism) {
+        return Math.max(MIN_GRAIN, length / (parallelism * LEAVES_PER_WORKER));
+    }
+
+    private static ForkJoinPool pool() {
+        return ForkJoinPool.commonPool();
+    }
+
+    private static boolean sequential(long length) {
+        return length < 2 * MIN_GRAIN || pool().getParallelism() <= 1;
+    }
+
+    // ==================== 求和 / 归约 ====================
+
+    /**
+     * 求和，结果用 long 累加，不会溢出
+     */
+    public static long sum(int[] array) {
+        if (sequential(array.length)) {
+            return sum(array, 0, array.length);
+        }
+        SumTask task = new SumTask(array, 0, array.length, threshold(array.length, pool().getParallelism()));
+        pool().invoke(task);
+        return task.result;
+    }
+
+    static long sum(int[] array, int from, int to) {
+        long sum = 0L;
+        for (int i = from; i < to; i++) {
+            sum += array[i];
+        }
+        return sum;
+    }
+
+    public static int min(int[] array) {
+        return reduce(array, Integer.MAX_VALUE, Math::min);
+    }
+
+    public static int max(int[] array) {
+        return reduce(array, Integer.MIN_VALUE, Math::max);
+    }
+
+    /**
+     * 归约：op 必须满足结合律，identity 是 op 的单位元（op(identity, x) == x）
+     */
+    public static int reduce(int[] array, int identity, IntBinaryOperator op) {
+        if (sequential(array.length)) {
+            return reduce(array, 0, array.length, identity, op);
+        }
+        ReduceTask task = new ReduceTask(array, 0, array.length,
+            threshold(array.length, pool().getParallelism()), identity, op);
+        pool().invoke(task);
+        return task.result;
+    }
+
+    static int reduce(int[] array, int from, int to, int identity, IntBinaryOperator op) {
+        int result = identity;
+        for (int i = from; i < to; i++) {
+            result = op.applyAsInt(result, array[i]);
+        }
+        return result;
+    }
+
+    // ==================== 映射 ====================
+
+    /**
+     * 返回新数组 result[i] = f(array[i])
+     */
+    public static int[] map(int[] array, IntUnaryOperator f) {
+        int[] result = new int[array.length];
+        map(array, result, f);
+        return result;
+    }
+
+    /**
+     * target[i] = f(source[i])，source 和 target 可以是同一个数组（原地映射）
+     */
+    public static void map(int[] source, int[] target, IntUnaryOperator f) {
+        if (target.length < source.length) {
+            throw new IllegalArgumentException("target 长度不足: " + target.length + " < " + source.length);
+        }
+        if (sequential(source.length)) {
+            map(source, target, 0, source.length, f);
+            return;
+        }
+        pool().invoke(new MapTask(source, target, 0, source.length,
+            threshold(source.length, pool().getParallelism()), f));
+    }
+
+    static void map(int[] source, int[] target, int from, int to, IntUnaryOperator f) {
+        for (int i = from; i < to; i++) {
+            target[i] = f.applyAsInt(source[i]);
+        }
+    }
+
+    // ==================== 前缀扫描 ====================
+
+    /**
+     * 原地包含式前缀扫描：array[i] = op(array[0], ..., array[i])，与 Arrays.parallelPrefix(int[], op) 相同
+     */
+    public static void prefix(int[] array, IntBinaryOperator op) {
+        int n = array.length;
+        if (sequential(n)) {
+            scan(array, 0, n, op);
+            return;
+        }
+        Blocks blocks = new Blocks(n, threshold(n, pool().getParallelism()));
+        // 第一遍：每块就地做块内扫描，最后一个元素即块的汇总
+        pool().invoke(new BlockTask(blocks, 0, blocks.count, block -> scan(array, blocks.from(block), blocks.to(block), op)));
+        // 各块的起点：前面所有块汇总的前缀
+        int[] offsets = new int[blocks.count];
+        int carry = array[blocks.to(0) - 1];
+        for (int block = 1; block < blocks.count; block++) {
+            offsets[block] = carry;
+            carry = op.applyAsInt(carry, array[blocks.to(block) - 1]);
+        }
+        // 第二遍：第 1 块以后的每个元素都合并上本块的起点
+        pool().invoke(new BlockTask(blocks, 1, blocks.count, block -> {
+            int offset = offsets[block];
+            for (int i = blocks.from(block), end = blocks.to(block); i < end; i++) {
+                array[i] = op.applyAsInt(offset, array[i]);
+            }
+        }));
+    }
+
+    private static void scan(int[] array, int from, int to, IntBinaryOperator op) {
+        for (int i = from + 1; i < to; i++) {
+            array[i] = op.applyAsInt(array[i - 1], array[i]);
+        }
+    }
+
+    // ==================== 过滤压缩 ====================
+
+    /**
+     * 返回满足 predicate 的元素组成的新数组，保持原来的顺序
+     *
+     * 第一遍在位图中记下每个元素是否满足并统计每块的个数，第二遍按位图写出，predicate 对每个元素只调用一次。
+     * 每块的长度是 64 的倍数，各块写位图中不同的 long，不需要同步。
+     */
+    public static int[] filter(int[] array, IntPredicate predicate) {
+        int n = array.length;
+        if (sequential(n)) {
+            int[] buffer = new int[n];
+            int count = 0;
+            for (int value : array) {
+                if (predicate.test(value)) {
+                    buffer[count++] = value;
+                }
+            }
+            return count == n ? buffer : copyOf(buffer, count);
+        }
+        Blocks blocks = new Blocks(n, threshold(n, pool().getParallelism()) & ~63);
+        long[] matches = new long[(n + 63) >>> 6];
+        int[] counts = new int[blocks.count];
+        pool().invoke(new BlockTask(blocks, 0, blocks.count, block -> {
+            int count = 0;
+            for (int base = blocks.from(block), end = blocks.to(block); base < end; base += 64) {
+                long word = 0L;
+                for (int i = base, wordEnd = Math.min(base + 64, end); i < wordEnd; i++) {
+                    if (predicate.test(array[i])) {
+                        word |= 1L << i;
+                    }
+                }
+                matches[base >>> 6] = word;
+                count += Long.bitCount(word);
+            }
+            counts[block] = count;
+        }));
+        int[] offsets = new int[blocks.count];
+        int total = 0;
+        for (int block = 0; block < blocks.count; block++) {
+            offsets[block] = total;
+            total += counts[block];
+        }
+        int[] result = new int[total];
+        pool().invoke(new BlockTask(blocks, 0, blocks.count, block -> {
+            int out = offsets[block];
+            for (int base = blocks.from(block), end = blocks.to(block); base < end; base += 64) {
+                for (long word = matches[base >>> 6]; word != 0L; word &= word - 1) {
+                    result[out++] = array[base + Long.numberOfTrailingZeros(word)];
+                }
+            }
+        }));
+        return result;
+    }
+
+    private static int[] copyOf(int[] array, int length) {
+        int[] copy = new int[length];
+        System.arraycopy(array, 0, copy, 0, length);
+        return copy;
+    }
+
+    // ==================== 直方图 ====================
+
+    /**
+     * 把 [min, max) 等分为 bins 个区间，统计落在每个区间的元素个数；小于 min 的计入第一个区间，不小于 max 的计入最后一个
+     *
+     * 每个叶子任务先统计到自己的局部数组，合并时逐个相加，叶子之间没有共享的计数器
+     */
+    public static long[] histogram(int[] array, int min, int max, int bins) {
+        if (bins <= 0 || min >= max) {
+            throw new IllegalArgumentException("需要 0 < bins, min < max: " + bins + ", " + min + ", " + max);
+        }
+        if (sequential(array.length)) {
+            long[] counts = new long[bins];
+            histogram(array, 0, array.length, min, max, counts);
+            return counts;
+        }
+        HistogramTask task = new HistogramTask(array, 0, array.length,
+            threshold(array.length, pool().getParallelism()), min, max, bins);
+        pool().invoke(task);
+        return task.counts;
+    }
+
+    static void histogram(int[] array, int from, int to, int min, int max, long[] counts) {
+        int bins = counts.length;
+        long range = (long) max - min;
+        for (int i = from; i < to; i++) {
+            long offset = (long) array[i] - min;
+            int bin = offset <= 0 ? 0 : offset >= range ? bins - 1 : (int) (offset * bins / range);
+            counts[bin]++;
+        }
+    }
+
+    // ==================== 内存映射文件 ====================
+
+    public static long sum(MappedIntArray array) {
+        return invoke(array.length(), array::sum, (a, b) -> a + b);
+    }
+
+    public static int min(MappedIntArray array) {
+        return reduce(array, Integer.MAX_VALUE, Math::min);
+    }
+
+    public static int max(MappedIntArray array) {
+        return reduce(array, Integer.MIN_VALUE, Math::max);
+    }
+
+    public static int reduce(MappedIntArray array, int identity, IntBinaryOperator op) {
+        return (int) invoke(array.length(), (from, to) -> array.reduce(from, to, identity, op),
+            (a, b) -> op.applyAsInt((int) a, (int) b));
+    }
+
+    /**
+     * 求和，溢出时按 long 回绕
+     */
+    public static long sum(MappedLongArray array) {
+        return invoke(array.length(), array::sum, (a, b) -> a + b);
+    }
+
+    public static long min(MappedLongArray array) {
+        return reduce(array, Long.MAX_VALUE, Math::min);
+    }
+
+    public static long max(MappedLongArray array) {
+        return reduce(array, Long.MIN_VALUE, Math::max);
+    }
+
+    public static long reduce(MappedLongArray array, long identity, LongBinaryOperator op) {
+        return invoke(array.length(), (from, to) -> array.reduce(from, to, identity, op), op);
+    }
+
+    /**
+     * 与 histogram(int[], ...) 相同的区间划分
+     */
+    public static long[] histogram(MappedIntArray array, int min, int max, int bins) {
+        if (bins <= 0 || min >= max) {
+            throw new IllegalArgumentException("需要 0 < bins, min < max: " + bins + ", " + min + ", " + max);
+        }
+        long length = array.length();
+        if (sequential(length)) {
+            long[] counts = new long[bins];
+            array.histogram(0, length, min, max, counts);
+            return counts;
+        }
+        MappedHistogramTask task = new MappedHistogramTask(array, 0, length,
+            threshold(length, pool().getParallelism()), min, max, bins);
+        pool().invoke(task);
+        return task.counts;
+    }
+
+    private static long invoke(long length, RangeBody leaf, LongBinaryOperator combine) {
+        if (sequential(length)) {
+            return leaf.compute(0, length);
+        }
+        RangeTask task = new RangeTask(leaf, combine, 0, length, threshold(length, pool().getParallelism()));
+        pool().invoke(task);
+        return task.result;
+    }
+
+    // ==================== 任务 ====================
+
+    /**
+     * 先 fork 左半，当前线程算右半，再 join 左半：与 SumTask 相同，但结果放在 long 字段里
+     */
+    private static final class SumTask extends RecursiveAction {
+        private final int[] array;
+        private final int from;
+        private final int to;
+        private final int threshold;
+        long result;
+
+        SumTask(int[] array, int from, int to, int threshold) {
+            this.array = array;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= threshold) {
+                result = sum(array, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            SumTask left = new SumTask(array, from, mid, threshold);
+            SumTask right = new SumTask(array, mid, to, threshold);
+            left.fork();
+            right.compute();
+            left.join();
+            result = left.result + right.result;
+        }
+    }
+
+    private static final class ReduceTask extends RecursiveAction {
+        private final int[] array;
+        private final int from;
+        private final int to;
+        private final int threshold;
+        private final int identity;
+        private final IntBinaryOperator op;
+        int result;
+
+        ReduceTask(int[] array, int from, int to, int threshold, int identity, IntBinaryOperator op) {
+            this.array = array;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+            this.identity = identity;
+            this.op = op;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= threshold) {
+                result = reduce(array, from, to, identity, op);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            ReduceTask left = new ReduceTask(array, from, mid, threshold, identity, op);
+            ReduceTask right = new ReduceTask(array, mid, to, threshold, identity, op);
+            left.fork();
+            right.compute();
+            left.join();
+            result = op.applyAsInt(left.result, right.result);
+        }
+    }
+
+    private static final class MapTask extends RecursiveAction {
+        private final int[] source;
+        private final int[] target;
+        private final int from;
+        private final int to;
+        private final int threshold;
+        private final IntUnaryOperator f;
+
+        MapTask(int[] source, int[] target, int from, int to, int threshold, IntUnaryOperator f) {
+            this.source = source;
+            this.target = target;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+            this.f = f;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= threshold) {
+                map(source, target, from, to, f);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new MapTask(source, target, from, mid, threshold, f),
+                new MapTask(source, target, mid, to, threshold, f));
+        }
+    }
+
+    private static final class HistogramTask extends RecursiveAction {
+        private final int[] array;
+        private final int from;
+        private final int to;
+        private final int threshold;
+        private final int min;
+        private final int max;
+        private final int bins;
+        long[] counts;
+
+        HistogramTask(int[] array, int from, int to, int threshold, int min, int max, int bins) {
+            this.array = array;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+            this.min = min;
+            this.max = max;
+            this.bins = bins;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= threshold) {
+                counts = new long[bins];
+                histogram(array, from, to, min, max, counts);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            HistogramTask left = new HistogramTask(array, from, mid, threshold, min, max, bins);
+            HistogramTask right = new HistogramTask(array, mid, to, threshold, min, max, bins);
+            left.fork();
+            right.compute();
+            left.join();
+            counts = right.counts;
+            for (int i = 0; i < bins; i++) {
+                counts[i] += left.counts[i];
+            }
+        }
+    }
+
+    private interface RangeBody {
+        long compute(long from, long to);
+    }
+
+    /**
+     * 按 long 下标拆分 [from, to)，叶子调用 leaf，两半的结果用 combine 合并
+     */
+    private static final class RangeTask extends RecursiveAction {
+        private final RangeBody leaf;
+        private final LongBinaryOperator combine;
+        private final long from;
+        private final long to;
+        private final long threshold;
+        long result;
+
+        RangeTask(RangeBody leaf, LongBinaryOperator combine, long from, long to, long threshold) {
+            this.leaf = leaf;
+            this.combine = combine;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= threshold) {
+                result = leaf.compute(from, to);
+                return;
+            }
+            long mid = (from + to) >>> 1;
+            RangeTask left = new RangeTask(leaf, combine, from, mid, threshold);
+            RangeTask right = new RangeTask(leaf, combine, mid, to, threshold);
+            left.fork();
+            right.compute();
+            left.join();
+            result = combine.applyAsLong(left.result, right.result);
+        }
+    }
+
+    private static final class MappedHistogramTask extends RecursiveAction {
+        private final MappedIntArray array;
+        private final long from;
+        private final long to;
+        private final long threshold;
+        private final int min;
+        private final int max;
+        private final int bins;
+        long[] counts;
+
+        MappedHistogramTask(MappedIntArray array, long from, long to, long threshold, int min, int max, int bins) {
+            this.array = array;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+            this.min = min;
+            this.max = max;
+            this.bins = bins;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= threshold) {
+                counts = new long[bins];
+                array.histogram(from, to, min, max, counts);
+                return;
+            }
+            long mid = (from + to) >>> 1;
+            MappedHistogramTask left = new MappedHistogramTask(array, from, mid, threshold, min, max, bins);
+            MappedHistogramTask right = new MappedHistogramTask(array, mid, to, threshold, min, max, bins);
+            left.fork();
+            right.compute();
+            left.join();
+            counts = right.counts;
+            for (int i = 0; i < bins; i++) {
+                counts[i] += left.counts[i];
+            }
+        }
+    }
+
+    /**
+     * 把 [0, length) 切成 count 块，每块 blockSize 个（最后一块可能更短）
+     */
+    private static final class Blocks {
+        final int length;
+        final int blockSize;
+        final int count;
+
+        Blocks(int length, int blockSize) {
+            this.length = length;
+            this.blockSize = blockSize;
+            this.count = (int) (((long) length + blockSize - 1) / blockSize);
+        }
+
+        int from(int block) {
+            return block * blockSize;
+        }
+
+        int to(int block) {
+            return (int) Math.min(length, (long) (block + 1) * blockSize);
+        }
+    }
+
+    private interface BlockBody {
+        void run(int block);
+    }
+
+    /**
+     * 对 [fromBlock, toBlock) 中的每一块执行 body，一块一个叶子任务
+     */
+    private static final class BlockTask extends RecursiveAction {
+        private final Blocks blocks;
+        private final int fromBlock;
+        private final int toBlock;
+        private final BlockBody body;
+
+        BlockTask(Blocks blocks, int fromBlock, int toBlock, BlockBody body) {
+            this.blocks = blocks;
+            this.fromBlock = fromBlock;
+            this.toBlock = toBlock;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (toBlock - fromBlock <= 1) {
+                if (toBlock > fromBlock) {
+                    body.run(fromBlock);
+                }
+                return;
+            }
+            int mid = (fromBlock + toBlock) >>> 1;
+            invokeAll(new BlockTask(blocks, fromBlock, mid, body), new BlockTask(blocks, mid, toBlock, body));
+        }
+    }
+}
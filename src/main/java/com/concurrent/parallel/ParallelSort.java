@@ -0,0 +1,470 @@
+package com.concurrent.parallel;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 基于 ForkJoinPool 的并行归并排序：int[]、long[]、对象数组（Comparator，稳定）
+ *
+ * 排序：
+ * - 区间不超过阈值时在当前线程调用 Arrays.sort（基本类型是双轴快排，对象是 TimSort）
+ * - 否则左右两半并行排序，再并行归并
+ * - 只分配一个与原数组等长的辅助数组。子区间的结果轮流放在原数组和辅助数组中：
+ *   上层要把结果放在 A，下层就把结果放在另一个数组 B，归并时从 B 读、写到 A，不需要把结果再拷回去
+ *
+ * 并行归并（两个有序区间 → 目标区间）：
+ * - 总长度不超过阈值时顺序归并
+ * - 否则取较长区间的中点元素 x，在另一个区间中二分查找 x 的位置，
+ *   把问题拆成 "两边小于 x 的部分" 和 "其余部分" 两个独立的归并，写到目标区间的前后两段
+ * - 相等元素总是左区间的在前，保证对象排序稳定
+ *
+ * 阈值与 ParallelArrays 相同：max(8192, 长度 / (并行度 × 4))，数组较小或并行度为 1 时直接 Arrays.sort。
+ * 所有方法使用 ForkJoinPool.commonPool()。
+ */
+public final class ParallelSort {
+
+    private ParallelSort() {
+    }
+
+    private static ForkJoinPool pool() {
+        return ForkJoinPool.commonPool();
+    }
+
+    private static boolean sequential(int length) {
+        return length < 2 * ParallelArrays.MIN_GRAIN || pool().getParallelism() <= 1;
+    }
+
+    private static int threshold(int length) {
+        return ParallelArrays.threshold(length, pool().getParallelism());
+    }
+
+    public static void sort(int[] array) {
+        int n = array.length;
+        if (sequential(n)) {
+            Arrays.sort(array);
+            return;
+        }
+        pool().invoke(new IntSorter(array, new int[n], 0, n, false, threshold(n)));
+    }
+
+    public static void sort(long[] array) {
+        int n = array.length;
+        if (sequential(n)) {
+            Arrays.sort(array);
+            return;
+        }
+        pool().invoke(new LongSorter(array, new long[n], 0, n, false, threshold(n)));
+    }
+
+    /**
+     * 按自然顺序稳定排序
+     */
+    public static <T extends Comparable<? super T>> void sort(T[] array) {
+        sort(array, Comparator.naturalOrder());
+    }
+
+    /**
+     * 按 comparator 稳定排序：相等的元素保持原来的先后顺序
+     */
+    public static <T> void sort(T[] array, Comparator<? super T> comparator) {
+        if (comparator == null) {
+            throw new NullPointerException("comparator");
+        }
+        int n = array.length;
+        if (sequential(n)) {
+            Arrays.sort(array, comparator);
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        T[] buffer = (T[]) new Object[n];
+        pool().invoke(new ObjectSorter<>(array, buffer, 0, n, false, threshold(n), comparator));
+    }
+
+    // ==================== int[] ====================
+
+    /**
+     * 排序 array[from, to)：toBuffer 为 false 时结果留在 array，为 true 时结果写到 buffer 的同一区间
+     */
+    private static final class IntSorter extends RecursiveAction {
+        private final int[] array;
+        private final int[] buffer;
+        private final int from;
+        private final int to;
+        private final boolean toBuffer;
+        private final int threshold;
+
+        IntSorter(int[] array, int[] buffer, int from, int to, boolean toBuffer, int threshold) {
+            this.array = array;
+            this.buffer = buffer;
+            this.from = from;
+            this.to = to;
+            this.toBuffer = toBuffer;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= threshold) {
+                Arrays.sort(array, from, to);
+                if (toBuffer) {
+                    System.arraycopy(array, from, buffer, from, to - from);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new IntSorter(array, buffer, from, mid, !toBuffer, threshold),
+                new IntSorter(array, buffer, mid, to, !toBuffer, threshold));
+            int[] source = toBuffer ? array : buffer;
+            int[] target = toBuffer ? buffer : array;
+            new IntMerger(source, target, from, mid, mid, to, from, threshold).compute();
+        }
+    }
+
+    /**
+     * 把 source[lo1, hi1) 和 source[lo2, hi2) 归并到 target[out, ...)
+     */
+    private static final class IntMerger extends RecursiveAction {
+        private final int[] source;
+        private final int[] target;
+        private final int lo1;
+        private final int hi1;
+        private final int lo2;
+        private final int hi2;
+        private final int out;
+        private final int threshold;
+
+        IntMerger(int[] source, int[] target, int lo1, int hi1, int lo2, int hi2, int out, int threshold) {
+            this.source = source;
+            this.target = target;
+            this.lo1 = lo1;
+            this.hi1 = hi1;
+            this.lo2 = lo2;
+            this.hi2 = hi2;
+            this.out = out;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            int n1 = hi1 - lo1;
+            int n2 = hi2 - lo2;
+            if (n1 + n2 <= threshold) {
+                merge();
+                return;
+            }
+            int split1;
+            int split2;
+            if (n1 >= n2) {
+                split1 = (lo1 + hi1) >>> 1;
+                // 右区间中等于 x 的元素排在 x 之后：取第一个 >= x 的位置
+                split2 = lowerBound(source, lo2, hi2, source[split1]);
+            } else {
+                split2 = (lo2 + hi2) >>> 1;
+                // 左区间中等于 y 的元素排在 y 之前：取第一个 > y 的位置
+                split1 = upperBound(source, lo1, hi1, source[split2]);
+            }
+            int outRight = out + (split1 - lo1) + (split2 - lo2);
+            invokeAll(new IntMerger(source, target, lo1, split1, lo2, split2, out, threshold),
+                new IntMerger(source, target, split1, hi1, split2, hi2, outRight, threshold));
+        }
+
+        private void merge() {
+            int i = lo1;
+            int j = lo2;
+            int k = out;
+            while (i < hi1 && j < hi2) {
+                int a = source[i];
+                int b = source[j];
+                if (a <= b) {
+                    target[k++] = a;
+                    i++;
+                } else {
+                    target[k++] = b;
+                    j++;
+                }
+            }
+            System.arraycopy(source, i, target, k, hi1 - i);
+            System.arraycopy(source, j, target, k + (hi1 - i), hi2 - j);
+        }
+
+        private static int lowerBound(int[] a, int from, int to, int key) {
+            while (from < to) {
+                int mid = (from + to) >>> 1;
+                if (a[mid] < key) {
+                    from = mid + 1;
+                } else {
+                    to = mid;
+                }
+            }
+            return from;
+        }
+
+        private static int upperBound(int[] a, int from, int to, int key) {
+            while (from < to) {
+                int mid = (from + to) >>> 1;
+                if (a[mid] <= key) {
+                    from = mid + 1;
+                } else {
+                    to = mid;
+                }
+            }
+            return from;
+        }
+    }
+
+    // ==================== long[] ====================
+
+    private static final class LongSorter extends RecursiveAction {
+        private final long[] array;
+        private final long[] buffer;
+        private final int from;
+        private final int to;
+        private final boolean toBuffer;
+        private final int threshold;
+
+        LongSorter(long[] array, long[] buffer, int from, int to, boolean toBuffer, int threshold) {
+            this.array = array;
+            this.buffer = buffer;
+            this.from = from;
+            this.to = to;
+            this.toBuffer = toBuffer;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= threshold) {
+                Arrays.sort(array, from, to);
+                if (toBuffer) {
+                    System.arraycopy(array, from, buffer, from, to - from);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new LongSorter(array, buffer, from, mid, !toBuffer, threshold),
+                new LongSorter(array, buffer, mid, to, !toBuffer, threshold));
+            long[] source = toBuffer ? array : buffer;
+            long[] target = toBuffer ? buffer : array;
+            new LongMerger(source, target, from, mid, mid, to, from, threshold).compute();
+        }
+    }
+
+    private static final class LongMerger extends RecursiveAction {
+        private final long[] source;
+        private final long[] target;
+        private final int lo1;
+        private final int hi1;
+        private final int lo2;
+        private final int hi2;
+        private final int out;
+        private final int threshold;
+
+        LongMerger(long[] source, long[] target, int lo1, int hi1, int lo2, int hi2, int out, int threshold) {
+            this.source = source;
+            this.target = target;
+            this.lo1 = lo1;
+            this.hi1 = hi1;
+            this.lo2 = lo2;
+            this.hi2 = hi2;
+            this.out = out;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            int n1 = hi1 - lo1;
+            int n2 = hi2 - lo2;
+            if (n1 + n2 <= threshold) {
+                merge();
+                return;
+            }
+            int split1;
+            int split2;
+            if (n1 >= n2) {
+                split1 = (lo1 + hi1) >>> 1;
+                split2 = lowerBound(source, lo2, hi2, source[split1]);
+            } else {
+                split2 = (lo2 + hi2) >>> 1;
+                split1 = upperBound(source, lo1, hi1, source[split2]);
+            }
+            int outRight = out + (split1 - lo1) + (split2 - lo2);
+            invokeAll(new LongMerger(source, target, lo1, split1, lo2, split2, out, threshold),
+                new LongMerger(source, target, split1, hi1, split2, hi2, outRight, threshold));
+        }
+
+        private void merge() {
+            int i = lo1;
+            int j = lo2;
+            int k = out;
+            while (i < hi1 && j < hi2) {
+                long a = source[i];
+                long b = source[j];
+                if (a <= b) {
+                    target[k++] = a;
+                    i++;
+                } else {
+                    target[k++] = b;
+                    j++;
+                }
+            }
+            System.arraycopy(source, i, target, k, hi1 - i);
+            System.arraycopy(source, j, target, k + (hi1 - i), hi2 - j);
+        }
+
+        private static int lowerBound(long[] a, int from, int to, long key) {
+            while (from < to) {
+                int mid = (from + to) >>> 1;
+                if (a[mid] < key) {
+                    from = mid + 1;
+                } else {
+                    to = mid;
+                }
+            }
+            return from;
+        }
+
+        private static int upperBound(long[] a, int from, int to, long key) {
+            while (from < to) {
+                int mid = (from + to) >>> 1;
+                if (a[mid] <= key) {
+                    from = mid + 1;
+                } else {
+                    to = mid;
+                }
+            }
+            return from;
+        }
+    }
+
+    // ==================== T[] ====================
+
+    private static final class ObjectSorter<T> extends RecursiveAction {
+        private final T[] array;
+        private final T[] buffer;
+        private final int from;
+        private final int to;
+        private final boolean toBuffer;
+        private final int threshold;
+        private final Comparator<? super T> comparator;
+
+        ObjectSorter(T[] array, T[] buffer, int from, int to, boolean toBuffer, int threshold,
+                     Comparator<? super T> comparator) {
+            this.array = array;
+            this.buffer = buffer;
+            this.from = from;
+            this.to = to;
+            this.toBuffer = toBuffer;
+            this.threshold = threshold;
+            this.comparator = comparator;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= threshold) {
+                Arrays.sort(array, from, to, comparator);
+                if (toBuffer) {
+                    System.arraycopy(array, from, buffer, from, to - from);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ObjectSorter<>(array, buffer, from, mid, !toBuffer, threshold, comparator),
+                new ObjectSorter<>(array, buffer, mid, to, !toBuffer, threshold, comparator));
+            T[] source = toBuffer ? array : buffer;
+            T[] target = toBuffer ? buffer : array;
+            new ObjectMerger<>(source, target, from, mid, mid, to, from, threshold, comparator).compute();
+        }
+    }
+
+    private static final class ObjectMerger<T> extends RecursiveAction {
+        private final T[] source;
+        private final T[] target;
+        private final int lo1;
+        private final int hi1;
+        private final int lo2;
+        private final int hi2;
+        private final int out;
+        private final int threshold;
+        private final Comparator<? super T> comparator;
+
+        ObjectMerger(T[] source, T[] target, int lo1, int hi1, int lo2, int hi2, int out, int threshold,
+                     Comparator<? super T> comparator) {
+            this.source = source;
+            this.target = target;
+            this.lo1 = lo1;
+            this.hi1 = hi1;
+            this.lo2 = lo2;
+            this.hi2 = hi2;
+            this.out = out;
+            this.threshold = threshold;
+            this.comparator = comparator;
+        }
+
+        @Override
+        protected void compute() {
+            int n1 = hi1 - lo1;
+            int n2 = hi2 - lo2;
+            if (n1 + n2 <= threshold) {
+                merge();
+                return;
+            }
+            int split1;
+            int split2;
+            if (n1 >= n2) {
+                split1 = (lo1 + hi1) >>> 1;
+                split2 = lowerBound(lo2, hi2, source[split1]);
+            } else {
+                split2 = (lo2 + hi2) >>> 1;
+                split1 = upperBound(lo1, hi1, source[split2]);
+            }
+            int outRight = out + (split1 - lo1) + (split2 - lo2);
+            invokeAll(new ObjectMerger<>(source, target, lo1, split1, lo2, split2, out, threshold, comparator),
+                new ObjectMerger<>(source, target, split1, hi1, split2, hi2, outRight, threshold, comparator));
+        }
+
+        private void merge() {
+            int i = lo1;
+            int j = lo2;
+            int k = out;
+            while (i < hi1 && j < hi2) {
+                T a = source[i];
+                T b = source[j];
+                if (comparator.compare(a, b) <= 0) {
+                    target[k++] = a;
+                    i++;
+                } else {
+                    target[k++] = b;
+                    j++;
+                }
+            }
+            System.arraycopy(source, i, target, k, hi1 - i);
+            System.arraycopy(source, j, target, k + (hi1 - i), hi2 - j);
+        }
+
+        private int lowerBound(int from, int to, T key) {
+            while (from < to) {
+                int mid = (from + to) >>> 1;
+                if (comparator.compare(source[mid], key) < 0) {
+                    from = mid + 1;
+                } else {
+                    to = mid;
+                }
+            }
+            return from;
+        }
+
+        private int upperBound(int from, int to, T key) {
+            while (from < to) {
+                int mid = (from + to) >>> 1;
+                if (comparator.compare(source[mid], key) <= 0) {
+                    from = mid + 1;
+                } else {
+                    to = mid;
+                }
+            }
+            return from;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.concurrent.pool;
+
+/**
+ * ObjectPool 中对象的生命周期：创建、借出前校验、归还时重置、销毁
+ *
+ * 除 create 外都有默认实现，池化缓冲区这类不会失效的对象只需要实现 create（和 reset）。
+ * validate / reset 在借出和归还的路径上调用，应当很快；
+ * 需要网络往返的校验（如数据库连接的 SELECT 1）不适合放在这里。
+ */
+public interface ObjectFactory<T> {
+
+    /**
+     * 创建一个新对象，由借出对象的线程调用（不在任何锁内）
+     */
+    T create() throws Exception;
+
+    /**
+     * 从池中借出前校验对象是否仍然可用（如连接是否已被服务端关闭）
+     *
+     * 返回 false 或抛出异常：对象被销毁，借出方继续找下一个对象
+     */
+    default boolean validate(T object) {
+        return true;
+    }
+
+    /**
+     * 归还时把对象恢复到初始状态（清空缓冲区、回滚未提交的事务等）
+     *
+     * 抛出异常：对象被销毁，不放回池中
+     */
+    default void reset(T object) {
+    }
+
+    /**
+     * 释放对象持有的资源，异常被忽略
+     */
+    default void destroy(T object) {
+    }
+}
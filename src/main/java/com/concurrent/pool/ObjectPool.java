@@ -0,0 +1,509 @@
+package com.concurrent.pool;
+
+import com.concurrent.metrics.LatencyHistogram;
+import com.concurrent.metrics.LongCounter;
+
+import java.util.ArrayList;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 高吞吐对象池（HikariCP ConcurrentBag 的思路）
+ *
+ * SemaphoreDemo.demonstrateConnectionPool 只用 Semaphore 数许可，并没有真正交出一个连接。
+ * 常见的 "Semaphore + 队列" 写法每次借还都要经过两个共享的竞争点（许可计数、队头/队尾），
+ * 线程一多，借一个对象的开销主要花在 CAS 失败重试上。本实现：
+ *
+ * 1. 每个对象有一个状态：NOT_IN_USE / IN_USE / REMOVED，借出就是 CAS(NOT_IN_USE -> IN_USE)，
+ *    没有单独的许可计数，也没有共享的队头
+ * 2. 线程本地缓存：归还的对象记在归还线程的本地列表里，这个线程下次借时先在本地列表中 CAS。
+ *    同一个线程反复借还（最常见的用法）始终拿到同一个对象，不碰任何共享状态
+ * 3. 共享列表：所有对象放在 CopyOnWriteArrayList 中，本地没有就遍历它逐个尝试 CAS。
+ *    遍历不加锁；只有创建和销毁对象时才复制数组，而这两者远比借还少
+ * 4. 都借不到且未达到 maxSize：由借出线程自己创建一个新对象
+ * 5. 达到 maxSize：在 SynchronousQueue 上最多等待 timeout，归还方发现有等待者时直接把对象交给它（handoff），
+ *    效果与 Semaphore 的有界等待相同
+ *
+ * 对象的生命周期由 ObjectFactory 决定：借出前 validate（失败的对象被销毁，换下一个），归还时 reset。
+ * 空闲超过 idleTimeout 的对象被销毁（至少保留 minIdle 个）。归还时读一次时钟（System.nanoTime）的开销
+ * 与借还本身相当，所以不记录归还时间，而是定期巡检：巡检第一次看到某个对象空闲时记下时间，
+ * 之后的巡检发现它已空闲超过 idleTimeout 就销毁，中途被借出过则重新计时。巡检每 idleTimeout/4 最多一次，
+ * 由借出的慢路径和每个线程每 64 次归还顺带触发，不需要额外的线程；
+ * 长时间没有借还时不会巡检，可以用定时器定期调用 evictIdle()。
+ *
+ * 注意：对象被借出后可能被其他线程的本地列表引用，所以一个对象只能归还一次，归还后不能再使用。
+ */
+public class ObjectPool<T> implements AutoCloseable {
+    private static final int NOT_IN_USE = 0;
+    private static final int IN_USE = 1;
+    private static final int REMOVED = -1;
+
+    private static final int LOCAL_CACHE_SIZE = 16;
+    private static final int EVICT_CHECK_RELEASES = 64;
+    private static final int SWEEPS_PER_IDLE_TIMEOUT = 4;
+    private static final long NOT_IDLE = Long.MIN_VALUE;
+    private static final long DEFAULT_IDLE_TIMEOUT_MINUTES = 10L;
+    /**
+     * 等待者每隔这么久重新扫描一次共享列表：对象被销毁后空出的名额不会通过 handoff 通知
+     */
+    private static final long MAX_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final ObjectFactory<T> factory;
+    private final int maxSize;
+    private final int minIdle;
+    private final long idleTimeoutNanos;
+
+    private final CopyOnWriteArrayList<PooledObject<T>> shared = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<LocalCache<T>> localCache = ThreadLocal.withInitial(LocalCache::new);
+    private final SynchronousQueue<PooledObject<T>> handoff = new SynchronousQueue<>(true);
+    /**
+     * 已创建（包括正在创建）的对象数，创建前先占名额，保证不超过 maxSize
+     */
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicInteger waiters = new AtomicInteger();
+    private final AtomicLong nextEvictAt;
+    private volatile boolean closed;
+
+    // ==================== 统计 ====================
+    private final LongCounter borrowed = new LongCounter();
+    private final LongCounter localHits = new LongCounter();
+    private final LongCounter timeouts = new LongCounter();
+    private final LongCounter created = new LongCounter();
+    private final LongCounter destroyed = new LongCounter();
+    private final LongCounter invalid = new LongCounter();
+    private final LatencyHistogram waitTime = new LatencyHistogram();
+
+    /**
+     * minIdle 为 0，空闲 10 分钟的对象被销毁
+     */
+    public ObjectPool(ObjectFactory<T> factory, int maxSize) {
+        this(factory, maxSize, 0, DEFAULT_IDLE_TIMEOUT_MINUTES, TimeUnit.MINUTES);
+    }
+
+    /**
+     * @param maxSize     最多同时存在的对象数（包括借出的）
+     * @param minIdle     空闲淘汰时至少保留的对象数
+     * @param idleTimeout 空闲超过这么久的对象被销毁
+     */
+    public ObjectPool(ObjectFactory<T> factory, int maxSize, int minIdle, long idleTimeout, TimeUnit unit) {
+        if (factory == null) {
+            throw new NullPointerException();
+        }
+        if (maxSize <= 0 || minIdle < 0 || minIdle > maxSize || idleTimeout <= 0) {
+            throw new IllegalArgumentException("需要 0 <= minIdle <= maxSize, 0 < maxSize, 0 < idleTimeout: "
+                + minIdle + ", " + maxSize + ", " + idleTimeout);
+        }
+        this.factory = factory;
+        this.maxSize = maxSize;
+        this.minIdle = minIdle;
+        this.idleTimeoutNanos = unit.toNanos(idleTimeout);
+        this.nextEvictAt = new AtomicLong(System.nanoTime() + evictIntervalNanos());
+    }
+
+    /**
+     * 非阻塞借出
+     *
+     * @return 借到的对象；池中没有空闲对象且已达到 maxSize 时返回 null
+     */
+    public PooledObject<T> tryBorrow() {
+        ensureOpen();
+        borrowed.increment();
+        PooledObject<T> entry = claimLocal();
+        if (entry != null) {
+            localHits.increment();
+            return entry;
+        }
+        long start = System.nanoTime();
+        entry = claimSharedOrCreate();
+        return record(entry, start);
+    }
+
+    /**
+     * 最多等待 timeout 借出一个对象
+     *
+     * @return 借到的对象；超时返回 null
+     * @throws IllegalStateException 对象池已关闭，或 ObjectFactory.create 失败
+     */
+    public PooledObject<T> borrow(long timeout, TimeUnit unit) throws InterruptedException {
+        ensureOpen();
+        borrowed.increment();
+        PooledObject<T> entry = claimLocal();
+        if (entry != null) {
+            localHits.increment();
+            return entry;
+        }
+        long start = System.nanoTime();
+        entry = await(start + unit.toNanos(timeout));
+        return record(entry, start);
+    }
+
+    private PooledObject<T> record(PooledObject<T> entry, long start) {
+        if (entry == null) {
+            timeouts.increment();
+        } else {
+            waitTime.record(System.nanoTime() - start);
+        }
+        maybeEvict(start);
+        return entry;
+    }
+
+    /**
+     * 从后往前扫描本地列表（最近归还的在最后），扫过的都移除：失败的已被别的线程借走或已销毁
+     */
+    private PooledObject<T> claimLocal() {
+        ArrayList<PooledObject<T>> cache = localCache.get().entries;
+        for (int i = cache.size() - 1; i >= 0; i--) {
+            PooledObject<T> entry = cache.remove(i);
+            if (entry.claim() && validate(entry)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private PooledObject<T> claimSharedOrCreate() {
+        for (PooledObject<T> entry : shared) {
+            if (entry.claim() && validate(entry)) {
+                return entry;
+            }
+        }
+        return tryCreate();
+    }
+
+    private PooledObject<T> await(long deadline) throws InterruptedException {
+        // 先登记为等待者再扫描：与 release 中 "先改状态再检查 waiters" 配对，
+        // 要么这里扫描时看到了归还的对象，要么归还方看到等待者并把对象交过来
+        waiters.incrementAndGet();
+        try {
+            for (;;) {
+                PooledObject<T> entry = claimSharedOrCreate();
+                if (entry != null) {
+                    return entry;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0L) {
+                    return null;
+                }
+                entry = handoff.poll(Math.min(remaining, MAX_POLL_NANOS), TimeUnit.NANOSECONDS);
+                if (entry != null && entry.claim() && validate(entry)) {
+                    return entry;
+                }
+                ensureOpen();
+            }
+        } finally {
+            waiters.decrementAndGet();
+        }
+    }
+
+    /**
+     * 未达到 maxSize 时创建新对象，新对象直接处于借出状态
+     */
+    private PooledObject<T> tryCreate() {
+        for (;;) {
+            int current = size.get();
+            if (current >= maxSize) {
+                return null;
+            }
+            if (size.compareAndSet(current, current + 1)) {
+                break;
+            }
+        }
+        T object;
+        try {
+            object = factory.create();
+        } catch (Exception e) {
+            size.decrementAndGet();
+            throw new IllegalStateException("创建对象失败", e);
+        }
+        PooledObject<T> entry = new PooledObject<>(this, object);
+        shared.add(entry);
+        created.increment();
+        if (closed) {
+            // 与 close 并发：close 已经扫描过共享列表，不会再看到这个对象
+            entry.state = REMOVED;
+            destroy(entry);
+            throw new IllegalStateException("对象池已关闭");
+        }
+        return entry;
+    }
+
+    private boolean validate(PooledObject<T> entry) {
+        boolean valid;
+        try {
+            valid = factory.validate(entry.object);
+        } catch (RuntimeException e) {
+            valid = false;
+        }
+        if (!valid) {
+            invalid.increment();
+            entry.state = REMOVED;
+            destroy(entry);
+        }
+        return valid;
+    }
+
+    private void release(PooledObject<T> entry) {
+        if (entry.state != IN_USE) {
+            throw new IllegalStateException("对象已经归还");
+        }
+        try {
+            factory.reset(entry.object);
+        } catch (RuntimeException e) {
+            entry.state = REMOVED;
+            destroy(entry);
+            return;
+        }
+        entry.idleSince = NOT_IDLE;
+        entry.state = NOT_IN_USE;
+
+        if (closed) {
+            if (entry.compareAndSetState(NOT_IN_USE, REMOVED)) {
+                destroy(entry);
+            }
+            return;
+        }
+        // 有等待者：直接交给它。对象在这期间被别人借走（状态变了）也算完成了交接
+        for (int i = 0; waiters.get() > 0; i++) {
+            if (entry.state != NOT_IN_USE || handoff.offer(entry)) {
+                return;
+            }
+            if ((i & 0xff) == 0xff) {
+                LockSupport.parkNanos(10_000L);
+            } else {
+                Thread.yield();
+            }
+        }
+        LocalCache<T> cache = localCache.get();
+        if (cache.entries.size() < LOCAL_CACHE_SIZE) {
+            cache.entries.add(entry);
+        }
+        if ((++cache.releases & (EVICT_CHECK_RELEASES - 1)) == 0) {
+            maybeEvict(System.nanoTime());
+        }
+    }
+
+    private void invalidate(PooledObject<T> entry) {
+        if (!entry.compareAndSetState(IN_USE, REMOVED)) {
+            throw new IllegalStateException("对象已经归还");
+        }
+        invalid.increment();
+        destroy(entry);
+    }
+
+    private void destroy(PooledObject<T> entry) {
+        shared.remove(entry);
+        size.decrementAndGet();
+        destroyed.increment();
+        try {
+            factory.destroy(entry.object);
+        } catch (RuntimeException e) {
+            // 对象已经从池中移除，销毁失败不影响对象池
+        }
+    }
+
+    private void maybeEvict(long now) {
+        long next = nextEvictAt.get();
+        if (now - next >= 0 && nextEvictAt.compareAndSet(next, now + evictIntervalNanos())) {
+            evictIdle(now);
+        }
+    }
+
+    private long evictIntervalNanos() {
+        return Math.max(MAX_POLL_NANOS, idleTimeoutNanos / SWEEPS_PER_IDLE_TIMEOUT);
+    }
+
+    /**
+     * 巡检一次：记下新出现的空闲对象的时间，销毁空闲超过 idleTimeout 的对象，至少保留 minIdle 个对象
+     *
+     * 借还时会定期自动巡检；长时间没有借还的池可以交给定时器周期执行（周期越短，空闲时间算得越准）
+     *
+     * @return 销毁的对象数
+     */
+    public int evictIdle() {
+        return evictIdle(System.nanoTime());
+    }
+
+    private int evictIdle(long now) {
+        int evicted = 0;
+        for (PooledObject<T> entry : shared) {
+            // 先读 state 再读 idleSince：归还时先重置 idleSince 再写 state
+            if (entry.state != NOT_IN_USE) {
+                continue;
+            }
+            long idleSince = entry.idleSince;
+            if (idleSince == NOT_IDLE) {
+                entry.idleSince = now;
+            } else if (now - idleSince >= idleTimeoutNanos && size.get() > minIdle
+                && entry.compareAndSetState(NOT_IN_USE, REMOVED)) {
+                destroy(entry);
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * 关闭对象池：销毁所有空闲对象，借出的对象在归还时销毁；之后借出抛出 IllegalStateException
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (PooledObject<T> entry : shared) {
+            if (entry.compareAndSetState(NOT_IN_USE, REMOVED)) {
+                destroy(entry);
+            }
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("对象池已关闭");
+        }
+    }
+
+    /**
+     * 当前对象数（空闲 + 借出）
+     */
+    public int size() {
+        return size.get();
+    }
+
+    public int idleCount() {
+        int count = 0;
+        for (PooledObject<T> entry : shared) {
+            if (entry.state == NOT_IN_USE) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public int activeCount() {
+        int count = 0;
+        for (PooledObject<T> entry : shared) {
+            if (entry.state == IN_USE) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public int waitingCount() {
+        return waiters.get();
+    }
+
+    public long borrowCount() {
+        return borrowed.sum();
+    }
+
+    /**
+     * 命中线程本地缓存的借出次数
+     */
+    public long localHitCount() {
+        return localHits.sum();
+    }
+
+    /**
+     * 借出超时（tryBorrow 借不到）的次数
+     */
+    public long timeoutCount() {
+        return timeouts.sum();
+    }
+
+    public long createdCount() {
+        return created.sum();
+    }
+
+    public long destroyedCount() {
+        return destroyed.sum();
+    }
+
+    /**
+     * 校验失败或被 invalidate 的对象数
+     */
+    public long invalidCount() {
+        return invalid.sum();
+    }
+
+    /**
+     * 没有命中线程本地缓存的借出耗时（扫描共享列表、创建对象、等待归还），单位纳秒
+     */
+    public LatencyHistogram.Snapshot waitTime() {
+        return waitTime.snapshot();
+    }
+
+    @Override
+    public String toString() {
+        return "ObjectPool{size=" + size.get() + ", idle=" + idleCount() + ", waiting=" + waiters.get()
+            + ", borrowed=" + borrowed.sum() + ", localHits=" + localHits.sum() + ", timeouts=" + timeouts.sum()
+            + ", created=" + created.sum() + ", destroyed=" + destroyed.sum() + ", invalid=" + invalid.sum() + "}";
+    }
+
+    /**
+     * 线程本地缓存：最近归还的对象（最新的在最后）和归还次数
+     */
+    private static final class LocalCache<T> {
+        final ArrayList<PooledObject<T>> entries = new ArrayList<>(LOCAL_CACHE_SIZE);
+        int releases;
+    }
+
+    /**
+     * 借出的对象，用完调用 close()（或 release()）归还，适合写在 try-with-resources 中
+     */
+    public static final class PooledObject<T> implements AutoCloseable {
+        @SuppressWarnings("unchecked")
+        private static final AtomicIntegerFieldUpdater<PooledObject<?>> STATE =
+            (AtomicIntegerFieldUpdater<PooledObject<?>>) (AtomicIntegerFieldUpdater<?>)
+                AtomicIntegerFieldUpdater.newUpdater(PooledObject.class, "state");
+
+        private final ObjectPool<T> pool;
+        private final T object;
+        private volatile int state = IN_USE;
+        /**
+         * 巡检第一次看到它空闲的时间；归还时在写 state 之前重置为 NOT_IDLE，巡检在读 state 之后读取。
+         * 巡检的写入可能与一次并发的借还交错，结果只是空闲时间多算了这一次借还的耗时
+         */
+        private long idleSince = NOT_IDLE;
+
+        PooledObject(ObjectPool<T> pool, T object) {
+            this.pool = pool;
+            this.object = object;
+        }
+
+        public T get() {
+            return object;
+        }
+
+        /**
+         * 归还到池中，只能调用一次
+         */
+        public void release() {
+            pool.release(this);
+        }
+
+        /**
+         * 对象已经不能用了（如连接在使用中断开）：销毁而不是归还
+         */
+        public void invalidate() {
+            pool.invalidate(this);
+        }
+
+        @Override
+        public void close() {
+            release();
+        }
+
+        boolean claim() {
+            return state == NOT_IN_USE && compareAndSetState(NOT_IN_USE, IN_USE);
+        }
+
+        boolean compareAndSetState(int expect, int update) {
+            return STATE.compareAndSet(this, expect, update);
+        }
+    }
+}
@@ -0,0 +1,387 @@
+package com.concurrent.queue;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 无锁有界多生产者多消费者（MPMC）环形队列
+ *
+ * 算法来自 Dmitry Vyukov 的 bounded MPMC queue：
+ * 1. 数组中每个槽位有一个序号（sequence），初始为槽位下标
+ * 2. 生产者在位置 pos 写入：等到 sequence == pos，CAS 抢到 tail 后写元素，再把 sequence 设为 pos + 1
+ * 3. 消费者在位置 pos 读取：等到 sequence == pos + 1，CAS 抢到 head 后取元素，再把 sequence 设为 pos + capacity
+ * 生产者之间只竞争 tail，消费者之间只竞争 head，生产者和消费者之间通过各自槽位的 sequence 交接。
+ *
+ * 对比 BlockingQueueDemo 中的 LinkedBlockingQueue：
+ * - LinkedBlockingQueue: 每个元素分配一个 Node，put/take 各持有一把锁
+ * - 本队列: 数组和序号在构造时一次性分配，offer/poll 不分配对象，不加锁
+ *
+ * 满/空时的阻塞行为由 WaitStrategy 决定（自旋、yield 或 park）。
+ *
+ * remove(Object)（ThreadPoolExecutor 的 remove / purge / shutdownNow 会用到）把元素所在的槽位 CAS 成墓碑，
+ * 不移动其他元素；消费者取到墓碑时释放槽位并继续取下一个。被删除的元素在被消费者跳过之前仍占着槽位，
+ * 所以 size() 可能暂时偏大。
+ */
+public class MpmcArrayBlockingQueue<E> extends AbstractQueue<E> implements BlockingQueue<E> {
+
+    /**
+     * 被 remove 删除的元素所在槽位的标记
+     */
+    private static final Object TOMBSTONE = new Object();
+
+    private final AtomicReferenceArray<Object> buffer;
+    private final AtomicLongArray sequences;
+    private final int capacity;
+    private final int mask;
+    private final boolean powerOfTwo;
+    private final WaitStrategy waitStrategy;
+    private final Indexes indexes = new Indexes();
+
+    /**
+     * 使用 parking 等待策略
+     */
+    public MpmcArrayBlockingQueue(int capacity) {
+        this(capacity, WaitStrategy.parking());
+    }
+
+    /**
+     * @param capacity     队列容量，至少为 2，保持原样（不会向上取整），便于替换 ArrayBlockingQueue/LinkedBlockingQueue
+     * @param waitStrategy 满/空时的等待策略
+     */
+    public MpmcArrayBlockingQueue(int capacity, WaitStrategy waitStrategy) {
+        if (capacity < 2) {
+            // 容量为 1 时，"已发布" 的序号 pos + 1 与 "已释放" 的序号 pos + capacity 相同，无法区分
+            throw new IllegalArgumentException("容量至少为 2: " + capacity);
+        }
+        if (waitStrategy == null) {
+            throw new NullPointerException();
+        }
+        this.capacity = capacity;
+        this.powerOfTwo = (capacity & (capacity - 1)) == 0;
+        this.mask = capacity - 1;
+        this.buffer = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+        this.waitStrategy = waitStrategy;
+    }
+
+    private int index(long pos) {
+        // 容量是 2 的幂时用位运算代替取模
+        return powerOfTwo ? (int) (pos & mask) : (int) (pos % capacity);
+    }
+
+    // ==================== 非阻塞操作 ====================
+
+    @Override
+    public boolean offer(E e) {
+        if (e == null) {
+            throw new NullPointerException();
+        }
+        long pos = indexes.tail;
+        for (;;) {
+            int idx = index(pos);
+            long diff = sequences.get(idx) - pos;
+            if (diff == 0) {
+                if (indexes.casTail(pos, pos + 1)) {
+                    buffer.lazySet(idx, e);
+                    // 有序写（release）：保证消费者看到新序号时，元素已经写入
+                    sequences.lazySet(idx, pos + 1);
+                    return true;
+                }
+                pos = indexes.tail;
+            } else if (diff < 0) {
+                // 槽位还没被上一圈的消费者释放：队列已满
+                return false;
+            } else {
+                // 其他生产者已经抢先写入这个位置
+                pos = indexes.tail;
+            }
+        }
+    }
+
+    @Override
+    public E poll() {
+        long pos = indexes.head;
+        for (;;) {
+            int idx = index(pos);
+            long diff = sequences.get(idx) - (pos + 1);
+            if (diff == 0) {
+                if (indexes.casHead(pos, pos + 1)) {
+                    // 用 getAndSet 取走元素：与 remove 的 CAS 只有一方能拿到它
+                    Object e = buffer.getAndSet(idx, null);
+                    // 释放槽位给下一圈的生产者
+                    sequences.lazySet(idx, pos + capacity);
+                    if (e != TOMBSTONE) {
+                        @SuppressWarnings("unchecked")
+                        E element = (E) e;
+                        return element;
+                    }
+                }
+                pos = indexes.head;
+            } else if (diff < 0) {
+                // 生产者还没写入这个位置：队列为空
+                return null;
+            } else {
+                pos = indexes.head;
+            }
+        }
+    }
+
+    /**
+     * 并发消费时返回的元素可能在返回前已被其他消费者取走；跳过已被 remove 删除的元素
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public E peek() {
+        restart:
+        for (;;) {
+            long head = indexes.head;
+            for (long pos = head; ; pos++) {
+                int idx = index(pos);
+                if (sequences.get(idx) != pos + 1) {
+                    if (indexes.head != head) {
+                        continue restart;
+                    }
+                    return null;
+                }
+                Object e = buffer.get(idx);
+                if (e == TOMBSTONE) {
+                    continue;
+                }
+                if (e != null && indexes.head == head) {
+                    return (E) e;
+                }
+                continue restart;
+            }
+        }
+    }
+
+    // ==================== 阻塞操作 ====================
+
+    @Override
+    public void put(E e) throws InterruptedException {
+        int attempt = 0;
+        while (!offer(e)) {
+            checkInterrupt();
+            waitStrategy.idle(attempt++);
+        }
+    }
+
+    @Override
+    public boolean offer(E e, long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        int attempt = 0;
+        while (!offer(e)) {
+            checkInterrupt();
+            if (System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+            waitStrategy.idle(attempt++);
+        }
+        return true;
+    }
+
+    @Override
+    public E take() throws InterruptedException {
+        int attempt = 0;
+        E e;
+        while ((e = poll()) == null) {
+            checkInterrupt();
+            waitStrategy.idle(attempt++);
+        }
+        return e;
+    }
+
+    @Override
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        int attempt = 0;
+        E e;
+        while ((e = poll()) == null) {
+            checkInterrupt();
+            if (System.nanoTime() - deadline >= 0) {
+                return null;
+            }
+            waitStrategy.idle(attempt++);
+        }
+        return e;
+    }
+
+    private static void checkInterrupt() throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+    }
+
+    // ==================== 容量与批量操作 ====================
+
+    @Override
+    public int size() {
+        for (;;) {
+            long head = indexes.head;
+            long tail = indexes.tail;
+            if (indexes.head == head) {
+                long size = tail - head;
+                return (int) Math.max(0, Math.min(size, capacity));
+            }
+        }
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return capacity - size();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> c, int maxElements) {
+        if (c == null) {
+            throw new NullPointerException();
+        }
+        if (c == this) {
+            throw new IllegalArgumentException();
+        }
+        int n = 0;
+        E e;
+        while (n < maxElements && (e = poll()) != null) {
+            c.add(e);
+            n++;
+        }
+        return n;
+    }
+
+    /**
+     * 从队头开始找第一个 equals 的已发布元素，把它的槽位 CAS 成墓碑
+     *
+     * 在环形数组中间 "挖掉" 一个元素需要移动其他元素，无法做到无锁，所以只做标记，由消费者跳过。
+     * CAS 的预期值是找到的那个元素：它已经被消费者取走时 CAS 失败，继续往后找。
+     * 删除是 O(n) 的，适合 ThreadPoolExecutor 那样偶尔调用的场景。
+     */
+    @Override
+    public boolean remove(Object o) {
+        if (o == null) {
+            return false;
+        }
+        long tail = indexes.tail;
+        for (long pos = indexes.head; pos < tail; pos++) {
+            int idx = index(pos);
+            if (sequences.get(idx) != pos + 1) {
+                // 还没发布，或者已经被消费
+                continue;
+            }
+            Object e = buffer.get(idx);
+            if (e != null && e != TOMBSTONE && o.equals(e) && buffer.compareAndSet(idx, e, TOMBSTONE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 弱一致的快照迭代器：创建时复制当前可见的元素，不反映之后的修改；remove 删除队列中第一个与之 equals 的元素
+     */
+    @Override
+    public Iterator<E> iterator() {
+        final List<E> snapshot = snapshot();
+        return new Iterator<E>() {
+            private int cursor;
+            private E last;
+
+            @Override
+            public void remove() {
+                if (last == null) {
+                    throw new IllegalStateException();
+                }
+                MpmcArrayBlockingQueue.this.remove(last);
+                last = null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return cursor < snapshot.size();
+            }
+
+            @Override
+            public E next() {
+                if (cursor >= snapshot.size()) {
+                    throw new NoSuchElementException();
+                }
+                last = snapshot.get(cursor++);
+                return last;
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<E> snapshot() {
+        List<E> list = new ArrayList<>();
+        long head = indexes.head;
+        long tail = indexes.tail;
+        for (long pos = head; pos < tail; pos++) {
+            int idx = index(pos);
+            Object e = buffer.get(idx);
+            // 只收集已发布、尚未被消费也没有被删除的元素
+            if (e != null && e != TOMBSTONE && sequences.get(idx) == pos + 1) {
+                list.add((E) e);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * head / tail 两个下标，前后和中间都做了缓存行填充，避免生产者和消费者互相干扰
+     */
+    private static final class Indexes extends IndexesRhsPadding {
+        private static final AtomicLongFieldUpdater<TailIndex> TAIL =
+            AtomicLongFieldUpdater.newUpdater(TailIndex.class, "tail");
+        private static final AtomicLongFieldUpdater<HeadIndex> HEAD =
+            AtomicLongFieldUpdater.newUpdater(HeadIndex.class, "head");
+
+        boolean casTail(long expect, long update) {
+            return TAIL.compareAndSet(this, expect, update);
+        }
+
+        boolean casHead(long expect, long update) {
+            return HEAD.compareAndSet(this, expect, update);
+        }
+    }
+
+    private abstract static class IndexesLhsPadding {
+        long p01, p02, p03, p04, p05, p06, p07;
+    }
+
+    private abstract static class TailIndex extends IndexesLhsPadding {
+        volatile long tail;
+    }
+
+    private abstract static class IndexesMidPadding extends TailIndex {
+        long p11, p12, p13, p14, p15, p16, p17;
+    }
+
+    private abstract static class HeadIndex extends IndexesMidPadding {
+        volatile long head;
+    }
+
+    private abstract static class IndexesRhsPadding extends HeadIndex {
+        long p21, p22, p23, p24, p25, p26, p27;
+    }
+}
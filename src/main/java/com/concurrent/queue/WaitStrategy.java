@@ -0,0 +1,70 @@
+package com.concurrent.queue;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 等待策略：队列满（生产者）或空（消费者）时如何等待
+ *
+ * 调用方在条件满足前反复调用 idle(attempt)，attempt 从 0 开始递增。
+ * 策略本身不需要被唤醒，所以 offer/poll 的快路径上没有任何 "通知等待者" 的开销。
+ *
+ * 三种内置策略：
+ * - spin: 纯自旋，延迟最低，但等待期间占满一个 CPU 核；线程数超过核数时，
+ *         持有槽位的线程被切走会让其他线程空转一整个时间片，此时不要使用
+ * - yielding: 先自旋，再 Thread.yield() 让出 CPU
+ * - parking: 自旋 -> yield -> LockSupport.parkNanos 指数退避，最省 CPU，适合线程池等空闲时间长的场景
+ */
+@FunctionalInterface
+public interface WaitStrategy {
+
+    void idle(int attempt);
+
+    /**
+     * 纯自旋
+     */
+    static WaitStrategy spin() {
+        return attempt -> {
+        };
+    }
+
+    /**
+     * 先自旋 100 次，再 yield
+     */
+    static WaitStrategy yielding() {
+        return yielding(100);
+    }
+
+    static WaitStrategy yielding(int spinTries) {
+        return attempt -> {
+            if (attempt >= spinTries) {
+                Thread.yield();
+            }
+        };
+    }
+
+    /**
+     * 自旋 100 次，yield 100 次，然后 park，park 时间从 1 微秒开始翻倍，最长 1 毫秒
+     */
+    static WaitStrategy parking() {
+        return parking(100, 100, 1_000_000L);
+    }
+
+    /**
+     * @param spinTries    自旋次数
+     * @param yieldTries   yield 次数
+     * @param maxParkNanos 单次 park 的最长时间，也是空闲时的最大唤醒延迟
+     */
+    static WaitStrategy parking(int spinTries, int yieldTries, long maxParkNanos) {
+        return attempt -> {
+            if (attempt < spinTries) {
+                return;
+            }
+            if (attempt < spinTries + yieldTries) {
+                Thread.yield();
+                return;
+            }
+            int shift = Math.min(attempt - spinTries - yieldTries, 20);
+            LockSupport.parkNanos(Math.min(maxParkNanos, 1000L << shift));
+        };
+    }
+}
@@ -0,0 +1,267 @@
+package com.concurrent.timer;
+
+import java.util.function.Consumer;
+
+/**
+ * 分层时间轮（hierarchical timing wheel）
+ *
+ * ScheduledThreadPoolExecutor 用二叉堆（DelayedWorkQueue）保存任务，每次 schedule / cancel 都是 O(log n)，
+ * 几百万个定时任务时堆的调整和内存占用都很可观。时间轮把时间切成格子（bucket），每格是一个双向链表：
+ * - schedule: 根据到期时间算出格子下标，挂到链表上，O(1)
+ * - cancel:   从链表上摘下，O(1)
+ * - advance:  时间前进时只处理经过的格子
+ *
+ * 分层：每层 64 格，第 0 层每格 1 个 tick，第 1 层每格 64 个 tick，以此类推（类似时钟的秒针、分针、时针）。
+ * 到期时间较远的条目放在高层的粗粒度格子里，该格子到期时再 "降级" 放入低层（cascade），
+ * 所以每个条目最多被移动层数次，均摊仍是 O(1)。最高层之外的条目放在一个溢出格中。
+ *
+ * 精度为 1 个 tick：条目在到期后的下一个 tick 内被取出。
+ *
+ * 条目是侵入式的（继承 Entry），链表指针保存在条目自身，调度时不分配任何对象。
+ *
+ * 不是线程安全的：调用方需要在同一把锁内、或在单个线程中使用（例如 BoundedCache 的维护锁）。
+ */
+public final class TimerWheel {
+    private static final int BUCKETS_PER_LEVEL = 64;
+    private static final int BUCKET_BITS = 6;
+    private static final int LEVELS = 5;
+
+    /**
+     * 时间轮中的条目，由使用方继承
+     */
+    public static class Entry {
+        /**
+         * 绝对到期时间（与 System.nanoTime 同一时间轴）
+         */
+        long deadline;
+        Entry prev;
+        Entry next;
+
+        public final long deadline() {
+            return deadline;
+        }
+
+        public final boolean isScheduled() {
+            return prev != null;
+        }
+    }
+
+    /**
+     * 链表头哨兵
+     */
+    private static final class Sentinel extends Entry {
+        Sentinel() {
+            prev = this;
+            next = this;
+        }
+    }
+
+    private final Sentinel[][] wheel;
+    private final int[] shifts;
+    private final long[] spans;
+    private final long origin;
+    /**
+     * 相对 origin 的当前时间
+     */
+    private long time;
+    private int size;
+    private final Sentinel expiring = new Sentinel();
+
+    /**
+     * @param tickNanos 最小时间刻度，向上取整为 2 的幂（例如 1ms 取整为 2^20 ns ≈ 1.05ms）
+     * @param nowNanos  当前时间，通常为 System.nanoTime()
+     */
+    public TimerWheel(long tickNanos, long nowNanos) {
+        if (tickNanos <= 0 || tickNanos > (1L << 30)) {
+            throw new IllegalArgumentException("tickNanos 必须在 1ns 到 2^30ns 之间: " + tickNanos);
+        }
+        int tickShift = 64 - Long.numberOfLeadingZeros(tickNanos - 1);
+        this.shifts = new int[LEVELS + 1];
+        this.spans = new long[LEVELS + 1];
+        this.wheel = new Sentinel[LEVELS + 1][];
+        for (int i = 0; i <= LEVELS; i++) {
+            shifts[i] = tickShift + BUCKET_BITS * i;
+            spans[i] = 1L << shifts[i];
+            // 最后一层是只有一格的溢出层
+            int buckets = i < LEVELS ? BUCKETS_PER_LEVEL : 1;
+            wheel[i] = new Sentinel[buckets];
+            for (int j = 0; j < buckets; j++) {
+                wheel[i][j] = new Sentinel();
+            }
+        }
+        this.origin = nowNanos;
+    }
+
+    /**
+     * 安排 entry 在 deadline 到期；已经在时间轮中时先取消原来的安排
+     */
+    public void schedule(Entry entry, long deadline) {
+        cancel(entry);
+        entry.deadline = deadline;
+        link(bucketFor(deadline), entry);
+        size++;
+    }
+
+    /**
+     * 取消安排，entry 不在时间轮中时什么也不做
+     */
+    public void cancel(Entry entry) {
+        if (entry.prev != null) {
+            entry.prev.next = entry.next;
+            entry.next.prev = entry.prev;
+            entry.prev = null;
+            entry.next = null;
+            size--;
+        }
+    }
+
+    /**
+     * 时间前进到 nowNanos，把所有已到期的条目交给 expired 处理
+     *
+     * expired 中可以再次 schedule 或 cancel 任意条目（包括当前条目）。
+     */
+    public void advance(long nowNanos, Consumer<? super Entry> expired) {
+        long previous = time;
+        long now = nowNanos - origin;
+        if (now - previous <= 0) {
+            return;
+        }
+        time = now;
+        for (int i = 0; i <= LEVELS; i++) {
+            long previousTicks = previous >>> shifts[i];
+            long currentTicks = now >>> shifts[i];
+            if (currentTicks - previousTicks <= 0) {
+                break;
+            }
+            expire(i, previousTicks, currentTicks - previousTicks, expired);
+        }
+    }
+
+    /**
+     * 处理第 level 层经过的格子：到期的交给 expired，未到期的按剩余时间重新放入（降级到低层）
+     */
+    private void expire(int level, long previousTicks, long delta, Consumer<? super Entry> expired) {
+        Sentinel[] buckets = wheel[level];
+        int mask = buckets.length - 1;
+        int steps = (int) Math.min(delta + 1, buckets.length);
+        int start = (int) (previousTicks & mask);
+        for (int j = 0; j < steps; j++) {
+            Sentinel bucket = buckets[(start + j) & mask];
+            if (bucket.next == bucket) {
+                continue;
+            }
+            moveToExpiring(bucket);
+
+            while (expiring.next != expiring) {
+                Entry entry = expiring.next;
+                cancel(entry);
+                if (entry.deadline - origin - time <= 0) {
+                    expired.accept(entry);
+                } else {
+                    schedule(entry, entry.deadline);
+                }
+            }
+        }
+    }
+
+    /**
+     * 整条链表先转移到 expiring 上再逐个处理：回调中 cancel 其他条目时链表仍然完整
+     */
+    private void moveToExpiring(Sentinel bucket) {
+        expiring.next = bucket.next;
+        expiring.prev = bucket.prev;
+        expiring.next.prev = expiring;
+        expiring.prev.next = expiring;
+        bucket.next = bucket;
+        bucket.prev = bucket;
+    }
+
+    private Sentinel bucketFor(long deadline) {
+        long relative = deadline - origin;
+        long duration = relative - time;
+        if (duration < 0) {
+            // 已经过期：放到当前格，下一个 tick 取出
+            relative = time;
+            duration = 0;
+        }
+        for (int i = 0; i < LEVELS; i++) {
+            if (duration < spans[i + 1]) {
+                long ticks = relative >>> shifts[i];
+                return wheel[i][(int) (ticks & (BUCKETS_PER_LEVEL - 1))];
+            }
+        }
+        return wheel[LEVELS][0];
+    }
+
+    private static void link(Sentinel bucket, Entry entry) {
+        entry.prev = bucket.prev;
+        entry.next = bucket;
+        bucket.prev.next = entry;
+        bucket.prev = entry;
+    }
+
+    /**
+     * 距离下一次可能有条目到期还要多久（纳秒），没有条目时返回 Long.MAX_VALUE
+     *
+     * 返回的是 "下一个非空格子开始处理" 的时间，条目实际到期可能更晚；
+     * 调度线程可以放心地睡这么久而不会错过任何到期（见 TimerWheelScheduler）。
+     */
+    public long nextExpirationDelay() {
+        if (size == 0) {
+            return Long.MAX_VALUE;
+        }
+        long delay = Long.MAX_VALUE;
+        for (int i = 0; i <= LEVELS; i++) {
+            Sentinel[] buckets = wheel[i];
+            int mask = buckets.length - 1;
+            long ticks = time >>> shifts[i];
+            long elapsedInTick = time & (spans[i] - 1);
+            for (int j = 0; j < buckets.length; j++) {
+                Sentinel bucket = buckets[(int) ((ticks + j) & mask)];
+                if (bucket.next != bucket) {
+                    // 当前格在进入下一个 tick 时处理；之后第 j 格在进入它自己的 tick 时处理
+                    long levelDelay = j == 0
+                        ? spans[i] - elapsedInTick
+                        : ((long) j << shifts[i]) - elapsedInTick;
+                    delay = Math.min(delay, levelDelay);
+                    break;
+                }
+            }
+        }
+        return delay;
+    }
+
+    /**
+     * 移除所有条目（不论是否到期），逐个交给 action 处理
+     */
+    public void clear(Consumer<? super Entry> action) {
+        for (Sentinel[] buckets : wheel) {
+            for (Sentinel bucket : buckets) {
+                if (bucket.next == bucket) {
+                    continue;
+                }
+                moveToExpiring(bucket);
+
+                while (expiring.next != expiring) {
+                    Entry entry = expiring.next;
+                    cancel(entry);
+                    action.accept(entry);
+                }
+            }
+        }
+    }
+
+    /**
+     * 时间轮中的条目数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * tick 的实际长度（纳秒）
+     */
+    public long tickNanos() {
+        return spans[0];
+    }
+}
@@ -0,0 +1,567 @@
+package com.concurrent.timer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableScheduledFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 基于时间轮的 ScheduledExecutorService
+ *
+ * ScheduledThreadPoolExecutor 的 DelayedWorkQueue 是一个由单把 ReentrantLock 保护的二叉堆：
+ * 每次 schedule / cancel 都要抢这把锁并做 O(log n) 的堆调整。每秒几十万个短超时（大部分在到期前就被取消）时，
+ * 提交线程都堵在这把锁上。
+ *
+ * 本实现：
+ * 1. 提交（schedule / cancel）只把任务压入无锁栈（CAS），不碰时间轮，提交线程之间只竞争栈顶这一个引用
+ * 2. 单个定时线程拥有时间轮（TimerWheel）：每次醒来先把栈中新提交 / 取消的任务转移到时间轮，
+ *    再推进时间轮，执行到期的任务。时间轮由一把只有定时线程和 shutdownNow 使用的锁保护，
+ *    执行任务时不持有它，所以 shutdownNow 能直接收集剩余任务，不必等正在执行的任务结束
+ * 3. 定时线程睡到下一个可能有任务到期的 tick；新任务比它计划的醒来时间更早到期时，提交线程把它唤醒
+ *
+ * 与 ScheduledThreadPoolExecutor 的区别：
+ * - 精度为 1 个 tick：任务在到期后的下一个 tick 内执行（tick 越小越准，定时线程醒得也越频繁）
+ * - 默认在定时线程中执行任务，任务应当很短（如超时回调）；耗时的任务请通过构造函数传入 taskExecutor，
+ *   定时线程只负责到点把任务交给它
+ *   （taskExecutor 由调用方关闭；isTerminated 只表示定时线程已经退出，不等 taskExecutor 中的任务执行完）
+ * - 取消的任务最多在时间轮中多留 MAX_SLEEP_TICKS 个 tick（定时线程不为取消操作专门醒来），
+ *   效果相当于 setRemoveOnCancelPolicy(true)
+ * - shutdown 后已安排的一次性任务仍会执行，周期任务被取消（与 ScheduledThreadPoolExecutor 的默认策略相同）
+ */
+public class TimerWheelScheduler extends AbstractExecutorService implements ScheduledExecutorService {
+    private static final int RUNNING = 0;
+    private static final int SHUTDOWN = 1;
+    private static final int STOP = 2;
+
+    /**
+     * 时间轮中有任务时，定时线程最多睡多少个 tick 就醒来一次，把取消的任务从时间轮中摘除
+     */
+    private static final int MAX_SLEEP_TICKS = 64;
+
+    /**
+     * 最大延迟：与 ScheduledThreadPoolExecutor 相同，超过 Long.MAX_VALUE / 2 的延迟按它处理，避免 nanoTime 相减溢出
+     */
+    private static final long MAX_DELAY_NANOS = Long.MAX_VALUE >> 1;
+
+    private static final AtomicInteger POOL_NUMBER = new AtomicInteger();
+
+    /**
+     * 关闭后压入栈顶的标记：之后的提交看到它就拒绝
+     */
+    private static final Timeout CLOSED = new Timeout(null);
+
+    private final TimerWheel wheel;
+    private final long maxSleepNanos;
+    /**
+     * 执行到期任务的线程池，null 表示在定时线程中直接执行
+     */
+    private final Executor taskExecutor;
+    private final Thread timerThread;
+
+    /**
+     * 新提交的任务和被取消的任务，各是一个无锁栈（Treiber stack），由定时线程整体取走
+     */
+    private final AtomicReference<Timeout> pending = new AtomicReference<>();
+    private final AtomicReference<Timeout> cancelled = new AtomicReference<>();
+
+    /**
+     * 定时线程计划醒来的时间；醒着时等于它本轮开始的时间
+     */
+    private volatile long wakeupAt;
+
+    /**
+     * 保护 wheel 和 ready：定时线程在转移、推进时间轮和取下一个到期任务时持有，shutdownNow 收集剩余任务时持有
+     */
+    private final ReentrantLock wheelLock = new ReentrantLock();
+    /**
+     * 已到期、等待执行的任务
+     */
+    private final ArrayDeque<ScheduledTask<?>> ready = new ArrayDeque<>();
+
+    private final AtomicInteger state = new AtomicInteger(RUNNING);
+    private final CountDownLatch terminated = new CountDownLatch(1);
+
+    /**
+     * 在定时线程中执行任务
+     *
+     * @param tick 时间轮的刻度（精度），向上取整为 2 的幂纳秒
+     */
+    public TimerWheelScheduler(long tick, TimeUnit unit) {
+        this(tick, unit, null);
+    }
+
+    /**
+     * @param taskExecutor 执行到期任务的线程池，null 表示在定时线程中直接执行
+     */
+    public TimerWheelScheduler(long tick, TimeUnit unit, Executor taskExecutor) {
+        this(tick, unit, taskExecutor, null);
+    }
+
+    /**
+     * @param taskExecutor  执行到期任务的线程池，null 表示在定时线程中直接执行
+     * @param threadFactory 创建定时线程（例如创建守护线程），null 表示非守护线程、名为 timer-wheel-N
+     */
+    public TimerWheelScheduler(long tick, TimeUnit unit, Executor taskExecutor, ThreadFactory threadFactory) {
+        long now = System.nanoTime();
+        this.wheel = new TimerWheel(unit.toNanos(tick), now);
+        this.maxSleepNanos = wheel.tickNanos() * MAX_SLEEP_TICKS;
+        this.taskExecutor = taskExecutor;
+        this.wakeupAt = now;
+        if (threadFactory == null) {
+            this.timerThread = Executors.defaultThreadFactory().newThread(this::runTimer);
+            this.timerThread.setName("timer-wheel-" + POOL_NUMBER.incrementAndGet());
+        } else {
+            this.timerThread = threadFactory.newThread(this::runTimer);
+        }
+        this.timerThread.start();
+    }
+
+    // ==================== ScheduledExecutorService ====================
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        if (command == null || unit == null) {
+            throw new NullPointerException();
+        }
+        return submitTask(new ScheduledTask<Void>(command, null, triggerTime(delay, unit), 0L));
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+        if (callable == null || unit == null) {
+            throw new NullPointerException();
+        }
+        return submitTask(new ScheduledTask<>(callable, triggerTime(delay, unit)));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+        if (command == null || unit == null) {
+            throw new NullPointerException();
+        }
+        if (period <= 0) {
+            throw new IllegalArgumentException("period 必须大于 0: " + period);
+        }
+        return submitTask(new ScheduledTask<Void>(command, null, triggerTime(initialDelay, unit),
+            unit.toNanos(period)));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+        if (command == null || unit == null) {
+            throw new NullPointerException();
+        }
+        if (delay <= 0) {
+            throw new IllegalArgumentException("delay 必须大于 0: " + delay);
+        }
+        return submitTask(new ScheduledTask<Void>(command, null, triggerTime(initialDelay, unit),
+            -unit.toNanos(delay)));
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        schedule(command, 0L, TimeUnit.NANOSECONDS);
+    }
+
+    // ==================== 生命周期 ====================
+
+    @Override
+    public void shutdown() {
+        if (advanceState(SHUTDOWN)) {
+            LockSupport.unpark(timerThread);
+        }
+    }
+
+    /**
+     * 在调用线程中收集还没执行的任务后立即返回，不等正在执行的任务结束（等待定时线程退出请用 awaitTermination）。
+     * 在任务中（包括定时线程中执行的任务）调用也能收集到剩余任务
+     */
+    @Override
+    public List<Runnable> shutdownNow() {
+        boolean stopped = advanceState(STOP);
+        List<Runnable> tasks = new ArrayList<>();
+        wheelLock.lock();
+        try {
+            drainUnexecuted(tasks);
+        } finally {
+            wheelLock.unlock();
+        }
+        if (stopped) {
+            timerThread.interrupt();
+            LockSupport.unpark(timerThread);
+        }
+        return tasks;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return state.get() != RUNNING;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return terminated.getCount() == 0;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return terminated.await(timeout, unit);
+    }
+
+    private boolean advanceState(int target) {
+        for (;;) {
+            int current = state.get();
+            if (current >= target) {
+                return false;
+            }
+            if (state.compareAndSet(current, target)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        String status = isTerminated() ? "Terminated" : isShutdown() ? "Shutting down" : "Running";
+        return "TimerWheelScheduler{" + status + ", tickNanos=" + wheel.tickNanos() + "}";
+    }
+
+    // ==================== 提交（任意线程） ====================
+
+    private static long triggerTime(long delay, TimeUnit unit) {
+        long nanos = unit.toNanos(Math.max(delay, 0L));
+        return System.nanoTime() + Math.min(nanos, MAX_DELAY_NANOS);
+    }
+
+    private <V> ScheduledTask<V> submitTask(ScheduledTask<V> task) {
+        if (isShutdown() || !pushPending(task.timeout)) {
+            throw new RejectedExecutionException("TimerWheelScheduler 已关闭");
+        }
+        // 与定时线程 "先写 wakeupAt 再检查 pending" 配对：要么它看到这个任务，要么这里看到新的 wakeupAt 并唤醒它
+        if (task.time - wakeupAt < 0) {
+            LockSupport.unpark(timerThread);
+        }
+        return task;
+    }
+
+    /**
+     * 压入 pending 栈，栈已关闭时返回 false
+     */
+    private boolean pushPending(Timeout timeout) {
+        for (;;) {
+            Timeout head = pending.get();
+            if (head == CLOSED) {
+                return false;
+            }
+            timeout.nextPending = head;
+            if (pending.compareAndSet(head, timeout)) {
+                return true;
+            }
+        }
+    }
+
+    private void pushCancelled(Timeout timeout) {
+        for (;;) {
+            Timeout head = cancelled.get();
+            if (head == CLOSED) {
+                return;
+            }
+            timeout.nextCancelled = head;
+            if (cancelled.compareAndSet(head, timeout)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 周期任务执行完后重新安排；已关闭时取消
+     */
+    private void reschedule(ScheduledTask<?> task) {
+        if (isShutdown() || !pushPending(task.timeout)) {
+            task.cancel(false);
+        } else if (task.time - wakeupAt < 0) {
+            LockSupport.unpark(timerThread);
+        }
+    }
+
+    // ==================== 定时线程 ====================
+
+    private void runTimer() {
+        boolean shutdownHandled = false;
+        try {
+            for (;;) {
+                // 清除中断标志（shutdownNow 或任务中的中断），否则 parkNanos 会立即返回
+                Thread.interrupted();
+                long now = System.nanoTime();
+                int s;
+                boolean finished;
+                wheelLock.lock();
+                try {
+                    s = state.get();
+                    if (s == STOP) {
+                        // 剩余任务由 shutdownNow 收集
+                        return;
+                    }
+                    wakeupAt = now;
+                    transferPending(now);
+                    transferCancelled();
+                    if (s == SHUTDOWN && !shutdownHandled) {
+                        cancelPeriodicTasks();
+                        shutdownHandled = true;
+                    }
+                    wheel.advance(now, this::onExpired);
+                    // SHUTDOWN 后一次性任务全部到期时关闭提交栈；还有并发的提交在途时 CAS 失败，下一轮再处理
+                    finished = s == SHUTDOWN && wheel.size() == 0 && pending.compareAndSet(null, CLOSED);
+                } finally {
+                    wheelLock.unlock();
+                }
+                if (!runReady() || finished) {
+                    return;
+                }
+
+                // 时间轮为空时一直睡，直到有新任务提交
+                long delay;
+                wheelLock.lock();
+                try {
+                    if (state.get() == STOP) {
+                        return;
+                    }
+                    delay = wheel.size() == 0
+                        ? MAX_DELAY_NANOS
+                        : Math.min(wheel.nextExpirationDelay(), maxSleepNanos);
+                } finally {
+                    wheelLock.unlock();
+                }
+                wakeupAt = System.nanoTime() + delay;
+                if (pending.get() == null && state.get() == s) {
+                    LockSupport.parkNanos(this, delay);
+                }
+            }
+        } finally {
+            terminated.countDown();
+        }
+    }
+
+    /**
+     * 把新提交的任务放入时间轮；栈是后进先出的，先反转保证同一时刻到期的任务按提交顺序执行
+     */
+    private void transferPending(long now) {
+        Timeout head = pending.getAndSet(null);
+        Timeout reversed = null;
+        while (head != null) {
+            Timeout next = head.nextPending;
+            head.nextPending = reversed;
+            reversed = head;
+            head = next;
+        }
+        while (reversed != null) {
+            Timeout timeout = reversed;
+            reversed = timeout.nextPending;
+            timeout.nextPending = null;
+            ScheduledTask<?> task = timeout.task;
+            if (task.isDone()) {
+                continue;
+            }
+            if (task.time - now <= 0) {
+                // 已经到期（如 execute 提交的任务）：不进时间轮，立即执行
+                ready.add(task);
+            } else {
+                wheel.schedule(timeout, task.time);
+            }
+        }
+    }
+
+    private void transferCancelled() {
+        Timeout head = cancelled.getAndSet(null);
+        while (head != null) {
+            Timeout next = head.nextCancelled;
+            head.nextCancelled = null;
+            wheel.cancel(head);
+            head = next;
+        }
+    }
+
+    private void onExpired(TimerWheel.Entry entry) {
+        ScheduledTask<?> task = ((Timeout) entry).task;
+        if (!task.isDone()) {
+            ready.add(task);
+        }
+    }
+
+    /**
+     * 逐个执行到期的任务：只在取任务时持有 wheelLock，执行时不持有。
+     * 被 shutdownNow 停止时返回 false，剩下的任务已经由它收集
+     */
+    private boolean runReady() {
+        for (;;) {
+            ScheduledTask<?> task;
+            wheelLock.lock();
+            try {
+                if (state.get() == STOP) {
+                    return false;
+                }
+                task = ready.poll();
+            } finally {
+                wheelLock.unlock();
+            }
+            if (task == null) {
+                return true;
+            }
+            dispatch(task);
+        }
+    }
+
+    private void dispatch(ScheduledTask<?> task) {
+        if (taskExecutor == null) {
+            task.run();
+            return;
+        }
+        try {
+            taskExecutor.execute(task);
+        } catch (RuntimeException e) {
+            // 线程池拒绝：取消任务，调用方在 Future 上能看到
+            task.cancel(false);
+        }
+    }
+
+    /**
+     * SHUTDOWN：取消所有周期任务，一次性任务照常执行
+     */
+    private void cancelPeriodicTasks() {
+        List<Timeout> remaining = new ArrayList<>();
+        wheel.clear(entry -> remaining.add((Timeout) entry));
+        for (Timeout timeout : remaining) {
+            ScheduledTask<?> task = timeout.task;
+            if (task.isPeriodic()) {
+                task.cancel(false);
+            } else if (!task.isDone()) {
+                wheel.schedule(timeout, task.time);
+            }
+        }
+    }
+
+    /**
+     * STOP：关闭提交栈，收集时间轮、到期队列和提交栈中还没执行的任务；调用方持有 wheelLock
+     */
+    private void drainUnexecuted(List<Runnable> tasks) {
+        for (ScheduledTask<?> task; (task = ready.poll()) != null; ) {
+            if (!task.isDone()) {
+                tasks.add(task);
+            }
+        }
+        wheel.clear(entry -> {
+            ScheduledTask<?> task = ((Timeout) entry).task;
+            if (!task.isDone()) {
+                tasks.add(task);
+            }
+        });
+        Timeout head = pending.getAndSet(CLOSED);
+        for (Timeout t = head == CLOSED ? null : head; t != null; t = t.nextPending) {
+            if (!t.task.isDone()) {
+                tasks.add(t.task);
+            }
+        }
+        cancelled.set(CLOSED);
+    }
+
+    // ==================== 任务 ====================
+
+    /**
+     * 时间轮中的节点：ScheduledTask 已经继承了 FutureTask，时间轮的链表指针放在这个单独的对象里
+     */
+    private static final class Timeout extends TimerWheel.Entry {
+        final ScheduledTask<?> task;
+        /**
+         * pending / cancelled 栈中的下一个节点；一个任务可能同时在两个栈中，所以各用一个字段
+         */
+        Timeout nextPending;
+        Timeout nextCancelled;
+
+        Timeout(ScheduledTask<?> task) {
+            this.task = task;
+        }
+    }
+
+    private final class ScheduledTask<V> extends FutureTask<V> implements RunnableScheduledFuture<V> {
+        final Timeout timeout = new Timeout(this);
+        /**
+         * 下次执行的时间（nanoTime）
+         */
+        volatile long time;
+        /**
+         * 正数：固定频率；负数：固定延迟；0：一次性任务（与 ScheduledThreadPoolExecutor 相同的约定）
+         */
+        private final long period;
+
+        ScheduledTask(Runnable runnable, V result, long time, long period) {
+            super(runnable, result);
+            this.time = time;
+            this.period = period;
+        }
+
+        ScheduledTask(Callable<V> callable, long time) {
+            super(callable);
+            this.time = time;
+            this.period = 0L;
+        }
+
+        @Override
+        public boolean isPeriodic() {
+            return period != 0L;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(time - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            if (other == this) {
+                return 0;
+            }
+            long diff = other instanceof ScheduledTask
+                ? time - ((ScheduledTask<?>) other).time
+                : getDelay(TimeUnit.NANOSECONDS) - other.getDelay(TimeUnit.NANOSECONDS);
+            return diff < 0 ? -1 : diff > 0 ? 1 : 0;
+        }
+
+        @Override
+        public void run() {
+            if (!isPeriodic()) {
+                super.run();
+            } else if (super.runAndReset()) {
+                time = period > 0 ? time + period : triggerTime(-period, TimeUnit.NANOSECONDS);
+                reschedule(this);
+            }
+        }
+
+        /**
+         * 取消成功后通知定时线程把它从时间轮中摘除
+         */
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean result = super.cancel(mayInterruptIfRunning);
+            if (result) {
+                pushCancelled(timeout);
+            }
+            return result;
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package com.concurrent.week2;
 
+import com.concurrent.lock.ClhLock;
+import com.concurrent.lock.McsLock;
+
 import java.util.concurrent.locks.AbstractQueuedSynchronizer;
+import java.util.concurrent.locks.Lock;
 
 /**
  * Week 2 - Day 6-7: AQS (AbstractQueuedSynchronizer) 原理
@@ -210,6 +214,71 @@ public class AQSDemo {
         System.out.println("\n========== 演示完成 ==========\n");
     }
 
+    /**
+     * 演示 MCS / CLH 队列锁
+     *
+     * SimpleMutex 的所有线程都在同一个 state 上 CAS；队列锁让每个等待者在各自的节点上等待，
+     * 释放锁时只通知队列中的下一个线程，严格 FIFO
+     */
+    public static void demonstrateQueueLocks() {
+        System.out.println("========== MCS / CLH 队列锁演示 ==========\n");
+
+        int threadCount = 4;
+        int iterations = 100000;
+        SimpleMutex mutex = new SimpleMutex();
+        Lock[] locks = {new McsLock(), new ClhLock()};
+
+        long[] count = {0};
+        long start = System.nanoTime();
+        runConcurrently(threadCount, () -> {
+            for (int j = 0; j < iterations; j++) {
+                mutex.lock();
+                try {
+                    count[0]++;
+                } finally {
+                    mutex.unlock();
+                }
+            }
+        });
+        System.out.printf("%-12s count=%d, 耗时 %d ms%n", "SimpleMutex", count[0],
+            (System.nanoTime() - start) / 1_000_000);
+
+        for (Lock lock : locks) {
+            count[0] = 0;
+            start = System.nanoTime();
+            runConcurrently(threadCount, () -> {
+                for (int j = 0; j < iterations; j++) {
+                    lock.lock();
+                    try {
+                        count[0]++;
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+            });
+            System.out.printf("%-12s count=%d, 耗时 %d ms%n", lock.getClass().getSimpleName(), count[0],
+                (System.nanoTime() - start) / 1_000_000);
+        }
+
+        System.out.println("\n说明：线程数远多于核数时差距才明显，完整对比见 benchmarks 模块的 LockBenchmark");
+        System.out.println("\n========== 演示完成 ==========\n");
+    }
+
+    private static void runConcurrently(int threadCount, Runnable task) {
+        Thread[] threads = new Thread[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            threads[i] = new Thread(task, "Thread-" + i);
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
     /**
      * 演示 AQS 的核心概念
      */
@@ -233,6 +302,7 @@ public class AQSDemo {
         demonstrateAQSConcepts();
         demonstrateMutex();
         demonstrateSemaphore();
+        demonstrateQueueLocks();
     }
 }
 
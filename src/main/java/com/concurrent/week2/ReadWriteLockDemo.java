@@ -1,7 +1,11 @@
 package com.concurrent.week2;
 
+import com.concurrent.lock.StripedReadWriteLock;
+
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.StampedLock;
 
 /**
  * Week 2 - Day 4-5: ReadWriteLock 读写锁
@@ -11,19 +15,30 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
  * 2. 读锁（共享锁）和写锁（排他锁）的区别
  * 3. 读写锁的使用场景
  * 4. 读写锁的性能优势
+ * 5. StampedLock 乐观读：读多写少时读操作完全不加锁
  */
 public class ReadWriteLockDemo {
 
+    /**
+     * 缓存的公共接口，便于在不同的加锁方式之间切换
+     */
+    interface DataCache {
+        String read();
+
+        void write(String newData);
+    }
+
     /**
      * 使用 ReadWriteLock 实现的线程安全缓存
      */
-    static class Cache {
+    static class Cache implements DataCache {
         private String data = "初始数据";
         private final ReadWriteLock lock = new ReentrantReadWriteLock();
 
         /**
          * 读操作：多个线程可以同时读
          */
+        @Override
         public String read() {
             lock.readLock().lock(); // 获取读锁
             try {
@@ -41,6 +56,7 @@ public class ReadWriteLockDemo {
         /**
          * 写操作：只能有一个线程写，且写时不能读
          */
+        @Override
         public void write(String newData) {
             lock.writeLock().lock(); // 获取写锁
             try {
@@ -57,11 +73,68 @@ public class ReadWriteLockDemo {
     }
 
     /**
-     * 对比：使用普通锁 vs 读写锁的性能差异
+     * 使用 StampedLock 乐观读实现的线程安全缓存
+     *
+     * 与 Cache 的区别：读操作不获取读锁，只拿一个版本号（stamp），读完后校验期间是否有写入：
+     * - 校验通过：直接返回，整个读过程没有任何写共享内存的操作
+     * - 校验失败：说明读的过程中有写入，退化为获取读锁重新读
+     * 写很少时绝大多数读都走第一条路径。
+     *
+     * 注意：StampedLock 不可重入，也不支持 Condition。
+     */
+    static class OptimisticCache implements DataCache {
+        private String data = "初始数据";
+        private final StampedLock lock = new StampedLock();
+
+        @Override
+        public String read() {
+            long stamp = lock.tryOptimisticRead(); // 获取版本号，不加锁
+            String snapshot = data;
+            try {
+                Thread.sleep(100); // 模拟基于快照的读取耗时
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+                return null;
+            }
+            if (lock.validate(stamp)) { // 期间没有写入，快照有效
+                System.out.println(Thread.currentThread().getName() + " 乐观读成功: " + snapshot);
+                return snapshot;
+            }
+
+            // 乐观读失败，退化为悲观读锁
+            stamp = lock.readLock();
+            try {
+                System.out.println(Thread.currentThread().getName() + " 乐观读期间数据被修改，改用读锁读取: " + data);
+                return data;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        @Override
+        public void write(String newData) {
+            long stamp = lock.writeLock(); // 写锁会使之前发放的所有乐观读版本号失效
+            try {
+                System.out.println(Thread.currentThread().getName() + " 写入数据: " + newData);
+                Thread.sleep(500); // 模拟写入耗时
+                this.data = newData;
+                System.out.println(Thread.currentThread().getName() + " 写入完成");
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    /**
+     * 对比：使用普通锁 vs 读写锁 vs 分段读写锁 vs 乐观读的性能差异
      */
     static class PerformanceComparison {
         private String data = "数据";
         private final ReadWriteLock readWriteLock = new ReentrantReadWriteLock();
+        private final ReadWriteLock stripedLock = new StripedReadWriteLock();
+        private final StampedLock stampedLock = new StampedLock();
         private final Object normalLock = new Object();
 
         // 使用读写锁
@@ -83,6 +156,49 @@ public class ReadWriteLockDemo {
             }
         }
 
+        // 使用分段读写锁：读锁只修改本线程所在段的计数，读线程之间不争抢同一条缓存行
+        public String readWithStripedLock() {
+            stripedLock.readLock().lock();
+            try {
+                return data;
+            } finally {
+                stripedLock.readLock().unlock();
+            }
+        }
+
+        public void writeWithStripedLock(String newData) {
+            stripedLock.writeLock().lock();
+            try {
+                this.data = newData;
+            } finally {
+                stripedLock.writeLock().unlock();
+            }
+        }
+
+        // 使用 StampedLock 乐观读：校验失败才获取读锁
+        public String readWithOptimisticRead() {
+            long stamp = stampedLock.tryOptimisticRead();
+            String current = data;
+            if (!stampedLock.validate(stamp)) {
+                stamp = stampedLock.readLock();
+                try {
+                    current = data;
+                } finally {
+                    stampedLock.unlockRead(stamp);
+                }
+            }
+            return current;
+        }
+
+        public void writeWithStampedLock(String newData) {
+            long stamp = stampedLock.writeLock();
+            try {
+                this.data = newData;
+            } finally {
+                stampedLock.unlockWrite(stamp);
+            }
+        }
+
         // 使用普通锁
         public synchronized String readWithNormalLock() {
             return data;
@@ -99,8 +215,27 @@ public class ReadWriteLockDemo {
     public static void demonstrateBasicUsage() {
         System.out.println("========== ReadWriteLock 基本用法演示 ==========\n");
 
-        Cache cache = new Cache();
+        runCacheScenario(new Cache());
+
+        System.out.println("\n========== 演示完成 ==========\n");
+    }
+
+    /**
+     * 演示 StampedLock 乐观读：与 demonstrateBasicUsage 相同的读写场景，只是换了缓存实现
+     */
+    public static void demonstrateOptimisticRead() {
+        System.out.println("========== StampedLock 乐观读演示 ==========\n");
+
+        runCacheScenario(new OptimisticCache());
 
+        System.out.println("\n说明：写入期间开始的读会校验失败并退化为读锁，其余的读完全不加锁");
+        System.out.println("\n========== 演示完成 ==========\n");
+    }
+
+    /**
+     * 5 个读线程 + 1 个写线程访问同一个缓存
+     */
+    private static void runCacheScenario(DataCache cache) {
         // 创建多个读线程
         Thread[] readers = new Thread[5];
         for (int i = 0; i < 5; i++) {
@@ -143,14 +278,19 @@ public class ReadWriteLockDemo {
         } catch (InterruptedException e) {
             e.printStackTrace();
         }
-
-        System.out.println("\n========== 演示完成 ==========\n");
     }
 
     /**
      * 演示读写锁的性能优势
      */
     public static void demonstratePerformance() {
+        demonstratePerformance(false);
+    }
+
+    /**
+     * @param benchmarkMode 为 true 时，在演示之后按不同读写比例对比各种加锁方式的吞吐量
+     */
+    public static void demonstratePerformance(boolean benchmarkMode) {
         System.out.println("========== 读写锁性能对比演示 ==========\n");
 
         PerformanceComparison comparison = new PerformanceComparison();
@@ -225,11 +365,148 @@ public class ReadWriteLockDemo {
         long end2 = System.currentTimeMillis();
         System.out.println("synchronized 锁耗时: " + (end2 - start2) + "ms");
 
+        // 测试分段读写锁性能
+        System.out.println("\n--- 使用 StripedReadWriteLock ---");
+        long start3 = System.currentTimeMillis();
+        Thread[] threads3 = new Thread[10];
+        for (int i = 0; i < 10; i++) {
+            if (i % 3 == 0) {
+                threads3[i] = new Thread(() -> {
+                    for (int j = 0; j < 10; j++) {
+                        comparison.writeWithStripedLock("数据-" + j);
+                    }
+                }, "Writer-" + i);
+            } else {
+                threads3[i] = new Thread(() -> {
+                    for (int j = 0; j < 100; j++) {
+                        comparison.readWithStripedLock();
+                    }
+                }, "Reader-" + i);
+            }
+        }
+
+        for (Thread thread : threads3) {
+            thread.start();
+        }
+
+        for (Thread thread : threads3) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+        }
+        long end3 = System.currentTimeMillis();
+        System.out.println("StripedReadWriteLock 耗时: " + (end3 - start3) + "ms");
+        System.out.println("\n说明：操作次数很少，耗时主要是线程创建；读扩展性的差异见 benchmarks 模块的 ReadWriteLockBenchmark");
+
+        if (benchmarkMode) {
+            benchmarkReadWriteRatios(comparison);
+        }
+
         System.out.println("\n========== 演示完成 ==========\n");
     }
 
+    private static final String[] LOCK_TYPES = {
+        "synchronized", "ReentrantReadWriteLock", "StripedReadWriteLock", "StampedLock 乐观读"
+    };
+
+    /**
+     * 基准模式：读写比例 99/1、90/10、50/50 下，各种加锁方式的吞吐量
+     *
+     * 每个组合先预热一轮再计时；线程数取 CPU 核数（至少 4 个）。
+     * 这只是粗略对比，精确测量用 benchmarks 模块的 ReadWriteLockBenchmark。
+     */
+    private static void benchmarkReadWriteRatios(PerformanceComparison comparison) {
+        int threadCount = Math.max(4, Runtime.getRuntime().availableProcessors());
+        int opsPerThread = 200_000;
+        int[] readPercents = {99, 90, 50};
+
+        System.out.println("\n--- 基准模式：" + threadCount + " 个线程，每个线程 " + opsPerThread + " 次操作 ---");
+        System.out.printf("%-24s %12s %12s %12s%n", "加锁方式", "读99/写1", "读90/写10", "读50/写50");
+        for (int type = 0; type < LOCK_TYPES.length; type++) {
+            StringBuilder row = new StringBuilder(String.format("%-24s", LOCK_TYPES[type]));
+            for (int readPercent : readPercents) {
+                runMixedWorkload(comparison, type, readPercent, threadCount, opsPerThread); // 预热
+                long nanos = runMixedWorkload(comparison, type, readPercent, threadCount, opsPerThread);
+                double opsPerMs = (double) threadCount * opsPerThread / (nanos / 1_000_000.0);
+                row.append(String.format(" %9.0f/ms", opsPerMs));
+            }
+            System.out.println(row);
+        }
+    }
+
+    /**
+     * 所有线程按 readPercent 的比例随机读写，返回总耗时（纳秒）
+     */
+    private static long runMixedWorkload(PerformanceComparison comparison, int type, int readPercent,
+                                         int threadCount, int opsPerThread) {
+        Thread[] threads = new Thread[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            threads[i] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int j = 0; j < opsPerThread; j++) {
+                    if (random.nextInt(100) < readPercent) {
+                        read(comparison, type);
+                    } else {
+                        write(comparison, type, "数据");
+                    }
+                }
+            }, "Worker-" + i);
+        }
+
+        long start = System.nanoTime();
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static String read(PerformanceComparison comparison, int type) {
+        switch (type) {
+            case 0:
+                return comparison.readWithNormalLock();
+            case 1:
+                return comparison.readWithReadWriteLock();
+            case 2:
+                return comparison.readWithStripedLock();
+            default:
+                return comparison.readWithOptimisticRead();
+        }
+    }
+
+    private static void write(PerformanceComparison comparison, int type, String newData) {
+        switch (type) {
+            case 0:
+                comparison.writeWithNormalLock(newData);
+                break;
+            case 1:
+                comparison.writeWithReadWriteLock(newData);
+                break;
+            case 2:
+                comparison.writeWithStripedLock(newData);
+                break;
+            default:
+                comparison.writeWithStampedLock(newData);
+                break;
+        }
+    }
+
+    /**
+     * 传入参数 benchmark 时运行基准模式，例如：
+     * java -cp target/classes com.concurrent.week2.ReadWriteLockDemo benchmark
+     */
     public static void main(String[] args) {
+        boolean benchmarkMode = args.length > 0 && "benchmark".equals(args[0]);
         demonstrateBasicUsage();
-        demonstratePerformance();
+        demonstrateOptimisticRead();
+        demonstratePerformance(benchmarkMode);
     }
 }
@@ -1,6 +1,19 @@
 package com.concurrent.week3;
 
+import com.concurrent.limit.AdaptiveConcurrencyLimiter;
+import com.concurrent.limit.RateLimiter;
+import com.concurrent.limit.SlidingWindowRateLimiter;
+import com.concurrent.limit.TokenBucketRateLimiter;
+import com.concurrent.metrics.LatencyHistogram;
+import com.concurrent.pool.ObjectFactory;
+import com.concurrent.pool.ObjectPool;
+import com.concurrent.timer.TimerWheelScheduler;
+
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Week 3 - Day 4-5: Semaphore 信号量
@@ -204,11 +217,324 @@ public class SemaphoreDemo {
         System.out.println("\n========== 演示完成 ==========\n");
     }
 
+    /**
+     * 场景5：自适应并发限制（替代写死许可数的 Semaphore）
+     *
+     * 模拟下游：最多同时处理 8 个请求，每个请求 5ms，多出来的请求在下游排队；超过 40ms 算超时。
+     * 64 个客户端线程持续请求：
+     * - new Semaphore(64)：许可数设大了，请求全部涌入下游排队，延迟是无负载时的好几倍，大量超时
+     * - AdaptiveConcurrencyLimiter：根据延迟把许可数收敛到下游的处理能力附近，多余的请求用 tryAcquire 快速失败
+     */
+    public static void demonstrateAdaptiveLimiter() {
+        System.out.println("========== Semaphore - 自适应并发限制演示 ==========\n");
+
+        Semaphore fixed = new Semaphore(64);
+        runLimiterWorkload("Semaphore(64)", () -> {
+            if (!fixed.tryAcquire()) {
+                return null;
+            }
+            return outcome -> fixed.release();
+        });
+
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 1, 200);
+        runLimiterWorkload("自适应限制", () -> {
+            AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire();
+            if (permit == null) {
+                return null;
+            }
+            return timedOut -> {
+                if (timedOut) {
+                    permit.onDropped();
+                } else {
+                    permit.onSuccess();
+                }
+            };
+        });
+        System.out.println(limiter);
+
+        System.out.println("\n说明：许可数随下游延迟自动收敛，过载时快速失败，而不是让所有请求一起变慢");
+        System.out.println("\n========== 演示完成 ==========\n");
+    }
+
+    private interface Gate {
+        /**
+         * @return 获取失败返回 null，否则返回请求结束时的回调（参数：是否超时）
+         */
+        Completion tryEnter();
+    }
+
+    private interface Completion {
+        void done(boolean timedOut);
+    }
+
+    private static void runLimiterWorkload(String name, Gate gate) {
+        int clients = 64;
+        long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(40);
+        Semaphore backend = new Semaphore(8, true);
+        LatencyHistogram latency = new LatencyHistogram();
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger timedOut = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+
+        Thread[] threads = new Thread[clients];
+        for (int i = 0; i < clients; i++) {
+            threads[i] = new Thread(() -> {
+                while (System.nanoTime() < end) {
+                    Completion completion = gate.tryEnter();
+                    if (completion == null) {
+                        rejected.incrementAndGet();
+                        sleepQuietly(2); // 快速失败后客户端稍后重试
+                        continue;
+                    }
+                    long start = System.nanoTime();
+                    backend.acquireUninterruptibly();
+                    try {
+                        sleepQuietly(5);
+                    } finally {
+                        backend.release();
+                    }
+                    long elapsed = System.nanoTime() - start;
+                    boolean timeout = elapsed > timeoutNanos;
+                    completion.done(timeout);
+                    latency.record(elapsed);
+                    (timeout ? timedOut : succeeded).incrementAndGet();
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+        }
+        LatencyHistogram.Snapshot snapshot = latency.snapshot();
+        System.out.printf("%-14s 成功: %5d, 超时: %5d, 快速失败: %6d, 延迟 p50=%.1fms p99=%.1fms%n",
+            name, succeeded.get(), timedOut.get(), rejected.get(),
+            snapshot.valueAtPercentile(50) / 1e6, snapshot.valueAtPercentile(99) / 1e6);
+    }
+
+    /**
+     * 场景6：真正交出连接的对象池（场景2只数许可，并没有连接）
+     *
+     * 用 FakeConnection 代替数据库连接：创建要 50ms（模拟握手），服务端可能断开空闲连接。
+     * 1. 10 个请求共享最多 3 个连接：连接被复用，暂时借不到的请求在超时时间内等待归还
+     * 2. 服务端断开了 2 个空闲连接：借出前 validate 发现后销毁，换成新连接
+     * 3. 连接全部借出：tryBorrow 立即返回 null，borrow 等到超时返回 null
+     * 4. 空闲超时：多余的连接被销毁，保留 minIdle 个
+     */
+    public static void demonstrateObjectPool() {
+        System.out.println("========== Semaphore - 对象池（连接池）演示 ==========\n");
+
+        AtomicInteger nextId = new AtomicInteger();
+        ObjectPool<FakeConnection> pool = new ObjectPool<>(new ObjectFactory<FakeConnection>() {
+            @Override
+            public FakeConnection create() {
+                sleepQuietly(50);
+                return new FakeConnection(nextId.incrementAndGet());
+            }
+
+            @Override
+            public boolean validate(FakeConnection connection) {
+                return connection.isValid();
+            }
+
+            @Override
+            public void destroy(FakeConnection connection) {
+                connection.close();
+            }
+        }, 3, 1, 200, TimeUnit.MILLISECONDS);
+
+        System.out.println("--- 1. 10 个请求共享最多 3 个连接 ---");
+        Thread[] threads = new Thread[10];
+        for (int i = 0; i < threads.length; i++) {
+            final int requestId = i;
+            threads[i] = new Thread(() -> {
+                try (ObjectPool.PooledObject<FakeConnection> pooled = pool.borrow(1, TimeUnit.SECONDS)) {
+                    if (pooled == null) {
+                        System.out.println("Request-" + requestId + " 等待连接超时");
+                        return;
+                    }
+                    System.out.println("Request-" + requestId + " 获取到 " + pooled.get() + "，执行查询");
+                    pooled.get().query();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "Request-" + i);
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+        }
+        System.out.println("10 个请求只创建了 " + pool.createdCount() + " 个连接，借出等待: " + pool.waitTime());
+
+        System.out.println("\n--- 2. 服务端断开了 2 个空闲连接 ---");
+        List<ObjectPool.PooledObject<FakeConnection>> held = borrowAll(pool, 3);
+        held.get(0).get().disconnect();
+        held.get(1).get().disconnect();
+        held.forEach(ObjectPool.PooledObject::release);
+        held = borrowAll(pool, 3);
+        System.out.print("重新借出:");
+        held.forEach(pooled -> System.out.print(" " + pooled.get()));
+        System.out.println("\n校验失败并销毁: " + pool.invalidCount() + "，累计创建: " + pool.createdCount());
+
+        System.out.println("\n--- 3. 连接全部借出 ---");
+        System.out.println("tryBorrow(): " + pool.tryBorrow());
+        long start = System.nanoTime();
+        try {
+            System.out.printf("borrow(100ms): %s，等待了 %dms%n", pool.borrow(100, TimeUnit.MILLISECONDS),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        held.forEach(ObjectPool.PooledObject::release);
+
+        System.out.println("\n--- 4. 空闲超过 200ms 的连接被销毁（保留 minIdle = 1 个） ---");
+        // 没有借还时不会自动巡检，交给定时器每 50ms 巡检一次
+        TimerWheelScheduler timer = new TimerWheelScheduler(1, TimeUnit.MILLISECONDS);
+        timer.scheduleAtFixedRate(pool::evictIdle, 50, 50, TimeUnit.MILLISECONDS);
+        for (int i = 0; i < 4; i++) {
+            sleepQuietly(100);
+            System.out.println((i + 1) * 100 + "ms: 连接数 " + pool.size());
+        }
+        timer.shutdownNow();
+
+        pool.close();
+        System.out.println(pool);
+        System.out.println("\n说明：同一个线程反复借还时直接命中线程本地缓存，不经过任何共享的计数或队列");
+        System.out.println("\n========== 演示完成 ==========\n");
+    }
+
+    private static List<ObjectPool.PooledObject<FakeConnection>> borrowAll(ObjectPool<FakeConnection> pool,
+                                                                         int count) {
+        List<ObjectPool.PooledObject<FakeConnection>> held = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            held.add(pool.tryBorrow());
+        }
+        return held;
+    }
+
+    /**
+     * 模拟数据库连接
+     */
+    private static final class FakeConnection {
+        private final int id;
+        private volatile boolean connected = true;
+        private volatile boolean closed;
+
+        FakeConnection(int id) {
+            this.id = id;
+        }
+
+        void query() {
+            sleepQuietly(100);
+        }
+
+        /**
+         * 模拟服务端断开连接（如 MySQL 的 wait_timeout）
+         */
+        void disconnect() {
+            connected = false;
+        }
+
+        boolean isValid() {
+            return connected && !closed;
+        }
+
+        void close() {
+            closed = true;
+        }
+
+        @Override
+        public String toString() {
+            return "Connection-" + id;
+        }
+    }
+
+    /**
+     * 场景7：限流（限制速率，而不是同时进行中的数量）
+     *
+     * 1. 令牌桶：每秒 10 个、容量 5，空闲时攒下的令牌允许突发 5 个，之后按速率放行
+     * 2. 预约：令牌不够时 reserve 透支未来的令牌，返回需要等待的时间
+     * 3. 4 个线程不停地请求 2 秒：令牌桶与滑动窗口都限制在每秒 100 个左右
+     */
+    public static void demonstrateRateLimiter() {
+        System.out.println("========== Semaphore - 限流演示 ==========\n");
+
+        System.out.println("--- 1. 令牌桶：10/s，容量 5 ---");
+        TokenBucketRateLimiter bucket = new TokenBucketRateLimiter(10, 5);
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < 10; i++) {
+            result.append(bucket.tryAcquire() ? 'Y' : '.');
+        }
+        System.out.println("连续 10 次 tryAcquire: " + result + "（突发 5 个后被拒绝）");
+        sleepQuietly(300);
+        System.out.println("300ms 后可用令牌: " + bucket.availablePermits());
+
+        System.out.println("\n--- 2. 预约未来的令牌 ---");
+        for (int i = 0; i < 6; i++) {
+            long wait = bucket.reserve(1);
+            System.out.printf("reserve(1): 需要等待 %dms%n", TimeUnit.NANOSECONDS.toMillis(wait));
+        }
+
+        System.out.println("\n--- 3. 4 个线程不停请求 2 秒，限制 100/s ---");
+        runRateWorkload("令牌桶", new TokenBucketRateLimiter(100, 10));
+        runRateWorkload("滑动窗口", new SlidingWindowRateLimiter(100, 1, TimeUnit.SECONDS));
+
+        System.out.println("\n说明：令牌桶的状态只有一个 AtomicLong 时间戳，不需要后台线程补充令牌；"
+            + "滑动窗口用分段计数器计数，适合极高并发");
+        System.out.println("\n========== 演示完成 ==========\n");
+    }
+
+    private static void runRateWorkload(String name, RateLimiter limiter) {
+        AtomicInteger allowed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                while (System.nanoTime() < end) {
+                    if (limiter.tryAcquire()) {
+                        allowed.incrementAndGet();
+                    } else {
+                        rejected.incrementAndGet();
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+        }
+        System.out.printf("%-6s 放行: %d, 拒绝: %d%n", name, allowed.get(), rejected.get());
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     public static void main(String[] args) {
         demonstrateResourceLimiting();
         demonstrateConnectionPool();
         demonstrateTryAcquire();
         demonstrateFairVsUnfair();
+        demonstrateAdaptiveLimiter();
+        demonstrateObjectPool();
+        demonstrateRateLimiter();
     }
 }
 
@@ -1,8 +1,31 @@
 package com.concurrent.week4;
 
+import com.concurrent.async.BatchingDispatcher;
+import com.concurrent.async.BoundedFanOut;
+import com.concurrent.async.CompletableFutures;
+import com.concurrent.async.Deadline;
+import com.concurrent.async.DeadlineFuture;
+import com.concurrent.async.HedgedCaller;
+import com.concurrent.metrics.LatencyHistogram;
+import com.concurrent.timer.TimerWheelScheduler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
 import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
 
 /**
  * Week 4 - Day 3-7: CompletableFuture 异步编程
@@ -290,6 +313,339 @@ public class CompletableFutureDemo {
         System.out.println("\n========== 演示完成 ==========\n");
     }
 
+    /**
+     * 场景8：有界扇出 / 扇入（BoundedFanOut）
+     *
+     * 2000 个调用打到一个模拟的下游：通常 2~10ms，2% 抛异常，1% 卡住 2 秒。
+     * 在途调用最多 32 个（专用线程池 32 个线程，不用 commonPool），每个调用 100ms 超时，
+     * 全部结束后拿到成功的部分结果和失败的明细。
+     */
+    public static void demonstrateBoundedFanOut() {
+        System.out.println("========== CompletableFuture - 有界扇出 / 扇入 ==========\n");
+
+        int maxInFlight = 32;
+        ExecutorService executor = Executors.newFixedThreadPool(maxInFlight);
+        TimerWheelScheduler timer = new TimerWheelScheduler(1, TimeUnit.MILLISECONDS);
+        BoundedFanOut fanOut = new BoundedFanOut(executor, timer, maxInFlight, 100, TimeUnit.MILLISECONDS);
+
+        List<Integer> userIds = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            userIds.add(i);
+        }
+
+        try {
+            long start = System.nanoTime();
+            BoundedFanOut.Results<Integer, String> results = fanOut.invokeAll(userIds, id -> {
+                int dice = ThreadLocalRandom.current().nextInt(100);
+                if (dice < 2) {
+                    throw new IllegalStateException("下游返回 500: user-" + id);
+                }
+                Thread.sleep(dice < 3 ? 2000 : ThreadLocalRandom.current().nextInt(2, 11));
+                return "user-" + id;
+            });
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            System.out.println("耗时: " + elapsedMillis + " ms（2000 个调用串行约 12 秒）");
+            System.out.println(results);
+            System.out.println("成功结果（前 5 个）: " + results.values().subList(0, 5));
+            int shown = 0;
+            for (Map.Entry<Integer, Throwable> failure : results.failures().entrySet()) {
+                if (shown++ == 3) {
+                    break;
+                }
+                System.out.println("失败: user-" + failure.getKey() + " -> " + failure.getValue());
+            }
+            System.out.println(fanOut);
+            System.out.println("提交线程被背压阻塞 " + fanOut.blockedCount() + " 次，阻塞时间: " + fanOut.blockedTime());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+            timer.shutdownNow();
+        }
+
+        System.out.println("\n说明:");
+        System.out.println("- 在途调用达到上限时，提交线程阻塞在许可上（背压），排队的调用不会在内存中堆积");
+        System.out.println("- 卡住的调用 100ms 后以 TimeoutException 结束并被中断，许可随即归还");
+        System.out.println("- 调用在专用线程池中执行，下游变慢不会拖慢 commonPool 上的其他任务");
+
+        System.out.println("\n========== 演示完成 ==========\n");
+    }
+
+    /**
+     * 场景9：对冲请求与 firstSuccessful（HedgedCaller、CompletableFutures）
+     *
+     * 1. anyOf 与 firstSuccessful：一个很快失败、一个稍慢成功
+     * 2. 模拟的下游：97% 的请求 1~2ms，3% 碰上慢实例 20~40ms。
+     *    直接调用与按 p95 对冲各发 2000 个请求（每批 50 个并发），对比延迟分布
+     */
+    public static void demonstrateHedgedRequests() {
+        System.out.println("========== CompletableFuture - 对冲请求 ==========\n");
+
+        TimerWheelScheduler timer = new TimerWheelScheduler(100, TimeUnit.MICROSECONDS);
+        try {
+            System.out.println("--- anyOf 与 firstSuccessful ---");
+            CompletableFuture<String> failFast = new CompletableFuture<>();
+            CompletableFuture<String> slowOk = respondLater(timer, "副本 B 的结果", 50);
+            CompletableFuture<String> slowest = respondLater(timer, "副本 C 的结果", 2000);
+            timer.schedule(() -> failFast.completeExceptionally(new IllegalStateException("副本 A 不可用")),
+                10, TimeUnit.MILLISECONDS);
+            try {
+                System.out.println("anyOf: " + CompletableFuture.anyOf(failFast, slowOk, slowest).get());
+            } catch (ExecutionException e) {
+                System.out.println("anyOf 以第一个结束的异常结束: " + e.getCause());
+            }
+            System.out.println("firstSuccessful: " + CompletableFutures.firstSuccessful(failFast, slowOk, slowest).get());
+            System.out.println("落败的副本 C 已被取消: " + slowest.isCancelled());
+
+            System.out.println("\n--- 模拟下游：直接调用 vs 对冲 ---");
+            Supplier<CompletableFuture<String>> backend = () -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long micros = random.nextInt(100) < 3 ? random.nextLong(20_000, 40_000) : random.nextLong(1_000, 2_000);
+                return respondLater(timer, "ok", micros, TimeUnit.MICROSECONDS);
+            };
+            LatencyHistogram direct = runRequests(2000, backend);
+            System.out.println("直接调用: " + direct.snapshot());
+
+            HedgedCaller hedged = new HedgedCaller(timer, 5, TimeUnit.MILLISECONDS);
+            // 先跑一轮让对冲延迟从 initialDelay 收敛到实际的 p95
+            runRequests(500, () -> hedged.call(backend));
+            LatencyHistogram withHedging = runRequests(2000, () -> hedged.call(backend));
+            System.out.println("对冲调用: " + withHedging.snapshot());
+            System.out.println(hedged);
+            System.out.printf("额外请求占比: %.1f%%%n", 100.0 * hedged.hedgeCount() / hedged.callCount());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            e.printStackTrace();
+        } finally {
+            timer.shutdownNow();
+        }
+
+        System.out.println("\n说明:");
+        System.out.println("- 只有超过 p95 的请求才发第二次，额外负载约 5%，p99 从慢实例的延迟降到约 p95 + 一次正常延迟");
+        System.out.println("- 先成功的那次决定结果，其余的被 cancel(true)；对冲次数受预算限制");
+        System.out.println("- firstSuccessful 忽略失败，直到全部失败才失败；anyOf 会返回第一个异常");
+
+        System.out.println("\n========== 演示完成 ==========\n");
+    }
+
+    private static CompletableFuture<String> respondLater(TimerWheelScheduler timer, String value, long millis) {
+        return respondLater(timer, value, millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 模拟的异步下游：delay 后返回 value；future 被取消时撤销还没到期的响应
+     */
+    private static CompletableFuture<String> respondLater(TimerWheelScheduler timer, String value, long delay,
+                                                          TimeUnit unit) {
+        CompletableFuture<String> response = new CompletableFuture<>();
+        ScheduledFuture<?> pending = timer.schedule(() -> response.complete(value), delay, unit);
+        response.whenComplete((result, error) -> pending.cancel(false));
+        return response;
+    }
+
+    /**
+     * 每批 50 个请求并发，记录每个请求从发起到结束的延迟
+     */
+    private static LatencyHistogram runRequests(int count, Supplier<CompletableFuture<String>> request) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int sent = 0; sent < count; sent += 50) {
+            List<CompletableFuture<String>> batch = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                long start = System.nanoTime();
+                batch.add(request.get().whenComplete((result, error) -> histogram.record(System.nanoTime() - start)));
+            }
+            CompletableFuture.allOf(batch.toArray(new CompletableFuture<?>[0])).join();
+        }
+        return histogram;
+    }
+
+    /**
+     * 场景10：截止时间沿调用链传递（DeadlineFuture）
+     *
+     * 1. 三步的调用链，整条链 300ms 截止：第二步调用的服务需要 1 秒，链在 300ms 时失败，
+     *    第二步的调用被取消，第三步不执行
+     * 2. 某一步的 future 永远不结束（demonstrateChaining 的写法会一直挂住）：在截止时间失败
+     * 3. 1 万条带截止时间的调用链共用一个时间轮定时线程，不为每个超时创建线程
+     */
+    public static void demonstrateDeadline() {
+        System.out.println("========== CompletableFuture - 截止时间沿调用链传递 ==========\n");
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            System.out.println("--- 第二步太慢 ---");
+            AtomicBoolean formatted = new AtomicBoolean();
+            CompletableFuture<String> slowCall = new CompletableFuture<>();
+            long start = System.nanoTime();
+            Deadline orderDeadline = Deadline.after(300, TimeUnit.MILLISECONDS);
+            DeadlineFuture<String> chain = DeadlineFuture
+                .supplyAsync(() -> {
+                    sleepQuietly(100);
+                    return "订单 42";
+                }, executor, orderDeadline)
+                .thenCompose(order -> {
+                    System.out.println("步骤2: 查询库存，剩余 " + orderDeadline.remaining(TimeUnit.MILLISECONDS)
+                        + " ms，可以作为下游调用的超时");
+                    executor.execute(() -> {
+                        sleepQuietly(1000);
+                        slowCall.complete(order + " 有货");
+                    });
+                    return slowCall;
+                })
+                .thenApply(stock -> {
+                    formatted.set(true);
+                    return "结果: " + stock;
+                });
+            try {
+                System.out.println(chain.get());
+            } catch (ExecutionException e) {
+                System.out.printf("链在 %d ms 时失败: %s%n",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), e.getCause());
+            }
+            System.out.println("第二步的调用被取消: " + slowCall.isCancelled() + ", 第三步执行过: " + formatted.get());
+
+            System.out.println("\n--- 某一步永远不结束 ---");
+            start = System.nanoTime();
+            String result = DeadlineFuture
+                .of(CompletableFuture.completedFuture("原始数据"), Deadline.after(200, TimeUnit.MILLISECONDS))
+                .thenCompose(data -> new CompletableFuture<String>())
+                .thenApply(data -> data + " -> 处理后")
+                .exceptionally(error -> "兜底值（" + error.getClass().getSimpleName() + "）")
+                .join();
+            System.out.printf("%d ms 后得到: %s%n", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), result);
+
+            System.out.println("\n--- 1 万条带截止时间的调用链 ---");
+            int threadsBefore = Thread.activeCount();
+            List<DeadlineFuture<String>> chains = new ArrayList<>();
+            Deadline deadline = Deadline.after(100, TimeUnit.MILLISECONDS);
+            for (int i = 0; i < 10_000; i++) {
+                chains.add(DeadlineFuture.of(new CompletableFuture<String>(), deadline).thenApply(String::trim));
+            }
+            int timedOut = 0;
+            for (DeadlineFuture<String> pending : chains) {
+                try {
+                    pending.join();
+                } catch (RuntimeException e) {
+                    timedOut++;
+                }
+            }
+            System.out.println("超时的链: " + timedOut + ", 线程数变化: " + (Thread.activeCount() - threadsBefore));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        System.out.println("\n说明:");
+        System.out.println("- 截止时间在入口确定一次，每一步只用剩下的时间，不会像逐步超时那样越加越长");
+        System.out.println("- 到期时当前阶段以 TimeoutException 结束，进行中的异步工作被取消，后续阶段不再执行");
+        System.out.println("- 所有超时都是共享时间轮中的条目，登记和取消都是 O(1)");
+
+        System.out.println("\n========== 演示完成 ==========\n");
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 场景11：微批（BatchingDispatcher）
+     *
+     * 模拟的下游按次计费：每次调用固定 5ms，每个 key 再加 20us。
+     * 8 个线程各发 250 个按用户 id 的查询（id 在 0~999 中随机，有重复），对比：
+     * 1. 每个请求一个 supplyAsync（16 个线程）
+     * 2. 最多 64 个 key 一批、最多攒 2ms，批量调用在 4 个线程上执行
+     */
+    public static void demonstrateBatching() {
+        System.out.println("========== CompletableFuture - 微批 ==========\n");
+
+        int producers = 8;
+        int requestsPerProducer = 250;
+        AtomicInteger backendCalls = new AtomicInteger();
+
+        System.out.println("--- 每个请求一次调用 ---");
+        ExecutorService perRequestPool = Executors.newFixedThreadPool(16);
+        try {
+            long start = System.nanoTime();
+            List<CompletableFuture<String>> futures = issueRequests(producers, requestsPerProducer,
+                id -> CompletableFuture.supplyAsync(() -> {
+                    backendCalls.incrementAndGet();
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(5) + TimeUnit.MICROSECONDS.toNanos(20));
+                    return "user-" + id;
+                }, perRequestPool));
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+            System.out.printf("耗时: %d ms, 下游调用: %d 次%n",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), backendCalls.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            perRequestPool.shutdownNow();
+        }
+
+        System.out.println("\n--- 微批 ---");
+        backendCalls.set(0);
+        ExecutorService batchPool = Executors.newFixedThreadPool(4);
+        BatchingDispatcher<Integer, String> dispatcher = new BatchingDispatcher<>(ids -> {
+            backendCalls.incrementAndGet();
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(5) + ids.size() * TimeUnit.MICROSECONDS.toNanos(20));
+            Map<Integer, String> users = new HashMap<>();
+            for (Integer id : ids) {
+                users.put(id, "user-" + id);
+            }
+            return CompletableFuture.completedFuture(users);
+        }, 64, 2, TimeUnit.MILLISECONDS, batchPool);
+        try {
+            long start = System.nanoTime();
+            List<CompletableFuture<String>> futures = issueRequests(producers, requestsPerProducer, dispatcher::submit);
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+            System.out.printf("耗时: %d ms, 下游调用: %d 次, 第一个结果: %s%n",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), backendCalls.get(), futures.get(0).join());
+            System.out.println(dispatcher);
+            LatencyHistogram.Snapshot sizes = dispatcher.batchSizes();
+            System.out.printf("批次大小: 平均 %.1f, p50 %d, p99 %d, 最大 %d（直方图分桶，数值为近似值）%n",
+                sizes.mean(), sizes.valueAtPercentile(50), sizes.valueAtPercentile(99), sizes.max());
+            System.out.println("攒批等待: " + dispatcher.lingerTime());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            batchPool.shutdownNow();
+        }
+
+        System.out.println("\n说明:");
+        System.out.println("- 调用方仍然每个 key 拿到一个 future，攒批、批量调用和分发结果对调用方透明");
+        System.out.println("- 攒满 64 个 key 立即发出，流量低时最多多等 2ms；同一批中重复的 key 只查一次");
+        System.out.println("- 按批次大小直方图调 maxBatchSize，按攒批等待直方图确认 maxLinger 带来的额外延迟");
+
+        System.out.println("\n========== 演示完成 ==========\n");
+    }
+
+    /**
+     * producers 个线程同时发请求，返回所有请求的 future
+     */
+    private static List<CompletableFuture<String>> issueRequests(
+            int producers, int requestsPerProducer,
+            IntFunction<CompletableFuture<String>> request) throws InterruptedException {
+        List<CompletableFuture<String>> futures = Collections.synchronizedList(new ArrayList<>());
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            threads[p] = new Thread(() -> {
+                for (int i = 0; i < requestsPerProducer; i++) {
+                    futures.add(request.apply(ThreadLocalRandom.current().nextInt(1000)));
+                }
+            });
+            threads[p].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return futures;
+    }
+
     public static void main(String[] args) {
         demonstrateBasicAsync();
         demonstrateChaining();
@@ -298,6 +654,10 @@ public class CompletableFutureDemo {
         demonstrateAllOf();
         demonstrateAnyOf();
         demonstrateExceptionHandling();
+        demonstrateBoundedFanOut();
+        demonstrateHedgedRequests();
+        demonstrateDeadline();
+        demonstrateBatching();
     }
 }
 
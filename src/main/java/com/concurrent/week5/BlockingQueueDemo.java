@@ -1,8 +1,12 @@
 package com.concurrent.week5;
 
+import com.concurrent.queue.MpmcArrayBlockingQueue;
+import com.concurrent.queue.WaitStrategy;
+
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -188,11 +192,95 @@ public class BlockingQueueDemo {
         System.out.println("\n========== 说明完成 ==========\n");
     }
 
+    /**
+     * 场景5：无锁环形队列 MpmcArrayBlockingQueue
+     *
+     * 与场景2相同的 3 生产者 / 2 消费者，只是把 LinkedBlockingQueue 换成无锁环形队列；
+     * 然后把它作为 ThreadPoolExecutor 的工作队列使用。
+     */
+    public static void demonstrateRingBuffer() {
+        System.out.println("========== BlockingQueue - 无锁环形队列演示 ==========\n");
+
+        BlockingQueue<Integer> queue = new MpmcArrayBlockingQueue<>(10, WaitStrategy.parking());
+
+        Thread[] producers = new Thread[3];
+        for (int i = 0; i < 3; i++) {
+            final int producerId = i;
+            producers[i] = new Thread(() -> {
+                try {
+                    for (int j = 0; j < 5; j++) {
+                        int product = producerId * 100 + j;
+                        queue.put(product);
+                        System.out.println("Producer-" + producerId + " 生产: " + product);
+                        Thread.sleep(100);
+                    }
+                } catch (InterruptedException e) {
+                    e.printStackTrace();
+                }
+            }, "Producer-" + i);
+        }
+
+        Thread[] consumers = new Thread[2];
+        for (int i = 0; i < 2; i++) {
+            final int consumerId = i;
+            consumers[i] = new Thread(() -> {
+                try {
+                    while (true) {
+                        Integer product = queue.take();
+                        System.out.println("Consumer-" + consumerId + " 消费: " + product);
+                    }
+                } catch (InterruptedException e) {
+                    // 正常退出
+                }
+            }, "Consumer-" + i);
+        }
+
+        for (Thread producer : producers) {
+            producer.start();
+        }
+        for (Thread consumer : consumers) {
+            consumer.start();
+        }
+
+        try {
+            for (Thread producer : producers) {
+                producer.join();
+            }
+            Thread.sleep(500);
+            for (Thread consumer : consumers) {
+                consumer.interrupt();
+            }
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+
+        // 作为线程池的工作队列
+        System.out.println("\n--- 作为 ThreadPoolExecutor 工作队列 ---");
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            2, 2, 0L, TimeUnit.SECONDS,
+            new MpmcArrayBlockingQueue<>(10)
+        );
+        for (int i = 0; i < 10; i++) {
+            final int taskId = i;
+            executor.execute(() -> System.out.println(Thread.currentThread().getName() + " 执行任务-" + taskId));
+        }
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+        System.out.println("已完成任务数: " + executor.getCompletedTaskCount());
+
+        System.out.println("\n========== 演示完成 ==========\n");
+    }
+
     public static void main(String[] args) {
         demonstrateBasicOperations();
         demonstrateProducerConsumer();
         demonstrateNonBlocking();
         demonstrateQueueTypes();
+        demonstrateRingBuffer();
     }
 }
 
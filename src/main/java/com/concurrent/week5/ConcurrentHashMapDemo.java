@@ -1,7 +1,17 @@
 package com.concurrent.week5;
 
+import com.concurrent.cache.BoundedCache;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Week 5 - Day 1-2: ConcurrentHashMap 并发哈希表
@@ -179,11 +189,181 @@ public class ConcurrentHashMapDemo {
         System.out.println("\n========== 演示完成 ==========\n");
     }
 
+    /**
+     * 场景5：有界缓存（W-TinyLFU 淘汰）
+     *
+     * 场景2 中 computeIfAbsent 做的记忆化没有容量上限；这里对比同样容量下：
+     * - 同步的 LinkedHashMap LRU
+     * - BoundedCache（ConcurrentHashMap + W-TinyLFU）
+     * 访问模式：热点 key 服从 Zipf 分布，其中穿插大量只访问一次的 key（模拟扫描）
+     */
+    public static void demonstrateBoundedCache() {
+        System.out.println("========== ConcurrentHashMap - 有界缓存（W-TinyLFU）演示 ==========\n");
+
+        int capacity = 500;
+        int keySpace = 50_000;
+        int threadCount = 4;
+        int opsPerThread = 200_000;
+        double[] zipf = zipfCdf(keySpace, 0.9);
+
+        Map<Integer, Integer> lru = Collections.synchronizedMap(new LinkedHashMap<Integer, Integer>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Integer> eldest) {
+                return size() > capacity;
+            }
+        });
+        AtomicInteger lruHits = new AtomicInteger();
+        runCacheWorkload(threadCount, opsPerThread, zipf, key -> {
+            if (lru.get(key) != null) {
+                lruHits.incrementAndGet();
+            } else {
+                lru.put(key, key);
+            }
+        });
+        System.out.printf("LRU (LinkedHashMap)   命中率: %.2f%%%n", 100.0 * lruHits.get() / (threadCount * opsPerThread));
+
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(capacity);
+        runCacheWorkload(threadCount, opsPerThread, zipf, key -> cache.get(key, k -> k));
+        System.out.printf("BoundedCache          命中率: %.2f%%%n", cache.hitRate() * 100);
+        cache.cleanUp();
+        System.out.println(cache);
+
+        // 异步加载：10 个线程同时请求同一个 key，加载函数只执行一次
+        System.out.println("\n--- getAsync ---");
+        AtomicInteger loads = new AtomicInteger();
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[10];
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = cache.getAsync(-1, k -> {
+                loads.incrementAndGet();
+                sleepQuietly(100); // 模拟慢速加载（如查询数据库）
+                return 42;
+            });
+        }
+        CompletableFuture.allOf(futures).join();
+        System.out.println("10 次并发 getAsync，加载函数执行次数: " + loads.get() + "，值: " + futures[0].join());
+
+        System.out.println("\n说明：LRU 会被只访问一次的 key 冲掉热点，TinyLFU 只准入比被淘汰者更常访问的 key");
+        System.out.println("\n========== 演示完成 ==========\n");
+    }
+
+    /**
+     * 场景6：带过期时间的缓存
+     *
+     * - expireAfterWrite：写入后固定时间过期（如验证码、会话令牌）
+     * - expireAfterAccess：一段时间没人访问就过期（如登录态），被访问时续期
+     * - 大量条目各自带不同的 TTL：都挂在同一个时间轮上，不需要为每个 key 创建定时任务
+     */
+    public static void demonstrateExpiringCache() {
+        System.out.println("========== ConcurrentHashMap - 缓存过期（时间轮）演示 ==========\n");
+
+        BoundedCache<String, String> ttlCache = new BoundedCache<>(100, 200, 0, TimeUnit.MILLISECONDS);
+        ttlCache.put("code", "123456");
+        System.out.println("写入后立即读取: " + ttlCache.getIfPresent("code"));
+        sleepQuietly(300);
+        System.out.println("300ms 后读取（TTL=200ms）: " + ttlCache.getIfPresent("code"));
+
+        BoundedCache<String, String> ttiCache = new BoundedCache<>(100, 0, 200, TimeUnit.MILLISECONDS);
+        ttiCache.put("session", "user-1");
+        for (int i = 0; i < 3; i++) {
+            sleepQuietly(120);
+            System.out.println("间隔 120ms 访问（TTI=200ms）: " + ttiCache.getIfPresent("session"));
+        }
+        sleepQuietly(300);
+        System.out.println("300ms 未访问后读取: " + ttiCache.getIfPresent("session"));
+
+        // 大量条目，TTL 在 100~500ms 之间随机
+        System.out.println("\n--- 大量条目 ---");
+        int count = 200_000;
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(count);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            cache.put(i, i, 100 + random.nextInt(400), TimeUnit.MILLISECONDS);
+        }
+        cache.cleanUp();
+        System.out.printf("写入 %d 个条目（各自 TTL 不同）耗时: %dms，当前条目数: %d%n",
+            count, (System.nanoTime() - start) / 1_000_000, cache.estimatedSize());
+        sleepQuietly(250);
+        cache.cleanUp();
+        System.out.println("250ms 后条目数: " + cache.estimatedSize());
+        sleepQuietly(300);
+        start = System.nanoTime();
+        cache.cleanUp();
+        System.out.printf("550ms 后条目数: %d，清理耗时: %dms%n",
+            cache.estimatedSize(), (System.nanoTime() - start) / 1_000_000);
+        System.out.println(cache);
+
+        System.out.println("\n说明：读操作总是检查精确的过期时间；过期条目的删除随读写顺带进行，也可以定时调用 cleanUp()");
+        System.out.println("\n========== 演示完成 ==========\n");
+    }
+
+    private interface KeyConsumer {
+        void accept(int key);
+    }
+
+    private static void runCacheWorkload(int threadCount, int opsPerThread, double[] zipf, KeyConsumer access) {
+        Thread[] threads = new Thread[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            threads[i] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int j = 0; j < opsPerThread; j++) {
+                    if (random.nextInt(4) == 0) {
+                        // 只访问一次的 key（热点区间之外的随机 key）
+                        access.accept(zipf.length + random.nextInt(Integer.MAX_VALUE - zipf.length));
+                    } else {
+                        access.accept(nextZipf(zipf, random));
+                    }
+                }
+            }, "Worker-" + i);
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Zipf 分布的累积分布函数：第 k 个 key 的概率与 1 / (k + 1)^s 成正比
+     */
+    private static double[] zipfCdf(int n, double s) {
+        double[] cdf = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += 1.0 / Math.pow(k + 1, s);
+            cdf[k] = sum;
+        }
+        for (int k = 0; k < n; k++) {
+            cdf[k] /= sum;
+        }
+        return cdf;
+    }
+
+    private static int nextZipf(double[] cdf, ThreadLocalRandom random) {
+        int index = Arrays.binarySearch(cdf, random.nextDouble());
+        return index >= 0 ? index : Math.min(-index - 1, cdf.length - 1);
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     public static void main(String[] args) {
         demonstrateConcurrentWrite();
         demonstrateComputeMethods();
         demonstrateThreadSafety();
         demonstrateIteration();
+        demonstrateBoundedCache();
+        demonstrateExpiringCache();
     }
 }
 
@@ -1,6 +1,11 @@
 package com.concurrent.week6;
 
+import com.concurrent.executor.WorkStealingExecutor;
+import com.concurrent.timer.TimerWheelScheduler;
+
+import java.util.Arrays;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Week 6 - Day 4-5: Executors 工具类
@@ -215,6 +220,162 @@ public class ExecutorsDemo {
         System.out.println("\n========== 说明完成 ==========\n");
     }
 
+    /**
+     * 场景7: 时间轮定时器（TimerWheelScheduler）
+     *
+     * 典型用法是大量短超时：每个请求安排一个超时任务，请求正常完成时取消它。
+     * ScheduledThreadPool 的每次 schedule / cancel 都要抢同一把锁并调整堆；
+     * TimerWheelScheduler 的提交只是一次 CAS，由单个定时线程批量放入时间轮。
+     */
+    public static void demonstrateTimerWheelScheduler() {
+        System.out.println("========== Executors - 时间轮定时器 ==========\n");
+
+        TimerWheelScheduler scheduler = new TimerWheelScheduler(1, TimeUnit.MILLISECONDS);
+
+        System.out.println("--- 固定频率执行（100ms，tick≈1ms） ---");
+        long start = System.nanoTime();
+        CountDownLatch ticks = new CountDownLatch(5);
+        ScheduledFuture<?> periodic = scheduler.scheduleAtFixedRate(() -> {
+            System.out.printf("第 %d 次执行，距开始 %dms%n", 5 - ticks.getCount() + 1,
+                (System.nanoTime() - start) / 1_000_000);
+            ticks.countDown();
+        }, 100, 100, TimeUnit.MILLISECONDS);
+        try {
+            ticks.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        periodic.cancel(false);
+
+        System.out.println("\n--- 大量超时任务（90% 在到期前取消） ---");
+        ScheduledThreadPoolExecutor jdk = new ScheduledThreadPoolExecutor(1);
+        jdk.setRemoveOnCancelPolicy(true);
+        runTimeouts("ScheduledThreadPool", jdk);
+        runTimeouts("TimerWheelScheduler", scheduler);
+
+        jdk.shutdown();
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        System.out.println("\n特点：schedule / cancel 都是 O(1) 且无锁，精度为 1 个 tick，适合大量短小的超时任务");
+        System.out.println("\n========== 演示完成 ==========\n");
+    }
+
+    private static void runTimeouts(String name, ScheduledExecutorService scheduler) {
+        int threadCount = 4;
+        int timeoutsPerThread = 100_000;
+        AtomicInteger fired = new AtomicInteger();
+        Thread[] threads = new Thread[threadCount];
+        long start = System.nanoTime();
+        for (int i = 0; i < threadCount; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < timeoutsPerThread; j++) {
+                    ScheduledFuture<?> timeout = scheduler.schedule(
+                        (Runnable) fired::incrementAndGet, 50 + j % 100, TimeUnit.MILLISECONDS);
+                    if (j % 10 != 0) {
+                        timeout.cancel(false);
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        try {
+            Thread.sleep(300);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        System.out.printf("%-20s 安排并取消 %d 个超时耗时: %dms，到期执行: %d%n",
+            name, threadCount * timeoutsPerThread, elapsed / 1_000_000, fired.get());
+    }
+
+    /**
+     * 场景8: 工作窃取线程池（WorkStealingExecutor）
+     *
+     * 任务非常小（一次计数）时，newFixedThreadPool 的瓶颈是所有线程共用的那一个 LinkedBlockingQueue。
+     * 1. 外部线程提交大量小任务：WorkStealingExecutor 按轮询分给各线程的收件箱
+     * 2. 任务中再拆分子任务（分治）：子任务压入当前线程自己的双端队列，空闲线程从别人的队列顶部偷
+     * 核数越多差距越大；单核机器上两者差不多。
+     */
+    public static void demonstrateWorkStealing() {
+        System.out.println("========== Executors - 工作窃取线程池 ==========\n");
+        int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+        System.out.println("--- 1. 4 个线程各提交 250,000 个小任务 ---");
+        ExecutorService fixed = Executors.newFixedThreadPool(threads);
+        WorkStealingExecutor stealing = new WorkStealingExecutor(threads);
+        runTinyTasks("FixedThreadPool", fixed);
+        runTinyTasks("WorkStealingExecutor", stealing);
+
+        System.out.println("\n--- 2. 分治：每个任务拆成两个子任务，共 2^18 个叶子 ---");
+        runFanOut("FixedThreadPool", fixed);
+        long stealsBefore = stealing.stealCount();
+        runFanOut("WorkStealingExecutor", stealing);
+        System.out.println("偷取次数: " + (stealing.stealCount() - stealsBefore)
+            + "，各线程剩余任务: " + Arrays.toString(stealing.queueDepths()));
+        System.out.println(stealing);
+
+        fixed.shutdown();
+        stealing.shutdown();
+        System.out.println("\n特点：每个线程只和偷它任务的线程竞争，小任务的吞吐量随核数增长，而不是卡在一把队列锁上");
+        System.out.println("\n========== 演示完成 ==========\n");
+    }
+
+    private static void runTinyTasks(String name, ExecutorService executor) {
+        int submitters = 4;
+        int tasksPerSubmitter = 250_000;
+        CountDownLatch done = new CountDownLatch(submitters * tasksPerSubmitter);
+        long start = System.nanoTime();
+        Thread[] threads = new Thread[submitters];
+        for (int i = 0; i < submitters; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < tasksPerSubmitter; j++) {
+                    executor.execute(done::countDown);
+                }
+            });
+            threads[i].start();
+        }
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        System.out.printf("%-22s 耗时: %dms%n", name, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static void runFanOut(String name, ExecutorService executor) {
+        int depth = 18;
+        CountDownLatch leaves = new CountDownLatch(1 << depth);
+        long start = System.nanoTime();
+        executor.execute(() -> split(executor, depth, leaves));
+        try {
+            leaves.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        System.out.printf("%-22s 耗时: %dms%n", name, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static void split(ExecutorService executor, int depth, CountDownLatch leaves) {
+        if (depth == 0) {
+            leaves.countDown();
+            return;
+        }
+        executor.execute(() -> split(executor, depth - 1, leaves));
+        split(executor, depth - 1, leaves);
+    }
+
     public static void main(String[] args) {
         demonstrateFixedThreadPool();
         demonstrateCachedThreadPool();
@@ -222,6 +383,8 @@ public class ExecutorsDemo {
         demonstrateScheduledThreadPool();
         demonstrateFuture();
         demonstrateSelectionGuide();
+        demonstrateTimerWheelScheduler();
+        demonstrateWorkStealing();
     }
 }
 
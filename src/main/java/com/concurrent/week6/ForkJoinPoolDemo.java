@@ -1,8 +1,25 @@
 package com.concurrent.week6;
 
+import com.concurrent.parallel.MappedIntArray;
+import com.concurrent.parallel.ParallelArrays;
+import com.concurrent.parallel.ParallelSort;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.RecursiveAction;
 import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+import java.util.stream.IntStream;
 
 /**
  * Week 6 - Day 6-7: ForkJoinPool 分叉合并线程池
@@ -227,11 +244,262 @@ public class ForkJoinPoolDemo {
         System.out.println("\n========== 演示完成 ==========\n");
     }
 
+    /**
+     * 演示基本类型数组的并行计算（ParallelArrays）
+     *
+     * 1. 求和：SumTask（每个结果装箱成 Long，阈值固定 1000）、ParallelArrays.sum、IntStream.parallel()
+     * 2. 前缀扫描：ParallelArrays.prefix 与 Arrays.parallelPrefix
+     * 3. 过滤压缩：ParallelArrays.filter 与 IntStream.parallel().filter().toArray()
+     * 4. 最小 / 最大值、直方图
+     * 每种实现跑 5 次取最快的一次，结果必须一致
+     */
+    public static void demonstrateParallelArrays() {
+        System.out.println("========== ForkJoinPool - 基本类型数组的并行计算 ==========\n");
+
+        int[] array = new int[10_000_000];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = ThreadLocalRandom.current().nextInt(1_000_000);
+        }
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        System.out.println("数组大小: " + array.length + ", 并行度: " + pool.getParallelism());
+
+        System.out.println("\n--- 求和 ---");
+        long expected = Arrays.stream(array).asLongStream().sum();
+        timed("SumTask（阈值 1000，装箱）", expected, () -> pool.invoke(new SumTask(array, 0, array.length)));
+        timed("ParallelArrays.sum", expected, () -> ParallelArrays.sum(array));
+        timed("IntStream.parallel().sum", expected, () -> IntStream.of(array).parallel().asLongStream().sum());
+
+        System.out.println("\n--- 前缀扫描（结果取最后一个元素）---");
+        int[] scanned = array.clone();
+        ParallelArrays.prefix(scanned, Integer::sum);
+        long lastPrefix = scanned[scanned.length - 1];
+        timed("ParallelArrays.prefix", lastPrefix, () -> {
+            int[] copy = array.clone();
+            ParallelArrays.prefix(copy, Integer::sum);
+            return copy[copy.length - 1];
+        });
+        timed("Arrays.parallelPrefix", lastPrefix, () -> {
+            int[] copy = array.clone();
+            Arrays.parallelPrefix(copy, Integer::sum);
+            return copy[copy.length - 1];
+        });
+
+        System.out.println("\n--- 过滤压缩（保留偶数，结果取元素个数）---");
+        long evens = Arrays.stream(array).filter(v -> (v & 1) == 0).count();
+        timed("ParallelArrays.filter", evens, () -> ParallelArrays.filter(array, v -> (v & 1) == 0).length);
+        timed("IntStream.parallel().filter", evens,
+            () -> IntStream.of(array).parallel().filter(v -> (v & 1) == 0).toArray().length);
+
+        System.out.println("\n--- 最小 / 最大值、直方图 ---");
+        System.out.println("min = " + ParallelArrays.min(array) + ", max = " + ParallelArrays.max(array));
+        long[] bins = ParallelArrays.histogram(array, 0, 1_000_000, 10);
+        System.out.println("直方图（10 个区间）: " + Arrays.toString(bins));
+        System.out.println("区间计数之和: " + Arrays.stream(bins).sum());
+
+        System.out.println("\n说明:");
+        System.out.println("- 结果放在任务的 long 字段里，join 时不分配 Long");
+        System.out.println("- 阈值按 长度 / (并行度 × 4) 选择，任务数不随数组长度增长");
+        System.out.println("- 前缀扫描、过滤压缩分两遍：先并行算每块的汇总，再从各块的起点并行写出");
+
+        System.out.println("\n========== 演示完成 ==========\n");
+    }
+
+    private static void timed(String name, long expected, LongSupplier body) {
+        long best = Long.MAX_VALUE;
+        long result = 0L;
+        for (int i = 0; i < 5; i++) {
+            long start = System.nanoTime();
+            result = body.getAsLong();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("%-32s 结果 %d%s, 最快 %.2f ms%n", name, result,
+            result == expected ? "" : "（应为 " + expected + "）", best / 1e6);
+    }
+
+    /**
+     * 演示并行归并排序（ParallelSort）
+     *
+     * 1. int[] / long[]：Arrays.sort、Arrays.parallelSort、ParallelSort.sort
+     * 2. 对象数组 + Comparator：按 key 排序后检查相等 key 的元素是否保持原来的顺序（稳定性）
+     */
+    public static void demonstrateParallelSort() {
+        System.out.println("========== ForkJoinPool - 并行归并排序 ==========\n");
+
+        int n = 10_000_000;
+        int[] ints = ThreadLocalRandom.current().ints(n).toArray();
+        long[] longs = ThreadLocalRandom.current().longs(n).toArray();
+        System.out.println("数组大小: " + n + ", 并行度: " + ForkJoinPool.commonPool().getParallelism());
+
+        System.out.println("\n--- int[] ---");
+        sortTimed("Arrays.sort", () -> {
+            int[] copy = ints.clone();
+            Arrays.sort(copy);
+            return isSorted(copy);
+        });
+        sortTimed("Arrays.parallelSort", () -> {
+            int[] copy = ints.clone();
+            Arrays.parallelSort(copy);
+            return isSorted(copy);
+        });
+        sortTimed("ParallelSort.sort", () -> {
+            int[] copy = ints.clone();
+            ParallelSort.sort(copy);
+            return isSorted(copy);
+        });
+
+        System.out.println("\n--- long[] ---");
+        sortTimed("Arrays.parallelSort", () -> {
+            long[] copy = longs.clone();
+            Arrays.parallelSort(copy);
+            return isSorted(copy);
+        });
+        sortTimed("ParallelSort.sort", () -> {
+            long[] copy = longs.clone();
+            ParallelSort.sort(copy);
+            return isSorted(copy);
+        });
+
+        System.out.println("\n--- 对象数组（按 key 排序，key 只有 1000 种，检查稳定性）---");
+        int[][] records = new int[1_000_000][];
+        for (int i = 0; i < records.length; i++) {
+            // records[i] = {key, 原始下标}
+            records[i] = new int[]{ThreadLocalRandom.current().nextInt(1000), i};
+        }
+        Comparator<int[]> byKey = Comparator.comparingInt(r -> r[0]);
+        sortTimed("Arrays.parallelSort", () -> {
+            int[][] copy = records.clone();
+            Arrays.parallelSort(copy, byKey);
+            return isStable(copy);
+        });
+        sortTimed("ParallelSort.sort", () -> {
+            int[][] copy = records.clone();
+            ParallelSort.sort(copy, byKey);
+            return isStable(copy);
+        });
+
+        System.out.println("\n说明:");
+        System.out.println("- 小于阈值的区间用 Arrays.sort，之上两两并行归并");
+        System.out.println("- 归并也是并行的：取长区间的中点，在短区间二分查找，拆成两个独立的归并");
+        System.out.println("- 只分配一个辅助数组，各层交替把结果放在原数组和辅助数组中");
+        System.out.println("- 对象排序的检查包括稳定性：并行度 > 1 时，JDK 17 的 Arrays.parallelSort 曾在本演示中打乱相等 key 的顺序");
+
+        System.out.println("\n========== 演示完成 ==========\n");
+    }
+
+    private static void sortTimed(String name, BooleanSupplier body) {
+        long best = Long.MAX_VALUE;
+        boolean ok = true;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            ok &= body.getAsBoolean();
+            // 检查有序的时间也算在内，各实现相同
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("%-24s %s, 最快 %.2f ms%n", name, ok ? "检查通过" : "检查失败", best / 1e6);
+    }
+
+    private static boolean isSorted(int[] array) {
+        for (int i = 1; i < array.length; i++) {
+            if (array[i - 1] > array[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSorted(long[] array) {
+        for (int i = 1; i < array.length; i++) {
+            if (array[i - 1] > array[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isStable(int[][] records) {
+        for (int i = 1; i < records.length; i++) {
+            int[] prev = records[i - 1];
+            int[] cur = records[i];
+            if (prev[0] > cur[0] || (prev[0] == cur[0] && prev[1] > cur[1])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 演示对内存映射文件做并行聚合（MappedIntArray）
+     *
+     * 文件中是 DataOutputStream 写出的定长 int。映射后由 fork-join 任务按下标拆分读取，
+     * 数据留在页缓存中不进 Java 堆，文件比堆大也可以处理（超过 2GB 时按 1GB 分块映射）。
+     * 文件是 128MB，用 -Xmx64m 运行即可看到堆比文件小时照样能聚合。
+     * 对比：单线程用 DataInputStream 顺序读一遍
+     */
+    public static void demonstrateMappedFile() {
+        System.out.println("========== ForkJoinPool - 内存映射文件的并行聚合 ==========\n");
+
+        int n = 32 * 1024 * 1024;
+        Path file = null;
+        try {
+            file = Files.createTempFile("fork-join-mapped", ".bin");
+            try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+                for (int i = 0; i < n; i++) {
+                    out.writeInt(ThreadLocalRandom.current().nextInt(1_000_000));
+                }
+            }
+            System.out.println("文件: " + file + ", " + Files.size(file) / (1024 * 1024) + " MB, " + n + " 个 int");
+            long maxHeap = Runtime.getRuntime().maxMemory();
+            System.out.println("最大堆: " + maxHeap / (1024 * 1024) + " MB"
+                + (maxHeap < Files.size(file) ? "（比文件小）" : "（不比文件小，用 -Xmx64m 运行可以验证堆比文件小的情况）"));
+
+            long start = System.nanoTime();
+            long expected = 0L;
+            try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+                for (int i = 0; i < n; i++) {
+                    expected += in.readInt();
+                }
+            }
+            System.out.printf("DataInputStream 顺序读: sum = %d, 耗时 %.2f ms%n", expected, (System.nanoTime() - start) / 1e6);
+
+            MappedIntArray array = MappedIntArray.map(file);
+            for (int round = 1; round <= 3; round++) {
+                start = System.nanoTime();
+                long sum = ParallelArrays.sum(array);
+                System.out.printf("第 %d 次 ParallelArrays.sum(映射): sum = %d%s, 耗时 %.2f ms%n", round, sum,
+                    sum == expected ? "" : "（应为 " + expected + "）", (System.nanoTime() - start) / 1e6);
+            }
+            System.out.println("min = " + ParallelArrays.min(array) + ", max = " + ParallelArrays.max(array));
+            System.out.println("直方图（10 个区间）: " + Arrays.toString(ParallelArrays.histogram(array, 0, 1_000_000, 10)));
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            if (file != null) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+
+        System.out.println("\n说明:");
+        System.out.println("- 一个 MappedByteBuffer 最多 2GB，大文件按 1GB 分块映射，叶子任务的区间跨块时逐块读取");
+        System.out.println("- 第一次读取可能触发缺页（从磁盘读入页缓存），之后的读取直接命中页缓存");
+        System.out.println("- 只用按下标的绝对读取，多个工作线程共享同一组映射");
+
+        System.out.println("\n========== 演示完成 ==========\n");
+    }
+
     public static void main(String[] args) {
         demonstrateRecursiveTask();
         demonstrateRecursiveAction();
         demonstrateWorkStealing();
         demonstrateForkJoinPoolMethods();
+        demonstrateParallelArrays();
+        demonstrateParallelSort();
+        demonstrateMappedFile();
     }
 }
 
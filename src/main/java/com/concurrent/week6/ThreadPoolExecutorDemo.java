@@ -1,5 +1,8 @@
 package com.concurrent.week6;
 
+import com.concurrent.executor.AdaptiveThreadPoolExecutor;
+import com.concurrent.executor.InstrumentedThreadPoolExecutor;
+
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -291,11 +294,137 @@ public class ThreadPoolExecutorDemo {
         System.out.println("\n========== 演示完成 ==========\n");
     }
 
+    /**
+     * 场景5：带延迟直方图的线程池监控
+     *
+     * 场景4 只能轮询瞬时状态；InstrumentedThreadPoolExecutor 记录每个任务的排队时间和执行时间，
+     * 并按拒绝策略统计被拒绝的任务数，snapshot() 在线程池运行中随时可取。
+     */
+    public static void demonstrateInstrumentedPool() {
+        System.out.println("========== ThreadPoolExecutor - 延迟直方图监控 ==========\n");
+
+        InstrumentedThreadPoolExecutor executor = new InstrumentedThreadPoolExecutor(
+            2, 4, 60L, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(20),
+            new CustomThreadFactory("InstrumentedPool"),
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+
+        Runnable task = () -> {
+            try {
+                Thread.sleep(1 + ThreadLocalRandom.current().nextInt(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        // 第一阶段：突发提交，AbortPolicy 拒绝
+        for (int i = 0; i < 300; i++) {
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                // 已计入 AbortPolicy 的拒绝数
+            }
+            if (i % 50 == 0) {
+                sleepQuietly(20);
+            }
+        }
+        System.out.println("运行中快照（不需要停下线程池）:");
+        System.out.println(executor.snapshot());
+        System.out.println("---");
+
+        // 第二阶段：换成 CallerRunsPolicy，提交线程自己执行被拒绝的任务，起到限流作用
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        for (int i = 0; i < 300; i++) {
+            executor.execute(task);
+        }
+
+        executor.shutdown();
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+        System.out.println("最终统计:");
+        System.out.println(executor.snapshot());
+
+        System.out.println("\n说明：排队时间的 p99 比平均值更早暴露线程数或队列配置的问题");
+        System.out.println("\n========== 演示完成 ==========\n");
+    }
+
+    /**
+     * 场景6：自动调整线程数的线程池
+     *
+     * 负载分三个阶段：低（50 个任务/秒）-> 高（400 个任务/秒）-> 低，每个任务阻塞 10ms（模拟 I/O）。
+     * 高峰期按 Little 定律平均需要 400 × 0.01 = 4 个忙碌线程：
+     * - 固定 2 个线程的线程池处理不过来，任务在无界队列中越积越多，排队时间不断增长
+     * - AdaptiveThreadPoolExecutor 按排队时间和吞吐量扩容，低谷期再缩回去
+     */
+    public static void demonstrateAdaptivePool() {
+        System.out.println("========== ThreadPoolExecutor - 自动调整线程数 ==========\n");
+
+        InstrumentedThreadPoolExecutor fixed = new InstrumentedThreadPoolExecutor(
+            2, 2, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+        AdaptiveThreadPoolExecutor adaptive = new AdaptiveThreadPoolExecutor(
+            2, 16, new LinkedBlockingQueue<>(), 5, TimeUnit.MILLISECONDS);
+
+        Runnable task = () -> sleepQuietly(10);
+        int[] rates = {50, 400, 50};
+        long[] durations = {1000, 2000, 2000};
+        for (int phase = 0; phase < rates.length; phase++) {
+            System.out.printf("--- 阶段%d: %d 个任务/秒 ---%n", phase + 1, rates[phase]);
+            long phaseEnd = System.currentTimeMillis() + durations[phase];
+            long nextReport = System.currentTimeMillis() + 500;
+            while (System.currentTimeMillis() < phaseEnd) {
+                // 每 10ms 提交一批
+                for (int i = 0; i < rates[phase] / 100; i++) {
+                    fixed.execute(task);
+                    adaptive.execute(task);
+                }
+                if (rates[phase] < 100 && ThreadLocalRandom.current().nextInt(100 / rates[phase]) == 0) {
+                    fixed.execute(task);
+                    adaptive.execute(task);
+                }
+                sleepQuietly(10);
+                if (System.currentTimeMillis() >= nextReport) {
+                    nextReport += 500;
+                    System.out.printf("固定2线程: 队列=%4d, 累计排队p99=%8.1fms | 自适应: 线程=%2d (core=%2d), 队列=%3d, "
+                            + "累计排队p99=%6.1fms, Little估算=%.1f%n",
+                        fixed.getQueue().size(), fixed.snapshot().queueWait().valueAtPercentile(99) / 1e6,
+                        adaptive.getPoolSize(), adaptive.getCorePoolSize(), adaptive.getQueue().size(),
+                        adaptive.snapshot().queueWait().valueAtPercentile(99) / 1e6, adaptive.littleEstimate());
+                }
+            }
+        }
+
+        fixed.shutdownNow();
+        adaptive.shutdown();
+        try {
+            adaptive.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+        System.out.println("\n" + adaptive);
+
+        System.out.println("\n说明：线程数 ≈ 到达率 × 平均执行时间 / 目标利用率；扩容立即生效，缩容每周期最多 25%，多余的线程空闲 keepAlive 后退出");
+        System.out.println("\n========== 演示完成 ==========\n");
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     public static void main(String[] args) {
         demonstrateCustomThreadPool();
         demonstrateThreadPoolWorkflow();
         demonstrateRejectionPolicy();
         demonstrateMonitoring();
+        demonstrateInstrumentedPool();
+        demonstrateAdaptivePool();
     }
 }
 
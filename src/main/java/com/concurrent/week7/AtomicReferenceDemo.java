@@ -1,5 +1,7 @@
 package com.concurrent.week7;
 
+import com.concurrent.lockfree.EliminationBackoffStack;
+
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
@@ -193,6 +195,52 @@ public class AtomicReferenceDemo {
         System.out.println("\n========== 演示完成 ==========\n");
     }
 
+    /**
+     * 场景5：消除-退避栈
+     *
+     * LockFreeStack 的 CAS 失败后立即重试，所有线程争抢同一个 head；
+     * EliminationBackoffStack 在 CAS 失败后让 push 和 pop 在消除数组中直接交换，不再碰 head。
+     */
+    public static void demonstrateEliminationStack() {
+        System.out.println("========== AtomicReference - 消除-退避栈演示 ==========\n");
+
+        EliminationBackoffStack<Integer> stack = new EliminationBackoffStack<>();
+        int threadCount = 8;
+        int operationsPerThread = 100000;
+
+        Thread[] threads = new Thread[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < operationsPerThread; j++) {
+                    stack.push(j);
+                    stack.pop();
+                }
+            }, "Thread-" + i);
+        }
+
+        long startTime = System.currentTimeMillis();
+        for (Thread thread : threads) {
+            thread.start();
+        }
+
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+        }
+        long endTime = System.currentTimeMillis();
+
+        System.out.println("push/pop 次数: " + threadCount * operationsPerThread);
+        System.out.println("通过消除数组完成的次数: " + stack.eliminationCount());
+        System.out.println("是否为空: " + stack.isEmpty());
+        System.out.println("耗时: " + (endTime - startTime) + "ms");
+        System.out.println("说明：准确的扩展曲线请使用 benchmarks 中的 LockFreeStackBenchmark");
+
+        System.out.println("\n========== 演示完成 ==========\n");
+    }
+
     /**
      * 场景4：版本号更新
      */
@@ -237,6 +285,7 @@ public class AtomicReferenceDemo {
         demonstrateUpdateObject();
         demonstrateLockFreeStack();
         demonstrateVersionControl();
+        demonstrateEliminationStack();
     }
 }
 
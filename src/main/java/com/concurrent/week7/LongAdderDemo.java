@@ -1,5 +1,8 @@
 package com.concurrent.week7;
 
+import com.concurrent.metrics.GroupedCounter;
+import com.concurrent.metrics.MaxCounter;
+
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.LongAdder;
 
@@ -187,11 +190,61 @@ public class LongAdderDemo {
         System.out.println("\n========== 说明完成 ==========\n");
     }
 
+    /**
+     * 场景5：分组计数器 - 一次请求的几个计数在同一个段中更新
+     *
+     * 场景3 中每个请求要更新 requestCount 和 successCount/errorCount 两个 LongAdder，
+     * 它们的 Cell 分属不同对象，位于不同缓存行。GroupedCounter 把同一线程的所有字段放在同一段中。
+     */
+    public static void demonstrateGroupedCounter() {
+        System.out.println("========== LongAdder - 分组计数器演示 ==========\n");
+
+        GroupedCounter stats = new GroupedCounter("请求数", "成功数", "失败数");
+        int request = stats.indexOf("请求数");
+        int success = stats.indexOf("成功数");
+        int error = stats.indexOf("失败数");
+        MaxCounter maxLatency = new MaxCounter();
+
+        Thread[] processors = new Thread[5];
+        for (int i = 0; i < 5; i++) {
+            processors[i] = new Thread(() -> {
+                for (int j = 0; j < 100; j++) {
+                    // 请求数和结果计数在同一个段里一起更新
+                    if (Math.random() > 0.1) {
+                        stats.increment(request, success);
+                    } else {
+                        stats.increment(request, error);
+                    }
+                    maxLatency.update((long) (Math.random() * 100));
+                }
+            });
+        }
+
+        for (Thread processor : processors) {
+            processor.start();
+        }
+
+        for (Thread processor : processors) {
+            try {
+                processor.join();
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+        }
+
+        System.out.println("段数: " + stats.stripes());
+        System.out.println("统计快照: " + stats.snapshot());
+        System.out.println("最大延迟: " + maxLatency.max() + "ms");
+
+        System.out.println("\n========== 演示完成 ==========\n");
+    }
+
     public static void main(String[] args) {
         demonstrateBasicOperations();
         demonstratePerformanceComparison();
         demonstrateStatistics();
         demonstratePrinciple();
+        demonstrateGroupedCounter();
     }
 }
 
@@ -1,5 +1,12 @@
 package com.concurrent.week8;
 
+import com.concurrent.lock.AdaptiveSpinLock;
+import com.concurrent.lockfree.PooledLockFreeQueue;
+import com.concurrent.lockfree.PooledLockFreeStack;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -298,6 +305,167 @@ public class CASDemo {
         System.out.println("\n========== 演示完成 ==========\n");
     }
 
+    /**
+     * 场景7：版本号打包进 long 的 CAS + 节点池
+     *
+     * 场景4 的 AtomicStampedReference 每次 CAS 成功都会创建一个新的 Pair 对象；
+     * PooledLockFreeStack/Queue 把 "版本号 | 节点下标" 打包成一个 long，节点从池中复用，稳定状态下不产生垃圾。
+     */
+    public static void demonstratePooledStampedCAS() {
+        System.out.println("========== CAS - 版本号 long CAS + 节点池演示 ==========\n");
+
+        PooledLockFreeStack<Integer> stack = new PooledLockFreeStack<>();
+        PooledLockFreeQueue<Integer> queue = new PooledLockFreeQueue<>();
+        ConcurrentLinkedQueue<Integer> linkedQueue = new ConcurrentLinkedQueue<>();
+        java.util.concurrent.atomic.AtomicStampedReference<Integer> stampedRef =
+            new java.util.concurrent.atomic.AtomicStampedReference<>(0, 0);
+        int operations = 1000000;
+
+        // 预热：让节点池完成扩容（值使用 Integer 缓存范围内的数字，避免装箱分配干扰统计）
+        for (int i = 0; i < 1000; i++) {
+            stack.push(i & 127);
+            stack.pop();
+            queue.offer(i & 127);
+            queue.poll();
+        }
+
+        long stackBytes = allocatedBytes(() -> {
+            for (int i = 0; i < operations; i++) {
+                stack.push(i & 127);
+                stack.pop();
+            }
+        });
+        long queueBytes = allocatedBytes(() -> {
+            for (int i = 0; i < operations; i++) {
+                queue.offer(i & 127);
+                queue.poll();
+            }
+        });
+        long linkedQueueBytes = allocatedBytes(() -> {
+            for (int i = 0; i < operations; i++) {
+                linkedQueue.offer(i & 127);
+                linkedQueue.poll();
+            }
+        });
+        int[] stampHolder = new int[1];
+        long stampedBytes = allocatedBytes(() -> {
+            for (int i = 0; i < operations; i++) {
+                Integer current = stampedRef.get(stampHolder);
+                stampedRef.compareAndSet(current, i & 127, stampHolder[0], stampHolder[0] + 1);
+            }
+        });
+
+        System.out.println(operations + " 次操作的内存分配:");
+        System.out.println("  PooledLockFreeStack push/pop:     " + format(stackBytes));
+        System.out.println("  PooledLockFreeQueue offer/poll:   " + format(queueBytes));
+        System.out.println("  ConcurrentLinkedQueue offer/poll: " + format(linkedQueueBytes));
+        System.out.println("  AtomicStampedReference CAS:       " + format(stampedBytes));
+        System.out.println("节点池中的节点数: 栈 " + stack.pooledNodes() + ", 队列 " + queue.pooledNodes());
+
+        System.out.println("\n说明：版本号与节点下标共用一个 long，一次 CAS 同时校验二者，既防 ABA 又无需创建 Pair 对象");
+
+        System.out.println("\n========== 演示完成 ==========\n");
+    }
+
+    /**
+     * 统计当前线程执行 task 期间分配的字节数（HotSpot 特有接口，不支持时返回 -1）
+     */
+    private static long allocatedBytes(Runnable task) {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            task.run();
+            return -1;
+        }
+        com.sun.management.ThreadMXBean hotspotBean = (com.sun.management.ThreadMXBean) bean;
+        long threadId = Thread.currentThread().getId();
+        long before = hotspotBean.getThreadAllocatedBytes(threadId);
+        task.run();
+        return hotspotBean.getThreadAllocatedBytes(threadId) - before;
+    }
+
+    private static String format(long bytes) {
+        return bytes < 0 ? "不支持统计" : bytes / 1024 + " KB";
+    }
+
+    /**
+     * 场景8：自适应自旋锁 - 先自旋、后阻塞
+     *
+     * 场景6 的 SimpleSpinLock 在持有者 sleep 期间，其余线程一直空转；
+     * AdaptiveSpinLock 学习到持有时间很长后不再自旋，直接 park；临界区很短时则主要靠自旋获取锁。
+     */
+    public static void demonstrateAdaptiveSpinLock() {
+        System.out.println("========== CAS - 自适应自旋锁演示 ==========\n");
+
+        // 长临界区：与场景6相同，持有锁期间 sleep 100ms
+        AdaptiveSpinLock longLock = new AdaptiveSpinLock();
+        runWithLock(longLock, 5, 2, () -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+        });
+        System.out.println("长临界区: " + longLock);
+
+        // 短临界区：只做一次自增
+        AdaptiveSpinLock shortLock = new AdaptiveSpinLock();
+        int[] counter = {0};
+        runWithLock(shortLock, 4, 100000, () -> counter[0]++);
+        System.out.println("短临界区: " + shortLock);
+        System.out.println("最终 counter: " + counter[0]);
+
+        // tryLock 超时
+        shortLock.lock();
+        Thread t = new Thread(() -> {
+            try {
+                boolean acquired = shortLock.tryLock(50, java.util.concurrent.TimeUnit.MILLISECONDS);
+                System.out.println("其他线程持有锁时 tryLock(50ms): " + acquired);
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+        });
+        t.start();
+        try {
+            t.join();
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        } finally {
+            shortLock.unlock();
+        }
+
+        System.out.println("\n说明：spinHits 为自旋命中次数，parks 为自旋未命中后阻塞的次数");
+
+        System.out.println("\n========== 演示完成 ==========\n");
+    }
+
+    private static void runWithLock(AdaptiveSpinLock lock, int threadCount, int iterations, Runnable criticalSection) {
+        Thread[] threads = new Thread[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < iterations; j++) {
+                    lock.lock();
+                    try {
+                        criticalSection.run();
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+            }, "Thread-" + i);
+        }
+
+        for (Thread thread : threads) {
+            thread.start();
+        }
+
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
     public static void main(String[] args) {
         demonstrateCASBasic();
         demonstrateCASSpin();
@@ -305,6 +473,8 @@ public class CASDemo {
         demonstrateABA解决方案();
         demonstrateCASProsAndCons();
         demonstrateSpinLock();
+        demonstratePooledStampedCAS();
+        demonstrateAdaptiveSpinLock();
     }
 }
 